@@ -18,55 +18,67 @@ package org.apache.dubbo.rpc.cluster.loadbalance;
 
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.support.RpcUtils;
 
-import java.io.UnsupportedEncodingException;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * ConsistentHashLoadBalance
- *
+ * <p>
+ * The ring is kept per service and method as sorted arrays of positions and invokers, searched by binary search.
+ * When the directory hands over a different invoker list, only the virtual nodes of the invokers which joined
+ * or left are added or removed. The {@link HashFunction} is chosen by the "hash.function" parameter.
  */
 public class ConsistentHashLoadBalance extends AbstractLoadBalance {
     public static final String NAME = "consistenthash";
 
-    private final ConcurrentMap<String, ConsistentHashSelector<?>> selectors = new ConcurrentHashMap<String, ConsistentHashSelector<?>>();
+    private final ConcurrentMap<String, ConcurrentMap<String, ConsistentHashSelector<?>>> selectors = new ConcurrentHashMap<String, ConcurrentMap<String, ConsistentHashSelector<?>>>();
 
     @SuppressWarnings("unchecked")
     @Override
     protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        String serviceKey = String.valueOf(invokers.get(0).getUrl().getServiceKey());
+        ConcurrentMap<String, ConsistentHashSelector<?>> methods = selectors.get(serviceKey);
+        if (methods == null) {
+            selectors.putIfAbsent(serviceKey, new ConcurrentHashMap<String, ConsistentHashSelector<?>>());
+            methods = selectors.get(serviceKey);
+        }
         String methodName = RpcUtils.getMethodName(invocation);
-        String key = invokers.get(0).getUrl().getServiceKey() + "." + methodName;
-        int identityHashCode = System.identityHashCode(invokers);
-        ConsistentHashSelector<T> selector = (ConsistentHashSelector<T>) selectors.get(key);
-        if (selector == null || selector.identityHashCode != identityHashCode) {
-            selectors.put(key, new ConsistentHashSelector<T>(invokers, methodName, identityHashCode));
-            selector = (ConsistentHashSelector<T>) selectors.get(key);
+        ConsistentHashSelector<T> selector = (ConsistentHashSelector<T>) methods.get(String.valueOf(methodName));
+        if (selector == null || selector.invokers != invokers) {
+            selector = new ConsistentHashSelector<T>(invokers, methodName, selector);
+            methods.put(String.valueOf(methodName), selector);
         }
         return selector.select(invocation);
     }
 
     private static final class ConsistentHashSelector<T> {
 
-        private final TreeMap<Long, Invoker<T>> virtualInvokers;
+        private final List<Invoker<T>> invokers;
 
         private final int replicaNumber;
 
-        private final int identityHashCode;
-
         private final int[] argumentIndex;
 
-        ConsistentHashSelector(List<Invoker<T>> invokers, String methodName, int identityHashCode) {
-            this.virtualInvokers = new TreeMap<Long, Invoker<T>>();
-            this.identityHashCode = identityHashCode;
+        private final String hashFunctionName;
+
+        private final HashFunction hashFunction;
+
+        // sorted, invokers.get(owners[i]) owns positions[i]
+        private final long[] positions;
+
+        private final int[] owners;
+
+        ConsistentHashSelector(List<Invoker<T>> invokers, String methodName, ConsistentHashSelector<T> previous) {
+            this.invokers = invokers;
             URL url = invokers.get(0).getUrl();
             this.replicaNumber = url.getMethodParameter(methodName, "hash.nodes", 160);
             String[] index = Constants.COMMA_SPLIT_PATTERN.split(url.getMethodParameter(methodName, "hash.arguments", "0"));
@@ -74,25 +86,83 @@ public class ConsistentHashLoadBalance extends AbstractLoadBalance {
             for (int i = 0; i < index.length; i++) {
                 argumentIndex[i] = Integer.parseInt(index[i]);
             }
-            for (Invoker<T> invoker : invokers) {
-                String address = invoker.getUrl().getAddress();
-                for (int i = 0; i < replicaNumber / 4; i++) {
-                    byte[] digest = md5(address + i);
-                    for (int h = 0; h < 4; h++) {
-                        long m = hash(digest, h);
-                        virtualInvokers.put(m, invoker);
+            this.hashFunctionName = url.getMethodParameter(methodName, "hash.function", Md5HashFunction.NAME);
+            this.hashFunction = ExtensionLoader.getExtensionLoader(HashFunction.class).getExtension(hashFunctionName);
+            long[] keptPositions = new long[0];
+            int[] keptOwners = new int[0];
+            int kept = 0;
+            boolean[] known = new boolean[invokers.size()];
+            if (previous != null && previous.replicaNumber == replicaNumber
+                    && previous.hashFunctionName.equals(hashFunctionName)) {
+                // keep the nodes of the invokers still there, in order, and hash only the invokers which joined
+                Map<Invoker<?>, Integer> indexes = new IdentityHashMap<Invoker<?>, Integer>(invokers.size());
+                for (int i = 0; i < invokers.size(); i++) {
+                    indexes.put(invokers.get(i), i);
+                }
+                int[] moved = new int[previous.invokers.size()];
+                for (int i = 0; i < moved.length; i++) {
+                    Integer moveTo = indexes.get(previous.invokers.get(i));
+                    moved[i] = moveTo == null ? -1 : moveTo;
+                    if (moveTo != null) {
+                        known[moveTo] = true;
+                    }
+                }
+                keptPositions = new long[previous.positions.length];
+                keptOwners = new int[previous.owners.length];
+                for (int i = 0; i < previous.positions.length; i++) {
+                    int owner = moved[previous.owners[i]];
+                    if (owner >= 0) {
+                        keptPositions[kept] = previous.positions[i];
+                        keptOwners[kept] = owner;
+                        kept++;
                     }
                 }
             }
+            // each position is packed with the index of its invoker, so that one primitive sort orders both.
+            // positions are unsigned 32 bits, flipping the sign bit makes the signed sort order them as unsigned
+            long[][] joinedPositions = new long[invokers.size()][];
+            int added = 0;
+            for (int i = 0; i < invokers.size(); i++) {
+                if (!known[i]) {
+                    joinedPositions[i] = hashFunction.nodes(invokers.get(i).getUrl().getAddress(), replicaNumber);
+                    added += joinedPositions[i].length;
+                }
+            }
+            long[] packed = new long[added];
+            int p = 0;
+            for (int i = 0; i < joinedPositions.length; i++) {
+                if (joinedPositions[i] != null) {
+                    for (long position : joinedPositions[i]) {
+                        packed[p++] = (position << 32 | i) ^ Long.MIN_VALUE;
+                    }
+                }
+            }
+            Arrays.sort(packed);
+            this.positions = new long[kept + added];
+            this.owners = new int[kept + added];
+            int k = 0;
+            int j = 0;
+            for (int i = 0; i < positions.length; i++) {
+                if (j == added || (k < kept && keptPositions[k] <= (packed[j] ^ Long.MIN_VALUE) >>> 32)) {
+                    positions[i] = keptPositions[k];
+                    owners[i] = keptOwners[k++];
+                } else {
+                    positions[i] = (packed[j] ^ Long.MIN_VALUE) >>> 32;
+                    owners[i] = (int) packed[j++];
+                }
+            }
         }
 
         public Invoker<T> select(Invocation invocation) {
             String key = toKey(invocation.getArguments());
-            byte[] digest = md5(key);
-            return selectForKey(hash(digest, 0));
+            return selectForKey(hashFunction.hash(key));
         }
 
         private String toKey(Object[] args) {
+            if (argumentIndex.length == 1) {
+                int i = argumentIndex[0];
+                return i >= 0 && i < args.length ? String.valueOf(args[i]) : "";
+            }
             StringBuilder buf = new StringBuilder();
             for (int i : argumentIndex) {
                 if (i >= 0 && i < args.length) {
@@ -103,37 +173,18 @@ public class ConsistentHashLoadBalance extends AbstractLoadBalance {
         }
 
         private Invoker<T> selectForKey(long hash) {
-            Map.Entry<Long, Invoker<T>> entry = virtualInvokers.tailMap(hash, true).firstEntry();
-            if (entry == null) {
-                entry = virtualInvokers.firstEntry();
-            }
-            return entry.getValue();
-        }
-
-        private long hash(byte[] digest, int number) {
-            return (((long) (digest[3 + number * 4] & 0xFF) << 24)
-                    | ((long) (digest[2 + number * 4] & 0xFF) << 16)
-                    | ((long) (digest[1 + number * 4] & 0xFF) << 8)
-                    | (digest[number * 4] & 0xFF))
-                    & 0xFFFFFFFFL;
-        }
-
-        private byte[] md5(String value) {
-            MessageDigest md5;
-            try {
-                md5 = MessageDigest.getInstance("MD5");
-            } catch (NoSuchAlgorithmException e) {
-                throw new IllegalStateException(e.getMessage(), e);
-            }
-            md5.reset();
-            byte[] bytes;
-            try {
-                bytes = value.getBytes("UTF-8");
-            } catch (UnsupportedEncodingException e) {
-                throw new IllegalStateException(e.getMessage(), e);
+            // the first node at or after the hash, wrapping around
+            int low = 0;
+            int high = positions.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (positions[mid] < hash) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
             }
-            md5.update(bytes);
-            return md5.digest();
+            return invokers.get(owners[low == positions.length ? 0 : low]);
         }
 
     }
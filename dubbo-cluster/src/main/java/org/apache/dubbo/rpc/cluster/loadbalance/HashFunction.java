@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.extension.SPI;
+
+/**
+ * HashFunction, places invocation keys and the virtual nodes of providers on the ring of
+ * {@link ConsistentHashLoadBalance}. (SPI, Singleton, ThreadSafe)
+ * <p>
+ * Positions are unsigned 32-bit values. Consumers which share a ring must use the same function,
+ * switching the function moves keys to other providers.
+ */
+@SPI(Md5HashFunction.NAME)
+public interface HashFunction {
+
+    /**
+     * position of an invocation key on the ring.
+     *
+     * @param key key built from the invocation arguments.
+     * @return unsigned 32-bit position.
+     */
+    long hash(String key);
+
+    /**
+     * positions of the virtual nodes of a provider.
+     *
+     * @param address       provider address.
+     * @param replicaNumber virtual nodes wanted per provider.
+     * @return unsigned 32-bit positions.
+     */
+    long[] nodes(String address, int replicaNumber);
+
+}
@@ -16,7 +16,7 @@
  */
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
-import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.MethodParameters;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
@@ -24,10 +24,14 @@ import org.apache.dubbo.rpc.RpcStatus;
 
 import java.util.List;
 import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * LeastActiveLoadBalance
- *
+ * <p>
+ * The method statuses and parameters of the last list are cached per service and method, and reused as long as a
+ * list holds the same invokers in the same order, so a selection reads the active counts without any lookup.
  */
 public class LeastActiveLoadBalance extends AbstractLoadBalance {
 
@@ -35,8 +39,11 @@ public class LeastActiveLoadBalance extends AbstractLoadBalance {
 
     private final Random random = new Random();
 
+    private final ConcurrentMap<String, ConcurrentMap<String, Statuses>> services = new ConcurrentHashMap<String, ConcurrentMap<String, Statuses>>();
+
     @Override
     protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        Statuses statuses = getStatuses(invokers, invocation);
         int length = invokers.size(); // Number of invokers
         int leastActive = -1; // The least active value of all invokers
         int leastCount = 0; // The number of invokers having the same least active value (leastActive)
@@ -45,9 +52,8 @@ public class LeastActiveLoadBalance extends AbstractLoadBalance {
         int firstWeight = 0; // Initial value, used for comparision
         boolean sameWeight = true; // Every invoker has the same weight value?
         for (int i = 0; i < length; i++) {
-            Invoker<T> invoker = invokers.get(i);
-            int active = RpcStatus.getStatus(invoker.getUrl(), invocation.getMethodName()).getActive(); // Active number
-            int weight = invoker.getUrl().getMethodParameter(invocation.getMethodName(), Constants.WEIGHT_KEY, Constants.DEFAULT_WEIGHT); // Weight
+            int active = statuses.statuses[i].getActive(); // Active number
+            int weight = statuses.parameters[i].getWeight(); // Weight
             if (leastActive == -1 || active < leastActive) { // Restart, when find a invoker having smaller least active value.
                 leastActive = active; // Record the current least active value
                 leastCount = 1; // Reset leastCount, count again based on current leastCount
@@ -84,4 +90,59 @@ public class LeastActiveLoadBalance extends AbstractLoadBalance {
         // If all invokers have the same weight value or totalWeight=0, return evenly.
         return invokers.get(leastIndexs[random.nextInt(leastCount)]);
     }
+
+    private Statuses getStatuses(List<? extends Invoker<?>> invokers, Invocation invocation) {
+        String serviceKey = String.valueOf(invokers.get(0).getUrl().getServiceKey());
+        ConcurrentMap<String, Statuses> methods = services.get(serviceKey);
+        if (methods == null) {
+            services.putIfAbsent(serviceKey, new ConcurrentHashMap<String, Statuses>());
+            methods = services.get(serviceKey);
+        }
+        String methodName = invocation.getMethodName();
+        String key = String.valueOf(methodName);
+        Statuses statuses = methods.get(key);
+        if (statuses == null || !statuses.matches(invokers)) {
+            statuses = new Statuses(invokers, methodName);
+            methods.put(key, statuses);
+        }
+        return statuses;
+    }
+
+    private static final class Statuses {
+
+        private final List<? extends Invoker<?>> invokers;
+
+        private final Invoker<?>[] members;
+
+        private final RpcStatus[] statuses;
+
+        private final MethodParameters[] parameters;
+
+        Statuses(List<? extends Invoker<?>> invokers, String methodName) {
+            this.invokers = invokers;
+            this.members = invokers.toArray(new Invoker<?>[0]);
+            this.statuses = new RpcStatus[members.length];
+            this.parameters = new MethodParameters[members.length];
+            for (int i = 0; i < members.length; i++) {
+                URL url = members[i].getUrl();
+                statuses[i] = RpcStatus.getStatus(url, methodName);
+                parameters[i] = url.getMethodParameters(methodName);
+            }
+        }
+
+        boolean matches(List<? extends Invoker<?>> list) {
+            if (list == invokers) {
+                return true;
+            }
+            if (list.size() != members.length) {
+                return false;
+            }
+            for (int i = 0; i < members.length; i++) {
+                if (list.get(i) != members[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
 }
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.io.Bytes;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Md5HashFunction, the ring dubbo has always built: four virtual nodes out of every MD5 digest.
+ */
+public class Md5HashFunction implements HashFunction {
+
+    public static final String NAME = "md5";
+
+    @Override
+    public long hash(String key) {
+        return position(md5(key), 0);
+    }
+
+    @Override
+    public long[] nodes(String address, int replicaNumber) {
+        long[] nodes = new long[replicaNumber / 4 * 4];
+        for (int i = 0; i < replicaNumber / 4; i++) {
+            byte[] digest = md5(address + i);
+            for (int h = 0; h < 4; h++) {
+                nodes[i * 4 + h] = position(digest, h);
+            }
+        }
+        return nodes;
+    }
+
+    private static long position(byte[] digest, int number) {
+        return (((long) (digest[3 + number * 4] & 0xFF) << 24)
+                | ((long) (digest[2 + number * 4] & 0xFF) << 16)
+                | ((long) (digest[1 + number * 4] & 0xFF) << 8)
+                | (digest[number * 4] & 0xFF))
+                & 0xFFFFFFFFL;
+    }
+
+    private static byte[] md5(String value) {
+        // the digest is cached per thread
+        return Bytes.getMD5(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
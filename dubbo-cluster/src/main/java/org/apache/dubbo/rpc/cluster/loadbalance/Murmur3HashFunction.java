@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Murmur3HashFunction, MurmurHash3 (x86, 32-bit) of the UTF-8 bytes of the key.
+ * <p>
+ * Keys are hashed without allocation when they are ASCII, and the virtual nodes of a provider are its address
+ * hashed with the node number as the seed, so building the ring does not create a string per node either.
+ */
+public class Murmur3HashFunction implements HashFunction {
+
+    public static final String NAME = "murmur3";
+
+    private static final int C1 = 0xcc9e2d51;
+
+    private static final int C2 = 0x1b873593;
+
+    @Override
+    public long hash(String key) {
+        return murmur3(key, 0) & 0xFFFFFFFFL;
+    }
+
+    @Override
+    public long[] nodes(String address, int replicaNumber) {
+        long[] nodes = new long[replicaNumber];
+        for (int i = 0; i < replicaNumber; i++) {
+            nodes[i] = murmur3(address, i) & 0xFFFFFFFFL;
+        }
+        return nodes;
+    }
+
+    static int murmur3(String value, int seed) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return murmur3(value.getBytes(StandardCharsets.UTF_8), seed);
+            }
+        }
+        // ASCII chars are their own UTF-8 bytes
+        int h1 = seed;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            int k1 = value.charAt(i) | value.charAt(i + 1) << 8 | value.charAt(i + 2) << 16 | value.charAt(i + 3) << 24;
+            h1 = mixH1(h1, mixK1(k1));
+        }
+        int k1 = 0;
+        for (int shift = 0; i < length; i++, shift += 8) {
+            k1 ^= value.charAt(i) << shift;
+        }
+        h1 ^= mixK1(k1);
+        return fmix(h1, length);
+    }
+
+    static int murmur3(byte[] bytes, int seed) {
+        int length = bytes.length;
+        int h1 = seed;
+        int i = 0;
+        for (; i + 4 <= length; i += 4) {
+            int k1 = (bytes[i] & 0xFF) | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF) << 16 | (bytes[i + 3] & 0xFF) << 24;
+            h1 = mixH1(h1, mixK1(k1));
+        }
+        int k1 = 0;
+        for (int shift = 0; i < length; i++, shift += 8) {
+            k1 ^= (bytes[i] & 0xFF) << shift;
+        }
+        h1 ^= mixK1(k1);
+        return fmix(h1, length);
+    }
+
+    private static int mixK1(int k1) {
+        k1 *= C1;
+        k1 = Integer.rotateLeft(k1, 15);
+        k1 *= C2;
+        return k1;
+    }
+
+    private static int mixH1(int h1, int k1) {
+        h1 ^= k1;
+        h1 = Integer.rotateLeft(h1, 13);
+        h1 = h1 * 5 + 0xe6546b64;
+        return h1;
+    }
+
+    private static int fmix(int h1, int length) {
+        h1 ^= length;
+        h1 ^= h1 >>> 16;
+        h1 *= 0x85ebca6b;
+        h1 ^= h1 >>> 13;
+        h1 *= 0xc2b2ae35;
+        h1 ^= h1 >>> 16;
+        return h1;
+    }
+
+}
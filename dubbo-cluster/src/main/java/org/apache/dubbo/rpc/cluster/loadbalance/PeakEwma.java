@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PeakEwma, the response time of an invoker method as seen by the consumer.
+ * <p>
+ * A slower response is taken at once, faster ones and idle time decay the average towards them with the
+ * "peakewma.decay" time constant. A failed call counts as a response after the timeout.
+ *
+ * @see PeakEwmaLoadBalance
+ * @see PeakEwmaFilter
+ */
+public class PeakEwma {
+
+    private static final ConcurrentMap<String, ConcurrentMap<String, PeakEwma>> METHOD_STATISTICS = new ConcurrentHashMap<String, ConcurrentMap<String, PeakEwma>>();
+
+    // the cost of an invoker with calls in flight and no response yet
+    private static final double PENALTY = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final double decay;
+
+    private final long failurePenalty;
+
+    private long stamp = System.nanoTime();
+
+    private double cost;
+
+    PeakEwma(long decayMillis, long failurePenaltyMillis) {
+        this.decay = TimeUnit.MILLISECONDS.toNanos(decayMillis);
+        this.failurePenalty = TimeUnit.MILLISECONDS.toNanos(failurePenaltyMillis);
+    }
+
+    public static PeakEwma getPeakEwma(URL url, String methodName) {
+        String uri = url.toIdentityString();
+        ConcurrentMap<String, PeakEwma> map = METHOD_STATISTICS.get(uri);
+        if (map == null) {
+            METHOD_STATISTICS.putIfAbsent(uri, new ConcurrentHashMap<String, PeakEwma>());
+            map = METHOD_STATISTICS.get(uri);
+        }
+        PeakEwma ewma = map.get(methodName);
+        if (ewma == null) {
+            map.putIfAbsent(methodName, new PeakEwma(
+                    url.getMethodParameter(methodName, Constants.PEAK_EWMA_DECAY_KEY, Constants.DEFAULT_PEAK_EWMA_DECAY),
+                    url.getMethodParameter(methodName, Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT)));
+            ewma = map.get(methodName);
+        }
+        return ewma;
+    }
+
+    /**
+     * a call starts.
+     *
+     * @return start time, to be passed to {@link #end(long, boolean)}.
+     */
+    public long begin() {
+        pending.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    public void end(long start, boolean succeeded) {
+        long now = System.nanoTime();
+        long rtt = now - start;
+        if (!succeeded) {
+            rtt = Math.max(rtt, failurePenalty);
+        }
+        synchronized (this) {
+            observe(now, rtt);
+        }
+        pending.decrementAndGet();
+    }
+
+    /**
+     * the expected cost of one more call: the average response time times the calls in flight plus one.
+     *
+     * @param now {@link System#nanoTime()}
+     */
+    public double getLoad(long now) {
+        double cost;
+        synchronized (this) {
+            cost = observe(now, 0);
+        }
+        int pending = this.pending.get();
+        if (cost == 0 && pending != 0) {
+            return PENALTY + pending;
+        }
+        return cost * (pending + 1);
+    }
+
+    public int getPending() {
+        return pending.get();
+    }
+
+    private double observe(long now, double rtt) {
+        long elapsed = Math.max(now - stamp, 0);
+        stamp = Math.max(now, stamp);
+        if (rtt > cost) {
+            cost = rtt;
+        } else {
+            double weight = Math.exp(-elapsed / decay);
+            cost = cost * weight + rtt * (1 - weight);
+        }
+        return cost;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+
+/**
+ * PeakEwmaFilter, feeds {@link PeakEwma} with the response times of the invokers balanced by
+ * {@link PeakEwmaLoadBalance}.
+ * <p>
+ * An {@link RpcException}, e.g. a timeout, is a failure, an exception thrown by the service is not.
+ */
+@Activate(group = Constants.CONSUMER, value = Constants.LOADBALANCE_KEY)
+public class PeakEwmaFilter implements Filter {
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        String methodName = invocation.getMethodName();
+        if (!PeakEwmaLoadBalance.NAME.equals(invoker.getUrl().getMethodParameters(methodName).getParameter(Constants.LOADBALANCE_KEY))) {
+            return invoker.invoke(invocation);
+        }
+        final PeakEwma ewma = PeakEwma.getPeakEwma(invoker.getUrl(), methodName);
+        final long start = ewma.begin();
+        Result result;
+        try {
+            result = invoker.invoke(invocation);
+        } catch (RuntimeException e) {
+            ewma.end(start, false);
+            throw e;
+        }
+        if (result instanceof AsyncRpcResult) {
+            ((AsyncRpcResult) result).getResultFuture().whenComplete((r, t) ->
+                    ewma.end(start, t == null && !(r.getException() instanceof RpcException)));
+        } else {
+            ewma.end(start, !(result.getException() instanceof RpcException));
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * PeakEwmaLoadBalance
+ * <p>
+ * Picks the cheaper of two random invokers, the cost being the {@link PeakEwma} load divided by the weight.
+ * A provider with few calls in flight but a much higher latency, or recent failures, is avoided. The response
+ * times are observed by {@link PeakEwmaFilter} on the consumer side.
+ */
+public class PeakEwmaLoadBalance extends AbstractLoadBalance {
+
+    public static final String NAME = "peakewma";
+
+    @Override
+    protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+        int length = invokers.size();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(length);
+        int second = random.nextInt(length - 1);
+        if (second >= first) {
+            second++;
+        }
+        long now = System.nanoTime();
+        double firstCost = getCost(invokers.get(first), invocation, now);
+        double secondCost = getCost(invokers.get(second), invocation, now);
+        return invokers.get(firstCost <= secondCost ? first : second);
+    }
+
+    private double getCost(Invoker<?> invoker, Invocation invocation, long now) {
+        int weight = getWeight(invoker, invocation);
+        if (weight <= 0) {
+            return Double.MAX_VALUE;
+        }
+        return PeakEwma.getPeakEwma(invoker.getUrl(), invocation.getMethodName()).getLoad(now) / weight;
+    }
+
+}
@@ -16,87 +16,197 @@
  */
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.utils.AtomicPositiveInteger;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 
-import java.util.LinkedHashMap;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
  * Round robin load balance.
- *
+ * <p>
+ * Invokers of different weights are selected by smooth weighted round robin: every selection adds each
+ * weight to its invoker's current weight, picks the invoker with the largest current weight and takes the
+ * total weight off it. Over a cycle each invoker is selected in proportion to its weight, and the selections
+ * of the heavier invokers are spread over the cycle instead of coming back to back.
+ * <p>
+ * The current weights are kept per service, method and invoker, so a list holding only some of the invokers,
+ * such as a reselection after a failure, moves on the current weights of those invokers without resetting the
+ * others. The current weights of the invokers in neither the new list nor the previous one are dropped, so
+ * invokers removed by the directory are forgotten at the next change of list. The weights of the last list are
+ * cached, and reused as long as a list holds the same invokers in the same order, even when a router hands over
+ * a new list on every call.
  */
 public class RoundRobinLoadBalance extends AbstractLoadBalance {
 
     public static final String NAME = "roundrobin";
 
-    private final ConcurrentMap<String, AtomicPositiveInteger> sequences = new ConcurrentHashMap<String, AtomicPositiveInteger>();
+    private final ConcurrentMap<String, ConcurrentMap<String, WeightedRoundRobin>> services = new ConcurrentHashMap<String, ConcurrentMap<String, WeightedRoundRobin>>();
 
     @Override
     protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
-        String key = invokers.get(0).getUrl().getServiceKey() + "." + invocation.getMethodName();
-        int length = invokers.size(); // Number of invokers
-        int maxWeight = 0; // The maximum weight
-        int minWeight = Integer.MAX_VALUE; // The minimum weight
-        final LinkedHashMap<Invoker<T>, IntegerWrapper> invokerToWeightMap = new LinkedHashMap<Invoker<T>, IntegerWrapper>();
-        int weightSum = 0;
-        for (int i = 0; i < length; i++) {
-            int weight = getWeight(invokers.get(i), invocation);
-            maxWeight = Math.max(maxWeight, weight); // Choose the maximum weight
-            minWeight = Math.min(minWeight, weight); // Choose the minimum weight
-            if (weight > 0) {
-                invokerToWeightMap.put(invokers.get(i), new IntegerWrapper(weight));
-                weightSum += weight;
-            }
+        String serviceKey = String.valueOf(invokers.get(0).getUrl().getServiceKey());
+        ConcurrentMap<String, WeightedRoundRobin> methods = services.get(serviceKey);
+        if (methods == null) {
+            services.putIfAbsent(serviceKey, new ConcurrentHashMap<String, WeightedRoundRobin>());
+            methods = services.get(serviceKey);
         }
-        AtomicPositiveInteger sequence = sequences.get(key);
-        if (sequence == null) {
-            sequences.putIfAbsent(key, new AtomicPositiveInteger());
-            sequence = sequences.get(key);
+        String methodName = String.valueOf(invocation.getMethodName());
+        WeightedRoundRobin roundRobin = methods.get(methodName);
+        if (roundRobin == null) {
+            methods.putIfAbsent(methodName, new WeightedRoundRobin());
+            roundRobin = methods.get(methodName);
         }
-        int currentSequence = sequence.getAndIncrement();
-        if (maxWeight > 0 && minWeight < maxWeight) {
-            int mod = currentSequence % weightSum;
-            for (int i = 0; i < maxWeight; i++) {
-                for (Map.Entry<Invoker<T>, IntegerWrapper> each : invokerToWeightMap.entrySet()) {
-                    final Invoker<T> k = each.getKey();
-                    final IntegerWrapper v = each.getValue();
-                    if (mod == 0 && v.getValue() > 0) {
-                        return k;
+        return invokers.get(roundRobin.next(invokers, invocation));
+    }
+
+    private static final class CurrentWeight {
+        // guarded by the monitor of the owning WeightedRoundRobin
+        long value;
+    }
+
+    private final class WeightedRoundRobin {
+
+        private final ConcurrentMap<Invoker<?>, CurrentWeight> currentWeights = new ConcurrentHashMap<Invoker<?>, CurrentWeight>();
+
+        private final AtomicPositiveInteger sequence = new AtomicPositiveInteger();
+
+        private volatile Cycle cycle;
+
+        int next(List<? extends Invoker<?>> invokers, Invocation invocation) {
+            Cycle cycle = this.cycle;
+            if (cycle == null || !cycle.matches(invokers)) {
+                cycle = new Cycle(invokers, invocation, currentWeights(invokers, cycle));
+                this.cycle = cycle;
+            }
+            if (cycle.warmupDeadline > 0L) {
+                synchronized (this) {
+                    if (System.currentTimeMillis() >= cycle.warmupDeadline) {
+                        cycle.warmupDeadline = 0L;
                     }
-                    if (v.getValue() > 0) {
-                        v.decrement();
-                        mod--;
+                    cycle.updateWeights(invocation);
+                }
+            }
+            int[] weights = cycle.weights;
+            if (cycle.sameWeight) {
+                return sequence.getAndIncrement() % weights.length;
+            }
+            synchronized (this) {
+                CurrentWeight[] currents = cycle.currentWeights;
+                int selected = -1;
+                long maxCurrent = Long.MIN_VALUE;
+                for (int i = 0; i < weights.length; i++) {
+                    if (weights[i] > 0) {
+                        long current = currents[i].value + weights[i];
+                        currents[i].value = current;
+                        if (current > maxCurrent) {
+                            maxCurrent = current;
+                            selected = i;
+                        }
                     }
                 }
+                if (selected < 0) {
+                    // no positive weight at all
+                    return sequence.getAndIncrement() % weights.length;
+                }
+                currents[selected].value -= cycle.totalWeight;
+                return selected;
+            }
+        }
+
+        private CurrentWeight[] currentWeights(List<? extends Invoker<?>> invokers, Cycle previous) {
+            // forget the invokers the directory no longer hands over, keeping those of the previous list so that
+            // a reselection over some of the invokers does not reset the others
+            Set<Invoker<?>> members = new HashSet<Invoker<?>>(invokers);
+            if (previous != null) {
+                Collections.addAll(members, previous.members);
+            }
+            currentWeights.keySet().retainAll(members);
+            CurrentWeight[] result = new CurrentWeight[invokers.size()];
+            for (int i = 0; i < result.length; i++) {
+                Invoker<?> invoker = invokers.get(i);
+                CurrentWeight current = currentWeights.get(invoker);
+                if (current == null) {
+                    currentWeights.putIfAbsent(invoker, new CurrentWeight());
+                    current = currentWeights.get(invoker);
+                }
+                result[i] = current;
             }
+            return result;
         }
-        // Round robin
-        return invokers.get(currentSequence % length);
     }
 
-    private static final class IntegerWrapper {
-        private int value;
+    private final class Cycle {
 
-        public IntegerWrapper(int value) {
-            this.value = value;
-        }
+        private final List<? extends Invoker<?>> invokers;
+
+        private final Invoker<?>[] members;
+
+        private final CurrentWeight[] currentWeights;
+
+        private final int[] weights;
+
+        private int totalWeight;
+
+        private volatile boolean sameWeight;
+
+        // weights are recalculated on every selection until the last invoker is warmed up
+        private volatile long warmupDeadline;
 
-        public int getValue() {
-            return value;
+        Cycle(List<? extends Invoker<?>> invokers, Invocation invocation, CurrentWeight[] currentWeights) {
+            this.invokers = invokers;
+            this.members = invokers.toArray(new Invoker<?>[0]);
+            this.currentWeights = currentWeights;
+            this.weights = new int[members.length];
+            long deadline = 0;
+            for (Invoker<?> invoker : members) {
+                long timestamp = invoker.getUrl().getParameter(Constants.REMOTE_TIMESTAMP_KEY, 0L);
+                if (timestamp > 0L) {
+                    deadline = Math.max(deadline, timestamp + invoker.getUrl().getParameter(Constants.WARMUP_KEY, Constants.DEFAULT_WARMUP));
+                }
+            }
+            this.warmupDeadline = deadline;
+            updateWeights(invocation);
         }
 
-        public void setValue(int value) {
-            this.value = value;
+        boolean matches(List<? extends Invoker<?>> list) {
+            if (list == invokers) {
+                return true;
+            }
+            if (list.size() != members.length) {
+                return false;
+            }
+            for (int i = 0; i < members.length; i++) {
+                if (list.get(i) != members[i]) {
+                    return false;
+                }
+            }
+            return true;
         }
 
-        public void decrement() {
-            this.value--;
+        private void updateWeights(Invocation invocation) {
+            int total = 0;
+            boolean same = true;
+            for (int i = 0; i < weights.length; i++) {
+                int weight = getWeight(members[i], invocation);
+                weights[i] = weight;
+                if (weight > 0) {
+                    total += weight;
+                }
+                if (weight != weights[0]) {
+                    same = false;
+                }
+            }
+            totalWeight = total;
+            // all zero weights are served in turn as well
+            sameWeight = same;
         }
     }
 
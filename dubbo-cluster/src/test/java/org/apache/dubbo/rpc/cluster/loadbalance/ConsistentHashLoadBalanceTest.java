@@ -16,13 +16,22 @@
  */
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.router.MockInvoker;
 
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 public class ConsistentHashLoadBalanceTest extends LoadBalanceBaseTest {
@@ -37,4 +46,97 @@ public class ConsistentHashLoadBalanceTest extends LoadBalanceBaseTest {
         }
     }
 
+    @Test
+    public void testMurmur3() {
+        Assert.assertEquals(0, Murmur3HashFunction.murmur3("", 0));
+        Assert.assertEquals(0x248bfa47, Murmur3HashFunction.murmur3("hello", 0));
+        Assert.assertEquals(0x2e4ff723, Murmur3HashFunction.murmur3("The quick brown fox jumps over the lazy dog", 0));
+        for (String value : new String[]{"a", "ab", "abc", "abcd", "abcde", "10.0.0.1:20880", "\u4f60\u597d"}) {
+            Assert.assertEquals(Murmur3HashFunction.murmur3(value.getBytes(StandardCharsets.UTF_8), 7),
+                    Murmur3HashFunction.murmur3(value, 7));
+        }
+    }
+
+    @Test
+    public void testMd5KeepsLegacyPositions() throws Exception {
+        Md5HashFunction md5 = new Md5HashFunction();
+        byte[] digest = MessageDigest.getInstance("MD5").digest("127.0.0.1:20880".getBytes(StandardCharsets.UTF_8));
+        long expected = ((long) (digest[3] & 0xFF) << 24) | ((digest[2] & 0xFF) << 16) | ((digest[1] & 0xFF) << 8) | (digest[0] & 0xFF);
+        Assert.assertEquals(expected, md5.hash("127.0.0.1:20880"));
+        Assert.assertEquals(160, md5.nodes("127.0.0.1:20880", 160).length);
+        Assert.assertEquals(160, new Murmur3HashFunction().nodes("127.0.0.1:20880", 160).length);
+    }
+
+    @Test
+    public void testIncrementalUpdate() {
+        for (String function : new String[]{Md5HashFunction.NAME, Murmur3HashFunction.NAME}) {
+            List<Invoker<ConsistentHashLoadBalanceTest>> all = new ArrayList<Invoker<ConsistentHashLoadBalanceTest>>();
+            for (int i = 0; i < 20; i++) {
+                all.add(new MockInvoker<ConsistentHashLoadBalanceTest>(URL.valueOf("dubbo://10.0.0." + i
+                        + ":20880/DemoService?hash.function=" + function)));
+            }
+            Invoker<ConsistentHashLoadBalanceTest> left = all.get(7);
+            List<Invoker<ConsistentHashLoadBalanceTest>> remaining = new ArrayList<Invoker<ConsistentHashLoadBalanceTest>>(all);
+            remaining.remove(left);
+
+            ConsistentHashLoadBalance lb = new ConsistentHashLoadBalance();
+            for (int i = 0; i < 1000; i++) {
+                Invocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"key" + i});
+                Invoker<ConsistentHashLoadBalanceTest> before = lb.select(all, null, invocation);
+                Invoker<ConsistentHashLoadBalanceTest> after = lb.select(remaining, null, invocation);
+                // only the keys of the invoker which left move
+                if (before != left) {
+                    Assert.assertSame(before, after);
+                }
+                Assert.assertNotSame(left, after);
+                Assert.assertSame(new ConsistentHashLoadBalance().select(remaining, null, invocation), after);
+                // and they come back when it joins again
+                Assert.assertSame(before, lb.select(new ArrayList<Invoker<ConsistentHashLoadBalanceTest>>(all), null, invocation));
+            }
+        }
+    }
+
+    @Test
+    public void testSameAsTreeMapRing() {
+        for (String function : new String[]{Md5HashFunction.NAME, Murmur3HashFunction.NAME}) {
+            HashFunction hashFunction = Md5HashFunction.NAME.equals(function) ? new Md5HashFunction() : new Murmur3HashFunction();
+            List<Invoker<ConsistentHashLoadBalanceTest>> all = new ArrayList<Invoker<ConsistentHashLoadBalanceTest>>();
+            for (int i = 0; i < 20; i++) {
+                all.add(new MockInvoker<ConsistentHashLoadBalanceTest>(URL.valueOf("dubbo://10.0.0." + i
+                        + ":20880/DemoService?hash.function=" + function)));
+            }
+            List<Invoker<ConsistentHashLoadBalanceTest>> remaining = new ArrayList<Invoker<ConsistentHashLoadBalanceTest>>(all);
+            remaining.remove(7);
+            remaining.remove(3);
+            TreeMap<Long, Invoker<ConsistentHashLoadBalanceTest>> allRing = ring(all, hashFunction);
+            TreeMap<Long, Invoker<ConsistentHashLoadBalanceTest>> remainingRing = ring(remaining, hashFunction);
+
+            ConsistentHashLoadBalance lb = new ConsistentHashLoadBalance();
+            for (int i = 0; i < 1000; i++) {
+                String key = "key" + i;
+                Invocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{key});
+                long hash = hashFunction.hash(key);
+                Assert.assertSame(select(allRing, hash), lb.select(all, null, invocation));
+                // incrementally updated ring
+                Assert.assertSame(select(remainingRing, hash), lb.select(remaining, null, invocation));
+                Assert.assertSame(select(allRing, hash), lb.select(new ArrayList<Invoker<ConsistentHashLoadBalanceTest>>(all), null, invocation));
+            }
+        }
+    }
+
+    private static <T> TreeMap<Long, Invoker<T>> ring(List<Invoker<T>> invokers, HashFunction hashFunction) {
+        TreeMap<Long, Invoker<T>> ring = new TreeMap<Long, Invoker<T>>();
+        for (Invoker<T> invoker : invokers) {
+            for (long position : hashFunction.nodes(invoker.getUrl().getAddress(), 160)) {
+                ring.put(position, invoker);
+            }
+        }
+        return ring;
+    }
+
+    private static <T> Invoker<T> select(TreeMap<Long, Invoker<T>> ring, long hash) {
+        Map.Entry<Long, Invoker<T>> entry = ring.ceilingEntry(hash);
+        return entry == null ? ring.firstEntry().getValue() : entry.getValue();
+    }
+
 }
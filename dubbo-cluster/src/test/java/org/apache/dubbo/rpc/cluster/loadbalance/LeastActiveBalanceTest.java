@@ -17,11 +17,15 @@
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
 import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcStatus;
 
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -39,4 +43,33 @@ public class LeastActiveBalanceTest extends LoadBalanceBaseTest {
         }
     }
 
+    @Test
+    public void testSelectFollowsActiveCount() {
+        LeastActiveLoadBalance lb = new LeastActiveLoadBalance();
+        List<Invoker<LoadBalanceBaseTest>> busy = new ArrayList<Invoker<LoadBalanceBaseTest>>(invokers);
+        Invoker<LoadBalanceBaseTest> idle = busy.remove(2);
+        for (Invoker<LoadBalanceBaseTest> invoker : busy) {
+            RpcStatus.beginCount(invoker.getUrl(), "method1");
+        }
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assert.assertSame(idle, lb.select(invokers, invokers.get(0).getUrl(), invocation));
+            }
+            // the cached statuses see the calls counted after the first selection
+            RpcStatus.beginCount(idle.getUrl(), "method1");
+            RpcStatus.beginCount(idle.getUrl(), "method1");
+            Assert.assertNotSame(idle, lb.select(invokers, invokers.get(0).getUrl(), invocation));
+            // a copy of the list holding the same invokers reads the same statuses
+            Assert.assertNotSame(idle, lb.select(new ArrayList<Invoker<LoadBalanceBaseTest>>(invokers), invokers.get(0).getUrl(), invocation));
+            // another list reads the statuses of its own invokers
+            Assert.assertSame(busy.get(0), lb.select(Arrays.asList(idle, busy.get(0)), invokers.get(0).getUrl(), invocation));
+        } finally {
+            for (Invoker<LoadBalanceBaseTest> invoker : invokers) {
+                while (RpcStatus.getStatus(invoker.getUrl(), "method1").getActive() > 0) {
+                    RpcStatus.endCount(invoker.getUrl(), "method1", 0, true);
+                }
+            }
+        }
+    }
+
 }
@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+@SuppressWarnings({"unchecked", "rawtypes"})
+public class PeakEwmaLoadBalanceTest extends LoadBalanceBaseTest {
+
+    @Test
+    public void testPeakEwma() {
+        PeakEwma ewma = new PeakEwma(10000, 1000);
+        Assert.assertEquals(0, ewma.getLoad(System.nanoTime()), 0);
+
+        // calls in flight without any response yet
+        ewma.begin();
+        ewma.begin();
+        Assert.assertTrue(ewma.getLoad(System.nanoTime()) >= TimeUnit.SECONDS.toNanos(1));
+
+        // a slow response is taken at once
+        ewma.end(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(100), true);
+        double load = ewma.getLoad(System.nanoTime());
+        Assert.assertTrue(load >= TimeUnit.MILLISECONDS.toNanos(190));
+        Assert.assertTrue(load <= TimeUnit.MILLISECONDS.toNanos(210));
+
+        // and decays towards faster ones
+        ewma.end(System.nanoTime(), true);
+        Assert.assertTrue(ewma.getLoad(System.nanoTime() + TimeUnit.SECONDS.toNanos(10)) < TimeUnit.MILLISECONDS.toNanos(40));
+        Assert.assertEquals(0, ewma.getPending());
+    }
+
+    @Test
+    public void testFailureCountsAsTimeout() {
+        PeakEwma ewma = new PeakEwma(10000, 1000);
+        ewma.end(ewma.begin(), false);
+        Assert.assertTrue(ewma.getLoad(System.nanoTime()) >= TimeUnit.MILLISECONDS.toNanos(990));
+    }
+
+    @Test
+    public void testSlowInvokerIsAvoided() {
+        PeakEwma slow = PeakEwma.getPeakEwma(invoker1.getUrl(), invocation.getMethodName());
+        slow.end(slow.begin() - TimeUnit.MILLISECONDS.toNanos(100), true);
+        for (Invoker invoker : invokers) {
+            if (invoker != invoker1) {
+                PeakEwma fast = PeakEwma.getPeakEwma(invoker.getUrl(), invocation.getMethodName());
+                fast.end(fast.begin() - TimeUnit.MILLISECONDS.toNanos(1), true);
+            }
+        }
+        Map<Invoker, AtomicLong> counter = getInvokeCounter(10000, PeakEwmaLoadBalance.NAME);
+        // two different invokers are compared every time
+        Assert.assertEquals(0, counter.get(invoker1).get());
+        for (Invoker invoker : invokers) {
+            if (invoker != invoker1) {
+                Assert.assertTrue(counter.get(invoker).get() > 0);
+            }
+        }
+    }
+
+    @Test
+    public void testFilter() {
+        URL url = URL.valueOf("test://127.0.0.1:9/DemoService?loadbalance=peakewma&timeout=3000");
+        Invoker<LoadBalanceBaseTest> invoker = mock(Invoker.class);
+        given(invoker.getUrl()).willReturn(url);
+        given(invoker.invoke(any())).willReturn(new RpcResult("ok"));
+        PeakEwmaFilter filter = new PeakEwmaFilter();
+        filter.invoke(invoker, invocation);
+        PeakEwma ewma = PeakEwma.getPeakEwma(url, invocation.getMethodName());
+        Assert.assertEquals(0, ewma.getPending());
+        Assert.assertTrue(ewma.getLoad(System.nanoTime()) < TimeUnit.MILLISECONDS.toNanos(1000));
+
+        given(invoker.invoke(any())).willThrow(new RpcException(RpcException.TIMEOUT_EXCEPTION, "timeout"));
+        try {
+            filter.invoke(invoker, invocation);
+            Assert.fail();
+        } catch (RpcException expected) {
+        }
+        Assert.assertEquals(0, ewma.getPending());
+        Assert.assertTrue(ewma.getLoad(System.nanoTime()) >= TimeUnit.MILLISECONDS.toNanos(2990));
+    }
+
+}
@@ -0,0 +1,224 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.cluster.router.MockInvoker;
+import org.apache.dubbo.rpc.support.RpcUtils;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * PerformanceConsistentHashLoadBalanceTest, compares the selection cost and the cost of a provider leaving and
+ * joining again with the former implementation.
+ * <p>
+ * Run with -Dinvokers=300 -Dnodes=160 -Druns=100000
+ */
+public class PerformanceConsistentHashLoadBalanceTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceConsistentHashLoadBalanceTest.class);
+
+    @Test
+    public void testSelect() throws Exception {
+        String counts = System.getProperty("invokers");
+        if (counts == null) {
+            logger.warn("Please set -Dinvokers=300");
+            return;
+        }
+        int nodes = Integer.getInteger("nodes", 160);
+        int runs = Integer.getInteger("runs", 100000);
+        Invocation[] invocations = new Invocation[1024];
+        for (int i = 0; i < invocations.length; i++) {
+            invocations[i] = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"user-" + i});
+        }
+        for (String count : counts.split(",")) {
+            System.out.println("=====================================================================");
+            System.out.println("Invokers: " + count.trim() + ", nodes: " + nodes + ", runs: " + runs);
+            measure("Legacy", new LegacyConsistentHashLoadBalance(), invokers(Integer.parseInt(count.trim()), nodes, "md5"), invocations, runs);
+            measure("MD5", new ConsistentHashLoadBalance(), invokers(Integer.parseInt(count.trim()), nodes, "md5"), invocations, runs);
+            measure("Murmur3", new ConsistentHashLoadBalance(), invokers(Integer.parseInt(count.trim()), nodes, "murmur3"), invocations, runs);
+            System.out.println("=====================================================================");
+        }
+    }
+
+    private static void measure(String name, LoadBalance lb, List<Invoker<PerformanceConsistentHashLoadBalanceTest>> invokers,
+                                Invocation[] invocations, int runs) {
+        for (int i = 0; i < runs; i++) {
+            lb.select(invokers, null, invocations[i & 1023]);
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            lb.select(invokers, null, invocations[i & 1023]);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocated;
+
+        // a provider leaves and joins again, as on two registry pushes
+        List<Invoker<PerformanceConsistentHashLoadBalanceTest>> remaining = new ArrayList<Invoker<PerformanceConsistentHashLoadBalanceTest>>(invokers);
+        remaining.remove(remaining.size() / 2);
+        int updates = Math.max(1, runs / 1000);
+        for (int i = 0; i < updates; i++) {
+            lb.select(remaining, null, invocations[0]);
+            lb.select(invokers, null, invocations[0]);
+        }
+        long updateStart = System.nanoTime();
+        for (int i = 0; i < updates; i++) {
+            lb.select(remaining, null, invocations[0]);
+            lb.select(invokers, null, invocations[0]);
+        }
+        long updateElapsed = System.nanoTime() - updateStart;
+        System.out.println(name + ": select " + (elapsed / runs) + " ns/op, " + (allocated / runs) + " bytes/op, update "
+                + (updateElapsed / updates / 2 / 1000) + " us/op");
+    }
+
+    private static List<Invoker<PerformanceConsistentHashLoadBalanceTest>> invokers(int count, int nodes, String function) {
+        List<Invoker<PerformanceConsistentHashLoadBalanceTest>> invokers = new ArrayList<Invoker<PerformanceConsistentHashLoadBalanceTest>>();
+        for (int i = 0; i < count; i++) {
+            // mocks would record every call
+            invokers.add(new MockInvoker<PerformanceConsistentHashLoadBalanceTest>(URL.valueOf("dubbo://10.0." + (i / 250) + "."
+                    + (i % 250) + ":20880/DemoService?hash.nodes=" + nodes + "&hash.function=" + function)));
+        }
+        return invokers;
+    }
+
+    /**
+     * The consistent hash before the array based ring, kept for comparison.
+     */
+    private static class LegacyConsistentHashLoadBalance extends AbstractLoadBalance {
+
+        private final ConcurrentMap<String, ConsistentHashSelector<?>> selectors = new ConcurrentHashMap<String, ConsistentHashSelector<?>>();
+
+        @SuppressWarnings("unchecked")
+        @Override
+        protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+            String methodName = RpcUtils.getMethodName(invocation);
+            String key = invokers.get(0).getUrl().getServiceKey() + "." + methodName;
+            int identityHashCode = System.identityHashCode(invokers);
+            ConsistentHashSelector<T> selector = (ConsistentHashSelector<T>) selectors.get(key);
+            if (selector == null || selector.identityHashCode != identityHashCode) {
+                selectors.put(key, new ConsistentHashSelector<T>(invokers, methodName, identityHashCode));
+                selector = (ConsistentHashSelector<T>) selectors.get(key);
+            }
+            return selector.select(invocation);
+        }
+
+        private static final class ConsistentHashSelector<T> {
+
+            private final TreeMap<Long, Invoker<T>> virtualInvokers;
+
+            private final int replicaNumber;
+
+            private final int identityHashCode;
+
+            private final int[] argumentIndex;
+
+            ConsistentHashSelector(List<Invoker<T>> invokers, String methodName, int identityHashCode) {
+                this.virtualInvokers = new TreeMap<Long, Invoker<T>>();
+                this.identityHashCode = identityHashCode;
+                URL url = invokers.get(0).getUrl();
+                this.replicaNumber = url.getMethodParameter(methodName, "hash.nodes", 160);
+                String[] index = Constants.COMMA_SPLIT_PATTERN.split(url.getMethodParameter(methodName, "hash.arguments", "0"));
+                argumentIndex = new int[index.length];
+                for (int i = 0; i < index.length; i++) {
+                    argumentIndex[i] = Integer.parseInt(index[i]);
+                }
+                for (Invoker<T> invoker : invokers) {
+                    String address = invoker.getUrl().getAddress();
+                    for (int i = 0; i < replicaNumber / 4; i++) {
+                        byte[] digest = md5(address + i);
+                        for (int h = 0; h < 4; h++) {
+                            long m = hash(digest, h);
+                            virtualInvokers.put(m, invoker);
+                        }
+                    }
+                }
+            }
+
+            public Invoker<T> select(Invocation invocation) {
+                String key = toKey(invocation.getArguments());
+                byte[] digest = md5(key);
+                return selectForKey(hash(digest, 0));
+            }
+
+            private String toKey(Object[] args) {
+                StringBuilder buf = new StringBuilder();
+                for (int i : argumentIndex) {
+                    if (i >= 0 && i < args.length) {
+                        buf.append(args[i]);
+                    }
+                }
+                return buf.toString();
+            }
+
+            private Invoker<T> selectForKey(long hash) {
+                Map.Entry<Long, Invoker<T>> entry = virtualInvokers.tailMap(hash, true).firstEntry();
+                if (entry == null) {
+                    entry = virtualInvokers.firstEntry();
+                }
+                return entry.getValue();
+            }
+
+            private long hash(byte[] digest, int number) {
+                return (((long) (digest[3 + number * 4] & 0xFF) << 24)
+                        | ((long) (digest[2 + number * 4] & 0xFF) << 16)
+                        | ((long) (digest[1 + number * 4] & 0xFF) << 8)
+                        | (digest[number * 4] & 0xFF))
+                        & 0xFFFFFFFFL;
+            }
+
+            private byte[] md5(String value) {
+                MessageDigest md5;
+                try {
+                    md5 = MessageDigest.getInstance("MD5");
+                } catch (NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+                md5.reset();
+                byte[] bytes;
+                try {
+                    bytes = value.getBytes("UTF-8");
+                } catch (UnsupportedEncodingException e) {
+                    throw new IllegalStateException(e.getMessage(), e);
+                }
+                md5.update(bytes);
+                return md5.digest();
+            }
+        }
+    }
+}
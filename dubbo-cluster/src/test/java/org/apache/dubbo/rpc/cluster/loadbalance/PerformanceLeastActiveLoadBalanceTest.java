@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcStatus;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.cluster.router.MockInvoker;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * PerformanceLeastActiveLoadBalanceTest, measures the selection cost of the least active load balance, which
+ * reads the status of every invoker, and the cost of counting calls on one status from many threads.
+ * <p>
+ * Run with -Dinvokers=200 -Druns=100000 -Dcounting=1,8,64
+ */
+public class PerformanceLeastActiveLoadBalanceTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceLeastActiveLoadBalanceTest.class);
+
+    @Test
+    public void testSelect() throws Exception {
+        String counts = System.getProperty("invokers");
+        if (counts == null) {
+            logger.warn("Please set -Dinvokers=200");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 100000);
+        Invocation invocation = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        for (String count : counts.split(",")) {
+            List<Invoker<PerformanceLeastActiveLoadBalanceTest>> invokers = new ArrayList<Invoker<PerformanceLeastActiveLoadBalanceTest>>();
+            for (int i = 0; i < Integer.parseInt(count.trim()); i++) {
+                // mocks would record every call
+                invokers.add(new MockInvoker<PerformanceLeastActiveLoadBalanceTest>(URL.valueOf("dubbo://10.0." + (i / 250) + "."
+                        + (i % 250) + ":20880/DemoService?application=demo&timeout=3000&loadbalance=leastactive")));
+            }
+            LoadBalance lb = new LeastActiveLoadBalance();
+            URL url = invokers.get(0).getUrl();
+            for (int i = 0; i < runs; i++) {
+                lb.select(invokers, url, invocation);
+            }
+            com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            long threadId = Thread.currentThread().getId();
+            long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                lb.select(invokers, url, invocation);
+            }
+            long elapsed = System.nanoTime() - start;
+            allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocated;
+            System.out.println("=====================================================================");
+            System.out.println("Invokers: " + invokers.size() + ", select: " + (elapsed / runs) + " ns/op, " + (allocated / runs) + " bytes/op");
+            System.out.println("=====================================================================");
+        }
+    }
+
+    @Test
+    public void testCount() throws Exception {
+        String threadCounts = System.getProperty("counting");
+        if (threadCounts == null) {
+            logger.warn("Please set -Dcounting=1,8,64");
+            return;
+        }
+        final int runs = Integer.getInteger("runs", 100000);
+        final URL url = URL.valueOf("dubbo://10.0.0.1:20880/DemoService?application=demo&timeout=3000");
+        for (int i = 0; i < runs; i++) {
+            RpcStatus.beginCount(url, "echo");
+            RpcStatus.endCount(url, "echo", 1, true);
+        }
+        for (String count : threadCounts.split(",")) {
+            int threads = Integer.parseInt(count.trim());
+            final CountDownLatch latch = new CountDownLatch(threads);
+            long start = System.nanoTime();
+            for (int t = 0; t < threads; t++) {
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        for (int i = 0; i < runs; i++) {
+                            RpcStatus.beginCount(url, "echo");
+                            RpcStatus.endCount(url, "echo", 1, true);
+                        }
+                        latch.countDown();
+                    }
+                }).start();
+            }
+            latch.await();
+            long elapsed = System.nanoTime() - start;
+            System.out.println("=====================================================================");
+            System.out.println("Threads: " + threads + ", begin and end count: " + (elapsed / runs) + " ns/op per thread, "
+                    + ((long) threads * runs * 1000000000L / elapsed) + " ops/s");
+            System.out.println("=====================================================================");
+        }
+    }
+}
@@ -0,0 +1,209 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.filter.ActiveLimitFilter;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * PerformancePeakEwmaLoadBalanceTest, simulates providers of different speed behind random, least active and
+ * peak EWMA load balance, and prints the latency percentiles seen by the consumer.
+ * <p>
+ * Every provider serves a few calls at a time and queues the others. One provider in ten is ten times slower.
+ * The calls go through {@link ActiveLimitFilter}, which counts the active calls for least active, and
+ * {@link PeakEwmaFilter}.
+ * <p>
+ * Run with -Dsimulation=true -Dproviders=10 -Dthreads=32 -Druns=500
+ */
+public class PerformancePeakEwmaLoadBalanceTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformancePeakEwmaLoadBalanceTest.class);
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(20);
+
+    private static final int CAPACITY = 4;
+
+    @Test
+    public void testSimulation() throws Exception {
+        if (!Boolean.getBoolean("simulation")) {
+            logger.warn("Please set -Dsimulation=true");
+            return;
+        }
+        int providers = Integer.getInteger("providers", 10);
+        int threads = Integer.getInteger("threads", 32);
+        int runs = Integer.getInteger("runs", 500);
+        String[] names = {RandomLoadBalance.NAME, LeastActiveLoadBalance.NAME, PeakEwmaLoadBalance.NAME};
+        System.out.println("=====================================================================");
+        System.out.println("Providers: " + providers + ", threads: " + threads + ", runs: " + runs);
+        for (int i = 0; i < names.length; i++) {
+            simulate(names[i], i, providers, threads, runs);
+        }
+        System.out.println("=====================================================================");
+    }
+
+    private static void simulate(String name, int round, int providers, int threads, final int runs) throws Exception {
+        final List<Invoker<PerformancePeakEwmaLoadBalanceTest>> invokers = new ArrayList<Invoker<PerformancePeakEwmaLoadBalanceTest>>();
+        for (int i = 0; i < providers; i++) {
+            // a fresh address every round, the statistics are kept per address
+            invokers.add(new SimulatedInvoker(URL.valueOf("dubbo://10.0." + round + "." + i + ":20880/DemoService?loadbalance=" + name),
+                    i % 10 == 0 ? SLOW : FAST));
+        }
+        final LoadBalance lb = name.equals(RandomLoadBalance.NAME) ? new RandomLoadBalance()
+                : name.equals(LeastActiveLoadBalance.NAME) ? new LeastActiveLoadBalance() : new PeakEwmaLoadBalance();
+        final Filter activeLimit = new ActiveLimitFilter();
+        final Filter peakEwma = new PeakEwmaFilter();
+        final Invocation invocation = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        final long[] latencies = new long[threads * runs];
+        final AtomicLong slowCalls = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int offset = t * runs;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int i = 0; i < runs; i++) {
+                            long start = System.nanoTime();
+                            final Invoker<PerformancePeakEwmaLoadBalanceTest> invoker = lb.select(invokers, invokers.get(0).getUrl(), invocation);
+                            activeLimit.invoke(new FilteredInvoker(invoker, peakEwma), invocation);
+                            latencies[offset + i] = System.nanoTime() - start;
+                            if (((SimulatedInvoker) invoker).serviceTime == SLOW) {
+                                slowCalls.incrementAndGet();
+                            }
+                        }
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            }, "simulation-" + t).start();
+        }
+        latch.await();
+        Arrays.sort(latencies);
+        System.out.println(name + ": p50 " + percentile(latencies, 0.5) + " ms, p90 " + percentile(latencies, 0.9)
+                + " ms, p99 " + percentile(latencies, 0.99) + " ms, p99.9 " + percentile(latencies, 0.999)
+                + " ms, calls to the slow provider " + (slowCalls.get() * 100 / latencies.length) + "%");
+    }
+
+    private static String percentile(long[] sorted, double percentile) {
+        long nanos = sorted[Math.min(sorted.length - 1, (int) (sorted.length * percentile))];
+        return String.format("%.1f", nanos / 1000000.0);
+    }
+
+    private static class SimulatedInvoker implements Invoker<PerformancePeakEwmaLoadBalanceTest> {
+
+        private final URL url;
+
+        private final long serviceTime;
+
+        private final Semaphore workers = new Semaphore(CAPACITY, true);
+
+        SimulatedInvoker(URL url, long serviceTime) {
+            this.url = url;
+            this.serviceTime = serviceTime;
+        }
+
+        @Override
+        public Class<PerformancePeakEwmaLoadBalanceTest> getInterface() {
+            return PerformancePeakEwmaLoadBalanceTest.class;
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            workers.acquireUninterruptibly();
+            try {
+                LockSupport.parkNanos(serviceTime);
+            } finally {
+                workers.release();
+            }
+            return new RpcResult();
+        }
+
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private static class FilteredInvoker implements Invoker<PerformancePeakEwmaLoadBalanceTest> {
+
+        private final Invoker<PerformancePeakEwmaLoadBalanceTest> invoker;
+
+        private final Filter filter;
+
+        FilteredInvoker(Invoker<PerformancePeakEwmaLoadBalanceTest> invoker, Filter filter) {
+            this.invoker = invoker;
+            this.filter = filter;
+        }
+
+        @Override
+        public Class<PerformancePeakEwmaLoadBalanceTest> getInterface() {
+            return invoker.getInterface();
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) throws RpcException {
+            return filter.invoke(invoker, invocation);
+        }
+
+        @Override
+        public URL getUrl() {
+            return invoker.getUrl();
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return invoker.isAvailable();
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
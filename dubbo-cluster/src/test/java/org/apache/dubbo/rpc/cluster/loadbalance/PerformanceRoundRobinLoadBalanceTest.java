@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.loadbalance;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.AtomicPositiveInteger;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.cluster.router.MockInvoker;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * PerformanceRoundRobinLoadBalanceTest, compares the selection cost of the smooth weighted round robin
+ * with the former implementation, for invokers of mixed weights between 1 and 100.
+ * <p>
+ * Run with -Dinvokers=10,100,1000 -Druns=100000
+ */
+public class PerformanceRoundRobinLoadBalanceTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceRoundRobinLoadBalanceTest.class);
+
+    @Test
+    public void testSelect() throws Exception {
+        String counts = System.getProperty("invokers");
+        if (counts == null) {
+            logger.warn("Please set -Dinvokers=10,100,1000");
+            return;
+        }
+        int runs = Integer.getInteger("runs", 100000);
+        Invocation invocation = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+        for (String count : counts.split(",")) {
+            List<Invoker<PerformanceRoundRobinLoadBalanceTest>> invokers = mixedWeightInvokers(Integer.parseInt(count.trim()));
+            System.out.println("=====================================================================");
+            System.out.println("Invokers: " + invokers.size() + ", runs: " + runs);
+            measure("Legacy", new LegacyRoundRobinLoadBalance(), invokers, invocation, runs);
+            measure("Smooth", new RoundRobinLoadBalance(), invokers, invocation, runs);
+            System.out.println("=====================================================================");
+        }
+    }
+
+    private static void measure(String name, LoadBalance lb, List<Invoker<PerformanceRoundRobinLoadBalanceTest>> invokers,
+                                Invocation invocation, int runs) {
+        URL url = invokers.get(0).getUrl();
+        for (int i = 0; i < runs; i++) {
+            lb.select(invokers, url, invocation);
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) {
+            lb.select(invokers, url, invocation);
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocated;
+        System.out.println(name + ": " + (elapsed / runs) + " ns/op, " + (allocated / runs) + " bytes/op");
+    }
+
+    private static List<Invoker<PerformanceRoundRobinLoadBalanceTest>> mixedWeightInvokers(int count) {
+        Random random = new Random(0);
+        List<Invoker<PerformanceRoundRobinLoadBalanceTest>> invokers = new ArrayList<Invoker<PerformanceRoundRobinLoadBalanceTest>>();
+        for (int i = 0; i < count; i++) {
+            // mocks would record every call
+            invokers.add(new MockInvoker<PerformanceRoundRobinLoadBalanceTest>(URL.valueOf("dubbo://10.0." + (i / 250) + "."
+                    + (i % 250) + ":20880/DemoService?weight=" + (1 + random.nextInt(100)))));
+        }
+        return invokers;
+    }
+
+    /**
+     * The round robin before the smooth weighted rewrite, kept for comparison.
+     */
+    private static class LegacyRoundRobinLoadBalance extends AbstractLoadBalance {
+
+        private final ConcurrentMap<String, AtomicPositiveInteger> sequences = new ConcurrentHashMap<String, AtomicPositiveInteger>();
+
+        @Override
+        protected <T> Invoker<T> doSelect(List<Invoker<T>> invokers, URL url, Invocation invocation) {
+            String key = invokers.get(0).getUrl().getServiceKey() + "." + invocation.getMethodName();
+            int length = invokers.size();
+            int maxWeight = 0;
+            int minWeight = Integer.MAX_VALUE;
+            final LinkedHashMap<Invoker<T>, int[]> invokerToWeightMap = new LinkedHashMap<Invoker<T>, int[]>();
+            int weightSum = 0;
+            for (int i = 0; i < length; i++) {
+                int weight = getWeight(invokers.get(i), invocation);
+                maxWeight = Math.max(maxWeight, weight);
+                minWeight = Math.min(minWeight, weight);
+                if (weight > 0) {
+                    invokerToWeightMap.put(invokers.get(i), new int[]{weight});
+                    weightSum += weight;
+                }
+            }
+            AtomicPositiveInteger sequence = sequences.get(key);
+            if (sequence == null) {
+                sequences.putIfAbsent(key, new AtomicPositiveInteger());
+                sequence = sequences.get(key);
+            }
+            int currentSequence = sequence.getAndIncrement();
+            if (maxWeight > 0 && minWeight < maxWeight) {
+                int mod = currentSequence % weightSum;
+                for (int i = 0; i < maxWeight; i++) {
+                    for (Map.Entry<Invoker<T>, int[]> each : invokerToWeightMap.entrySet()) {
+                        int[] v = each.getValue();
+                        if (mod == 0 && v[0] > 0) {
+                            return each.getKey();
+                        }
+                        if (v[0] > 0) {
+                            v[0]--;
+                            mod--;
+                        }
+                    }
+                }
+            }
+            return invokers.get(currentSequence % length);
+        }
+    }
+}
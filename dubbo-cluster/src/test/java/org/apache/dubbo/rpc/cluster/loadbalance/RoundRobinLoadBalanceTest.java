@@ -16,14 +16,22 @@
  */
 package org.apache.dubbo.rpc.cluster.loadbalance;
 
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.rpc.Invoker;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
 public class RoundRobinLoadBalanceTest extends LoadBalanceBaseTest {
     @Test
     public void testRoundRobinLoadBalanceSelect() {
@@ -34,4 +42,129 @@ public class RoundRobinLoadBalanceTest extends LoadBalanceBaseTest {
             Assert.assertTrue("abs diff should < 1", Math.abs(count - runs / (0f + invokers.size())) < 1f);
         }
     }
+
+    @Test
+    public void testSmoothWeightedRoundRobin() {
+        List<Invoker<LoadBalanceBaseTest>> weighted = weightedInvokers(5, 1, 1);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        // the heavy invoker is not selected five times in a row
+        int[] expected = {0, 0, 1, 0, 2, 0, 0};
+        for (int cycle = 0; cycle < 3; cycle++) {
+            for (int index : expected) {
+                Assert.assertSame(weighted.get(index), lb.select(weighted, weighted.get(0).getUrl(), invocation));
+            }
+        }
+    }
+
+    @Test
+    public void testZeroWeightIsSkipped() {
+        List<Invoker<LoadBalanceBaseTest>> weighted = weightedInvokers(0, 2, 1);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        int[] counts = new int[3];
+        for (int i = 0; i < 300; i++) {
+            counts[weighted.indexOf(lb.select(weighted, weighted.get(0).getUrl(), invocation))]++;
+        }
+        Assert.assertEquals(0, counts[0]);
+        Assert.assertEquals(200, counts[1]);
+        Assert.assertEquals(100, counts[2]);
+    }
+
+    @Test
+    public void testRebuildOnInvokersChange() {
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        List<Invoker<LoadBalanceBaseTest>> weighted = weightedInvokers(1, 3);
+        Assert.assertSame(weighted.get(1), lb.select(weighted, weighted.get(0).getUrl(), invocation));
+        // a new list from the directory starts over with its own weights
+        List<Invoker<LoadBalanceBaseTest>> changed = weightedInvokers(3, 1);
+        Assert.assertSame(changed.get(0), lb.select(changed, changed.get(0).getUrl(), invocation));
+        Assert.assertSame(changed.get(0), lb.select(changed, changed.get(0).getUrl(), invocation));
+        Assert.assertSame(changed.get(1), lb.select(changed, changed.get(0).getUrl(), invocation));
+    }
+
+    @Test
+    public void testCopiedListKeepsCycle() {
+        List<Invoker<LoadBalanceBaseTest>> weighted = weightedInvokers(5, 1, 1);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        // routers may hand over a new list holding the same invokers on every call
+        int[] expected = {0, 0, 1, 0, 2, 0, 0};
+        for (int cycle = 0; cycle < 3; cycle++) {
+            for (int index : expected) {
+                List<Invoker<LoadBalanceBaseTest>> copy = new ArrayList<Invoker<LoadBalanceBaseTest>>(weighted);
+                Assert.assertSame(weighted.get(index), lb.select(copy, weighted.get(0).getUrl(), invocation));
+            }
+        }
+    }
+
+    @Test
+    public void testReselectKeepsCurrentWeights() {
+        List<Invoker<LoadBalanceBaseTest>> weighted = weightedInvokers(5, 3, 2, 1);
+        List<Invoker<LoadBalanceBaseTest>> subset = new ArrayList<Invoker<LoadBalanceBaseTest>>(weighted);
+        subset.remove(0);
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        // reference smooth weighted round robin, with the current weights kept per invoker
+        Map<Invoker<LoadBalanceBaseTest>, Long> currents = new IdentityHashMap<Invoker<LoadBalanceBaseTest>, Long>();
+        for (int i = 0; i < 200; i++) {
+            // every fifth selection is a reselection without the first invoker
+            List<Invoker<LoadBalanceBaseTest>> list = i % 5 == 4 ? subset : weighted;
+            Assert.assertSame(select(list, currents), lb.select(list, weighted.get(0).getUrl(), invocation));
+        }
+    }
+
+    @Test
+    public void testRemovedInvokersAreForgotten() throws Exception {
+        RoundRobinLoadBalance lb = new RoundRobinLoadBalance();
+        List<Invoker<LoadBalanceBaseTest>> weighted = weightedInvokers(3, 2, 1);
+        lb.select(weighted, weighted.get(0).getUrl(), invocation);
+        // the directory drops an invoker that is still available
+        List<Invoker<LoadBalanceBaseTest>> shrunk = new ArrayList<Invoker<LoadBalanceBaseTest>>(weighted);
+        Invoker<LoadBalanceBaseTest> removed = shrunk.remove(2);
+        lb.select(shrunk, weighted.get(0).getUrl(), invocation);
+        Assert.assertTrue(currentWeights(lb).containsKey(removed));
+        // and then adds a new one
+        List<Invoker<LoadBalanceBaseTest>> grown = new ArrayList<Invoker<LoadBalanceBaseTest>>(shrunk);
+        grown.addAll(weightedInvokers(4));
+        lb.select(grown, weighted.get(0).getUrl(), invocation);
+        Assert.assertFalse(currentWeights(lb).containsKey(removed));
+        Assert.assertEquals(grown.size(), currentWeights(lb).size());
+    }
+
+    private static Map<?, ?> currentWeights(RoundRobinLoadBalance lb) throws Exception {
+        Field services = RoundRobinLoadBalance.class.getDeclaredField("services");
+        services.setAccessible(true);
+        Map<?, ?> methods = (Map<?, ?>) ((Map<?, ?>) services.get(lb)).values().iterator().next();
+        Object roundRobin = methods.values().iterator().next();
+        Field currentWeights = roundRobin.getClass().getDeclaredField("currentWeights");
+        currentWeights.setAccessible(true);
+        return (Map<?, ?>) currentWeights.get(roundRobin);
+    }
+
+    private static <T> Invoker<T> select(List<Invoker<T>> invokers, Map<Invoker<T>, Long> currents) {
+        Invoker<T> selected = null;
+        long total = 0;
+        for (Invoker<T> invoker : invokers) {
+            int weight = invoker.getUrl().getParameter("weight", 100);
+            total += weight;
+            Long current = currents.get(invoker);
+            current = (current == null ? 0 : current) + weight;
+            currents.put(invoker, current);
+            if (selected == null || current > currents.get(selected)) {
+                selected = invoker;
+            }
+        }
+        currents.put(selected, currents.get(selected) - total);
+        return selected;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Invoker<LoadBalanceBaseTest>> weightedInvokers(int... weights) {
+        List<Invoker<LoadBalanceBaseTest>> result = new ArrayList<Invoker<LoadBalanceBaseTest>>();
+        for (int i = 0; i < weights.length; i++) {
+            Invoker<LoadBalanceBaseTest> invoker = mock(Invoker.class);
+            given(invoker.isAvailable()).willReturn(true);
+            given(invoker.getInterface()).willReturn(LoadBalanceBaseTest.class);
+            given(invoker.getUrl()).willReturn(URL.valueOf("test://127.0.0.1:" + (i + 1) + "/DemoService?weight=" + weights[i]));
+            result.add(invoker);
+        }
+        return result;
+    }
 }
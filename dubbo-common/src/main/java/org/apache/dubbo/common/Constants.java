@@ -226,6 +226,35 @@ public class Constants {
 
     public static final String PAYLOAD_KEY = "payload";
 
+    /**
+     * coalesce up to this many flushes of a connection into one write, 0 or 1 flushes every message
+     */
+    public static final String FLUSH_MAX_MESSAGES_KEY = "flush.max.messages";
+
+    /**
+     * the longest a coalesced flush may be delayed, in microseconds. 0 flushes once the pending IO tasks are done
+     */
+    public static final String FLUSH_MAX_DELAY_KEY = "flush.max.delay";
+
+    /**
+     * use the native epoll transport of netty4 when available, NIO is used otherwise
+     */
+    public static final String NETTY_EPOLL_KEY = "netty.epoll";
+
+    /**
+     * with epoll, bind {@link #ACCEPTORS_KEY} listeners to the same port, each accepting on its own thread
+     */
+    public static final String SO_REUSEPORT_KEY = "reuseport";
+
+    public static final String ACCEPTORS_KEY = "acceptors";
+
+    public static final String TCP_QUICKACK_KEY = "tcp.quickack";
+
+    /**
+     * with epoll, the TCP fast open queue length of the server, any positive value enables it on the client
+     */
+    public static final String TCP_FASTOPEN_KEY = "tcp.fastopen";
+
     public static final String REFERENCE_FILTER_KEY = "reference.filter";
 
     public static final String INVOKER_LISTENER_KEY = "invoker.listener";
@@ -315,6 +344,10 @@ public class Constants {
 
     public static final int DEFAULT_WARMUP = 10 * 60 * 1000;
 
+    public static final String PEAK_EWMA_DECAY_KEY = "peakewma.decay";
+
+    public static final int DEFAULT_PEAK_EWMA_DECAY = 10 * 1000;
+
     public static final String CHECK_KEY = "check";
 
     public static final String REGISTER_KEY = "register";
@@ -462,6 +495,16 @@ public class Constants {
      */
     public static final String REGISTRY_FILESAVE_SYNC_KEY = "save.file";
 
+    /**
+     * The format of register center's file cache, the extension name of RegistryCacheStoreFactory
+     */
+    public static final String REGISTRY_FILE_STORE_KEY = "file.store";
+
+    /**
+     * Default value for the format of register center's file cache: binary, the legacy format is properties
+     */
+    public static final String DEFAULT_REGISTRY_FILE_STORE = "binary";
+
     /**
      * Period of registry center's retry interval
      */
@@ -472,6 +515,22 @@ public class Constants {
      */
     public static final int DEFAULT_REGISTRY_RETRY_PERIOD = 5 * 1000;
 
+    /**
+     * Quiet period in milliseconds of registry center's notifications, a burst of notifications for the same
+     * subscription is delivered as one notification with the latest urls, 0 means no debouncing
+     */
+    public static final String REGISTRY_NOTIFY_DEBOUNCE_KEY = "notify.debounce";
+
+    /**
+     * The longest time in milliseconds a debounced notification is held back
+     */
+    public static final String REGISTRY_NOTIFY_MAX_DELAY_KEY = "notify.max.delay";
+
+    /**
+     * Default value for the longest time a debounced notification is held back: 1000
+     */
+    public static final int DEFAULT_REGISTRY_NOTIFY_MAX_DELAY = 1000;
+
     /**
      * Reconnection period in milliseconds for register center
      */
@@ -483,6 +542,12 @@ public class Constants {
 
     public static final int DEFAULT_SESSION_TIMEOUT = 60 * 1000;
 
+    /**
+     * To decide whether the registry directory refreshes its invokers off the notifying thread, coalescing the
+     * notifications that arrive meanwhile, the default value is synchronously
+     */
+    public static final String REFRESH_ASYNC_KEY = "refresh.async";
+
     /**
      * The key name for export URL in register center
      */
@@ -524,6 +589,24 @@ public class Constants {
 
     public static final String SHUTDOWN_WAIT_KEY = "dubbo.service.shutdown.wait";
 
+    public static final String FUTURE_TIMER_TICK_KEY = "dubbo.future.timer.tick";
+
+    public static final int DEFAULT_FUTURE_TIMER_TICK = 30;
+
+    public static final String FUTURE_TIMER_WHEEL_KEY = "dubbo.future.timer.wheel";
+
+    public static final int DEFAULT_FUTURE_TIMER_WHEEL = 512;
+
+    /**
+     * microseconds a synchronous caller spins before parking while waiting for the response, 0 disables spinning
+     */
+    public static final String FUTURE_SPIN_KEY = "future.spin";
+
+    /**
+     * whether a synchronous caller handles its response itself instead of the client thread pool
+     */
+    public static final String THREADLESS_KEY = "threadless";
+
     public static final String IS_SERVER_KEY = "isserver";
 
     /**
@@ -595,10 +678,60 @@ public class Constants {
 
     public static final long DEFAULT_TPS_LIMIT_INTERVAL = 60 * 1000;
 
+    /**
+     * The tps limiter: default, a counter reset every interval, or tokenbucket
+     */
+    public static final String TPS_LIMITER_KEY = "tps.limiter";
+
+    /**
+     * What the tps of the token bucket limiter is counted by: service, method or application (of the consumer)
+     */
+    public static final String TPS_LIMIT_SCOPE_KEY = "tps.scope";
+
+    public static final String DEFAULT_TPS_LIMIT_SCOPE = "service";
+
+    /**
+     * The calls the token bucket limiter lets through at once, 10 milliseconds of the rate (at least one) by default
+     */
+    public static final String TPS_LIMIT_BURST_KEY = "tps.burst";
+
+    /**
+     * The adaptive concurrency limit of a provider method: gradient or vegas
+     */
+    public static final String ADAPTIVE_LIMIT_KEY = "adaptive.limit";
+
+    public static final String ADAPTIVE_LIMIT_INITIAL_KEY = "adaptive.limit.initial";
+
+    public static final int DEFAULT_ADAPTIVE_LIMIT_INITIAL = 20;
+
+    public static final String ADAPTIVE_LIMIT_MIN_KEY = "adaptive.limit.min";
+
+    public static final int DEFAULT_ADAPTIVE_LIMIT_MIN = 1;
+
+    public static final String ADAPTIVE_LIMIT_MAX_KEY = "adaptive.limit.max";
+
+    public static final int DEFAULT_ADAPTIVE_LIMIT_MAX = 1000;
+
     public static final String DECODE_IN_IO_THREAD_KEY = "decode.in.io";
 
     public static final boolean DEFAULT_DECODE_IN_IO_THREAD = true;
 
+    /**
+     * when decoding on the business threads, message bodies of at least this many bytes are handed over as a
+     * retained slice of the transport buffer instead of a copy, if the transport supports it. 0 disables it.
+     */
+    public static final String DECODE_ZERO_COPY_THRESHOLD_KEY = "decode.zerocopy.threshold";
+
+    public static final int DEFAULT_DECODE_ZERO_COPY_THRESHOLD = 100 * 1024;
+
+    /**
+     * once the provider on a connection is known to support it, send the service path, method and parameter types of
+     * an invocation only once and refer to them by id afterwards
+     */
+    public static final String INVOCATION_INTERNING_KEY = "invocation.interning";
+
+    public static final boolean DEFAULT_INVOCATION_INTERNING = true;
+
     public static final String INPUT_KEY = "input";
 
     public static final String OUTPUT_KEY = "output";
@@ -639,6 +772,13 @@ public class Constants {
 
     public static final boolean DEFAULT_HESSIAN_OVERLOAD_METHOD = false;
 
+    /**
+     * Whether hessian2 serialization reuses one Hessian2Output/Hessian2Input per thread instead of creating them for every message
+     */
+    public static final String HESSIAN2_RECYCLE_KEY = "hessian2.recycle";
+
+    public static final boolean DEFAULT_HESSIAN2_RECYCLE = false;
+
     public static final String MULTICAST = "multicast";
 
     public final static String REGISTRY_PREFIX = "registry/";
@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * MethodParameters, the parameters of a url as seen by one method (Immutable, ThreadSafe).
+ * <p>
+ * Same lookup as {@link URL#getMethodParameter(String, String)}, a non empty <code>method.key</code> overrides
+ * <code>key</code>, but the method overrides are split out once and the parameters read on every invocation are
+ * parsed once, so the invocation path neither concatenates keys nor parses numbers.
+ *
+ * @see URL#getMethodParameters(String)
+ */
+public final class MethodParameters {
+
+    private final URL url;
+
+    private final String method;
+
+    private final Map<String, String> methodParameters;
+
+    // ==== parsed on construction ====
+
+    private final Integer timeout;
+
+    private final Integer weight;
+
+    private final Integer actives;
+
+    private final boolean async;
+
+    private final boolean oneway;
+
+    private final boolean sent;
+
+    // the integer parameters above that are set but not numbers, looked up again on access to report it
+    private final boolean invalidTimeout;
+
+    private final boolean invalidWeight;
+
+    private final boolean invalidActives;
+
+    MethodParameters(URL url, String method) {
+        this.url = url;
+        this.method = method;
+        Map<String, String> methodParameters = new HashMap<String, String>();
+        String prefix = method + ".";
+        for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+            String key = entry.getKey();
+            String value = entry.getValue();
+            if (key.startsWith(prefix) && value != null && value.length() > 0) {
+                methodParameters.put(key.substring(prefix.length()), value);
+            }
+        }
+        this.methodParameters = methodParameters;
+        this.timeout = parseInteger(getParameter(Constants.TIMEOUT_KEY));
+        this.weight = parseInteger(getParameter(Constants.WEIGHT_KEY));
+        this.actives = parseInteger(getParameter(Constants.ACTIVES_KEY));
+        this.invalidTimeout = timeout == null && isSet(Constants.TIMEOUT_KEY);
+        this.invalidWeight = weight == null && isSet(Constants.WEIGHT_KEY);
+        this.invalidActives = actives == null && isSet(Constants.ACTIVES_KEY);
+        this.async = getParameter(Constants.ASYNC_KEY, false);
+        this.oneway = !getParameter(Constants.RETURN_KEY, true);
+        this.sent = getParameter(Constants.SENT_KEY, false);
+    }
+
+    private static Integer parseInteger(String value) {
+        if (value == null || value.length() == 0) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            // left to the lookup on access, which reports it as before
+            return null;
+        }
+    }
+
+    private boolean isSet(String key) {
+        String value = getParameter(key);
+        return value != null && value.length() > 0;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public String getMethodName() {
+        return method;
+    }
+
+    public String getParameter(String key) {
+        String value = methodParameters.get(key);
+        if (value == null) {
+            return url.getParameter(key);
+        }
+        return value;
+    }
+
+    public String getParameter(String key, String defaultValue) {
+        String value = getParameter(key);
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        return value;
+    }
+
+    public int getParameter(String key, int defaultValue) {
+        String value = getParameter(key);
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        return Integer.parseInt(value);
+    }
+
+    public long getParameter(String key, long defaultValue) {
+        String value = getParameter(key);
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        return Long.parseLong(value);
+    }
+
+    public boolean getParameter(String key, boolean defaultValue) {
+        String value = getParameter(key);
+        if (value == null || value.length() == 0) {
+            return defaultValue;
+        }
+        return Boolean.parseBoolean(value);
+    }
+
+    /**
+     * @return the <code>timeout</code> of the method, or the defaultValue if not configured
+     */
+    public int getTimeout(int defaultValue) {
+        if (timeout != null) {
+            return timeout;
+        }
+        return invalidTimeout ? getParameter(Constants.TIMEOUT_KEY, defaultValue) : defaultValue;
+    }
+
+    /**
+     * @return the <code>weight</code> of the method, or {@link Constants#DEFAULT_WEIGHT} if not configured
+     */
+    public int getWeight() {
+        if (weight != null) {
+            return weight;
+        }
+        return invalidWeight ? getParameter(Constants.WEIGHT_KEY, Constants.DEFAULT_WEIGHT) : Constants.DEFAULT_WEIGHT;
+    }
+
+    /**
+     * @return the <code>actives</code> limit of the method, or 0 if not limited
+     */
+    public int getActives() {
+        if (actives != null) {
+            return actives;
+        }
+        return invalidActives ? getParameter(Constants.ACTIVES_KEY, 0) : 0;
+    }
+
+    /**
+     * @return whether <code>async=true</code> is configured for the method
+     */
+    public boolean isAsync() {
+        return async;
+    }
+
+    /**
+     * @return whether <code>return=false</code> is configured for the method
+     */
+    public boolean isOneway() {
+        return oneway;
+    }
+
+    /**
+     * @return whether <code>sent=true</code> is configured for the method
+     */
+    public boolean isSent() {
+        return sent;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + url;
+    }
+
+}
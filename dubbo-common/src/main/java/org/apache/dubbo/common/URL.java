@@ -94,10 +94,14 @@ public /**final**/ class URL implements Serializable {
 
     private volatile transient Map<String, URL> urls;
 
+    private volatile transient Map<String, MethodParameters> methodParameters;
+
     private volatile transient String ip;
 
     private volatile transient String full;
 
+    private volatile transient String serviceKey;
+
     private volatile transient String identity;
 
     private volatile transient String parameter;
@@ -656,6 +660,26 @@ public /**final**/ class URL implements Serializable {
         return URL.decode(getMethodParameter(method, key, defaultValue));
     }
 
+    /**
+     * Get the parameters seen by a method, built once per method and cached, for the lookups on every invocation.
+     */
+    public MethodParameters getMethodParameters(String method) {
+        if (method == null) {
+            return new MethodParameters(this, null);
+        }
+        Map<String, MethodParameters> cache = methodParameters;
+        if (cache == null) { // concurrent initialization is tolerant
+            cache = new ConcurrentHashMap<String, MethodParameters>();
+            methodParameters = cache;
+        }
+        MethodParameters p = cache.get(method);
+        if (p == null) {
+            cache.putIfAbsent(method, new MethodParameters(this, method));
+            p = cache.get(method);
+        }
+        return p;
+    }
+
     public String getMethodParameter(String method, String key) {
         String value = parameters.get(method + "." + key);
         if (value == null || value.length() == 0) {
@@ -1217,6 +1241,9 @@ public /**final**/ class URL implements Serializable {
     }
 
     public String getServiceKey() {
+        if (serviceKey != null) {
+            return serviceKey;
+        }
         String inf = getServiceInterface();
         if (inf == null) return null;
         StringBuilder buf = new StringBuilder();
@@ -1229,7 +1256,8 @@ public /**final**/ class URL implements Serializable {
         if (version != null && version.length() > 0) {
             buf.append(":").append(version);
         }
-        return buf.toString();
+        serviceKey = buf.toString();
+        return serviceKey;
     }
 
     public String toServiceStringWithoutResolving() {
@@ -35,7 +35,7 @@ public final class Version {
     private static final Logger logger = LoggerFactory.getLogger(Version.class);
 
     // Dubbo RPC protocol version, for compatibility, it must not be between 2.0.10 ~ 2.6.2
-    public static final String DEFAULT_DUBBO_PROTOCOL_VERSION = "2.0.2";
+    public static final String DEFAULT_DUBBO_PROTOCOL_VERSION = "2.0.3";
     // Dubbo implementation version, usually is jar version.
     private static final String VERSION = getVersion(Version.class, "");
 
@@ -44,6 +44,10 @@ public final class Version {
      * Because {@link #isSupportResponseAttatchment} is checked for every call, int compare expect to has higher performance than string.
      */
     private static final int LOWEST_VERSION_FOR_RESPONSE_ATTATCHMENT = 20002; // 2.0.2
+    /**
+     * Since 2.0.3 a request may refer to the service path, method and parameter types sent earlier on the same connection by id.
+     */
+    private static final int LOWEST_VERSION_FOR_INVOCATION_INTERNING = 20003; // 2.0.3
     private static final Map<String, Integer> VERSION2INT = new HashMap<String, Integer>();
 
     static {
@@ -63,6 +67,14 @@ public final class Version {
     }
 
     public static boolean isSupportResponseAttatchment(String version) {
+        return isSupport(version, LOWEST_VERSION_FOR_RESPONSE_ATTATCHMENT);
+    }
+
+    public static boolean isSupportInvocationInterning(String version) {
+        return isSupport(version, LOWEST_VERSION_FOR_INVOCATION_INTERNING);
+    }
+
+    private static boolean isSupport(String version, int lowestVersion) {
         if (version == null || version.length() == 0) {
             return false;
         }
@@ -72,7 +84,7 @@ public final class Version {
             return false;
         }
 
-        return iVersion >= LOWEST_VERSION_FOR_RESPONSE_ATTATCHMENT;
+        return iVersion >= lowestVersion;
     }
 
     public static int getIntVersion(String version) {
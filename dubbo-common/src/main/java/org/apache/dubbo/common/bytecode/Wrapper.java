@@ -24,6 +24,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
@@ -86,9 +87,23 @@ public abstract class Wrapper {
             }
             throw new NoSuchMethodException("Method [" + mn + "] not found.");
         }
+
+        @Override
+        public int getMethodIndex(String mn, Class<?>[] types) {
+            return -1;
+        }
+
+        @Override
+        public Object invokeMethod(Object instance, int index, Object[] args) throws NoSuchMethodException {
+            throw new NoSuchMethodException("Method index [" + index + "] not found.");
+        }
     };
     private static AtomicLong WRAPPER_CLASS_COUNTER = new AtomicLong(0);
 
+    private String className;
+    private Map<String, MethodCandidates> methodCandidates = Collections.emptyMap(); // <method name, candidate indexes>
+    private Class<?>[][] methodParameterTypes = new Class<?>[0][]; // parameter types by method index.
+
     /**
      * get wrapper.
      *
@@ -119,7 +134,7 @@ public abstract class Wrapper {
 
         StringBuilder c1 = new StringBuilder("public void setPropertyValue(Object o, String n, Object v){ ");
         StringBuilder c2 = new StringBuilder("public Object getPropertyValue(Object o, String n){ ");
-        StringBuilder c3 = new StringBuilder("public Object invokeMethod(Object o, String n, Class[] p, Object[] v) throws " + InvocationTargetException.class.getName() + "{ ");
+        StringBuilder c3 = new StringBuilder("public Object invokeMethod(Object o, int i, Object[] v) throws " + InvocationTargetException.class.getName() + "{ ");
 
         c1.append(name).append(" w; try{ w = ((").append(name).append(")$1); }catch(Throwable e){ throw new IllegalArgumentException(e); }");
         c2.append(name).append(" w; try{ w = ((").append(name).append(")$1); }catch(Throwable e){ throw new IllegalArgumentException(e); }");
@@ -129,6 +144,9 @@ public abstract class Wrapper {
         Map<String, Method> ms = new LinkedHashMap<String, Method>(); // <method desc, Method instance>
         List<String> mns = new ArrayList<String>(); // method names.
         List<String> dmns = new ArrayList<String>(); // declaring method names.
+        List<Class<?>[]> mpts = new ArrayList<Class<?>[]>(); // method parameter types, by method index.
+        Map<String, List<Integer>> mis = new HashMap<String, List<Integer>>(); // <method name, method indexes>
+        Map<String, Boolean> overloads = new HashMap<String, Boolean>(); // <method name, is overloaded>
 
         // get all public field.
         for (Field f : c.getFields()) {
@@ -146,16 +164,23 @@ public abstract class Wrapper {
         // get all public method.
         boolean hasMethod = hasMethods(methods);
         if (hasMethod) {
-            c3.append(" try{");
+            c3.append(" try{ switch( $2 ){");
         }
         for (Method m : methods) {
             if (m.getDeclaringClass() == Object.class) //ignore Object's method.
                 continue;
 
             String mn = m.getName();
-            c3.append(" if( \"").append(mn).append("\".equals( $2 ) ");
+            int index = mpts.size();
             int len = m.getParameterTypes().length;
-            c3.append(" && ").append(" $3.length == ").append(len);
+            c3.append(" case ").append(index).append(": ");
+            if (len > 0)
+                c3.append(" if( $3 == null || $3.length != ").append(len).append(" ) break;");
+
+            if (m.getReturnType() == Void.TYPE)
+                c3.append(" w.").append(mn).append('(').append(args(m.getParameterTypes(), "$3")).append(");").append(" return null;");
+            else
+                c3.append(" return ($w)w.").append(mn).append('(').append(args(m.getParameterTypes(), "$3")).append(");");
 
             boolean override = false;
             for (Method m2 : methods) {
@@ -164,23 +189,14 @@ public abstract class Wrapper {
                     break;
                 }
             }
-            if (override) {
-                if (len > 0) {
-                    for (int l = 0; l < len; l++) {
-                        c3.append(" && ").append(" $3[").append(l).append("].getName().equals(\"")
-                                .append(m.getParameterTypes()[l].getName()).append("\")");
-                    }
-                }
+            List<Integer> indexes = mis.get(mn);
+            if (indexes == null) {
+                indexes = new ArrayList<Integer>();
+                mis.put(mn, indexes);
             }
-
-            c3.append(" ) { ");
-
-            if (m.getReturnType() == Void.TYPE)
-                c3.append(" w.").append(mn).append('(').append(args(m.getParameterTypes(), "$4")).append(");").append(" return null;");
-            else
-                c3.append(" return ($w)w.").append(mn).append('(').append(args(m.getParameterTypes(), "$4")).append(");");
-
-            c3.append(" }");
+            indexes.add(index);
+            overloads.put(mn, override);
+            mpts.add(m.getParameterTypes());
 
             mns.add(mn);
             if (m.getDeclaringClass() == c)
@@ -188,12 +204,14 @@ public abstract class Wrapper {
             ms.put(ReflectUtils.getDesc(m), m);
         }
         if (hasMethod) {
-            c3.append(" } catch(Throwable e) { ");
+            c3.append(" } } catch(Throwable e) { ");
             c3.append("     throw new java.lang.reflect.InvocationTargetException(e); ");
             c3.append(" }");
         }
 
-        c3.append(" throw new " + NoSuchMethodException.class.getName() + "(\"Not found method \\\"\"+$2+\"\\\" in class " + c.getName() + ".\"); }");
+        // the switch breaks out when the argument count does not match the method
+        c3.append(" if( $2 >= 0 && $2 < mns.length ) throw new " + NoSuchMethodException.class.getName() + "(\"Not found method \\\"\"+mns[$2]+\"\\\" with \"+($3 == null ? 0 : $3.length)+\" arguments in class " + c.getName() + ".\");");
+        c3.append(" throw new " + NoSuchMethodException.class.getName() + "(\"Not found method index \"+$2+\" in class " + c.getName() + ".\"); }");
 
         // deal with get/set method.
         Matcher matcher;
@@ -251,7 +269,19 @@ public abstract class Wrapper {
             int ix = 0;
             for (Method m : ms.values())
                 wc.getField("mts" + ix++).set(null, m.getParameterTypes());
-            return (Wrapper) wc.newInstance();
+            Map<String, MethodCandidates> candidates = new HashMap<String, MethodCandidates>();
+            for (Map.Entry<String, List<Integer>> entry : mis.entrySet()) {
+                List<Integer> indexes = entry.getValue();
+                int[] array = new int[indexes.size()];
+                for (int i = 0; i < array.length; i++)
+                    array[i] = indexes.get(i);
+                candidates.put(entry.getKey(), new MethodCandidates(array, overloads.get(entry.getKey())));
+            }
+            Wrapper wrapper = (Wrapper) wc.newInstance();
+            wrapper.className = name;
+            wrapper.methodCandidates = candidates;
+            wrapper.methodParameterTypes = mpts.toArray(new Class<?>[0][]);
+            return wrapper;
         } catch (RuntimeException e) {
             throw e;
         } catch (Throwable e) {
@@ -261,6 +291,9 @@ public abstract class Wrapper {
             ms.clear();
             mns.clear();
             dmns.clear();
+            mpts.clear();
+            mis.clear();
+            overloads.clear();
         }
     }
 
@@ -411,6 +444,34 @@ public abstract class Wrapper {
         return false;
     }
 
+    /**
+     * get method index, which could be passed to {@link #invokeMethod(Object, int, Object[])}.
+     *
+     * @param mn    method name.
+     * @param types parameter types, only compared when the method is overloaded.
+     * @return method index, or -1 if not found.
+     */
+    public int getMethodIndex(String mn, Class<?>[] types) {
+        MethodCandidates candidates = methodCandidates.get(mn);
+        if (candidates == null)
+            return -1;
+        int len = types == null ? 0 : types.length;
+        for (int index : candidates.indexes) {
+            Class<?>[] pts = methodParameterTypes[index];
+            if (pts.length == len && (!candidates.overloaded || sameTypes(pts, types)))
+                return index;
+        }
+        return -1;
+    }
+
+    private static boolean sameTypes(Class<?>[] pts, Class<?>[] types) {
+        for (int i = 0; i < pts.length; i++) {
+            if (pts[i] != types[i] && !pts[i].getName().equals(types[i].getName()))
+                return false;
+        }
+        return true;
+    }
+
     /**
      * invoke method.
      *
@@ -420,5 +481,30 @@ public abstract class Wrapper {
      * @param args     argument array.
      * @return return value.
      */
-    abstract public Object invokeMethod(Object instance, String mn, Class<?>[] types, Object[] args) throws NoSuchMethodException, InvocationTargetException;
+    public Object invokeMethod(Object instance, String mn, Class<?>[] types, Object[] args) throws NoSuchMethodException, InvocationTargetException {
+        int index = getMethodIndex(mn, types);
+        if (index < 0)
+            throw new NoSuchMethodException("Not found method \"" + mn + "\" in class " + className + ".");
+        return invokeMethod(instance, index, args);
+    }
+
+    /**
+     * invoke method by index, dispatched with a switch instead of comparing method names.
+     *
+     * @param instance instance.
+     * @param index    method index, see {@link #getMethodIndex(String, Class[])}.
+     * @param args     argument array.
+     * @return return value.
+     */
+    abstract public Object invokeMethod(Object instance, int index, Object[] args) throws NoSuchMethodException, InvocationTargetException;
+
+    private static class MethodCandidates {
+        final int[] indexes;
+        final boolean overloaded;
+
+        MethodCandidates(int[] indexes, boolean overloaded) {
+            this.indexes = indexes;
+            this.overloaded = overloaded;
+        }
+    }
 }
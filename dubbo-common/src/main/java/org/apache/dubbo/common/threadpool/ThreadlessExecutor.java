@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executor whose tasks are run by the thread waiting for them. A synchronous caller hands one to its request, the
+ * response is queued here instead of being dispatched to a thread pool, and the caller runs it itself in
+ * {@link #waitAndDrain(long)}, which saves the hop through the pool and the wake up of the caller.
+ * <p>
+ * Once the caller stopped waiting, see {@link #finish()}, tasks are run by the thread executing them.
+ */
+public class ThreadlessExecutor implements Executor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThreadlessExecutor.class);
+
+    private static final Runnable WAKE_UP = new Runnable() {
+        @Override
+        public void run() {
+        }
+    };
+
+    private final BlockingQueue<Runnable> queue = new LinkedBlockingQueue<Runnable>();
+
+    private boolean waiting = true;
+
+    private volatile Thread waiter;
+
+    /**
+     * Wait for a task up to the timeout, then run it and any other task queued meanwhile.
+     */
+    public void waitAndDrain(long timeoutNanos) throws InterruptedException {
+        waiter = Thread.currentThread();
+        Runnable task = queue.poll(timeoutNanos, TimeUnit.NANOSECONDS);
+        while (task != null) {
+            runTask(task);
+            task = queue.poll();
+        }
+    }
+
+    /**
+     * The caller is not waiting anymore, run what is left in the queue.
+     */
+    public void finish() {
+        synchronized (this) {
+            waiting = false;
+        }
+        Runnable task;
+        while ((task = queue.poll()) != null) {
+            runTask(task);
+        }
+    }
+
+    /**
+     * Make the caller check again what it waits for, which was completed by another thread than its own.
+     */
+    public void wakeUp() {
+        if (Thread.currentThread() != waiter) {
+            execute(WAKE_UP);
+        }
+    }
+
+    public synchronized boolean isWaiting() {
+        return waiting;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        synchronized (this) {
+            if (waiting) {
+                queue.add(command);
+                return;
+            }
+        }
+        if (command != WAKE_UP) {
+            command.run();
+        }
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable t) {
+            logger.warn("Failed to run task " + task + " in the waiting thread: " + t.getMessage(), t);
+        }
+    }
+
+}
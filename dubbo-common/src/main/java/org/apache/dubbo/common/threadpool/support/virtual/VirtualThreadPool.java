@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.virtual;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+import org.apache.dubbo.common.threadpool.support.fixed.FixedThreadPool;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Runs every task in a new virtual thread, so handlers blocking on io do not hold a platform thread and
+ * <code>threads</code> does not cap the requests being served. Virtual threads are used automatically when the jvm
+ * supports them (java 21+), on older ones this falls back to {@link FixedThreadPool}.
+ */
+public class VirtualThreadPool implements ThreadPool {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPool.class);
+
+    private static final Method OF_VIRTUAL;
+
+    private static final Method BUILDER_NAME;
+
+    private static final Method BUILDER_FACTORY;
+
+    private static final Method NEW_THREAD_PER_TASK_EXECUTOR;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        Method newExecutor = null;
+        try {
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+            newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            // virtual threads are a preview feature before java 21, this fails unless they are enabled
+            ofVirtual.invoke(null);
+        } catch (Throwable t) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        BUILDER_NAME = name;
+        BUILDER_FACTORY = factory;
+        NEW_THREAD_PER_TASK_EXECUTOR = newExecutor;
+    }
+
+    public static boolean isSupported() {
+        return OF_VIRTUAL != null;
+    }
+
+    @Override
+    public Executor getExecutor(URL url) {
+        String name = url.getParameter(Constants.THREAD_NAME_KEY, Constants.DEFAULT_THREAD_NAME);
+        if (isSupported()) {
+            try {
+                Object builder = BUILDER_NAME.invoke(OF_VIRTUAL.invoke(null), name + "-virtual-", 1L);
+                ThreadFactory factory = (ThreadFactory) BUILDER_FACTORY.invoke(builder);
+                return (ExecutorService) NEW_THREAD_PER_TASK_EXECUTOR.invoke(null, factory);
+            } catch (Throwable t) {
+                logger.warn("Failed to create virtual thread executor " + name + ", use fixed thread pool instead.", t);
+            }
+        } else {
+            logger.warn("Virtual threads are not supported by java " + System.getProperty("java.version")
+                    + ", use fixed thread pool instead for " + name + ".");
+        }
+        return new FixedThreadPool().getExecutor(url);
+    }
+
+}
@@ -0,0 +1,372 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.workstealing;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * WorkStealingQueue, the work queue of the {@link WorkStealingThreadPool}. It is made of shards, each submitting
+ * thread offers to its own shard and each worker takes from its own shard first, then steals from the others, so
+ * the io threads do not contend on the single lock of a {@link LinkedBlockingQueue}.
+ * <p>
+ * Idle workers park. As with the waiting takers of a {@link LinkedBlockingQueue}, one of them is woken at a time: a
+ * worker is only woken when no other woken worker is still searching for a task, and the woken worker wakes the next
+ * one when it finds a task and more are left. Waking a worker per task would switch threads for every task.
+ * <p>
+ * The capacity is split among the shards, an offer tries the other shards when its own is full and is refused only
+ * when all of them are. With a capacity of 0 the queue hands off like a {@link java.util.concurrent.SynchronousQueue}:
+ * an offer is accepted only when a worker is idle. A negative capacity makes the shards unbounded.
+ */
+public class WorkStealingQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable> {
+
+    private static final int RUNNING = 0;
+
+    private static final int IDLE = 1;
+
+    private static final int SEARCHING = 2;
+
+    private final LinkedBlockingQueue<Runnable>[] shards;
+
+    private final boolean handOff;
+
+    /**
+     * the idle workers, the last one parked is woken first
+     */
+    private final ConcurrentLinkedDeque<Worker> idle = new ConcurrentLinkedDeque<Worker>();
+
+    /**
+     * the workers woken that have not found a task or gone idle again yet
+     */
+    private final AtomicInteger searching = new AtomicInteger();
+
+    private final AtomicInteger nextShard = new AtomicInteger();
+
+    private final ThreadLocal<Integer> submitterShard = new ThreadLocal<Integer>() {
+        @Override
+        protected Integer initialValue() {
+            return nextShard();
+        }
+    };
+
+    private final ThreadLocal<Worker> workers = new ThreadLocal<Worker>() {
+        @Override
+        protected Worker initialValue() {
+            return new Worker(Thread.currentThread(), nextShard());
+        }
+    };
+
+    @SuppressWarnings("unchecked")
+    public WorkStealingQueue(int shards, int capacity) {
+        if (shards <= 0) {
+            throw new IllegalArgumentException("shards must be positive: " + shards);
+        }
+        this.handOff = capacity == 0;
+        if (capacity > 0) {
+            shards = Math.min(shards, capacity);
+        }
+        this.shards = new LinkedBlockingQueue[shards];
+        for (int i = 0; i < shards; i++) {
+            this.shards[i] = capacity <= 0 ? new LinkedBlockingQueue<Runnable>()
+                    : new LinkedBlockingQueue<Runnable>(capacity / shards + (i < capacity % shards ? 1 : 0));
+        }
+    }
+
+    public int getShards() {
+        return shards.length;
+    }
+
+    @Override
+    public boolean offer(Runnable runnable) {
+        if (runnable == null) {
+            throw new NullPointerException();
+        }
+        if (handOff) {
+            searching.incrementAndGet();
+            Worker worker = claimIdle();
+            if (worker == null) {
+                searching.decrementAndGet();
+                return false;
+            }
+            shards[worker.home].offer(runnable);
+            LockSupport.unpark(worker.thread);
+            return true;
+        }
+        int start = submitterShard.get();
+        for (int i = 0; i < shards.length; i++) {
+            if (shards[(start + i) % shards.length].offer(runnable)) {
+                signal();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Waits on the shard of the submitting thread when all the shards are full, a hand off queue does not wait.
+     */
+    @Override
+    public boolean offer(Runnable runnable, long timeout, TimeUnit unit) throws InterruptedException {
+        if (offer(runnable)) {
+            return true;
+        }
+        if (handOff || !shards[submitterShard.get()].offer(runnable, timeout, unit)) {
+            return false;
+        }
+        signal();
+        return true;
+    }
+
+    @Override
+    public void put(Runnable runnable) throws InterruptedException {
+        if (!offer(runnable, Long.MAX_VALUE, TimeUnit.NANOSECONDS)) {
+            throw new IllegalStateException("Hand off queue can not wait for an idle worker");
+        }
+    }
+
+    @Override
+    public Runnable poll() {
+        return steal(0);
+    }
+
+    @Override
+    public Runnable take() throws InterruptedException {
+        return poll(-1);
+    }
+
+    @Override
+    public Runnable poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return poll(Math.max(0, unit.toNanos(timeout)));
+    }
+
+    /**
+     * @param nanos the time to wait for a task, negative to wait until one comes
+     */
+    private Runnable poll(long nanos) throws InterruptedException {
+        Worker worker = workers.get();
+        long deadline = System.nanoTime() + nanos;
+        try {
+            for (; ; ) {
+                Runnable runnable = steal(worker.home);
+                if (runnable != null) {
+                    return runnable;
+                }
+                int state = worker.state.get();
+                if (state != IDLE) {
+                    // only this worker leaves the running and searching states
+                    worker.state.set(IDLE);
+                    idle.push(worker);
+                    if (state == SEARCHING) {
+                        searching.decrementAndGet();
+                    }
+                    // rescan, a task may have been offered before this worker was seen idle
+                    continue;
+                }
+                if (nanos < 0) {
+                    LockSupport.park(this);
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    LockSupport.parkNanos(this, remaining);
+                }
+                if (Thread.interrupted()) {
+                    throw new InterruptedException();
+                }
+            }
+        } finally {
+            if (worker.state.compareAndSet(IDLE, RUNNING)) {
+                idle.remove(worker);
+            } else if (worker.state.get() == SEARCHING) {
+                worker.state.set(RUNNING);
+                if (searching.decrementAndGet() == 0 && hasTasks()) {
+                    signal();
+                }
+            }
+        }
+    }
+
+    private Runnable steal(int home) {
+        for (int i = 0; i < shards.length; i++) {
+            Runnable runnable = shards[(home + i) % shards.length].poll();
+            if (runnable != null) {
+                return runnable;
+            }
+        }
+        return null;
+    }
+
+    private boolean hasTasks() {
+        for (LinkedBlockingQueue<Runnable> shard : shards) {
+            if (!shard.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Wakes an idle worker, unless a worker woken before is still searching: it will wake the next one.
+     */
+    private void signal() {
+        while (searching.get() == 0 && !idle.isEmpty()) {
+            if (!searching.compareAndSet(0, 1)) {
+                return;
+            }
+            Worker worker = claimIdle();
+            if (worker != null) {
+                LockSupport.unpark(worker.thread);
+                return;
+            }
+            searching.decrementAndGet();
+        }
+    }
+
+    private Worker claimIdle() {
+        for (Worker worker = idle.poll(); worker != null; worker = idle.poll()) {
+            // fails when the worker found a task by itself and is leaving the idle ones
+            if (worker.state.compareAndSet(IDLE, SEARCHING)) {
+                return worker;
+            }
+        }
+        return null;
+    }
+
+    private int nextShard() {
+        return (nextShard.getAndIncrement() & Integer.MAX_VALUE) % shards.length;
+    }
+
+    @Override
+    public Runnable peek() {
+        for (LinkedBlockingQueue<Runnable> shard : shards) {
+            Runnable runnable = shard.peek();
+            if (runnable != null) {
+                return runnable;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (LinkedBlockingQueue<Runnable> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public int remainingCapacity() {
+        if (handOff) {
+            return 0;
+        }
+        long remaining = 0;
+        for (LinkedBlockingQueue<Runnable> shard : shards) {
+            remaining += shard.remainingCapacity();
+        }
+        return (int) Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        for (LinkedBlockingQueue<Runnable> shard : shards) {
+            if (shard.remove(o)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(Collection<? super Runnable> c, int maxElements) {
+        int drained = 0;
+        for (int i = 0; i < shards.length && drained < maxElements; i++) {
+            drained += shards[i].drainTo(c, maxElements - drained);
+        }
+        return drained;
+    }
+
+    /**
+     * Iterates over a snapshot of the shards.
+     */
+    @Override
+    public Iterator<Runnable> iterator() {
+        final List<Runnable> snapshot = new ArrayList<Runnable>();
+        for (LinkedBlockingQueue<Runnable> shard : shards) {
+            snapshot.addAll(shard);
+        }
+        return new Iterator<Runnable>() {
+
+            private int next;
+
+            private Runnable last;
+
+            @Override
+            public boolean hasNext() {
+                return next < snapshot.size();
+            }
+
+            @Override
+            public Runnable next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return last = snapshot.get(next++);
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                WorkStealingQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+
+    private static class Worker {
+
+        private final Thread thread;
+
+        private final int home;
+
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+
+        Worker(Thread thread, int home) {
+            this.thread = thread;
+            this.home = home;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A thread safe map from primitive long keys to objects, striped over several {@link LongObjectHashMap}s which
+ * are each guarded by their own monitor. The stripe is chosen by the low bits of the key, so sequential keys
+ * taken by different threads, such as request ids, spread over the stripes instead of contending on one lock.
+ * <p>
+ * Null values are not supported.
+ */
+public class ConcurrentLongObjectHashMap<V> {
+
+    private static final int MAX_STRIPES = 64;
+
+    private final LongObjectHashMap<V>[] stripes;
+
+    private final int mask;
+
+    public ConcurrentLongObjectHashMap() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLongObjectHashMap(int concurrencyLevel) {
+        int size = 1;
+        while (size < concurrencyLevel && size < MAX_STRIPES) {
+            size <<= 1;
+        }
+        stripes = new LongObjectHashMap[size];
+        for (int i = 0; i < size; i++) {
+            // stripes start small, a channel rarely has many requests in flight
+            stripes[i] = new LongObjectHashMap<V>(1);
+        }
+        mask = size - 1;
+    }
+
+    private LongObjectHashMap<V> stripe(long key) {
+        return stripes[(int) key & mask];
+    }
+
+    public V get(long key) {
+        LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * @return the previous value associated with the key, or null if there was none
+     */
+    public V put(long key, V value) {
+        LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    /**
+     * @return the removed value, or null if the key was not present
+     */
+    public V remove(long key) {
+        LongObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * @return the number of entries, not a consistent snapshot while the map is modified
+     */
+    public int size() {
+        int size = 0;
+        for (LongObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (LongObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                if (!stripe.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return a snapshot of the values, taken one stripe at a time
+     */
+    public List<V> values() {
+        List<V> result = new ArrayList<V>();
+        for (LongObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                result.addAll(stripe.values());
+            }
+        }
+        return result;
+    }
+}
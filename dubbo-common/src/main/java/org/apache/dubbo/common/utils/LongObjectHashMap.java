@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A map from primitive long keys to objects, using open addressing with linear probing.
+ * Keys are never boxed and no entry objects are allocated, which makes it suitable for
+ * hot paths such as tracking the in-flight requests of a channel.
+ * <p>
+ * Null values are not supported. This class is NOT thread safe.
+ */
+public class LongObjectHashMap<V> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+
+    private Object[] values;
+
+    private int mask;
+
+    private int size;
+
+    public LongObjectHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public LongObjectHashMap(int initialCapacity) {
+        if (initialCapacity < 0) {
+            throw new IllegalArgumentException("initialCapacity must not be negative: " + initialCapacity);
+        }
+        // keep the load factor at or below 0.5
+        int capacity = 2;
+        while (capacity < initialCapacity * 2) {
+            capacity <<= 1;
+        }
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        int index = indexOf(key);
+        return index < 0 ? null : (V) values[index];
+    }
+
+    public boolean containsKey(long key) {
+        return indexOf(key) >= 0;
+    }
+
+    /**
+     * @return the previous value associated with the key, or null if there was none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        if (value == null) {
+            throw new IllegalArgumentException("value == null");
+        }
+        int index = hash(key) & mask;
+        for (; ; ) {
+            Object current = values[index];
+            if (current == null) {
+                keys[index] = key;
+                values[index] = value;
+                if (++size > (mask + 1) >> 1) {
+                    rehash((mask + 1) << 1);
+                }
+                return null;
+            }
+            if (keys[index] == key) {
+                values[index] = value;
+                return (V) current;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    /**
+     * @return the removed value, or null if the key was not present
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V removed = (V) values[index];
+        values[index] = null;
+        size--;
+        // shift the following entries of the probe sequence back, so lookups never need tombstones
+        int free = index;
+        int next = (index + 1) & mask;
+        while (values[next] != null) {
+            int ideal = hash(keys[next]) & mask;
+            boolean stays = free <= next ? (free < ideal && ideal <= next) : (free < ideal || ideal <= next);
+            if (!stays) {
+                keys[free] = keys[next];
+                values[free] = values[next];
+                values[next] = null;
+                free = next;
+            }
+            next = (next + 1) & mask;
+        }
+        return removed;
+    }
+
+    public void clear() {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = null;
+        }
+        size = 0;
+    }
+
+    /**
+     * @return a snapshot of the values
+     */
+    @SuppressWarnings("unchecked")
+    public List<V> values() {
+        List<V> result = new ArrayList<V>(size);
+        for (Object value : values) {
+            if (value != null) {
+                result.add((V) value);
+            }
+        }
+        return result;
+    }
+
+    private int indexOf(long key) {
+        int index = hash(key) & mask;
+        for (; ; ) {
+            if (values[index] == null) {
+                return -1;
+            }
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new long[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            Object value = oldValues[i];
+            if (value != null) {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = value;
+            }
+        }
+    }
+
+    private static int hash(long key) {
+        // sequential ids are common, spread them over the table
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -28,6 +28,7 @@ import java.util.Map;
 import static org.hamcrest.CoreMatchers.anyOf;
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
@@ -680,4 +681,58 @@ public class URLTest {
         assertEquals("1.0.0", url.getParameter("version"));
         assertEquals("morgan", url.getParameter("application"));
     }
+
+    @Test
+    public void testGetServiceKey() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/context/path?interface=org.apache.dubbo.demo.DemoService&group=g1&version=1.0.0");
+        assertEquals("g1/org.apache.dubbo.demo.DemoService:1.0.0", url.getServiceKey());
+        assertSame(url.getServiceKey(), url.getServiceKey());
+        assertEquals("context/path", URL.valueOf("dubbo://127.0.0.1:20880/context/path").getServiceKey());
+        assertNull(URL.valueOf("dubbo://127.0.0.1:20880").getServiceKey());
+        // a changed url has its own key
+        assertEquals("g2/org.apache.dubbo.demo.DemoService:1.0.0", url.addParameter("group", "g2").getServiceKey());
+    }
+
+    @Test
+    public void testGetMethodParameters() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/context/path?timeout=3000&weight=50&async=true"
+                + "&echo.timeout=1000&echo.async=false&echo.return=false&echo.sent=true&echo.weight=&echo.retries=5");
+        MethodParameters echo = url.getMethodParameters("echo");
+        assertSame(echo, url.getMethodParameters("echo"));
+        assertEquals("echo", echo.getMethodName());
+        assertEquals(1000, echo.getTimeout(0));
+        assertEquals(50, echo.getWeight());
+        assertEquals(0, echo.getActives());
+        assertFalse(echo.isAsync());
+        assertTrue(echo.isOneway());
+        assertTrue(echo.isSent());
+        assertEquals(5, echo.getParameter("retries", 2));
+        assertEquals("3000", url.getMethodParameters("other").getParameter("timeout"));
+
+        MethodParameters other = url.getMethodParameters("other");
+        assertEquals(3000, other.getTimeout(0));
+        assertTrue(other.isAsync());
+        assertFalse(other.isOneway());
+        assertFalse(other.isSent());
+        assertEquals(2, other.getParameter("retries", 2));
+        for (String method : new String[]{"echo", "other", null}) {
+            for (String key : new String[]{"timeout", "weight", "async", "return", "sent", "retries", "unknown"}) {
+                assertEquals(url.getMethodParameter(method, key), url.getMethodParameters(method).getParameter(key));
+            }
+        }
+
+        MethodParameters unset = URL.valueOf("dubbo://127.0.0.1:20880/context/path").getMethodParameters("echo");
+        assertEquals(1000, unset.getTimeout(1000));
+        assertEquals(Constants.DEFAULT_WEIGHT, unset.getWeight());
+        assertEquals(0, unset.getActives());
+        assertEquals(20, URL.valueOf("dubbo://127.0.0.1:20880/context/path?default.weight=20").getMethodParameters("echo").getWeight());
+
+        URL invalid = URL.valueOf("dubbo://127.0.0.1:20880/context/path?timeout=abc");
+        assertEquals(Constants.DEFAULT_WEIGHT, invalid.getMethodParameters("echo").getWeight());
+        try {
+            invalid.getMethodParameters("echo").getTimeout(0);
+            fail();
+        } catch (NumberFormatException expected) {
+        }
+    }
 }
\ No newline at end of file
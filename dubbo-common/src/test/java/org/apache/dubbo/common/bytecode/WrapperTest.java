@@ -21,6 +21,7 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.fail;
 
 public class WrapperTest {
@@ -107,6 +108,55 @@ public class WrapperTest {
         w.invokeMethod(new Object(), "__XX__", null, null);
     }
 
+    @Test
+    public void testInvokeMethodByIndex() throws Exception {
+        Wrapper w = Wrapper.getWrapper(I1.class);
+        Object obj = new Impl1();
+        int index = w.getMethodIndex("showInt", new Class<?>[]{int.class});
+        Assert.assertTrue(index >= 0);
+        assertEquals(10, w.invokeMethod(obj, index, new Object[]{10}));
+
+        index = w.getMethodIndex("setName", new Class<?>[]{String.class});
+        Assert.assertNull(w.invokeMethod(obj, index, new Object[]{"changed"}));
+        assertEquals("changed", w.invokeMethod(obj, w.getMethodIndex("getName", new Class<?>[0]), new Object[0]));
+
+        assertEquals(-1, w.getMethodIndex("__XX__", new Class<?>[0]));
+        assertEquals(-1, w.getMethodIndex("hello", new Class<?>[]{String.class, String.class}));
+        assertEquals(-1, Wrapper.getWrapper(Object.class).getMethodIndex("toString", new Class<?>[0]));
+    }
+
+    @Test
+    public void testOverloadedMethodIndex() throws Exception {
+        Wrapper w = Wrapper.getWrapper(Overloaded.class);
+        Object obj = new OverloadedImpl();
+        int stringIndex = w.getMethodIndex("say", new Class<?>[]{String.class});
+        int intIndex = w.getMethodIndex("say", new Class<?>[]{int.class});
+        assertNotEquals(stringIndex, intIndex);
+        assertEquals("string", w.invokeMethod(obj, stringIndex, new Object[]{"a"}));
+        assertEquals("int", w.invokeMethod(obj, intIndex, new Object[]{1}));
+        assertEquals("int", w.invokeMethod(obj, "say", new Class<?>[]{int.class}, new Object[]{1}));
+        assertEquals(-1, w.getMethodIndex("say", new Class<?>[]{long.class}));
+    }
+
+    @Test(expected = NoSuchMethodException.class)
+    public void testInvokeMethodByUnknownIndex() throws Exception {
+        Wrapper w = Wrapper.getWrapper(I1.class);
+        w.invokeMethod(new Impl1(), w.getMethodNames().length, new Object[0]);
+    }
+
+    @Test
+    public void testInvokeMethodByIndexWithWrongArguments() throws Exception {
+        Wrapper w = Wrapper.getWrapper(I1.class);
+        int index = w.getMethodIndex("showInt", new Class<?>[]{int.class});
+        try {
+            w.invokeMethod(new Impl1(), index, new Object[]{1, 2});
+            fail();
+        } catch (NoSuchMethodException expected) {
+            assertEquals("Not found method \"showInt\" with 2 arguments in class " + I1.class.getName() + ".",
+                    expected.getMessage());
+        }
+    }
+
     /**
      * see http://code.alibabatech.com/jira/browse/DUBBO-571
      */
@@ -157,6 +207,22 @@ public class WrapperTest {
 
     }
 
+    public static interface Overloaded {
+        String say(String s);
+
+        String say(int i);
+    }
+
+    public static class OverloadedImpl implements Overloaded {
+        public String say(String s) {
+            return "string";
+        }
+
+        public String say(int i) {
+            return "int";
+        }
+    }
+
     public static class Impl0 {
         public float a, b, c;
     }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class ThreadlessExecutorTest {
+
+    @Test
+    public void testWaitAndDrain() throws Exception {
+        final ThreadlessExecutor executor = new ThreadlessExecutor();
+        final AtomicReference<Thread> runner = new AtomicReference<Thread>();
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        runner.set(Thread.currentThread());
+                    }
+                });
+            }
+        }).start();
+        executor.waitAndDrain(TimeUnit.SECONDS.toNanos(5));
+        Assert.assertSame(Thread.currentThread(), runner.get());
+    }
+
+    @Test
+    public void testWaitTimeout() throws Exception {
+        ThreadlessExecutor executor = new ThreadlessExecutor();
+        long start = System.nanoTime();
+        executor.waitAndDrain(TimeUnit.MILLISECONDS.toNanos(50));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testFinish() throws Exception {
+        ThreadlessExecutor executor = new ThreadlessExecutor();
+        final AtomicReference<Thread> runner = new AtomicReference<Thread>();
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                runner.set(Thread.currentThread());
+            }
+        };
+        // queued before the caller gave up, run when it finishes
+        executor.execute(task);
+        Assert.assertNull(runner.get());
+        executor.finish();
+        Assert.assertSame(Thread.currentThread(), runner.get());
+        Assert.assertFalse(executor.isWaiting());
+
+        // run right away afterwards
+        runner.set(null);
+        executor.execute(task);
+        Assert.assertSame(Thread.currentThread(), runner.get());
+    }
+}
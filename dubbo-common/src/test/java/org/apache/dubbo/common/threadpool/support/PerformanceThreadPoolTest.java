@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PerformanceThreadPoolTest, measures the tasks per second the thread pools run when dispatched by several io
+ * threads at once, for short handlers and for handlers blocking 1ms. The fixed pool gets an unbounded queue, so that
+ * it is measured queueing rather than rejecting.
+ * <p>
+ * Run with -Dtasks=1000000 -Dclients=8 -Dworkers=200
+ */
+public class PerformanceThreadPoolTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceThreadPoolTest.class);
+
+    private static final String[] POOLS = {"fixed", "workstealing", "virtual"};
+
+    @Test
+    public void testThreadPool() throws Exception {
+        String tasks = System.getProperty("tasks");
+        if (tasks == null) {
+            logger.warn("Please set -Dtasks=1000000");
+            return;
+        }
+        int count = Integer.parseInt(tasks);
+        int clients = Integer.getInteger("clients", 8);
+        int workers = Integer.getInteger("workers", Constants.DEFAULT_THREADS);
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService?" + Constants.THREADS_KEY + "=" + workers
+                + "&" + Constants.QUEUES_KEY + "=-1");
+        for (int round = 0; round < 2; round++) {
+            for (String pool : POOLS) {
+                test(pool, url, count, clients, 0);
+            }
+            for (String pool : POOLS) {
+                test(pool, url, count / 100, clients, 1);
+            }
+        }
+    }
+
+    private void test(String pool, URL url, int tasks, int clients, final long blockMillis) throws Exception {
+        final ExecutorService executor = (ExecutorService) ExtensionLoader.getExtensionLoader(ThreadPool.class)
+                .getExtension(pool).getExecutor(url);
+        final int perClient = tasks / clients;
+        final CountDownLatch done = new CountDownLatch(perClient * clients);
+        final Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                if (blockMillis > 0) {
+                    try {
+                        Thread.sleep(blockMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                done.countDown();
+            }
+        };
+        long start = System.nanoTime();
+        for (int i = 0; i < clients; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < perClient; j++) {
+                        executor.execute(task);
+                    }
+                }
+            }).start();
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        System.out.println("=====================================================================");
+        System.out.println(pool + (blockMillis > 0 ? ", blocking " + blockMillis + "ms" : ", short") + ", clients: " + clients
+                + ", tasks: " + perClient * clients + ", " + perClient * clients * 1000000000L / elapsed + " tasks/s");
+        System.out.println("=====================================================================");
+    }
+}
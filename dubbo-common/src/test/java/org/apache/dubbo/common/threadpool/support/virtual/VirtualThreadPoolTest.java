@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.virtual;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class VirtualThreadPoolTest {
+    @Test
+    public void getExecutor() throws Exception {
+        URL url = URL.valueOf("dubbo://10.20.130.230:20880/context/path?" +
+                Constants.THREAD_NAME_KEY + "=demo&" +
+                Constants.THREADS_KEY + "=2");
+        ThreadPool threadPool = ExtensionLoader.getExtensionLoader(ThreadPool.class).getExtension("virtual");
+        assertThat(threadPool, instanceOf(VirtualThreadPool.class));
+        ExecutorService executor = (ExecutorService) threadPool.getExecutor(url);
+        if (VirtualThreadPool.isSupported()) {
+            assertThat(executor, not(instanceOf(ThreadPoolExecutor.class)));
+        } else {
+            // fixed thread pool
+            assertThat(((ThreadPoolExecutor) executor).getMaximumPoolSize(), is(2));
+        }
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                assertThat(Thread.currentThread().getName(), startsWith("demo"));
+                latch.countDown();
+            }
+        });
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.workstealing;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+public class WorkStealingQueueTest {
+
+    @Test
+    public void testCapacityIsSplitAmongShards() throws Exception {
+        WorkStealingQueue queue = new WorkStealingQueue(4, 6);
+        assertThat(queue.getShards(), is(4));
+        assertThat(queue.remainingCapacity(), is(6));
+        // the submitting thread spills over to the other shards when its own is full
+        for (int i = 0; i < 6; i++) {
+            assertThat(queue.offer(mock(Runnable.class)), is(true));
+        }
+        assertThat(queue.size(), is(6));
+        assertThat(queue.remainingCapacity(), is(0));
+        assertThat(queue.offer(mock(Runnable.class)), is(false));
+        assertThat(queue.offer(mock(Runnable.class), 10, TimeUnit.MILLISECONDS), is(false));
+
+        List<Runnable> drained = new ArrayList<Runnable>();
+        assertThat(queue.drainTo(drained), is(6));
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testNoMoreShardsThanCapacity() throws Exception {
+        assertThat(new WorkStealingQueue(4, 2).getShards(), is(2));
+        assertThat(new WorkStealingQueue(4, -1).getShards(), is(4));
+    }
+
+    @Test
+    public void testWorkerStealsFromOtherShards() throws Exception {
+        final WorkStealingQueue queue = new WorkStealingQueue(2, -1);
+        Runnable task = mock(Runnable.class);
+        // this thread submits to the first shard, the worker below takes from the second one first
+        assertThat(queue.offer(task), is(true));
+        final AtomicReference<Runnable> taken = new AtomicReference<Runnable>();
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    taken.set(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        worker.start();
+        worker.join(10000);
+        assertThat(taken.get(), sameInstance(task));
+    }
+
+    @Test
+    public void testIdleWorkerIsWoken() throws Exception {
+        final WorkStealingQueue queue = new WorkStealingQueue(2, -1);
+        final CountDownLatch taken = new CountDownLatch(2);
+        for (int i = 0; i < 2; i++) {
+            Thread worker = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        queue.take().run();
+                        taken.countDown();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+            worker.setDaemon(true);
+            worker.start();
+        }
+        Thread.sleep(100);
+        assertThat(queue.offer(mock(Runnable.class)), is(true));
+        assertThat(queue.offer(mock(Runnable.class)), is(true));
+        assertTrue(taken.await(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testHandOff() throws Exception {
+        final WorkStealingQueue queue = new WorkStealingQueue(2, 0);
+        assertThat(queue.remainingCapacity(), is(0));
+        // no idle worker
+        assertThat(queue.offer(mock(Runnable.class)), is(false));
+
+        final AtomicReference<Runnable> taken = new AtomicReference<Runnable>();
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    taken.set(queue.take());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        worker.start();
+        Runnable task = mock(Runnable.class);
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!queue.offer(task) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        worker.join(10000);
+        assertThat(taken.get(), sameInstance(task));
+    }
+
+    @Test
+    public void testPollTimeout() throws Exception {
+        WorkStealingQueue queue = new WorkStealingQueue(2, -1);
+        assertThat(queue.poll(10, TimeUnit.MILLISECONDS), nullValue());
+        // the timed out worker is not left idle: the offer below has no one to hand off to
+        WorkStealingQueue handOff = new WorkStealingQueue(2, 0);
+        assertThat(handOff.poll(10, TimeUnit.MILLISECONDS), nullValue());
+        assertThat(handOff.offer(mock(Runnable.class)), is(false));
+    }
+
+    @Test
+    public void testTakeIsInterruptible() throws Exception {
+        final WorkStealingQueue queue = new WorkStealingQueue(2, -1);
+        final CountDownLatch interrupted = new CountDownLatch(1);
+        Thread worker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.take();
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+        });
+        worker.start();
+        Thread.sleep(100);
+        worker.interrupt();
+        assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.support.workstealing;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.threadlocal.InternalThread;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+import org.apache.dubbo.common.threadpool.support.AbortPolicyWithReport;
+import org.hamcrest.Matchers;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class WorkStealingThreadPoolTest {
+    @Test
+    public void testExtension() {
+        assertThat(ExtensionLoader.getExtensionLoader(ThreadPool.class).getExtension("workstealing"),
+                instanceOf(WorkStealingThreadPool.class));
+    }
+
+    @Test
+    public void getExecutor() throws Exception {
+        URL url = URL.valueOf("dubbo://10.20.130.230:20880/context/path?" +
+                Constants.THREAD_NAME_KEY + "=demo&" +
+                Constants.THREADS_KEY + "=4&" +
+                Constants.IO_THREADS_KEY + "=2&" +
+                Constants.QUEUES_KEY + "=100");
+        ThreadPool threadPool = new WorkStealingThreadPool();
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) threadPool.getExecutor(url);
+        assertThat(executor.getCorePoolSize(), is(4));
+        assertThat(executor.getMaximumPoolSize(), is(4));
+        assertThat(executor.getQueue(), Matchers.<BlockingQueue<Runnable>>instanceOf(WorkStealingQueue.class));
+        assertThat(((WorkStealingQueue) executor.getQueue()).getShards(), is(2));
+        assertThat(executor.getQueue().remainingCapacity(), is(100));
+        assertThat(executor.getRejectedExecutionHandler(),
+                Matchers.<RejectedExecutionHandler>instanceOf(AbortPolicyWithReport.class));
+
+        final CountDownLatch latch = new CountDownLatch(100);
+        for (int i = 0; i < 100; i++) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Thread thread = Thread.currentThread();
+                    assertThat(thread, instanceOf(InternalThread.class));
+                    assertThat(thread.getName(), startsWith("demo"));
+                    latch.countDown();
+                }
+            });
+        }
+
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testRejectWhenQueuesAreFull() throws Exception {
+        URL url = URL.valueOf("dubbo://10.20.130.230:20880/context/path?" +
+                Constants.THREADS_KEY + "=1&" +
+                Constants.QUEUES_KEY + "=2");
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) new WorkStealingThreadPool().getExecutor(url);
+        final CountDownLatch release = new CountDownLatch(1);
+        Runnable blocked = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        // one running, two queued
+        for (int i = 0; i < 3; i++) {
+            executor.execute(blocked);
+        }
+        try {
+            executor.execute(blocked);
+            fail();
+        } catch (RejectedExecutionException expected) {
+            assertThat(expected.getMessage(), startsWith("Thread pool is EXHAUSTED!"));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+}
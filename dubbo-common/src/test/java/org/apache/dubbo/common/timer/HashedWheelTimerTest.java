@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.timer;
+
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HashedWheelTimerTest {
+
+    @Test
+    public void testExpire() throws Exception {
+        Timer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true), 10, TimeUnit.MILLISECONDS, 8);
+        try {
+            final CountDownLatch latch = new CountDownLatch(3);
+            TimerTask task = new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    latch.countDown();
+                }
+            };
+            Timeout t1 = timer.newTimeout(task, 10, TimeUnit.MILLISECONDS);
+            // longer than one round of the wheel
+            Timeout t2 = timer.newTimeout(task, 200, TimeUnit.MILLISECONDS);
+            Timeout t3 = timer.newTimeout(task, 0, TimeUnit.MILLISECONDS);
+            Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+            Assert.assertTrue(t1.isExpired());
+            Assert.assertTrue(t2.isExpired());
+            Assert.assertTrue(t3.isExpired());
+            Assert.assertFalse(t1.cancel());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        HashedWheelTimer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true), 10, TimeUnit.MILLISECONDS, 8);
+        try {
+            final AtomicInteger count = new AtomicInteger();
+            TimerTask task = new TimerTask() {
+                @Override
+                public void run(Timeout timeout) {
+                    count.incrementAndGet();
+                }
+            };
+            for (int i = 0; i < 100; i++) {
+                Assert.assertTrue(timer.newTimeout(task, 50, TimeUnit.MILLISECONDS).cancel());
+            }
+            Timeout timeout = timer.newTimeout(task, 50, TimeUnit.MILLISECONDS);
+            Thread.sleep(300);
+            Assert.assertEquals(1, count.get());
+            Assert.assertTrue(timeout.isExpired());
+            Assert.assertEquals(0, timer.pendingTimeouts());
+        } finally {
+            timer.stop();
+        }
+    }
+
+    @Test
+    public void testStop() throws Exception {
+        Timer timer = new HashedWheelTimer(new NamedThreadFactory("timer-test", true), 10, TimeUnit.MILLISECONDS, 8);
+        TimerTask task = new TimerTask() {
+            @Override
+            public void run(Timeout timeout) {
+            }
+        };
+        timer.newTimeout(task, 1, TimeUnit.HOURS);
+        timer.newTimeout(task, 1, TimeUnit.HOURS);
+        Assert.assertEquals(2, timer.stop().size());
+        Assert.assertTrue(timer.isStop());
+        try {
+            timer.newTimeout(task, 1, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (IllegalStateException expected) {
+            // expected
+        }
+    }
+}
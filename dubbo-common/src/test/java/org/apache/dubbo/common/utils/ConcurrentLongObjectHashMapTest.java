@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentLongObjectHashMapTest {
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        ConcurrentLongObjectHashMap<String> map = new ConcurrentLongObjectHashMap<String>(4);
+        assertTrue(map.isEmpty());
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(-1L, "minus"));
+        assertNull(map.put(Long.MAX_VALUE, "max"));
+        assertEquals("zero", map.put(0L, "0"));
+        assertEquals(3, map.size());
+        assertEquals("0", map.get(0L));
+        assertEquals("minus", map.get(-1L));
+        assertThat(map.values(), containsInAnyOrder("0", "minus", "max"));
+        assertEquals("minus", map.remove(-1L));
+        assertNull(map.remove(-1L));
+        assertEquals(2, map.size());
+        assertFalse(map.isEmpty());
+    }
+
+    @Test
+    public void testConcurrentPutRemove() throws Exception {
+        final ConcurrentLongObjectHashMap<Long> map = new ConcurrentLongObjectHashMap<Long>(8);
+        final int threads = 8;
+        final CountDownLatch done = new CountDownLatch(threads);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        for (int t = 0; t < threads; t++) {
+            final long base = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        // interleaved keys, as the request ids of threads sharing a channel
+                        for (long key = base; key < 200000; key += threads) {
+                            map.put(key, key);
+                            if (key % 3 != 0) {
+                                assertEquals(Long.valueOf(key), map.remove(key));
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        done.await();
+        assertNull(failure.get());
+        assertEquals((200000 + 2) / 3, map.size());
+        for (long key = 0; key < 200000; key++) {
+            assertEquals(key % 3 == 0 ? Long.valueOf(key) : null, map.get(key));
+        }
+    }
+}
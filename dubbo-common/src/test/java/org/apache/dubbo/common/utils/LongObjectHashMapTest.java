@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+public class LongObjectHashMapTest {
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        LongObjectHashMap<String> map = new LongObjectHashMap<String>();
+        assertTrue(map.isEmpty());
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(-1L, "minus"));
+        assertNull(map.put(Long.MAX_VALUE, "max"));
+        assertEquals("zero", map.put(0L, "0"));
+        assertEquals(3, map.size());
+        assertEquals("0", map.get(0L));
+        assertEquals("minus", map.get(-1L));
+        assertTrue(map.containsKey(Long.MAX_VALUE));
+        assertFalse(map.containsKey(1L));
+        assertThat(map.values(), containsInAnyOrder("0", "minus", "max"));
+        assertEquals("minus", map.remove(-1L));
+        assertNull(map.remove(-1L));
+        assertEquals(2, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(0L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullValue() throws Exception {
+        new LongObjectHashMap<String>().put(1L, null);
+    }
+
+    @Test
+    public void testAgainstHashMap() throws Exception {
+        LongObjectHashMap<Long> map = new LongObjectHashMap<Long>(4);
+        Map<Long, Long> expected = new HashMap<Long, Long>();
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            // a small key space forces plenty of collisions and removals
+            long key = random.nextInt(2048);
+            if (random.nextBoolean()) {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            } else {
+                assertEquals(expected.remove(key), map.remove(key));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (Map.Entry<Long, Long> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()));
+        }
+    }
+}
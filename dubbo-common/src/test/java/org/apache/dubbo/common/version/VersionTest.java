@@ -35,4 +35,13 @@ public class VersionTest {
         Assert.assertTrue(Version.isSupportResponseAttatchment("2.0.3"));
         Assert.assertFalse(Version.isSupportResponseAttatchment("2.0.0"));
     }
+
+    @Test
+    public void testSupportInvocationInterning() {
+        Assert.assertTrue(Version.isSupportInvocationInterning(Version.getProtocolVersion()));
+        Assert.assertTrue(Version.isSupportInvocationInterning("2.0.3"));
+        Assert.assertFalse(Version.isSupportInvocationInterning("2.0.2"));
+        Assert.assertFalse(Version.isSupportInvocationInterning("2.5.3"));
+        Assert.assertFalse(Version.isSupportInvocationInterning(null));
+    }
 }
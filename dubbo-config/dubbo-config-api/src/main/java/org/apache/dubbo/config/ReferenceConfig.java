@@ -30,6 +30,7 @@ import org.apache.dubbo.config.annotation.Reference;
 import org.apache.dubbo.config.model.ApplicationModel;
 import org.apache.dubbo.config.model.ConsumerModel;
 import org.apache.dubbo.config.support.Parameter;
+import org.apache.dubbo.registry.integration.RegistryProtocol;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Protocol;
 import org.apache.dubbo.rpc.ProxyFactory;
@@ -48,6 +49,7 @@ import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -89,6 +91,8 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
     private transient volatile Invoker<?> invoker;
     private transient volatile boolean initialized;
     private transient volatile boolean destroyed;
+    // set while referred by referAll(), which checks the invoker once the whole batch is subscribed
+    private transient boolean checkDeferred;
     @SuppressWarnings("unused")
     private final Object finalizerGuardian = new Object() {
         @Override
@@ -167,6 +171,64 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
         return ref;
     }
 
+    /**
+     * Refer a batch of references at once, e.g. all the references of a consumer at startup.
+     * <p>
+     * Same as {@link #get()} on each of them, but the subscriptions to a registry are sent as one batch, see
+     * {@link RegistryProtocol#beginBatch()}, and each reference is checked once all are notified. The references
+     * failing are left uninitialized, so that they can be retried later.
+     *
+     * @throws IllegalStateException the first reference failing, after all are referred
+     */
+    public static void referAll(Collection<? extends ReferenceConfig<?>> references) {
+        RuntimeException failure = null;
+        RegistryProtocol.beginBatch();
+        try {
+            for (ReferenceConfig<?> reference : references) {
+                synchronized (reference) {
+                    reference.checkDeferred = true;
+                    try {
+                        reference.get();
+                    } catch (RuntimeException e) {
+                        if (failure == null) {
+                            failure = e;
+                        }
+                    } finally {
+                        reference.checkDeferred = false;
+                    }
+                }
+            }
+        } finally {
+            try {
+                RegistryProtocol.endBatch();
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        for (ReferenceConfig<?> reference : references) {
+            try {
+                reference.checkReferred();
+            } catch (IllegalStateException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private synchronized void checkReferred() {
+        if (ref != null && shouldCheck() && !invoker.isAvailable()) {
+            initialized = false;
+            ref = null;
+            throw noProviderAvailable();
+        }
+    }
+
     public synchronized void destroy() {
         if (ref == null) {
             return;
@@ -414,17 +476,10 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
             }
         }
 
-        Boolean c = check;
-        if (c == null && consumer != null) {
-            c = consumer.isCheck();
-        }
-        if (c == null) {
-            c = true; // default true
-        }
-        if (c && !invoker.isAvailable()) {
+        if (!checkDeferred && shouldCheck() && !invoker.isAvailable()) {
             // make it possible for consumer to retry later if provider is temporarily unavailable
             initialized = false;
-            throw new IllegalStateException("Failed to check the status of the service " + interfaceName + ". No provider available for the service " + (group == null ? "" : group + "/") + interfaceName + (version == null ? "" : ":" + version) + " from the url " + invoker.getUrl() + " to the consumer " + NetUtils.getLocalHost() + " use dubbo version " + Version.getVersion());
+            throw noProviderAvailable();
         }
         if (logger.isInfoEnabled()) {
             logger.info("Refer dubbo service " + interfaceClass.getName() + " from url " + invoker.getUrl());
@@ -433,6 +488,21 @@ public class ReferenceConfig<T> extends AbstractReferenceConfig {
         return (T) proxyFactory.getProxy(invoker);
     }
 
+    private boolean shouldCheck() {
+        Boolean c = check;
+        if (c == null && consumer != null) {
+            c = consumer.isCheck();
+        }
+        if (c == null) {
+            c = true; // default true
+        }
+        return c;
+    }
+
+    private IllegalStateException noProviderAvailable() {
+        return new IllegalStateException("Failed to check the status of the service " + interfaceName + ". No provider available for the service " + (group == null ? "" : group + "/") + interfaceName + (version == null ? "" : ":" + version) + " from the url " + invoker.getUrl() + " to the consumer " + NetUtils.getLocalHost() + " use dubbo version " + Version.getVersion());
+    }
+
     private void checkDefault() {
         if (consumer == null) {
             consumer = new ConsumerConfig();
@@ -18,11 +18,16 @@ package org.apache.dubbo.config;
 
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.config.api.DemoService;
+import org.apache.dubbo.config.mock.MockRegistry;
 import org.apache.dubbo.config.provider.impl.DemoServiceImpl;
 
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 public class ReferenceConfigTest {
 
     @Test
@@ -59,6 +64,42 @@ public class ReferenceConfigTest {
             demoService.unexport();
         }
     }
+
+    @Test
+    public void testReferAll() {
+        ApplicationConfig application = new ApplicationConfig();
+        application.setName("test-refer-all");
+        RegistryConfig registry = new RegistryConfig();
+        registry.setAddress("127.0.0.1:9090");
+        registry.setProtocol("mockregistry");
+
+        List<ReferenceConfig<DemoService>> references = new ArrayList<ReferenceConfig<DemoService>>();
+        for (int i = 0; i < 3; i++) {
+            ReferenceConfig<DemoService> rc = new ReferenceConfig<DemoService>();
+            rc.setApplication(application);
+            rc.setRegistry(registry);
+            rc.setInterface(DemoService.class.getName());
+            rc.setGroup("group" + i);
+            references.add(rc);
+        }
+        MockRegistry.getBatches().clear();
+        try {
+            ReferenceConfig.referAll(references);
+
+            // one batch for the three references, all notified and checked
+            Assert.assertEquals(Collections.singletonList(3), MockRegistry.getBatches());
+            for (ReferenceConfig<DemoService> rc : references) {
+                Assert.assertNotNull(rc.get());
+                Assert.assertTrue(rc.getInvoker().isAvailable());
+            }
+            Assert.assertEquals(Collections.singletonList(3), MockRegistry.getBatches());
+        } finally {
+            for (ReferenceConfig<DemoService> rc : references) {
+                rc.destroy();
+            }
+        }
+    }
+
     /**
      * unit test for dubbo-1765
      */
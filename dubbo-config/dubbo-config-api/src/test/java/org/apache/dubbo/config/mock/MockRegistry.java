@@ -23,6 +23,7 @@ import org.apache.dubbo.registry.Registry;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * TODO Comment of MockRegistry
@@ -31,10 +32,19 @@ public class MockRegistry implements Registry {
 
     static URL subscribedUrl = new URL("null", "0.0.0.0", 0);
 
+    static final List<Integer> batches = new ArrayList<Integer>();
+
     public static URL getSubscribedUrl() {
         return subscribedUrl;
     }
 
+    /**
+     * @return the sizes of the batches subscribed so far
+     */
+    public static List<Integer> getBatches() {
+        return batches;
+    }
+
     /* 
      * @see org.apache.dubbo.common.Node#getUrl()
      */
@@ -89,6 +99,17 @@ public class MockRegistry implements Registry {
         listener.notify(urls);
     }
 
+    /* 
+     * @see org.apache.dubbo.registry.Registry#subscribe(java.util.Map)
+     */
+    @Override
+    public void subscribe(Map<URL, NotifyListener> subscriptions) {
+        batches.add(subscriptions.size());
+        for (Map.Entry<URL, NotifyListener> entry : subscriptions.entrySet()) {
+            subscribe(entry.getKey(), entry.getValue());
+        }
+    }
+
     /* 
      * @see org.apache.dubbo.registry.RegistryService#unsubscribe(org.apache.dubbo.common.URL, org.apache.dubbo.registry.NotifyListener)
      */
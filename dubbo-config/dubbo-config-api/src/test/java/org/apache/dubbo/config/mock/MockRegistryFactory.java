@@ -25,13 +25,15 @@ import org.apache.dubbo.registry.RegistryFactory;
  */
 public class MockRegistryFactory implements RegistryFactory {
 
+    private static final Registry registry = new MockRegistry();
+
     /* 
      * @see org.apache.dubbo.registry.RegistryFactory#getRegistry(org.apache.dubbo.common.URL)
      */
     @Override
     public Registry getRegistry(URL url) {
 
-        return new MockRegistry();
+        return registry;
     }
 
 }
@@ -19,6 +19,8 @@ package org.apache.dubbo.registry;
 import org.apache.dubbo.common.Node;
 import org.apache.dubbo.common.URL;
 
+import java.util.Map;
+
 /**
  * Registry. (SPI, Prototype, ThreadSafe)
  *
@@ -26,4 +28,19 @@ import org.apache.dubbo.common.URL;
  * @see org.apache.dubbo.registry.support.AbstractRegistry
  */
 public interface Registry extends Node, RegistryService {
+
+    /**
+     * Subscribe to a batch of urls at once, e.g. all the references of a consumer at startup.
+     * <p>
+     * Same contract as {@link #subscribe(URL, NotifyListener)} for every entry, but a registry may issue the
+     * subscriptions concurrently and wait for the first notification of all of them together instead of one
+     * by one. The default implementation subscribes the entries in order.
+     *
+     * @param subscriptions subscription urls and their listeners, not allowed to be empty
+     */
+    default void subscribe(Map<URL, NotifyListener> subscriptions) {
+        for (Map.Entry<URL, NotifyListener> entry : subscriptions.entrySet()) {
+            subscribe(entry.getKey(), entry.getValue());
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * RegistryCacheStore, the local disk cache of the notified urls of each service, used when the registry is not
+ * available. (API, Prototype, ThreadSafe)
+ *
+ * @see RegistryCacheStoreFactory
+ */
+public interface RegistryCacheStore {
+
+    /**
+     * Get the cached urls of a service
+     *
+     * @param serviceKey the service key of the subscribed url
+     * @return the full strings of the cached urls, null if the service is not cached
+     */
+    List<String> get(String serviceKey);
+
+    /**
+     * Get the keys of the cached services
+     *
+     * @return a snapshot of the service keys
+     */
+    Set<String> getServiceKeys();
+
+    /**
+     * Replace the cached urls of a service, they are only written to disk by {@link #flush()}
+     *
+     * @param serviceKey the service key of the subscribed url
+     * @param urls       the full strings of the notified urls, an empty list removes the service
+     */
+    void put(String serviceKey, List<String> urls);
+
+    /**
+     * Write the services put since the last successful flush to disk
+     *
+     * @throws IOException if the file can not be written, the services are kept for the next flush
+     */
+    void flush() throws IOException;
+
+    /**
+     * Release the file, the services put since the last flush are lost
+     */
+    void close();
+
+}
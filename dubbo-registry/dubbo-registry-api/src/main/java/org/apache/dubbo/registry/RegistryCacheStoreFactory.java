@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry;
+
+import org.apache.dubbo.common.extension.SPI;
+
+import java.io.File;
+
+/**
+ * RegistryCacheStoreFactory. (SPI, Singleton, ThreadSafe)
+ * <p>
+ * Selected by the file.store parameter of the registry url.
+ *
+ * @see org.apache.dubbo.registry.support.AbstractRegistry
+ */
+@SPI("binary")
+public interface RegistryCacheStoreFactory {
+
+    /**
+     * Open the store of the registry cache file, the cached urls are loaded before returning
+     *
+     * @param file the registry cache file, configured by file=registry.cache
+     * @return the store of the file, never return empty value
+     */
+    RegistryCacheStore getCacheStore(File file);
+
+}
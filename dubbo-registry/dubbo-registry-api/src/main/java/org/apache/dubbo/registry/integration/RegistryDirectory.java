@@ -22,6 +22,7 @@ import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.registry.NotifyListener;
@@ -48,10 +49,13 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * RegistryDirectory
@@ -66,12 +70,15 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
     private static final RouterFactory routerFactory = ExtensionLoader.getExtensionLoader(RouterFactory.class).getAdaptiveExtension();
 
     private static final ConfiguratorFactory configuratorFactory = ExtensionLoader.getExtensionLoader(ConfiguratorFactory.class).getAdaptiveExtension();
+
+    private static final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(new NamedThreadFactory("DubboRegistryDirectoryRefresh", true));
     private final String serviceKey; // Initialization at construction time, assertion not null
     private final Class<T> serviceType; // Initialization at construction time, assertion not null
     private final Map<String, String> queryMap; // Initialization at construction time, assertion not null
     private final URL directoryUrl; // Initialization at construction time, assertion not null, and always assign non null value
     private final String[] serviceMethods;
     private final boolean multiGroup;
+    private final boolean refreshAsync;
     private Protocol protocol; // Initialization at the time of injection, the assertion is not null
     private Registry registry; // Initialization at the time of injection, the assertion is not null
     private volatile boolean forbidden = false;
@@ -95,6 +102,21 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
     // Set<invokerUrls> cache invokeUrls to invokers mapping.
     private volatile Set<URL> cachedInvokerUrls; // The initial value is null and the midway may be assigned to null, please use the local variable reference
 
+    // Map<providerUrl, mergedUrl> cache provider url to the url merged with consumer parameters and mergedConfigurators.
+    private Map<URL, URL> mergedUrls; // Only accessed when refreshing, valid while the configurators are the same list
+
+    private List<Configurator> mergedConfigurators;
+
+    // Map<methodName, Invoker> cache sorted invokers declaring each method, and all invokers under "*", before routing.
+    private Map<String, List<Invoker<T>>> declaredMethodInvokers; // Only accessed when refreshing, null if the invokers were routed
+
+    // Map<category, urls> the latest notified urls of each category, waiting for an asynchronous refresh.
+    private final Map<String, List<URL>> pendingUrls = new HashMap<String, List<URL>>();
+
+    private boolean refreshScheduled; // Guarded by pendingUrls
+
+    private volatile boolean refreshed;
+
     public RegistryDirectory(Class<T> serviceType, URL url) {
         super(url);
         if (serviceType == null)
@@ -107,6 +129,7 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         this.overrideDirectoryUrl = this.directoryUrl = url.setPath(url.getServiceInterface()).clearParameters().addParameters(queryMap).removeParameter(Constants.MONITOR_KEY);
         String group = directoryUrl.getParameter(Constants.GROUP_KEY, "");
         this.multiGroup = group != null && ("*".equals(group) || group.contains(","));
+        this.refreshAsync = directoryUrl.getParameter(Constants.REFRESH_ASYNC_KEY, false);
         String methods = queryMap.get(Constants.METHODS_KEY);
         this.serviceMethods = methods == null ? null : Constants.COMMA_SPLIT_PATTERN.split(methods);
     }
@@ -180,19 +203,78 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         }
     }
 
+    private static String getCategory(URL url) {
+        String protocol = url.getProtocol();
+        String category = url.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
+        if (Constants.ROUTE_PROTOCOL.equals(protocol)) {
+            return Constants.ROUTERS_CATEGORY;
+        }
+        if (Constants.OVERRIDE_PROTOCOL.equals(protocol) && !Constants.ROUTERS_CATEGORY.equals(category)) {
+            return Constants.CONFIGURATORS_CATEGORY;
+        }
+        return category;
+    }
+
+    /**
+     * Refresh the invokers with the notified urls. With refresh.async=true, only the first notification is handled
+     * by the notifying thread, the later ones are handed to a shared refresh thread, and the notifications arriving
+     * before it runs are coalesced into one refresh with the latest urls of each category.
+     */
     @Override
-    public synchronized void notify(List<URL> urls) {
+    public void notify(List<URL> urls) {
+        if (!refreshAsync || !refreshed) {
+            refresh(urls);
+            return;
+        }
+        synchronized (pendingUrls) {
+            Map<String, List<URL>> categoryUrls = new HashMap<String, List<URL>>();
+            for (URL url : urls) {
+                String category = getCategory(url);
+                List<URL> list = categoryUrls.get(category);
+                if (list == null) {
+                    list = new ArrayList<URL>();
+                    categoryUrls.put(category, list);
+                }
+                list.add(url);
+            }
+            pendingUrls.putAll(categoryUrls);
+            if (refreshScheduled || pendingUrls.isEmpty()) {
+                return;
+            }
+            refreshScheduled = true;
+        }
+        refreshExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                List<URL> urls = new ArrayList<URL>();
+                synchronized (pendingUrls) {
+                    for (List<URL> categoryUrls : pendingUrls.values()) {
+                        urls.addAll(categoryUrls);
+                    }
+                    pendingUrls.clear();
+                    refreshScheduled = false;
+                }
+                if (isDestroyed()) {
+                    return;
+                }
+                try {
+                    refresh(urls);
+                } catch (Throwable t) {
+                    logger.error("Failed to refresh invokers of service " + serviceKey + ", cause: " + t.getMessage(), t);
+                }
+            }
+        });
+    }
+
+    private synchronized void refresh(List<URL> urls) {
         List<URL> invokerUrls = new ArrayList<URL>();
         List<URL> routerUrls = new ArrayList<URL>();
         List<URL> configuratorUrls = new ArrayList<URL>();
         for (URL url : urls) {
-            String protocol = url.getProtocol();
-            String category = url.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
-            if (Constants.ROUTERS_CATEGORY.equals(category)
-                    || Constants.ROUTE_PROTOCOL.equals(protocol)) {
+            String category = getCategory(url);
+            if (Constants.ROUTERS_CATEGORY.equals(category)) {
                 routerUrls.add(url);
-            } else if (Constants.CONFIGURATORS_CATEGORY.equals(category)
-                    || Constants.OVERRIDE_PROTOCOL.equals(protocol)) {
+            } else if (Constants.CONFIGURATORS_CATEGORY.equals(category)) {
                 configuratorUrls.add(url);
             } else if (Constants.PROVIDERS_CATEGORY.equals(category)) {
                 invokerUrls.add(url);
@@ -221,6 +303,7 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         }
         // providers
         refreshInvoker(invokerUrls);
+        this.refreshed = true;
     }
 
     /**
@@ -228,10 +311,10 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
      * 1.If URL has been converted to invoker, it is no longer re-referenced and obtained directly from the cache, and notice that any parameter changes in the URL will be re-referenced.
      * 2.If the incoming invoker list is not empty, it means that it is the latest invoker list
      * 3.If the list of incoming invokerUrl is empty, It means that the rule is only a override rule or a route rule, which needs to be re-contrasted to decide whether to re-reference.
+     * 4.Only the added and removed invokers are applied to the method invokers, unless there are routers to run.
      *
      * @param invokerUrls this parameter can't be null
      */
-    // TODO: 2017/8/31 FIXME The thread pool should be used to refresh the address, otherwise the task may be accumulated.
     private void refreshInvoker(List<URL> invokerUrls) {
         if (invokerUrls != null && invokerUrls.size() == 1 && invokerUrls.get(0) != null
                 && Constants.EMPTY_PROTOCOL.equals(invokerUrls.get(0).getProtocol())) {
@@ -251,17 +334,33 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
                 return;
             }
             Map<String, Invoker<T>> newUrlInvokerMap = toInvokers(invokerUrls);// Translate url list to Invoker map
-            Map<String, List<Invoker<T>>> newMethodInvokerMap = toMethodInvokers(newUrlInvokerMap); // Change method name to map Invoker Map
             // state change
             // If the calculation is wrong, it is not processed.
             if (newUrlInvokerMap == null || newUrlInvokerMap.size() == 0) {
                 logger.error(new IllegalStateException("urls to invokers error .invokerUrls.size :" + invokerUrls.size() + ", invoker.size :0. urls :" + invokerUrls.toString()));
                 return;
             }
+            Set<Invoker<T>> deleted = Collections.newSetFromMap(new IdentityHashMap<Invoker<T>, Boolean>());
+            if (oldUrlInvokerMap != null) {
+                deleted.addAll(oldUrlInvokerMap.values());
+            }
+            List<Invoker<T>> added = new ArrayList<Invoker<T>>();
+            for (Invoker<T> invoker : newUrlInvokerMap.values()) {
+                if (!deleted.remove(invoker)) {
+                    added.add(invoker);
+                }
+            }
+            Map<String, List<Invoker<T>>> newMethodInvokerMap; // Change method name to map Invoker Map
+            if (hasUrlRouters()) {
+                this.declaredMethodInvokers = null;
+                newMethodInvokerMap = toMethodInvokers(newUrlInvokerMap);
+            } else {
+                newMethodInvokerMap = toMethodInvokers(newUrlInvokerMap, added, deleted);
+            }
             this.methodInvokerMap = multiGroup ? toMergeMethodInvokerMap(newMethodInvokerMap) : newMethodInvokerMap;
             this.urlInvokerMap = newUrlInvokerMap;
             try {
-                destroyUnusedInvokers(oldUrlInvokerMap, newUrlInvokerMap); // Close the unused Invoker
+                destroyUnusedInvokers(deleted); // Close the unused Invoker
             } catch (Exception e) {
                 logger.warn("destroyUnusedInvokers error. ", e);
             }
@@ -342,11 +441,16 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         }
         Set<String> keys = new HashSet<String>();
         String queryProtocols = this.queryMap.get(Constants.PROTOCOL_KEY);
+        String[] acceptProtocols = queryProtocols != null && queryProtocols.length() > 0 ? queryProtocols.split(",") : null;
+        // Urls merged with the same configurators are reused, so that unchanged providers are not merged again
+        List<Configurator> localConfigurators = this.configurators; // local reference
+        Map<URL, URL> oldMergedUrls = localConfigurators == this.mergedConfigurators ? this.mergedUrls : null;
+        Map<URL, URL> newMergedUrls = new HashMap<URL, URL>();
+        Map<String, String> providerParameters = new HashMap<String, String>();
         for (URL providerUrl : urls) {
             // If protocol is configured at the reference side, only the matching protocol is selected
-            if (queryProtocols != null && queryProtocols.length() > 0) {
+            if (acceptProtocols != null) {
                 boolean accept = false;
-                String[] acceptProtocols = queryProtocols.split(",");
                 for (String acceptProtocol : acceptProtocols) {
                     if (providerUrl.getProtocol().equals(acceptProtocol)) {
                         accept = true;
@@ -365,7 +469,16 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
                         + ", supported protocol: " + ExtensionLoader.getExtensionLoader(Protocol.class).getSupportedExtensions()));
                 continue;
             }
-            URL url = mergeUrl(providerUrl);
+            URL url = oldMergedUrls == null ? null : oldMergedUrls.get(providerUrl);
+            if (url == null) {
+                url = mergeUrl(providerUrl);
+            }
+            newMergedUrls.put(providerUrl, url);
+            for (Map.Entry<String, String> entry : url.getParameters().entrySet()) {
+                if (!providerParameters.containsKey(entry.getKey())) {
+                    providerParameters.put(entry.getKey(), entry.getValue());
+                }
+            }
 
             String key = url.toFullString(); // The parameter urls are sorted
             if (keys.contains(key)) { // Repeated url
@@ -397,6 +510,10 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             }
         }
         keys.clear();
+        this.mergedUrls = newMergedUrls;
+        this.mergedConfigurators = localConfigurators;
+        // The combination of directoryUrl and override is at the end of notify, which can't be handled here
+        this.overrideDirectoryUrl = this.overrideDirectoryUrl.addParametersIfAbsent(providerParameters); // Merge the provider side parameters
         return newUrlInvokerMap;
     }
 
@@ -418,9 +535,6 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
 
         providerUrl = providerUrl.addParameter(Constants.CHECK_KEY, String.valueOf(false)); // Do not check whether the connection is successful or not, always create Invoker!
 
-        // The combination of directoryUrl and override is at the end of notify, which can't be handled here
-        this.overrideDirectoryUrl = this.overrideDirectoryUrl.addParametersIfAbsent(providerUrl.getParameters()); // Merge the provider side parameters
-
         if ((providerUrl.getPath() == null || providerUrl.getPath().length() == 0)
                 && "dubbo".equals(providerUrl.getProtocol())) { // Compatible version 1.0
             //fix by tony.chenl DUBBO-44
@@ -440,6 +554,18 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         return providerUrl;
     }
 
+    private boolean hasUrlRouters() {
+        List<Router> routers = getRouters();
+        if (routers != null) {
+            for (Router router : routers) {
+                if (router.getUrl() != null) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
     private List<Invoker<T>> route(List<Invoker<T>> invokers, String method) {
         Invocation invocation = new RpcInvocation(method, new Class<?>[0], new Object[0]);
         List<Router> routers = getRouters();
@@ -505,6 +631,95 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
         return Collections.unmodifiableMap(newMethodInvokerMap);
     }
 
+    /**
+     * Apply the added and deleted invokers to the method invokers of the last refresh, there must be no router to run
+     *
+     * @param invokersMap Invoker Map
+     * @param added       invokers not in the last refresh
+     * @param deleted     invokers of the last refresh that are gone
+     * @return Mapping relation between Invoker and method
+     */
+    private Map<String, List<Invoker<T>>> toMethodInvokers(Map<String, Invoker<T>> invokersMap, List<Invoker<T>> added, Set<Invoker<T>> deleted) {
+        Map<String, List<Invoker<T>>> oldDeclaredMethodInvokers = this.declaredMethodInvokers;
+        if (oldDeclaredMethodInvokers == null) {
+            oldDeclaredMethodInvokers = Collections.emptyMap();
+            added = new ArrayList<Invoker<T>>(invokersMap.values());
+            deleted = Collections.emptySet();
+        }
+        Collections.sort(added, InvokerComparator.getComparator());
+        Map<String, List<Invoker<T>>> addedMethodInvokers = new HashMap<String, List<Invoker<T>>>();
+        addedMethodInvokers.put(Constants.ANY_VALUE, added);
+        for (Invoker<T> invoker : added) {
+            String parameter = invoker.getUrl().getParameter(Constants.METHODS_KEY);
+            if (parameter != null && parameter.length() > 0) {
+                for (String method : Constants.COMMA_SPLIT_PATTERN.split(parameter)) {
+                    if (method != null && method.length() > 0
+                            && !Constants.ANY_VALUE.equals(method)) {
+                        List<Invoker<T>> methodInvokers = addedMethodInvokers.get(method);
+                        if (methodInvokers == null) {
+                            methodInvokers = new ArrayList<Invoker<T>>();
+                            addedMethodInvokers.put(method, methodInvokers);
+                        }
+                        methodInvokers.add(invoker);
+                    }
+                }
+            }
+        }
+        Set<String> methods = new HashSet<String>(oldDeclaredMethodInvokers.keySet());
+        methods.addAll(addedMethodInvokers.keySet());
+        Map<String, List<Invoker<T>>> newDeclaredMethodInvokers = new HashMap<String, List<Invoker<T>>>();
+        for (String method : methods) {
+            List<Invoker<T>> oldInvokers = oldDeclaredMethodInvokers.get(method);
+            List<Invoker<T>> addedInvokers = addedMethodInvokers.get(method);
+            List<Invoker<T>> methodInvokers = merge(oldInvokers == null ? Collections.<Invoker<T>>emptyList() : oldInvokers,
+                    deleted, addedInvokers == null ? Collections.<Invoker<T>>emptyList() : addedInvokers);
+            if (!methodInvokers.isEmpty()) {
+                newDeclaredMethodInvokers.put(method, methodInvokers);
+            }
+        }
+        this.declaredMethodInvokers = newDeclaredMethodInvokers;
+
+        Map<String, List<Invoker<T>>> newMethodInvokerMap = new HashMap<String, List<Invoker<T>>>(newDeclaredMethodInvokers);
+        List<Invoker<T>> invokersList = newDeclaredMethodInvokers.get(Constants.ANY_VALUE);
+        if (invokersList == null) {
+            invokersList = Collections.emptyList();
+            newMethodInvokerMap.put(Constants.ANY_VALUE, invokersList);
+        }
+        if (serviceMethods != null && serviceMethods.length > 0) {
+            for (String method : serviceMethods) {
+                if (!newMethodInvokerMap.containsKey(method)) {
+                    newMethodInvokerMap.put(method, invokersList);
+                }
+            }
+        }
+        return Collections.unmodifiableMap(newMethodInvokerMap);
+    }
+
+    /**
+     * Merge sorted invokers into sorted invokers without the deleted ones, the old list is kept if nothing changes
+     */
+    private static <T> List<Invoker<T>> merge(List<Invoker<T>> invokers, Set<Invoker<T>> deleted, List<Invoker<T>> added) {
+        if (added.isEmpty() && (deleted.isEmpty() || Collections.disjoint(invokers, deleted))) {
+            return invokers;
+        }
+        List<Invoker<T>> merged = new ArrayList<Invoker<T>>(invokers.size() + added.size());
+        Comparator<Invoker<?>> comparator = InvokerComparator.getComparator();
+        int i = 0;
+        for (Invoker<T> invoker : invokers) {
+            if (deleted.contains(invoker)) {
+                continue;
+            }
+            while (i < added.size() && comparator.compare(added.get(i), invoker) < 0) {
+                merged.add(added.get(i++));
+            }
+            merged.add(invoker);
+        }
+        while (i < added.size()) {
+            merged.add(added.get(i++));
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
     /**
      * Close all invokers
      */
@@ -521,49 +736,24 @@ public class RegistryDirectory<T> extends AbstractDirectory<T> implements Notify
             localUrlInvokerMap.clear();
         }
         methodInvokerMap = null;
+        declaredMethodInvokers = null;
     }
 
     /**
      * Check whether the invoker in the cache needs to be destroyed
      * If set attribute of url: refer.autodestroy=false, the invokers will only increase without decreasing,there may be a refer leak
      *
-     * @param oldUrlInvokerMap
-     * @param newUrlInvokerMap
+     * @param deleted invokers of the old url invoker map that are not in the new one
      */
-    private void destroyUnusedInvokers(Map<String, Invoker<T>> oldUrlInvokerMap, Map<String, Invoker<T>> newUrlInvokerMap) {
-        if (newUrlInvokerMap == null || newUrlInvokerMap.size() == 0) {
-            destroyAllInvokers();
-            return;
-        }
-        // check deleted invoker
-        List<String> deleted = null;
-        if (oldUrlInvokerMap != null) {
-            Collection<Invoker<T>> newInvokers = newUrlInvokerMap.values();
-            for (Map.Entry<String, Invoker<T>> entry : oldUrlInvokerMap.entrySet()) {
-                if (!newInvokers.contains(entry.getValue())) {
-                    if (deleted == null) {
-                        deleted = new ArrayList<String>();
-                    }
-                    deleted.add(entry.getKey());
-                }
-            }
-        }
-
-        if (deleted != null) {
-            for (String url : deleted) {
-                if (url != null) {
-                    Invoker<T> invoker = oldUrlInvokerMap.remove(url);
-                    if (invoker != null) {
-                        try {
-                            invoker.destroy();
-                            if (logger.isDebugEnabled()) {
-                                logger.debug("destroy invoker[" + invoker.getUrl() + "] success. ");
-                            }
-                        } catch (Exception e) {
-                            logger.warn("destroy invoker[" + invoker.getUrl() + "] faild. " + e.getMessage(), e);
-                        }
-                    }
+    private void destroyUnusedInvokers(Collection<Invoker<T>> deleted) {
+        for (Invoker<T> invoker : deleted) {
+            try {
+                invoker.destroy();
+                if (logger.isDebugEnabled()) {
+                    logger.debug("destroy invoker[" + invoker.getUrl() + "] success. ");
                 }
+            } catch (Exception e) {
+                logger.warn("destroy invoker[" + invoker.getUrl() + "] faild. " + e.getMessage(), e);
             }
         }
     }
@@ -41,6 +41,7 @@ import org.apache.dubbo.rpc.protocol.InvokerWrapper;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -61,6 +62,8 @@ public class RegistryProtocol implements Protocol {
 
     private final static Logger logger = LoggerFactory.getLogger(RegistryProtocol.class);
     private static RegistryProtocol INSTANCE;
+    // subscriptions of the references referred on this thread since beginBatch(), by registry
+    private static final ThreadLocal<Map<Registry, Map<URL, NotifyListener>>> BATCH = new ThreadLocal<Map<Registry, Map<URL, NotifyListener>>>();
     private final Map<URL, NotifyListener> overrideListeners = new ConcurrentHashMap<URL, NotifyListener>();
     //To solve the problem of RMI repeated exposure port conflicts, the services that have been exposed are no longer exposed.
     //providerurl <--> exporter
@@ -81,6 +84,44 @@ public class RegistryProtocol implements Protocol {
         return INSTANCE;
     }
 
+    /**
+     * Start collecting the subscriptions of the references referred on the current thread, instead of
+     * subscribing each of them on refer. The invokers referred meanwhile are not notified until
+     * {@link #endBatch()}, so they must not be checked before.
+     */
+    public static void beginBatch() {
+        if (BATCH.get() == null) {
+            BATCH.set(new LinkedHashMap<Registry, Map<URL, NotifyListener>>());
+        }
+    }
+
+    /**
+     * Subscribe the references collected since {@link #beginBatch()}, one batch per registry, see
+     * {@link Registry#subscribe(Map)}. All the invokers of a registry are notified when its batch returns.
+     *
+     * @throws IllegalStateException the first failure reported by a registry, after all batches are subscribed
+     */
+    public static void endBatch() {
+        Map<Registry, Map<URL, NotifyListener>> batch = BATCH.get();
+        BATCH.remove();
+        if (batch == null) {
+            return;
+        }
+        RuntimeException failure = null;
+        for (Map.Entry<Registry, Map<URL, NotifyListener>> entry : batch.entrySet()) {
+            try {
+                entry.getKey().subscribe(entry.getValue());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     //Filter the parameters that do not need to be output in url(Starting with .)
     private static String[] getFilteredKeys(URL url) {
         Map<String, String> params = url.getParameters();
@@ -306,10 +347,22 @@ public class RegistryProtocol implements Protocol {
             registry.register(subscribeUrl.addParameters(Constants.CATEGORY_KEY, Constants.CONSUMERS_CATEGORY,
                     Constants.CHECK_KEY, String.valueOf(false)));
         }
-        directory.subscribe(subscribeUrl.addParameter(Constants.CATEGORY_KEY,
+        URL consumerUrl = subscribeUrl.addParameter(Constants.CATEGORY_KEY,
                 Constants.PROVIDERS_CATEGORY
                         + "," + Constants.CONFIGURATORS_CATEGORY
-                        + "," + Constants.ROUTERS_CATEGORY));
+                        + "," + Constants.ROUTERS_CATEGORY);
+        Map<Registry, Map<URL, NotifyListener>> batch = BATCH.get();
+        Map<URL, NotifyListener> subscriptions = batch == null ? null : batch.get(registry);
+        if (subscriptions == null && batch != null) {
+            subscriptions = new LinkedHashMap<URL, NotifyListener>();
+            batch.put(registry, subscriptions);
+        }
+        if (subscriptions != null && !subscriptions.containsKey(consumerUrl)) {
+            directory.setConsumerUrl(consumerUrl);
+            subscriptions.put(consumerUrl, directory);
+        } else {
+            directory.subscribe(consumerUrl);
+        }
 
         Invoker invoker = cluster.join(directory);
         ProviderConsumerRegTable.registerConsumer(invoker, url, subscribeUrl, directory);
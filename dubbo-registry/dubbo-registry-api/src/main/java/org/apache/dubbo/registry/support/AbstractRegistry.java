@@ -18,6 +18,7 @@ package org.apache.dubbo.registry.support;
 
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.utils.ConcurrentHashSet;
@@ -26,15 +27,10 @@ import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.common.utils.UrlUtils;
 import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.Registry;
+import org.apache.dubbo.registry.RegistryCacheStore;
+import org.apache.dubbo.registry.RegistryCacheStoreFactory;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.RandomAccessFile;
-import java.nio.channels.FileChannel;
-import java.nio.channels.FileLock;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -46,6 +42,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -55,18 +52,15 @@ import java.util.concurrent.atomic.AtomicReference;
  */
 public abstract class AbstractRegistry implements Registry {
 
-    // URL address separator, used in file cache, service provider URL separation
-    private static final char URL_SEPARATOR = ' ';
-    // URL address separated regular expression for parsing the service provider URL list in the file cache
-    private static final String URL_SPLIT = "\\s+";
     // Log output
     protected final Logger logger = LoggerFactory.getLogger(getClass());
-    // Local disk cache, where the special key value.registies records the list of registry centers, and the others are the list of notified service providers
-    private final Properties properties = new Properties();
     // File cache timing writing
     private final ExecutorService registryCacheExecutor = Executors.newFixedThreadPool(1, new NamedThreadFactory("DubboSaveRegistryCache", true));
     // Is it synchronized to save the file
     private final boolean syncSaveFile;
+    // Service keys and urls waiting to be saved, the latest urls of a service replace the waiting ones
+    private final ConcurrentMap<String, List<String>> unsavedUrls = new ConcurrentHashMap<String, List<String>>();
+    private final AtomicBoolean saveScheduled = new AtomicBoolean();
     private final AtomicLong lastCacheChanged = new AtomicLong();
     private final Set<URL> registered = new ConcurrentHashSet<URL>();
     private final ConcurrentMap<URL, Set<NotifyListener>> subscribed = new ConcurrentHashMap<URL, Set<NotifyListener>>();
@@ -74,6 +68,8 @@ public abstract class AbstractRegistry implements Registry {
     private URL registryUrl;
     // Local disk cache file
     private File file;
+    // Local disk cache, the notified urls of each service, null if there is no cache file
+    private RegistryCacheStore cacheStore;
 
     public AbstractRegistry(URL url) {
         setUrl(url);
@@ -90,7 +86,10 @@ public abstract class AbstractRegistry implements Registry {
             }
         }
         this.file = file;
-        loadProperties();
+        if (file != null) {
+            String store = url.getParameter(Constants.REGISTRY_FILE_STORE_KEY, Constants.DEFAULT_REGISTRY_FILE_STORE);
+            this.cacheStore = ExtensionLoader.getExtensionLoader(RegistryCacheStoreFactory.class).getExtension(store).getCacheStore(file);
+        }
         notify(url.getBackupUrls());
     }
 
@@ -131,98 +130,88 @@ public abstract class AbstractRegistry implements Registry {
         return file;
     }
 
+    public RegistryCacheStore getCacheStore() {
+        return cacheStore;
+    }
+
+    /**
+     * @return a snapshot of the cached urls of each service, separated by spaces, changes are not saved
+     * @deprecated use {@link #getCacheStore()}
+     */
+    @Deprecated
     public Properties getCacheProperties() {
+        Properties properties = new Properties();
+        if (cacheStore != null) {
+            for (String serviceKey : cacheStore.getServiceKeys()) {
+                List<String> urls = cacheStore.get(serviceKey);
+                if (urls != null) {
+                    StringBuilder buf = new StringBuilder();
+                    for (String u : urls) {
+                        if (buf.length() > 0) {
+                            buf.append(AbstractRegistryCacheStore.URL_SEPARATOR);
+                        }
+                        buf.append(u);
+                    }
+                    properties.setProperty(serviceKey, buf.toString());
+                }
+            }
+        }
         return properties;
     }
 
+    /**
+     * @deprecated the cache is saved by {@link #saveCache()}
+     */
+    @Deprecated
     public AtomicLong getLastCacheChanged() {
         return lastCacheChanged;
     }
 
+    /**
+     * @deprecated use {@link #saveCache()}
+     */
+    @Deprecated
     public void doSaveProperties(long version) {
         if (version < lastCacheChanged.get()) {
             return;
         }
-        if (file == null) {
+        saveCache();
+    }
+
+    public void saveCache() {
+        if (cacheStore == null) {
             return;
         }
-        // Save
+        Map<String, List<String>> saving = new HashMap<String, List<String>>();
         try {
-            File lockfile = new File(file.getAbsolutePath() + ".lock");
-            if (!lockfile.exists()) {
-                lockfile.createNewFile();
-            }
-            RandomAccessFile raf = new RandomAccessFile(lockfile, "rw");
-            try {
-                FileChannel channel = raf.getChannel();
-                try {
-                    FileLock lock = channel.tryLock();
-                    if (lock == null) {
-                        throw new IOException("Can not lock the registry cache file " + file.getAbsolutePath() + ", ignore and retry later, maybe multi java process use the file, please config: dubbo.registry.file=xxx.properties");
-                    }
-                    // Save
-                    try {
-                        if (!file.exists()) {
-                            file.createNewFile();
-                        }
-                        FileOutputStream outputFile = new FileOutputStream(file);
-                        try {
-                            properties.store(outputFile, "Dubbo Registry Cache");
-                        } finally {
-                            outputFile.close();
-                        }
-                    } finally {
-                        lock.release();
-                    }
-                } finally {
-                    channel.close();
+            for (String serviceKey : new ArrayList<String>(unsavedUrls.keySet())) {
+                List<String> urls = unsavedUrls.remove(serviceKey);
+                if (urls != null) {
+                    saving.put(serviceKey, urls);
+                    cacheStore.put(serviceKey, urls);
                 }
-            } finally {
-                raf.close();
             }
+            cacheStore.flush();
         } catch (Throwable e) {
-            if (version < lastCacheChanged.get()) {
-                return;
-            } else {
-                registryCacheExecutor.execute(new SaveProperties(lastCacheChanged.incrementAndGet()));
+            // put back what was taken, unless a newer notify replaced it, and retry later
+            for (Map.Entry<String, List<String>> entry : saving.entrySet()) {
+                unsavedUrls.putIfAbsent(entry.getKey(), entry.getValue());
             }
-            logger.warn("Failed to save registry store file, cause: " + e.getMessage(), e);
-        }
-    }
-
-    private void loadProperties() {
-        if (file != null && file.exists()) {
-            InputStream in = null;
-            try {
-                in = new FileInputStream(file);
-                properties.load(in);
-                if (logger.isInfoEnabled()) {
-                    logger.info("Load registry store file " + file + ", data: " + properties);
-                }
-            } catch (Throwable e) {
-                logger.warn("Failed to load registry store file " + file, e);
-            } finally {
-                if (in != null) {
-                    try {
-                        in.close();
-                    } catch (IOException e) {
-                        logger.warn(e.getMessage(), e);
-                    }
-                }
+            if (saveScheduled.compareAndSet(false, true)) {
+                registryCacheExecutor.execute(new SaveCache());
             }
+            logger.warn("Failed to save registry store file, cause: " + e.getMessage(), e);
         }
     }
 
     public List<URL> getCacheUrls(URL url) {
-        for (Map.Entry<Object, Object> entry : properties.entrySet()) {
-            String key = (String) entry.getKey();
-            String value = (String) entry.getValue();
-            if (key != null && key.length() > 0 && key.equals(url.getServiceKey())
-                    && (Character.isLetter(key.charAt(0)) || key.charAt(0) == '_')
-                    && value != null && value.length() > 0) {
-                String[] arr = value.trim().split(URL_SPLIT);
-                List<URL> urls = new ArrayList<URL>();
-                for (String u : arr) {
+        String key = url.getServiceKey();
+        if (cacheStore != null && key != null && key.length() > 0
+                && (Character.isLetter(key.charAt(0)) || key.charAt(0) == '_')) {
+            List<String> values = cacheStore.get(key);
+            if (values != null && !values.isEmpty()) {
+                List<URL> urls = new ArrayList<URL>(values.size());
+                for (String u : values) {
                     urls.add(URL.valueOf(u));
                 }
                 return urls;
@@ -406,39 +395,34 @@ public abstract class AbstractRegistry implements Registry {
             notified.putIfAbsent(url, new ConcurrentHashMap<String, List<URL>>());
             categoryNotified = notified.get(url);
         }
-        for (Map.Entry<String, List<URL>> entry : result.entrySet()) {
-            String category = entry.getKey();
-            List<URL> categoryList = entry.getValue();
-            categoryNotified.put(category, categoryList);
-            saveProperties(url);
+        categoryNotified.putAll(result);
+        saveCache(url); // Saved once for all the notified categories
+        for (List<URL> categoryList : result.values()) {
             listener.notify(categoryList);
         }
     }
 
-    private void saveProperties(URL url) {
-        if (file == null) {
+    private void saveCache(URL url) {
+        if (cacheStore == null) {
             return;
         }
 
         try {
-            StringBuilder buf = new StringBuilder();
+            List<String> urls = new ArrayList<String>();
             Map<String, List<URL>> categoryNotified = notified.get(url);
             if (categoryNotified != null) {
                 for (List<URL> us : categoryNotified.values()) {
                     for (URL u : us) {
-                        if (buf.length() > 0) {
-                            buf.append(URL_SEPARATOR);
-                        }
-                        buf.append(u.toFullString());
+                        urls.add(u.toFullString());
                     }
                 }
             }
-            properties.setProperty(url.getServiceKey(), buf.toString());
-            long version = lastCacheChanged.incrementAndGet();
+            unsavedUrls.put(url.getServiceKey(), urls);
+            lastCacheChanged.incrementAndGet();
             if (syncSaveFile) {
-                doSaveProperties(version);
-            } else {
-                registryCacheExecutor.execute(new SaveProperties(version));
+                saveCache();
+            } else if (saveScheduled.compareAndSet(false, true)) {
+                registryCacheExecutor.execute(new SaveCache());
             }
         } catch (Throwable t) {
             logger.warn(t.getMessage(), t);
@@ -481,6 +465,10 @@ public abstract class AbstractRegistry implements Registry {
                 }
             }
         }
+        if (cacheStore != null) {
+            saveCache();
+            cacheStore.close();
+        }
     }
 
     @Override
@@ -488,16 +476,11 @@ public abstract class AbstractRegistry implements Registry {
         return getUrl().toString();
     }
 
-    private class SaveProperties implements Runnable {
-        private long version;
-
-        private SaveProperties(long version) {
-            this.version = version;
-        }
-
+    private class SaveCache implements Runnable {
         @Override
         public void run() {
-            doSaveProperties(version);
+            saveScheduled.set(false);
+            saveCache();
         }
     }
 
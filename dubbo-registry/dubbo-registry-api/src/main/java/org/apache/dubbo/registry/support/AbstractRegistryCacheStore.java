@@ -0,0 +1,99 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.registry.RegistryCacheStore;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+/**
+ * AbstractRegistryCacheStore, writes the cache file under the lock of a sibling .lock file, so that processes
+ * sharing the file do not write it at the same time.
+ */
+public abstract class AbstractRegistryCacheStore implements RegistryCacheStore {
+
+    // URL address separator of the legacy properties file, used in file cache, service provider URL separation
+    protected static final char URL_SEPARATOR = ' ';
+
+    // URL address separated regular expression for parsing the service provider URL list in the legacy properties file
+    protected static final String URL_SPLIT = "\\s+";
+
+    protected final Logger logger = LoggerFactory.getLogger(getClass());
+
+    protected final File file;
+
+    private boolean closed;
+
+    protected AbstractRegistryCacheStore(File file) {
+        if (file == null) {
+            throw new IllegalArgumentException("registry cache file == null");
+        }
+        this.file = file;
+    }
+
+    @Override
+    public synchronized void flush() throws IOException {
+        if (closed || !isDirty()) {
+            return;
+        }
+        File lockfile = new File(file.getAbsolutePath() + ".lock");
+        if (!lockfile.exists()) {
+            lockfile.createNewFile();
+        }
+        RandomAccessFile raf = new RandomAccessFile(lockfile, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            try {
+                FileLock lock = channel.tryLock();
+                if (lock == null) {
+                    throw new IOException("Can not lock the registry cache file " + file.getAbsolutePath() + ", ignore and retry later, maybe multi java process use the file, please config: dubbo.registry.file=xxx.properties");
+                }
+                try {
+                    doFlush();
+                } finally {
+                    lock.release();
+                }
+            } finally {
+                channel.close();
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+    }
+
+    /**
+     * @return whether there is anything to write, called holding the monitor of the store
+     */
+    protected abstract boolean isDirty();
+
+    /**
+     * Write the cache file, called holding the monitor of the store and the file lock
+     */
+    protected abstract void doFlush() throws IOException;
+
+}
@@ -0,0 +1,303 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * BinaryRegistryCacheStore, keeps the cached urls in the file registry.cache.bin, which begins with a snapshot of
+ * every service and goes on with the services appended by the later flushes:
+ * <pre>
+ * file:    magic(int) record*
+ * record:  length(int) crc32(int) payload
+ * payload: serviceKey(string) count(int) url(string)*, a count of 0 removes the service
+ * string:  length(int) utf-8 bytes
+ * </pre>
+ * The file is memory mapped when opened and only indexed by service key, the urls of a service are decoded when
+ * they are first read. A flush appends the changed services only, and the file is compacted into a new snapshot
+ * once more has been appended than the last snapshot holds. A torn record at the end, left by a crash in the
+ * middle of an append, is dropped. If there is no binary file yet, the legacy properties file is imported.
+ */
+public class BinaryRegistryCacheStore extends AbstractRegistryCacheStore {
+
+    private static final int MAGIC = 0x44524331; // DRC1
+
+    private static final int MIN_COMPACT_LENGTH = 64 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File binaryFile;
+
+    // Map<serviceKey, urls> decoded services
+    private final Map<String, List<String>> services = new HashMap<String, List<String>>();
+
+    // Map<serviceKey, offset> services not decoded yet, at their payload offset in the mapped buffer
+    private final Map<String, Integer> mappedServices = new HashMap<String, Integer>();
+
+    // Map<serviceKey, urls> services put since the last flush
+    private final Map<String, List<String>> pendingServices = new LinkedHashMap<String, List<String>>();
+
+    private ByteBuffer mappedBuffer;
+
+    private long snapshotLength;
+
+    private long appendedLength;
+
+    private boolean compactRequired;
+
+    public BinaryRegistryCacheStore(File file) {
+        super(file);
+        this.binaryFile = new File(file.getPath() + ".bin");
+        this.compactRequired = !binaryFile.exists();
+        try {
+            if (binaryFile.exists()) {
+                load();
+            } else if (file.exists()) {
+                importProperties();
+            }
+        } catch (Throwable e) {
+            logger.warn("Failed to load registry store file " + binaryFile, e);
+            services.clear();
+            mappedServices.clear();
+            mappedBuffer = null;
+            compactRequired = true;
+        }
+    }
+
+    private void load() throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(binaryFile, "r");
+        ByteBuffer buffer;
+        try {
+            // the mapping stays valid after the channel is closed
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        } finally {
+            raf.close();
+        }
+        if (buffer.remaining() < 4 || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Invalid registry store file " + binaryFile + ", the file is rewritten");
+        }
+        CRC32 crc32 = new CRC32();
+        int position = 4;
+        while (buffer.limit() - position >= 8) {
+            int length = buffer.getInt(position);
+            int crc = buffer.getInt(position + 4);
+            int offset = position + 8;
+            if (length < 8 || length > buffer.limit() - offset) {
+                break;
+            }
+            ByteBuffer payload = buffer.duplicate();
+            payload.position(offset);
+            payload.limit(offset + length);
+            crc32.reset();
+            crc32.update(payload);
+            if ((int) crc32.getValue() != crc) {
+                break;
+            }
+            String serviceKey = readString(buffer, offset);
+            int count = buffer.getInt(offset + 4 + buffer.getInt(offset));
+            if (count == 0) {
+                mappedServices.remove(serviceKey);
+            } else {
+                mappedServices.put(serviceKey, offset);
+            }
+            position = offset + length;
+        }
+        if (position < buffer.limit()) {
+            logger.warn("Drop the torn tail of registry store file " + binaryFile + " from " + position + " to " + buffer.limit());
+            compactRequired = true;
+        }
+        this.mappedBuffer = buffer;
+        this.snapshotLength = position;
+        if (logger.isInfoEnabled()) {
+            logger.info("Load registry store file " + binaryFile + ", services: " + mappedServices.keySet());
+        }
+    }
+
+    private void importProperties() throws IOException {
+        Properties properties = new Properties();
+        PropertiesRegistryCacheStore.load(file, properties);
+        for (String serviceKey : properties.stringPropertyNames()) {
+            List<String> urls = PropertiesRegistryCacheStore.split(properties.getProperty(serviceKey));
+            if (urls != null) {
+                services.put(serviceKey, urls);
+            }
+        }
+        compactRequired = true;
+        if (logger.isInfoEnabled()) {
+            logger.info("Import legacy registry store file " + file + ", services: " + services.keySet());
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        byte[] bytes = new byte[length];
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(offset + 4);
+        duplicate.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    private static List<String> readUrls(ByteBuffer buffer, int offset) {
+        offset += 4 + buffer.getInt(offset); // skip the service key
+        int count = buffer.getInt(offset);
+        offset += 4;
+        List<String> urls = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            String url = readString(buffer, offset);
+            offset += 4 + buffer.getInt(offset);
+            urls.add(url);
+        }
+        return urls;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeRecord(DataOutputStream out, String serviceKey, List<String> urls) throws IOException {
+        ByteArrayOutputStream payload = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(payload);
+        writeString(data, serviceKey);
+        data.writeInt(urls.size());
+        for (String url : urls) {
+            writeString(data, url);
+        }
+        data.flush();
+        byte[] bytes = payload.toByteArray();
+        CRC32 crc32 = new CRC32();
+        crc32.update(bytes, 0, bytes.length);
+        out.writeInt(bytes.length);
+        out.writeInt((int) crc32.getValue());
+        out.write(bytes);
+    }
+
+    @Override
+    public synchronized List<String> get(String serviceKey) {
+        List<String> urls = services.get(serviceKey);
+        if (urls == null) {
+            Integer offset = mappedServices.remove(serviceKey);
+            if (offset != null) {
+                urls = readUrls(mappedBuffer, offset);
+                services.put(serviceKey, urls);
+            }
+        }
+        return urls == null || urls.isEmpty() ? null : new ArrayList<String>(urls);
+    }
+
+    @Override
+    public synchronized Set<String> getServiceKeys() {
+        Set<String> keys = new HashSet<String>(services.keySet());
+        keys.addAll(mappedServices.keySet());
+        return keys;
+    }
+
+    @Override
+    public synchronized void put(String serviceKey, List<String> urls) {
+        urls = new ArrayList<String>(urls);
+        mappedServices.remove(serviceKey);
+        if (urls.isEmpty()) {
+            services.remove(serviceKey);
+        } else {
+            services.put(serviceKey, urls);
+        }
+        pendingServices.put(serviceKey, urls);
+    }
+
+    @Override
+    protected boolean isDirty() {
+        return compactRequired || !pendingServices.isEmpty();
+    }
+
+    @Override
+    protected void doFlush() throws IOException {
+        if (compactRequired || !binaryFile.exists() || appendedLength > Math.max(snapshotLength, MIN_COMPACT_LENGTH)) {
+            compact();
+        } else {
+            append();
+        }
+        pendingServices.clear();
+    }
+
+    private void append() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        for (Map.Entry<String, List<String>> entry : pendingServices.entrySet()) {
+            writeRecord(out, entry.getKey(), entry.getValue());
+        }
+        out.flush();
+        FileOutputStream outputFile = new FileOutputStream(binaryFile, true);
+        try {
+            bytes.writeTo(outputFile);
+        } finally {
+            outputFile.close();
+        }
+        appendedLength += bytes.size();
+    }
+
+    private void compact() throws IOException {
+        for (Map.Entry<String, Integer> entry : mappedServices.entrySet()) {
+            services.put(entry.getKey(), readUrls(mappedBuffer, entry.getValue()));
+        }
+        mappedServices.clear();
+        mappedBuffer = null;
+        File tempFile = new File(binaryFile.getPath() + ".tmp");
+        FileOutputStream outputFile = new FileOutputStream(tempFile);
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(outputFile));
+            out.writeInt(MAGIC);
+            for (Map.Entry<String, List<String>> entry : services.entrySet()) {
+                writeRecord(out, entry.getKey(), entry.getValue());
+            }
+            out.flush();
+            outputFile.getFD().sync();
+        } finally {
+            outputFile.close();
+        }
+        try {
+            Files.move(tempFile.toPath(), binaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), binaryFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        snapshotLength = binaryFile.length();
+        appendedLength = 0;
+        compactRequired = false;
+    }
+
+}
@@ -26,6 +26,7 @@ import org.apache.dubbo.registry.NotifyListener;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -58,14 +59,28 @@ public abstract class FailbackRegistry extends AbstractRegistry {
 
     private final ConcurrentMap<URL, Map<NotifyListener, List<URL>>> failedNotified = new ConcurrentHashMap<URL, Map<NotifyListener, List<URL>>>();
 
+    private final ConcurrentMap<URL, ConcurrentMap<NotifyListener, DebouncedNotification>> debouncedNotified = new ConcurrentHashMap<URL, ConcurrentMap<NotifyListener, DebouncedNotification>>();
+
     /**
      * The time in milliseconds the retryExecutor will wait
      */
     private final int retryPeriod;
 
+    /**
+     * The quiet period in milliseconds a notification waits for the following ones, 0 means notifying at once
+     */
+    private final int notifyDebounce;
+
+    /**
+     * The longest time in milliseconds a notification is held back by the following ones
+     */
+    private final int notifyMaxDelay;
+
     public FailbackRegistry(URL url) {
         super(url);
         this.retryPeriod = url.getParameter(Constants.REGISTRY_RETRY_PERIOD_KEY, Constants.DEFAULT_REGISTRY_RETRY_PERIOD);
+        this.notifyDebounce = url.getParameter(Constants.REGISTRY_NOTIFY_DEBOUNCE_KEY, 0);
+        this.notifyMaxDelay = Math.max(notifyDebounce, url.getParameter(Constants.REGISTRY_NOTIFY_MAX_DELAY_KEY, Constants.DEFAULT_REGISTRY_NOTIFY_MAX_DELAY));
         this.retryFuture = retryExecutor.scheduleWithFixedDelay(new Runnable() {
             @Override
             public void run() {
@@ -125,6 +140,13 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         if (notified != null) {
             notified.remove(listener);
         }
+        Map<NotifyListener, DebouncedNotification> debounced = debouncedNotified.get(url);
+        if (debounced != null) {
+            DebouncedNotification notification = debounced.remove(listener);
+            if (notification != null) {
+                notification.cancel();
+            }
+        }
     }
 
     @Override
@@ -195,30 +217,59 @@ public abstract class FailbackRegistry extends AbstractRegistry {
             // Sending a subscription request to the server side
             doSubscribe(url, listener);
         } catch (Exception e) {
-            Throwable t = e;
+            subscribeFailed(url, listener, e);
+        }
+    }
 
-            List<URL> urls = getCacheUrls(url);
-            if (urls != null && !urls.isEmpty()) {
-                notify(url, listener, urls);
-                logger.error("Failed to subscribe " + url + ", Using cached list: " + urls + " from cache file: " + getUrl().getParameter(Constants.FILE_KEY, System.getProperty("user.home") + "/dubbo-registry-" + url.getHost() + ".cache") + ", cause: " + t.getMessage(), t);
-            } else {
-                // If the startup detection is opened, the Exception is thrown directly.
-                boolean check = getUrl().getParameter(Constants.CHECK_KEY, true)
-                        && url.getParameter(Constants.CHECK_KEY, true);
-                boolean skipFailback = t instanceof SkipFailbackWrapperException;
-                if (check || skipFailback) {
-                    if (skipFailback) {
-                        t = t.getCause();
-                    }
-                    throw new IllegalStateException("Failed to subscribe " + url + ", cause: " + t.getMessage(), t);
-                } else {
-                    logger.error("Failed to subscribe " + url + ", waiting for retry, cause: " + t.getMessage(), t);
+    @Override
+    public void subscribe(Map<URL, NotifyListener> subscriptions) {
+        for (Map.Entry<URL, NotifyListener> entry : subscriptions.entrySet()) {
+            super.subscribe(entry.getKey(), entry.getValue());
+            removeFailedSubscribed(entry.getKey(), entry.getValue());
+        }
+        // Sending all the subscription requests to the server side together
+        Map<URL, Exception> failures = doSubscribe(subscriptions);
+        IllegalStateException checked = null;
+        for (Map.Entry<URL, Exception> entry : failures.entrySet()) {
+            URL url = entry.getKey();
+            try {
+                subscribeFailed(url, subscriptions.get(url), entry.getValue());
+            } catch (IllegalStateException e) {
+                // Handle the other failures before reporting the first checked one
+                if (checked == null) {
+                    checked = e;
                 }
             }
+        }
+        if (checked != null) {
+            throw checked;
+        }
+    }
 
-            // Record a failed registration request to a failed list, retry regularly
-            addFailedSubscribed(url, listener);
+    private void subscribeFailed(URL url, NotifyListener listener, Exception e) {
+        Throwable t = e;
+
+        List<URL> urls = getCacheUrls(url);
+        if (urls != null && !urls.isEmpty()) {
+            notify(url, listener, urls);
+            logger.error("Failed to subscribe " + url + ", Using cached list: " + urls + " from cache file: " + getUrl().getParameter(Constants.FILE_KEY, System.getProperty("user.home") + "/dubbo-registry-" + url.getHost() + ".cache") + ", cause: " + t.getMessage(), t);
+        } else {
+            // If the startup detection is opened, the Exception is thrown directly.
+            boolean check = getUrl().getParameter(Constants.CHECK_KEY, true)
+                    && url.getParameter(Constants.CHECK_KEY, true);
+            boolean skipFailback = t instanceof SkipFailbackWrapperException;
+            if (check || skipFailback) {
+                if (skipFailback) {
+                    t = t.getCause();
+                }
+                throw new IllegalStateException("Failed to subscribe " + url + ", cause: " + t.getMessage(), t);
+            } else {
+                logger.error("Failed to subscribe " + url + ", waiting for retry, cause: " + t.getMessage(), t);
+            }
         }
+
+        // Record a failed registration request to a failed list, retry regularly
+        addFailedSubscribed(url, listener);
     }
 
     @Override
@@ -262,6 +313,24 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         if (listener == null) {
             throw new IllegalArgumentException("notify listener == null");
         }
+        if (notifyDebounce > 0 && urls != null && !urls.isEmpty()) {
+            ConcurrentMap<NotifyListener, DebouncedNotification> debounced = debouncedNotified.get(url);
+            if (debounced == null) {
+                debouncedNotified.putIfAbsent(url, new ConcurrentHashMap<NotifyListener, DebouncedNotification>());
+                debounced = debouncedNotified.get(url);
+            }
+            DebouncedNotification notification = debounced.get(listener);
+            if (notification == null) {
+                debounced.putIfAbsent(listener, new DebouncedNotification(url, listener));
+                notification = debounced.get(listener);
+            }
+            notification.offer(urls);
+        } else {
+            notifyOrFailback(url, listener, urls);
+        }
+    }
+
+    private void notifyOrFailback(URL url, NotifyListener listener, List<URL> urls) {
         try {
             doNotify(url, listener, urls);
         } catch (Exception t) {
@@ -441,6 +510,12 @@ public abstract class FailbackRegistry extends AbstractRegistry {
     @Override
     public void destroy() {
         super.destroy();
+        for (Map<NotifyListener, DebouncedNotification> debounced : debouncedNotified.values()) {
+            for (DebouncedNotification notification : debounced.values()) {
+                notification.cancel();
+            }
+        }
+        debouncedNotified.clear();
         try {
             retryFuture.cancel(true);
         } catch (Throwable t) {
@@ -449,6 +524,87 @@ public abstract class FailbackRegistry extends AbstractRegistry {
         ExecutorUtil.gracefulShutdown(retryExecutor, retryPeriod);
     }
 
+    /**
+     * Debounces the notifications of one subscription. The first notification after a quiet period is delivered
+     * at once, so that subscribing still notifies synchronously. The following ones only replace the pending urls
+     * of their categories, and are delivered together once no notification arrives for notifyDebounce
+     * milliseconds, or at the latest notifyMaxDelay milliseconds after the first pending one.
+     */
+    private class DebouncedNotification implements Runnable {
+
+        private final URL url;
+
+        private final NotifyListener listener;
+
+        private final Map<String, List<URL>> pendingUrls = new LinkedHashMap<String, List<URL>>();
+
+        private long firstPendingTime;
+
+        private long lastNotifiedTime;
+
+        private ScheduledFuture<?> future;
+
+        private DebouncedNotification(URL url, NotifyListener listener) {
+            this.url = url;
+            this.listener = listener;
+        }
+
+        synchronized void offer(List<URL> urls) {
+            long now = System.currentTimeMillis();
+            if (pendingUrls.isEmpty() && now - lastNotifiedTime >= notifyDebounce) {
+                lastNotifiedTime = now;
+                notifyOrFailback(url, listener, urls);
+                return;
+            }
+            if (pendingUrls.isEmpty()) {
+                firstPendingTime = now;
+            }
+            Map<String, List<URL>> categoryUrls = new HashMap<String, List<URL>>();
+            for (URL u : urls) {
+                String category = u.getParameter(Constants.CATEGORY_KEY, Constants.DEFAULT_CATEGORY);
+                List<URL> categoryList = categoryUrls.get(category);
+                if (categoryList == null) {
+                    categoryList = new ArrayList<URL>();
+                    categoryUrls.put(category, categoryList);
+                }
+                categoryList.add(u);
+            }
+            pendingUrls.putAll(categoryUrls);
+            if (future != null) {
+                future.cancel(false);
+            }
+            long delay = Math.max(0, Math.min(notifyDebounce, firstPendingTime + notifyMaxDelay - now));
+            future = retryExecutor.schedule(this, delay, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public synchronized void run() {
+            if (pendingUrls.isEmpty()) {
+                return;
+            }
+            List<URL> urls = new ArrayList<URL>();
+            for (List<URL> categoryList : pendingUrls.values()) {
+                urls.addAll(categoryList);
+            }
+            pendingUrls.clear();
+            future = null;
+            lastNotifiedTime = System.currentTimeMillis();
+            try {
+                notifyOrFailback(url, listener, urls);
+            } catch (Throwable t) { // Defensive fault tolerance
+                logger.error("Unexpected error occur at debounced notify for subscribe " + url + ", cause: " + t.getMessage(), t);
+            }
+        }
+
+        synchronized void cancel() {
+            pendingUrls.clear();
+            if (future != null) {
+                future.cancel(false);
+                future = null;
+            }
+        }
+    }
+
     // ==== Template method ====
 
     protected abstract void doRegister(URL url);
@@ -457,6 +613,23 @@ public abstract class FailbackRegistry extends AbstractRegistry {
 
     protected abstract void doSubscribe(URL url, NotifyListener listener);
 
+    /**
+     * Subscribe a batch of urls, registries able to pipeline the requests should override it.
+     *
+     * @return the failed subscriptions and their causes, empty if all succeeded
+     */
+    protected Map<URL, Exception> doSubscribe(Map<URL, NotifyListener> subscriptions) {
+        Map<URL, Exception> failures = new LinkedHashMap<URL, Exception>();
+        for (Map.Entry<URL, NotifyListener> entry : subscriptions.entrySet()) {
+            try {
+                doSubscribe(entry.getKey(), entry.getValue());
+            } catch (Exception e) {
+                failures.put(entry.getKey(), e);
+            }
+        }
+        return failures;
+    }
+
     protected abstract void doUnsubscribe(URL url, NotifyListener listener);
 
 }
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * PropertiesRegistryCacheStore, the legacy cache file, one property per service with the urls separated by
+ * spaces. Every flush rewrites the whole file.
+ */
+public class PropertiesRegistryCacheStore extends AbstractRegistryCacheStore {
+
+    private final Properties properties = new Properties();
+
+    private boolean dirty;
+
+    public PropertiesRegistryCacheStore(File file) {
+        super(file);
+        if (file.exists()) {
+            try {
+                load(file, properties);
+                if (logger.isInfoEnabled()) {
+                    logger.info("Load registry store file " + file + ", data: " + properties);
+                }
+            } catch (Throwable e) {
+                logger.warn("Failed to load registry store file " + file, e);
+            }
+        }
+    }
+
+    static void load(File file, Properties properties) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            properties.load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    static List<String> split(String value) {
+        if (value == null || value.trim().length() == 0) {
+            return null;
+        }
+        String[] arr = value.trim().split(URL_SPLIT);
+        List<String> urls = new ArrayList<String>(arr.length);
+        for (String u : arr) {
+            urls.add(u);
+        }
+        return urls;
+    }
+
+    @Override
+    public synchronized List<String> get(String serviceKey) {
+        return split(properties.getProperty(serviceKey));
+    }
+
+    @Override
+    public synchronized Set<String> getServiceKeys() {
+        Set<String> keys = new HashSet<String>();
+        for (String key : properties.stringPropertyNames()) {
+            if (properties.getProperty(key).length() > 0) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized void put(String serviceKey, List<String> urls) {
+        StringBuilder buf = new StringBuilder();
+        for (String u : urls) {
+            if (buf.length() > 0) {
+                buf.append(URL_SEPARATOR);
+            }
+            buf.append(u);
+        }
+        properties.setProperty(serviceKey, buf.toString());
+        dirty = true;
+    }
+
+    @Override
+    protected boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    protected void doFlush() throws IOException {
+        if (!file.exists()) {
+            file.createNewFile();
+        }
+        FileOutputStream outputFile = new FileOutputStream(file);
+        try {
+            properties.store(outputFile, "Dubbo Registry Cache");
+        } finally {
+            outputFile.close();
+        }
+        dirty = false;
+    }
+
+}
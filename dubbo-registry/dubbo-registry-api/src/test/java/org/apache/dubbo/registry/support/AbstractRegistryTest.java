@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.registry.NotifyListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AbstractRegistryTest {
+
+    private static final URL CONSUMER_URL = URL.valueOf("consumer://10.20.30.40/org.apache.dubbo.demo.DemoService?category=providers");
+
+    private static final URL PROVIDER_URL = URL.valueOf("dubbo://10.20.30.41:20880/org.apache.dubbo.demo.DemoService");
+
+    private static final NotifyListener LISTENER = new NotifyListener() {
+        @Override
+        public void notify(List<URL> urls) {
+        }
+    };
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("dubbo-registry", ".cache");
+        file.delete();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".bin").delete();
+        new File(file.getPath() + ".lock").delete();
+    }
+
+    private AbstractRegistry registry(boolean sync) {
+        return new AbstractRegistry(URL.valueOf("mock://127.0.0.1:2181")
+                .addParameter(Constants.FILE_KEY, file.getPath())
+                .addParameter(Constants.REGISTRY_FILESAVE_SYNC_KEY, sync)) {
+            @Override
+            public boolean isAvailable() {
+                return true;
+            }
+        };
+    }
+
+    @Test
+    public void testRetrySaveWhenLocked() throws Exception {
+        AbstractRegistry registry = registry(true);
+        RandomAccessFile raf = new RandomAccessFile(file.getPath() + ".lock", "rw");
+        try {
+            FileLock lock = raf.getChannel().lock();
+            try {
+                registry.notify(CONSUMER_URL, LISTENER, Arrays.asList(PROVIDER_URL));
+            } finally {
+                lock.release();
+            }
+        } finally {
+            raf.close();
+        }
+        // saved by the retry once the lock is released
+        List<String> cached = null;
+        for (int i = 0; i < 100 && cached == null; i++) {
+            Thread.sleep(50);
+            BinaryRegistryCacheStore store = new BinaryRegistryCacheStore(file);
+            cached = store.get(CONSUMER_URL.getServiceKey());
+            store.close();
+        }
+        assertEquals(Arrays.asList(PROVIDER_URL.toFullString()), cached);
+        registry.destroy();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testCacheProperties() throws Exception {
+        AbstractRegistry registry = registry(true);
+        assertNull(registry.getCacheProperties().getProperty(CONSUMER_URL.getServiceKey()));
+        long changed = registry.getLastCacheChanged().get();
+        registry.notify(CONSUMER_URL, LISTENER, Arrays.asList(PROVIDER_URL));
+        Properties properties = registry.getCacheProperties();
+        assertEquals(PROVIDER_URL.toFullString(), properties.getProperty(CONSUMER_URL.getServiceKey()));
+        assertEquals(changed + 1, registry.getLastCacheChanged().get());
+        registry.destroy();
+    }
+}
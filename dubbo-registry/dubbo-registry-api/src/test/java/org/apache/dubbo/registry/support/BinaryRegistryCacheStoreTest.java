@@ -0,0 +1,152 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.registry.RegistryCacheStore;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryRegistryCacheStoreTest {
+
+    private File file;
+
+    private File binaryFile;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("dubbo-registry", ".cache");
+        file.delete();
+        binaryFile = new File(file.getPath() + ".bin");
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        binaryFile.delete();
+        new File(file.getPath() + ".lock").delete();
+    }
+
+    private static List<String> urls(String service, int count) {
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            urls.add("dubbo://10.20.30." + i + ":20880/" + service + "?anyhost=true&category=providers&interface=" + service);
+        }
+        return urls;
+    }
+
+    @Test
+    public void testPutAndReload() throws Exception {
+        RegistryCacheStore store = new BinaryRegistryCacheStore(file);
+        assertNull(store.get("org.apache.dubbo.demo.DemoService"));
+        store.put("org.apache.dubbo.demo.DemoService", urls("org.apache.dubbo.demo.DemoService", 3));
+        store.put("group/org.apache.dubbo.demo.HelloService:1.0.0", urls("org.apache.dubbo.demo.HelloService", 2));
+        store.flush();
+        store.put("org.apache.dubbo.demo.DemoService", urls("org.apache.dubbo.demo.DemoService", 5));
+        store.put("group/org.apache.dubbo.demo.HelloService:1.0.0", new ArrayList<String>());
+        store.flush();
+        store.close();
+
+        store = new BinaryRegistryCacheStore(file);
+        assertEquals(urls("org.apache.dubbo.demo.DemoService", 5), store.get("org.apache.dubbo.demo.DemoService"));
+        assertNull(store.get("group/org.apache.dubbo.demo.HelloService:1.0.0"));
+        store.close();
+    }
+
+    @Test
+    public void testTornTail() throws Exception {
+        RegistryCacheStore store = new BinaryRegistryCacheStore(file);
+        store.put("org.apache.dubbo.demo.DemoService", urls("org.apache.dubbo.demo.DemoService", 3));
+        store.flush();
+        store.put("org.apache.dubbo.demo.DemoService", urls("org.apache.dubbo.demo.DemoService", 4));
+        store.flush();
+        store.close();
+        long length = binaryFile.length();
+        RandomAccessFile raf = new RandomAccessFile(binaryFile, "rw");
+        try {
+            raf.setLength(length - 10);
+        } finally {
+            raf.close();
+        }
+
+        store = new BinaryRegistryCacheStore(file);
+        assertEquals(urls("org.apache.dubbo.demo.DemoService", 3), store.get("org.apache.dubbo.demo.DemoService"));
+        store.put("org.apache.dubbo.demo.HelloService", urls("org.apache.dubbo.demo.HelloService", 1));
+        store.flush();
+        store.close();
+
+        store = new BinaryRegistryCacheStore(file);
+        assertEquals(urls("org.apache.dubbo.demo.DemoService", 3), store.get("org.apache.dubbo.demo.DemoService"));
+        assertEquals(urls("org.apache.dubbo.demo.HelloService", 1), store.get("org.apache.dubbo.demo.HelloService"));
+        store.close();
+    }
+
+    @Test
+    public void testCompact() throws Exception {
+        RegistryCacheStore store = new BinaryRegistryCacheStore(file);
+        store.put("org.apache.dubbo.demo.DemoService", urls("org.apache.dubbo.demo.DemoService", 100));
+        store.flush();
+        long snapshot = binaryFile.length();
+        for (int i = 0; i < 100; i++) {
+            store.put("org.apache.dubbo.demo.DemoService", urls("org.apache.dubbo.demo.DemoService", 100 + i % 2));
+            store.flush();
+        }
+        store.close();
+        // compacted into a new snapshot instead of growing with every flush
+        assertTrue(binaryFile.length() < 100 * snapshot);
+
+        store = new BinaryRegistryCacheStore(file);
+        assertEquals(urls("org.apache.dubbo.demo.DemoService", 101), store.get("org.apache.dubbo.demo.DemoService"));
+        store.close();
+    }
+
+    @Test
+    public void testImportProperties() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("org.apache.dubbo.demo.DemoService", urls("org.apache.dubbo.demo.DemoService", 1).get(0)
+                + " " + urls("org.apache.dubbo.demo.DemoService", 2).get(1));
+        FileOutputStream out = new FileOutputStream(file);
+        try {
+            properties.store(out, "Dubbo Registry Cache");
+        } finally {
+            out.close();
+        }
+
+        RegistryCacheStore store = new BinaryRegistryCacheStore(file);
+        assertEquals(urls("org.apache.dubbo.demo.DemoService", 2), store.get("org.apache.dubbo.demo.DemoService"));
+        store.flush();
+        store.close();
+        assertTrue(binaryFile.exists());
+
+        file.delete();
+        store = new BinaryRegistryCacheStore(file);
+        assertEquals(urls("org.apache.dubbo.demo.DemoService", 2), store.get("org.apache.dubbo.demo.DemoService"));
+        store.close();
+    }
+}
@@ -24,13 +24,18 @@ import org.apache.dubbo.registry.NotifyListener;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class FailbackRegistryTest {
     static String service;
@@ -180,6 +185,57 @@ public class FailbackRegistryTest {
         assertEquals(2, count.get());
     }
 
+    @Test
+    public void testNotifyDebounce() throws Exception {
+        int events = 10000;
+        long[] undebounced = fireNotifications(registryUrl, events);
+        long[] debounced = fireNotifications(registryUrl.addParameter(Constants.REGISTRY_NOTIFY_DEBOUNCE_KEY, 50), events);
+        System.out.println("Fired " + events + " notifications, without debounce: " + undebounced[0] + " notified, "
+                + undebounced[1] / 1000000 + " ms cpu, with debounce: " + debounced[0] + " notified, " + debounced[1] / 1000000 + " ms cpu");
+        assertEquals(events + 1, undebounced[0]);
+        assertTrue(debounced[0] < 100);
+    }
+
+    /**
+     * Fire notifications with one changed provider each, as a provider restarting in a rolling deploy does
+     *
+     * @return the number of notifications received and the cpu time spent in nanoseconds
+     */
+    private long[] fireNotifications(URL url, int events) throws Exception {
+        final AtomicInteger count = new AtomicInteger(0);
+        final AtomicReference<Set<URL>> notified = new AtomicReference<Set<URL>>();
+        NotifyListener listner = new NotifyListener() {
+            @Override
+            public void notify(List<URL> urls) {
+                count.incrementAndGet();
+                notified.set(new HashSet<URL>(urls));
+            }
+        };
+        registry = new MockRegistry(url, new CountDownLatch(0));
+        URL subscribeUrl = serviceUrl.setProtocol(Constants.CONSUMER_PROTOCOL).addParameters(CollectionUtils.toStringMap("check", "false"));
+        registry.subscribe(subscribeUrl, listner);
+        assertEquals(1, count.get());
+
+        com.sun.management.OperatingSystemMXBean osMXBean = (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        long cpu = osMXBean.getProcessCpuTime();
+        List<URL> urls = new ArrayList<URL>();
+        for (int i = 0; i < 50; i++) {
+            urls.add(serviceUrl.setPort(20880 + i));
+        }
+        for (int i = 0; i < events; i++) {
+            urls = new ArrayList<URL>(urls);
+            urls.set(i % urls.size(), serviceUrl.setPort(20880 + i % urls.size()).addParameter(Constants.TIMESTAMP_KEY, i));
+            registry.notify(subscribeUrl, listner, urls);
+        }
+        Set<URL> expected = new HashSet<URL>(urls);
+        for (int i = 0; i < 100 && !expected.equals(notified.get()); i++) {
+            Thread.sleep(20);
+        }
+        cpu = osMXBean.getProcessCpuTime() - cpu;
+        assertEquals(expected, notified.get());
+        registry.destroy();
+        return new long[]{count.get(), cpu};
+    }
 
     private static class MockRegistry extends FailbackRegistry {
         CountDownLatch latch;
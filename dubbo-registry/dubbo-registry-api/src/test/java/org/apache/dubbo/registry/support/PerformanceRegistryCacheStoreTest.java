@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.support;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.registry.RegistryCacheStore;
+import org.apache.dubbo.registry.RegistryCacheStoreFactory;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PerformanceRegistryCacheStoreTest, measures saving the urls of one changed service, and opening the cache and
+ * reading one service at startup, for the properties and the binary cache file.
+ * <p>
+ * Run with -Dservices=300 -Dproviders=20 -Druns=200
+ */
+public class PerformanceRegistryCacheStoreTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceRegistryCacheStoreTest.class);
+
+    @Test
+    public void testStore() throws Exception {
+        String services = System.getProperty("services");
+        if (services == null) {
+            logger.warn("Please set -Dservices=300");
+            return;
+        }
+        int serviceCount = Integer.parseInt(services);
+        int providers = Integer.getInteger("providers", 20);
+        int runs = Integer.getInteger("runs", 200);
+        test(new PropertiesRegistryCacheStoreFactory(), serviceCount, providers, runs);
+        test(new BinaryRegistryCacheStoreFactory(), serviceCount, providers, runs);
+    }
+
+    private void test(RegistryCacheStoreFactory factory, int services, int providers, int runs) throws Exception {
+        File file = File.createTempFile("dubbo-registry", ".cache");
+        file.delete();
+        File binaryFile = new File(file.getPath() + ".bin");
+        try {
+            RegistryCacheStore store = factory.getCacheStore(file);
+            for (int i = 0; i < services; i++) {
+                store.put(service(i), urls(service(i), providers, 0));
+            }
+            store.flush();
+            long start = System.nanoTime();
+            for (int run = 0; run < runs; run++) {
+                store.put(service(run % services), urls(service(run % services), providers, run));
+                store.flush();
+            }
+            long save = (System.nanoTime() - start) / runs;
+            store.close();
+            long length = Math.max(file.length(), binaryFile.length());
+
+            long open = 0;
+            for (int run = 0; run < runs; run++) {
+                start = System.nanoTime();
+                store = factory.getCacheStore(file);
+                if (store.get(service(run % services)) == null) {
+                    fail();
+                }
+                open += System.nanoTime() - start;
+                store.close();
+            }
+            System.out.println("=====================================================================");
+            System.out.println(factory.getClass().getSimpleName() + ", services: " + services + ", providers: " + providers
+                    + ", file: " + length / 1024 + " KB, save one service: " + save / 1000 + " us/op, open and read one service: "
+                    + open / runs / 1000 + " us/op");
+            System.out.println("=====================================================================");
+        } finally {
+            file.delete();
+            binaryFile.delete();
+            new File(file.getPath() + ".lock").delete();
+        }
+    }
+
+    private static String service(int i) {
+        return "org.apache.dubbo.demo.DemoService" + i;
+    }
+
+    private static List<String> urls(String service, int providers, int timestamp) {
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < providers; i++) {
+            urls.add("dubbo://10.20." + (i / 250) + "." + (i % 250) + ":20880/" + service + "?anyhost=true&application=demo-provider"
+                    + "&category=providers&dubbo=2.0.2&generic=false&interface=" + service + "&methods=sayHello,sayGoodbye,echo,ping"
+                    + "&pid=" + (1000 + i) + "&protocol=dubbo&revision=1.0.0&side=provider&timeout=3000&timestamp=" + (1500000000000L + timestamp));
+        }
+        return urls;
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.dubbo;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.registry.integration.RegistryDirectory;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Protocol;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcResult;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PerformanceRegistryDirectoryTest, measures the latency and allocation of one notify when a small part of
+ * a large provider list changes. The protocol only creates stub invokers, so only the directory itself is measured.
+ * <p>
+ * Run with -Dproviders=5000 -Dchurn=0.01 -Druns=50
+ */
+public class PerformanceRegistryDirectoryTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceRegistryDirectoryTest.class);
+
+    private static final String SERVICE = DemoService.class.getName();
+
+    @Test
+    public void testNotify() throws Exception {
+        String count = System.getProperty("providers");
+        if (count == null) {
+            logger.warn("Please set -Dproviders=5000");
+            return;
+        }
+        int providers = Integer.parseInt(count);
+        double churn = Double.parseDouble(System.getProperty("churn", "0.01"));
+        int runs = Integer.getInteger("runs", 50);
+        int changed = Math.max(1, (int) (providers * churn));
+
+        URL url = URL.valueOf("zookeeper://10.20.30.40:2181/org.apache.dubbo.registry.RegistryService?refer="
+                + URL.encode("application=consumer&interface=" + SERVICE + "&methods=sayHello,plus&side=consumer&timeout=3000"));
+        RegistryDirectory<DemoService> directory = new RegistryDirectory<DemoService>(DemoService.class, url);
+        directory.setProtocol(new StubProtocol());
+
+        int[] generations = new int[providers];
+        directory.notify(providerUrls(generations));
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        int next = 0;
+        for (int warmup = 0; warmup < 2; warmup++) {
+            long elapsed = 0;
+            long allocated = 0;
+            for (int run = 0; run < runs; run++) {
+                for (int i = 0; i < changed; i++) {
+                    generations[next]++;
+                    next = (next + 1) % providers;
+                }
+                List<URL> urls = providerUrls(generations);
+                long bytes = threadMXBean.getThreadAllocatedBytes(threadId);
+                long start = System.nanoTime();
+                directory.notify(urls);
+                elapsed += System.nanoTime() - start;
+                allocated += threadMXBean.getThreadAllocatedBytes(threadId) - bytes;
+            }
+            if (warmup == 1) {
+                System.out.println("=====================================================================");
+                System.out.println("Providers: " + providers + ", changed: " + changed + ", notify: " + (elapsed / runs / 1000) + " us/op, "
+                        + (allocated / runs / 1024) + " KB/op, invokers: " + directory.getUrlInvokerMap().size());
+                System.out.println("=====================================================================");
+            }
+        }
+        directory.destroy();
+    }
+
+    private static List<URL> providerUrls(int[] generations) {
+        List<URL> urls = new ArrayList<URL>(generations.length);
+        for (int i = 0; i < generations.length; i++) {
+            // a restarted provider comes back with a new timestamp
+            urls.add(URL.valueOf("dubbo://10." + (i / 62500) + "." + (i / 250 % 250) + "." + (i % 250) + ":20880/" + SERVICE
+                    + "?anyhost=true&application=provider&dubbo=2.0.2&generic=false&interface=" + SERVICE
+                    + "&methods=sayHello,plus&pid=" + (1000 + i) + "&side=provider&timestamp=" + (1500000000000L + generations[i])));
+        }
+        return urls;
+    }
+
+    private static class StubProtocol implements Protocol {
+
+        @Override
+        public int getDefaultPort() {
+            return 0;
+        }
+
+        @Override
+        public <T> Exporter<T> export(Invoker<T> invoker) throws RpcException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> Invoker<T> refer(final Class<T> type, final URL url) throws RpcException {
+            return new Invoker<T>() {
+                @Override
+                public Class<T> getInterface() {
+                    return type;
+                }
+
+                @Override
+                public Result invoke(Invocation invocation) throws RpcException {
+                    return new RpcResult();
+                }
+
+                @Override
+                public URL getUrl() {
+                    return url;
+                }
+
+                @Override
+                public boolean isAvailable() {
+                    return true;
+                }
+
+                @Override
+                public void destroy() {
+                }
+            };
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
@@ -1019,6 +1019,81 @@ public class RegistryDirectoryTest {
         MORGAN,
     }
 
+    /**
+     * Test that only the changed providers are referred again, and the method invokers stay sorted
+     */
+    @Test
+    public void testNotifiedDelta() {
+        RegistryDirectory registryDirectory = getRegistryDirectory();
+        URL url1 = SERVICEURL.addParameter(Constants.METHODS_KEY, "getXXX1,getXXX2");
+        URL url2 = SERVICEURL2.addParameter(Constants.METHODS_KEY, "getXXX2");
+        URL url3 = SERVICEURL3.addParameter(Constants.METHODS_KEY, "getXXX3");
+        List<URL> serviceUrls = new ArrayList<URL>();
+        serviceUrls.add(url2);
+        serviceUrls.add(url1);
+        registryDirectory.notify(serviceUrls);
+        Map<String, List<Invoker>> methodInvokerMap = registryDirectory.getMethodInvokerMap();
+        Assert.assertEquals(1, methodInvokerMap.get("getXXX1").size());
+        Assert.assertEquals(2, methodInvokerMap.get("getXXX2").size());
+        Assert.assertEquals(2, methodInvokerMap.get(Constants.ANY_VALUE).size());
+        Invoker invoker1 = methodInvokerMap.get("getXXX1").get(0);
+
+        serviceUrls = new ArrayList<URL>();
+        serviceUrls.add(url3);
+        serviceUrls.add(url1);
+        registryDirectory.notify(serviceUrls);
+        methodInvokerMap = registryDirectory.getMethodInvokerMap();
+        Assert.assertSame(invoker1, methodInvokerMap.get("getXXX1").get(0));
+        Assert.assertSame(invoker1, methodInvokerMap.get("getXXX2").get(0));
+        Assert.assertEquals(1, methodInvokerMap.get("getXXX2").size());
+        Assert.assertEquals(1, methodInvokerMap.get("getXXX3").size());
+        List<Invoker> invokers = methodInvokerMap.get(Constants.ANY_VALUE);
+        Assert.assertEquals(2, invokers.size());
+        Assert.assertSame(invoker1, invokers.get(0));
+        Assert.assertEquals(url3.getPort(), invokers.get(1).getUrl().getPort());
+
+        serviceUrls = new ArrayList<URL>();
+        serviceUrls.add(url3);
+        registryDirectory.notify(serviceUrls);
+        methodInvokerMap = registryDirectory.getMethodInvokerMap();
+        Assert.assertNull(methodInvokerMap.get("getXXX1"));
+        Assert.assertNull(methodInvokerMap.get("getXXX2"));
+        Assert.assertEquals(1, methodInvokerMap.get(Constants.ANY_VALUE).size());
+        Assert.assertEquals(false, invoker1.isAvailable());
+    }
+
+    /**
+     * Test that with refresh.async=true the notifications after the first one are refreshed by another thread
+     */
+    @Test
+    public void testNotifiedAsync() throws Exception {
+        URL url = URL.valueOf("notsupport:/" + service + "?refer=" + URL.encode("interface=" + service + "&"
+                + Constants.REFRESH_ASYNC_KEY + "=true"));
+        RegistryDirectory registryDirectory = getRegistryDirectory(url);
+        List<URL> serviceUrls = new ArrayList<URL>();
+        serviceUrls.add(SERVICEURL);
+        registryDirectory.notify(serviceUrls);
+        Assert.assertEquals(1, registryDirectory.list(invocation).size());
+
+        for (int i = 0; i < 100; i++) {
+            serviceUrls = new ArrayList<URL>();
+            serviceUrls.add(SERVICEURL);
+            serviceUrls.add(i % 2 == 0 ? SERVICEURL2 : SERVICEURL3);
+            registryDirectory.notify(serviceUrls);
+        }
+        // the last notification wins
+        List<Invoker> invokers = registryDirectory.list(invocation);
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((invokers.size() != 2 || invokers.get(1).getUrl().getPort() != SERVICEURL3.getPort())
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            invokers = registryDirectory.list(invocation);
+        }
+        Assert.assertEquals(2, invokers.size());
+        Assert.assertEquals(SERVICEURL3.getPort(), invokers.get(1).getUrl().getPort());
+        registryDirectory.destroy();
+    }
+
     private static interface DemoService {
     }
 
@@ -31,10 +31,16 @@ import org.apache.dubbo.remoting.zookeeper.ZookeeperTransporter;
 import org.apache.dubbo.rpc.RpcException;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ZookeeperRegistry
@@ -48,6 +54,8 @@ public class ZookeeperRegistry extends FailbackRegistry {
 
     private final static String DEFAULT_ROOT = "dubbo";
 
+    private final static int DEFAULT_SUBSCRIBE_TIMEOUT = 5000;
+
     private final String root;
 
     private final Set<String> anyServices = new ConcurrentHashSet<String>();
@@ -128,27 +136,27 @@ public class ZookeeperRegistry extends FailbackRegistry {
 
     @Override
     protected void doSubscribe(final URL url, final NotifyListener listener) {
-        try {
-            if (Constants.ANY_VALUE.equals(url.getServiceInterface())) {
+        if (Constants.ANY_VALUE.equals(url.getServiceInterface())) {
+            try {
                 String root = toRootPath();
-                ConcurrentMap<NotifyListener, ChildListener> listeners = zkListeners.get(url);
-                if (listeners == null) {
-                    zkListeners.putIfAbsent(url, new ConcurrentHashMap<NotifyListener, ChildListener>());
-                    listeners = zkListeners.get(url);
-                }
+                ConcurrentMap<NotifyListener, ChildListener> listeners = getChildListeners(url);
                 ChildListener zkListener = listeners.get(listener);
                 if (zkListener == null) {
                     listeners.putIfAbsent(listener, new ChildListener() {
                         @Override
                         public void childChanged(String parentPath, List<String> currentChilds) {
+                            Map<URL, NotifyListener> subscriptions = new LinkedHashMap<URL, NotifyListener>();
                             for (String child : currentChilds) {
                                 child = URL.decode(child);
                                 if (!anyServices.contains(child)) {
                                     anyServices.add(child);
-                                    subscribe(url.setPath(child).addParameters(Constants.INTERFACE_KEY, child,
+                                    subscriptions.put(url.setPath(child).addParameters(Constants.INTERFACE_KEY, child,
                                             Constants.CHECK_KEY, String.valueOf(false)), listener);
                                 }
                             }
+                            if (!subscriptions.isEmpty()) {
+                                subscribe(subscriptions);
+                            }
                         }
                     });
                     zkListener = listeners.get(listener);
@@ -156,42 +164,107 @@ public class ZookeeperRegistry extends FailbackRegistry {
                 zkClient.create(root, false);
                 List<String> services = zkClient.addChildListener(root, zkListener);
                 if (services != null && !services.isEmpty()) {
+                    Map<URL, NotifyListener> subscriptions = new LinkedHashMap<URL, NotifyListener>();
                     for (String service : services) {
                         service = URL.decode(service);
                         anyServices.add(service);
-                        subscribe(url.setPath(service).addParameters(Constants.INTERFACE_KEY, service,
+                        subscriptions.put(url.setPath(service).addParameters(Constants.INTERFACE_KEY, service,
                                 Constants.CHECK_KEY, String.valueOf(false)), listener);
                     }
+                    subscribe(subscriptions);
+                }
+            } catch (Throwable e) {
+                throw new RpcException("Failed to subscribe " + url + " to zookeeper " + getUrl() + ", cause: " + e.getMessage(), e);
+            }
+        } else {
+            RpcException failure = subscribeAll(Collections.singletonMap(url, listener)).get(url);
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    @Override
+    protected Map<URL, Exception> doSubscribe(Map<URL, NotifyListener> subscriptions) {
+        Map<URL, NotifyListener> services = new LinkedHashMap<URL, NotifyListener>();
+        Map<URL, Exception> failures = new LinkedHashMap<URL, Exception>();
+        for (Map.Entry<URL, NotifyListener> entry : subscriptions.entrySet()) {
+            if (Constants.ANY_VALUE.equals(entry.getKey().getServiceInterface())) {
+                try {
+                    doSubscribe(entry.getKey(), entry.getValue());
+                } catch (Exception e) {
+                    failures.put(entry.getKey(), e);
                 }
             } else {
+                services.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (!services.isEmpty()) {
+            failures.putAll(subscribeAll(services));
+        }
+        return failures;
+    }
+
+    /**
+     * Issue the requests of all the category paths of all the urls without waiting for the server, then wait for
+     * them together and notify each url once all have completed, so a batch of subscriptions costs about one
+     * round trip instead of two per path.
+     */
+    private Map<URL, RpcException> subscribeAll(Map<URL, NotifyListener> subscriptions) {
+        Map<URL, RpcException> failures = new LinkedHashMap<URL, RpcException>();
+        Map<URL, Map<String, CompletableFuture<List<String>>>> pendings = new LinkedHashMap<URL, Map<String, CompletableFuture<List<String>>>>();
+        for (Map.Entry<URL, NotifyListener> entry : subscriptions.entrySet()) {
+            final URL url = entry.getKey();
+            final NotifyListener listener = entry.getValue();
+            try {
+                ConcurrentMap<NotifyListener, ChildListener> listeners = getChildListeners(url);
+                ChildListener zkListener = listeners.get(listener);
+                if (zkListener == null) {
+                    listeners.putIfAbsent(listener, new ChildListener() {
+                        @Override
+                        public void childChanged(String parentPath, List<String> currentChilds) {
+                            ZookeeperRegistry.this.notify(url, listener, toUrlsWithEmpty(url, parentPath, currentChilds));
+                        }
+                    });
+                    zkListener = listeners.get(listener);
+                }
+                final ChildListener childListener = zkListener;
+                Map<String, CompletableFuture<List<String>>> pending = new LinkedHashMap<String, CompletableFuture<List<String>>>();
+                for (final String path : toCategoriesPath(url)) {
+                    pending.put(path, zkClient.createAsync(path)
+                            .thenCompose(v -> zkClient.addChildListenerAsync(path, childListener)));
+                }
+                pendings.put(url, pending);
+            } catch (Throwable e) {
+                failures.put(url, new RpcException("Failed to subscribe " + url + " to zookeeper " + getUrl() + ", cause: " + e.getMessage(), e));
+            }
+        }
+
+        // Wait for all the subscriptions before notifying any, with one deadline for the whole batch
+        long deadline = System.currentTimeMillis() + getUrl().getParameter(Constants.TIMEOUT_KEY, DEFAULT_SUBSCRIBE_TIMEOUT);
+        Map<URL, List<URL>> notifications = new LinkedHashMap<URL, List<URL>>();
+        for (Map.Entry<URL, Map<String, CompletableFuture<List<String>>>> entry : pendings.entrySet()) {
+            URL url = entry.getKey();
+            try {
                 List<URL> urls = new ArrayList<URL>();
-                for (String path : toCategoriesPath(url)) {
-                    ConcurrentMap<NotifyListener, ChildListener> listeners = zkListeners.get(url);
-                    if (listeners == null) {
-                        zkListeners.putIfAbsent(url, new ConcurrentHashMap<NotifyListener, ChildListener>());
-                        listeners = zkListeners.get(url);
-                    }
-                    ChildListener zkListener = listeners.get(listener);
-                    if (zkListener == null) {
-                        listeners.putIfAbsent(listener, new ChildListener() {
-                            @Override
-                            public void childChanged(String parentPath, List<String> currentChilds) {
-                                ZookeeperRegistry.this.notify(url, listener, toUrlsWithEmpty(url, parentPath, currentChilds));
-                            }
-                        });
-                        zkListener = listeners.get(listener);
-                    }
-                    zkClient.create(path, false);
-                    List<String> children = zkClient.addChildListener(path, zkListener);
+                for (Map.Entry<String, CompletableFuture<List<String>>> pending : entry.getValue().entrySet()) {
+                    List<String> children = pending.getValue().get(Math.max(deadline - System.currentTimeMillis(), 0), TimeUnit.MILLISECONDS);
                     if (children != null) {
-                        urls.addAll(toUrlsWithEmpty(url, path, children));
+                        urls.addAll(toUrlsWithEmpty(url, pending.getKey(), children));
                     }
                 }
-                notify(url, listener, urls);
+                notifications.put(url, urls);
+            } catch (Throwable e) {
+                if (e instanceof ExecutionException && e.getCause() != null) {
+                    e = e.getCause();
+                }
+                failures.put(url, new RpcException("Failed to subscribe " + url + " to zookeeper " + getUrl() + ", cause: " + e.getMessage(), e));
             }
-        } catch (Throwable e) {
-            throw new RpcException("Failed to subscribe " + url + " to zookeeper " + getUrl() + ", cause: " + e.getMessage(), e);
         }
+        for (Map.Entry<URL, List<URL>> entry : notifications.entrySet()) {
+            notify(entry.getKey(), subscriptions.get(entry.getKey()), entry.getValue());
+        }
+        return failures;
     }
 
     @Override
@@ -212,6 +285,15 @@ public class ZookeeperRegistry extends FailbackRegistry {
         }
     }
 
+    private ConcurrentMap<NotifyListener, ChildListener> getChildListeners(URL url) {
+        ConcurrentMap<NotifyListener, ChildListener> listeners = zkListeners.get(url);
+        if (listeners == null) {
+            zkListeners.putIfAbsent(url, new ConcurrentHashMap<NotifyListener, ChildListener>());
+            listeners = zkListeners.get(url);
+        }
+        return listeners;
+    }
+
     @Override
     public List<URL> lookup(URL url) {
         if (url == null) {
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.registry.zookeeper;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.registry.NotifyListener;
+import org.apache.dubbo.remoting.zookeeper.curator.CuratorZookeeperTransporter;
+
+import junit.framework.TestCase;
+import org.apache.curator.test.TestingServer;
+import org.junit.Test;
+
+import java.util.List;
+
+/**
+ * PerformanceZookeeperRegistryTest, measures subscribing every service one by one, and with one <code>*</code>
+ * subscription which subscribes the services found as one batch.
+ * <p>
+ * Run with -Dservices=500
+ */
+public class PerformanceZookeeperRegistryTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceZookeeperRegistryTest.class);
+
+    @Test
+    public void testSubscribe() throws Exception {
+        String services = System.getProperty("services");
+        if (services == null) {
+            logger.warn("Please set -Dservices=500");
+            return;
+        }
+        int serviceCount = Integer.parseInt(services);
+        int port = NetUtils.getAvailablePort();
+        TestingServer zkServer = new TestingServer(port, true);
+        try {
+            ZookeeperRegistryFactory factory = new ZookeeperRegistryFactory();
+            factory.setZookeeperTransporter(new CuratorZookeeperTransporter());
+            URL registryUrl = URL.valueOf("zookeeper://127.0.0.1:" + port);
+            ZookeeperRegistry registry = (ZookeeperRegistry) factory.createRegistry(registryUrl);
+            for (int i = 0; i < serviceCount; i++) {
+                registry.register(URL.valueOf("dubbo://127.0.0.1:20880/" + service(i)));
+            }
+            registry.destroy();
+
+            // the first round warms up
+            for (int round = 0; round < 2; round++) {
+                test(factory, registryUrl, serviceCount, false);
+                test(factory, registryUrl, serviceCount, true);
+            }
+        } finally {
+            zkServer.stop();
+        }
+    }
+
+    private void test(ZookeeperRegistryFactory factory, URL registryUrl, int services, boolean bulk) {
+        ZookeeperRegistry registry = (ZookeeperRegistry) factory.createRegistry(registryUrl);
+        try {
+            NotifyListener listener = new NotifyListener() {
+                @Override
+                public void notify(List<URL> urls) {
+                }
+            };
+            long start = System.nanoTime();
+            if (bulk) {
+                registry.subscribe(URL.valueOf("consumer://127.0.0.1/*?category=providers,configurators,routers"), listener);
+            } else {
+                for (int i = 0; i < services; i++) {
+                    registry.subscribe(URL.valueOf("consumer://127.0.0.1/" + service(i) + "?category=providers,configurators,routers"), listener);
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            System.out.println("=====================================================================");
+            System.out.println((bulk ? "bulk" : "serial") + " subscribe " + services + " services: " + elapsed / 1000000 + " ms");
+            System.out.println("=====================================================================");
+        } finally {
+            registry.destroy();
+        }
+    }
+
+    private static String service(int i) {
+        return "org.apache.dubbo.demo.DemoService" + i;
+    }
+}
@@ -16,12 +16,15 @@
  */
 package org.apache.dubbo.registry.zookeeper;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.status.Status;
 import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.registry.NotifyListener;
 import org.apache.dubbo.registry.Registry;
 import org.apache.dubbo.registry.status.RegistryStatusChecker;
+import org.apache.dubbo.remoting.zookeeper.ZookeeperClient;
+import org.apache.dubbo.remoting.zookeeper.ZookeeperTransporter;
 import org.apache.dubbo.remoting.zookeeper.curator.CuratorZookeeperTransporter;
 import org.apache.curator.test.TestingServer;
 import org.junit.After;
@@ -30,10 +33,18 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.assertThat;
@@ -105,6 +116,131 @@ public class ZookeeperRegistryTest {
         assertThat(subscribed.get(serviceUrl).size(), is(0));
     }
 
+    @Test
+    public void testSubscribeBatch() {
+        Map<URL, NotifyListener> subscriptions = new LinkedHashMap<URL, NotifyListener>();
+        final Map<URL, List<URL>> notified = new LinkedHashMap<URL, List<URL>>();
+        for (int i = 0; i < 10; i++) {
+            URL providerUrl = URL.valueOf("dubbo://127.0.0.1:20880/" + service + i + "?notify=false&methods=test1,test2");
+            if (i % 2 == 0) {
+                zookeeperRegistry.register(providerUrl);
+            }
+            final URL consumerUrl = URL.valueOf("consumer://127.0.0.1/" + service + i + "?category=providers,routers");
+            notified.put(consumerUrl, new ArrayList<URL>());
+            subscriptions.put(consumerUrl, new NotifyListener() {
+                @Override
+                public void notify(List<URL> urls) {
+                    // notified once per category
+                    notified.get(consumerUrl).addAll(urls);
+                }
+            });
+        }
+        zookeeperRegistry.subscribe(subscriptions);
+
+        // all notified before returning
+        int i = 0;
+        for (Map.Entry<URL, List<URL>> entry : notified.entrySet()) {
+            int providers = 0;
+            for (URL url : entry.getValue()) {
+                if ("dubbo".equals(url.getProtocol())) {
+                    providers++;
+                }
+            }
+            assertThat(entry.getValue().size(), is(2));
+            assertThat(providers, is(i++ % 2 == 0 ? 1 : 0));
+            assertThat(zookeeperRegistry.getSubscribed().get(entry.getKey()).size(), is(1));
+        }
+    }
+
+    @Test
+    public void testSubscribeBatchIsPipelined() {
+        final int services = 20;
+        // no path is created until the requests of all the paths are sent, so waiting for any before would time out
+        final CompletableFuture<Void> allSent = new CompletableFuture<Void>();
+        final AtomicInteger sent = new AtomicInteger();
+        ZookeeperTransporter transporter = new ZookeeperTransporter() {
+            @Override
+            public ZookeeperClient connect(URL url) {
+                final ZookeeperClient client = new CuratorZookeeperTransporter().connect(url);
+                return (ZookeeperClient) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ZookeeperClient.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                        Object result;
+                        try {
+                            result = method.invoke(client, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        if ("createAsync".equals(method.getName())) {
+                            if (sent.incrementAndGet() == services * 2) {
+                                allSent.complete(null);
+                            }
+                            return ((CompletableFuture<?>) result).thenCombine(allSent, (created, ignored) -> created);
+                        }
+                        return result;
+                    }
+                });
+            }
+        };
+        ZookeeperRegistry registry = new ZookeeperRegistry(registryUrl.addParameter(Constants.TIMEOUT_KEY, 3000), transporter);
+        try {
+            Map<URL, NotifyListener> subscriptions = new LinkedHashMap<URL, NotifyListener>();
+            final AtomicInteger notified = new AtomicInteger();
+            for (int i = 0; i < services; i++) {
+                subscriptions.put(URL.valueOf("consumer://127.0.0.1/" + service + i + "?category=providers,routers"), new NotifyListener() {
+                    @Override
+                    public void notify(List<URL> urls) {
+                        notified.incrementAndGet();
+                    }
+                });
+            }
+            long start = System.currentTimeMillis();
+            registry.subscribe(subscriptions);
+
+            assertThat(sent.get(), is(services * 2));
+            // notified once per category
+            assertThat(notified.get(), is(services * 2));
+            assertThat(registry.getFailedSubscribed().isEmpty(), is(true));
+            // one wait for the whole batch, far below the deadline
+            assertThat(System.currentTimeMillis() - start < 3000, is(true));
+        } finally {
+            registry.destroy();
+        }
+    }
+
+    @Test
+    public void testSubscribeAnyServices() {
+        for (int i = 0; i < 10; i++) {
+            zookeeperRegistry.register(URL.valueOf("dubbo://127.0.0.1:20880/" + service + i + "?notify=false&methods=test1,test2"));
+        }
+        final Map<String, List<URL>> notified = new LinkedHashMap<String, List<URL>>();
+        NotifyListener listener = new NotifyListener() {
+            @Override
+            public synchronized void notify(List<URL> urls) {
+                for (URL url : urls) {
+                    List<URL> providers = notified.get(url.getServiceInterface());
+                    if (providers == null) {
+                        providers = new ArrayList<URL>();
+                        notified.put(url.getServiceInterface(), providers);
+                    }
+                    providers.add(url);
+                }
+            }
+        };
+        URL consumerUrl = URL.valueOf("consumer://127.0.0.1/*?category=providers");
+        zookeeperRegistry.subscribe(consumerUrl, listener);
+
+        // the services found are subscribed as one batch, all notified before returning
+        for (int i = 0; i < 10; i++) {
+            String interfaceName = service + i;
+            assertThat(notified.get(interfaceName).size(), is(1));
+            assertThat(notified.get(interfaceName).get(0).getProtocol(), is("dubbo"));
+            URL serviceUrl = consumerUrl.setPath(interfaceName).addParameters(Constants.INTERFACE_KEY, interfaceName,
+                    Constants.CHECK_KEY, String.valueOf(false));
+            assertThat(zookeeperRegistry.getSubscribed().get(serviceUrl).size(), is(1));
+        }
+    }
+
     @Test
     public void testAvailable() {
         zookeeperRegistry.register(serviceUrl);
@@ -21,4 +21,10 @@ public interface Decodeable {
 
     public void decode() throws Exception;
 
+    /**
+     * Release the resources held by the undecoded content, when the message is dropped without being decoded.
+     */
+    default void release() {
+    }
+
 }
@@ -25,12 +25,22 @@ public class ChannelBufferInputStream extends InputStream {
     private final ChannelBuffer buffer;
     private final int startIndex;
     private final int endIndex;
+    private final boolean releaseOnClose;
+    private boolean released;
 
     public ChannelBufferInputStream(ChannelBuffer buffer) {
         this(buffer, buffer.readableBytes());
     }
 
     public ChannelBufferInputStream(ChannelBuffer buffer, int length) {
+        this(buffer, length, false);
+    }
+
+    /**
+     * @param releaseOnClose release the buffer when the stream is closed, the buffer must then be a
+     *                       {@link ReferenceCountedChannelBuffer}
+     */
+    public ChannelBufferInputStream(ChannelBuffer buffer, int length, boolean releaseOnClose) {
         if (buffer == null) {
             throw new NullPointerException("buffer");
         }
@@ -40,6 +50,10 @@ public class ChannelBufferInputStream extends InputStream {
         if (length > buffer.readableBytes()) {
             throw new IndexOutOfBoundsException();
         }
+        if (releaseOnClose && !(buffer instanceof ReferenceCountedChannelBuffer)) {
+            throw new IllegalArgumentException("buffer is not reference counted: " + buffer.getClass().getName());
+        }
+        this.releaseOnClose = releaseOnClose;
 
         this.buffer = buffer;
         startIndex = buffer.readerIndex();
@@ -51,6 +65,26 @@ public class ChannelBufferInputStream extends InputStream {
         return buffer.readerIndex() - startIndex;
     }
 
+    /**
+     * Detach the remaining bytes of this stream without copying them.
+     *
+     * @return a retained slice which must be released, or null if the buffer is not reference counted
+     */
+    public ReferenceCountedChannelBuffer readRetainedSlice() throws IOException {
+        if (!(buffer instanceof ReferenceCountedChannelBuffer)) {
+            return null;
+        }
+        return ((ReferenceCountedChannelBuffer) buffer).readRetainedSlice(available());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (releaseOnClose && !released) {
+            released = true;
+            ((ReferenceCountedChannelBuffer) buffer).release();
+        }
+    }
+
     @Override
     public int available() throws IOException {
         return endIndex - buffer.readerIndex();
@@ -0,0 +1,39 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.buffer;
+
+/**
+ * A {@link ChannelBuffer} backed by reference counted memory of the transport, part of which
+ * can be handed to another thread without copying.
+ */
+public interface ReferenceCountedChannelBuffer extends ChannelBuffer {
+
+    /**
+     * Returns a slice of the next <code>length</code> readable bytes sharing the same memory, and
+     * increases the reader index by <code>length</code>. The slice holds its own reference, so it
+     * stays valid after this buffer is reused, and it must be {@link #release() released}.
+     */
+    ReferenceCountedChannelBuffer readRetainedSlice(int length);
+
+    /**
+     * Decreases the reference count, the memory is returned to the transport when it reaches zero.
+     *
+     * @return true if the memory was deallocated
+     */
+    boolean release();
+
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.dubbo.remoting.exchange;
 
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.RemotingException;
 
@@ -43,6 +44,19 @@ public interface ExchangeChannel extends Channel {
      */
     ResponseFuture request(Object request, int timeout) throws RemotingException;
 
+    /**
+     * send request, the response is handed to the executor and so handled by the thread waiting for it.
+     *
+     * @param request
+     * @param timeout
+     * @param executor
+     * @return response future
+     * @throws RemotingException
+     */
+    default ResponseFuture request(Object request, int timeout, ThreadlessExecutor executor) throws RemotingException {
+        return request(request, timeout);
+    }
+
     /**
      * get message handler.
      *
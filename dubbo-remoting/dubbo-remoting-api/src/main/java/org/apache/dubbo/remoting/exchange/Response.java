@@ -75,6 +75,11 @@ public class Response {
      */
     public static final byte SERVER_THREADPOOL_EXHAUSTED_ERROR = 100;
 
+    /**
+     * the channel was closed before the response arrived, only used on the client side.
+     */
+    public static final byte CHANNEL_INACTIVE = 35;
+
     private long mId = 0;
 
     private String mVersion;
@@ -80,6 +80,16 @@ public class ExchangeCodec extends TelnetCodec {
     @Override
     public Object decode(Channel channel, ChannelBuffer buffer) throws IOException {
         int readable = buffer.readableBytes();
+        // a large message arrives in many reads, wait for all of it without reading its header every time
+        int index = buffer.readerIndex();
+        if (readable >= HEADER_LENGTH && buffer.getByte(index) == MAGIC_HIGH && buffer.getByte(index + 1) == MAGIC_LOW) {
+            int len = (buffer.getByte(index + 12) & 0xff) << 24 | (buffer.getByte(index + 13) & 0xff) << 16
+                    | (buffer.getByte(index + 14) & 0xff) << 8 | buffer.getByte(index + 15) & 0xff;
+            checkPayload(channel, len);
+            if (readable - HEADER_LENGTH < len) {
+                return DecodeResult.NEED_MORE_INPUT;
+            }
+        }
         byte[] header = new byte[Math.min(readable, HEADER_LENGTH)];
         buffer.readBytes(header);
         return decode(channel, buffer, readable, header);
@@ -160,7 +170,7 @@ public class ExchangeCodec extends TelnetCodec {
                     } else if (res.isEvent()) {
                         data = decodeEventData(channel, in);
                     } else {
-                        data = decodeResponseData(channel, in, getRequestData(id));
+                        data = decodeResponseData(channel, in, getRequestData(channel, id));
                     }
                     res.setResult(data);
                 } catch (Throwable t) {
@@ -198,8 +208,8 @@ public class ExchangeCodec extends TelnetCodec {
         }
     }
 
-    protected Object getRequestData(long id) {
-        DefaultFuture future = DefaultFuture.getFuture(id);
+    protected Object getRequestData(Channel channel, long id) {
+        DefaultFuture future = DefaultFuture.getFuture(channel, id);
         if (future == null)
             return null;
         Request req = future.getRequest();
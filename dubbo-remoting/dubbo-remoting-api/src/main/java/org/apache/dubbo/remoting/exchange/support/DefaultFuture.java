@@ -17,8 +17,17 @@
 package org.apache.dubbo.remoting.exchange.support;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
+import org.apache.dubbo.common.timer.HashedWheelTimer;
+import org.apache.dubbo.common.timer.Timeout;
+import org.apache.dubbo.common.timer.Timer;
+import org.apache.dubbo.common.timer.TimerTask;
+import org.apache.dubbo.common.utils.ConcurrentLongObjectHashMap;
+import org.apache.dubbo.common.utils.ConfigUtils;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.TimeoutException;
@@ -27,83 +36,218 @@ import org.apache.dubbo.remoting.exchange.Response;
 import org.apache.dubbo.remoting.exchange.ResponseCallback;
 import org.apache.dubbo.remoting.exchange.ResponseFuture;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Condition;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * DefaultFuture.
+ * <p>
+ * Completion is a single CAS on the response, waiting threads are kept in a lock free
+ * stack and unparked directly, and the callback is handed over with a CAS as well, so
+ * neither the IO thread nor the caller ever takes a lock.
+ * <p>
+ * The in-flight futures are kept by the channel they were sent on, in a table stored as
+ * an attribute of the channel, where the response read from that channel finds them.
  */
 public class DefaultFuture implements ResponseFuture {
 
     private static final Logger logger = LoggerFactory.getLogger(DefaultFuture.class);
 
-    private static final Map<Long, Channel> CHANNELS = new ConcurrentHashMap<Long, Channel>();
+    private static final String PENDING_KEY = DefaultFuture.class.getName() + ".PENDING";
 
-    private static final Map<Long, DefaultFuture> FUTURES = new ConcurrentHashMap<Long, DefaultFuture>();
+    private static final Object PENDING_LOCK = new Object();
 
-    static {
-        Thread th = new Thread(new RemotingInvocationTimeoutScan(), "DubboResponseTimeoutScanTimer");
-        th.setDaemon(true);
-        th.start();
-    }
+    // in-flight futures of the channels unable to keep a table, e.g. a client not connected yet
+    private static final ConcurrentLongObjectHashMap<DefaultFuture> DETACHED = new ConcurrentLongObjectHashMap<DefaultFuture>();
+
+    private static final Timer TIME_OUT_TIMER = new HashedWheelTimer(
+            new NamedThreadFactory("dubbo-future-timeout", true),
+            getTimerConfig(Constants.FUTURE_TIMER_TICK_KEY, Constants.DEFAULT_FUTURE_TIMER_TICK),
+            TimeUnit.MILLISECONDS,
+            getTimerConfig(Constants.FUTURE_TIMER_WHEEL_KEY, Constants.DEFAULT_FUTURE_TIMER_WHEEL));
+
+    // Thread.onSpinWait() from java 9 on, null before
+    private static final MethodHandle ON_SPIN_WAIT = getOnSpinWait();
+
+    private static final AtomicReferenceFieldUpdater<DefaultFuture, Response> RESPONSE_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultFuture.class, Response.class, "response");
+
+    private static final AtomicReferenceFieldUpdater<DefaultFuture, ResponseCallback> CALLBACK_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultFuture.class, ResponseCallback.class, "callback");
+
+    private static final AtomicReferenceFieldUpdater<DefaultFuture, WaitNode> WAITERS_UPDATER =
+            AtomicReferenceFieldUpdater.newUpdater(DefaultFuture.class, WaitNode.class, "waiters");
+
+    /**
+     * marks the callback slot once the response has been delivered, a callback set after that is invoked directly.
+     */
+    private static final ResponseCallback CALLBACK_INVOKED = new ResponseCallback() {
+        @Override
+        public void done(Object response) {
+        }
+
+        @Override
+        public void caught(Throwable exception) {
+        }
+    };
 
     // invoke id.
     private final long id;
     private final Channel channel;
     private final Request request;
     private final int timeout;
-    private final Lock lock = new ReentrantLock();
-    private final Condition done = lock.newCondition();
+    // micros to spin before parking in get(), 0 to park right away.
+    private final int spinMicros;
     private final long start = System.currentTimeMillis();
     private volatile long sent;
     private volatile Response response;
     private volatile ResponseCallback callback;
+    private volatile WaitNode waiters;
+    private final Timeout timeoutCheckTask;
+    // in-flight futures of the channel.
+    private final ConcurrentLongObjectHashMap<DefaultFuture> pending;
+    // the response is handled by the caller in get() if set.
+    private final ThreadlessExecutor executor;
 
     public DefaultFuture(Channel channel, Request request, int timeout) {
+        this(channel, request, timeout, null);
+    }
+
+    /**
+     * @param executor executor the response is dispatched to, and which the caller drains while waiting in
+     *                 {@link #get(int)}
+     */
+    public DefaultFuture(Channel channel, Request request, int timeout, ThreadlessExecutor executor) {
         this.channel = channel;
         this.request = request;
         this.id = request.getId();
-        this.timeout = timeout > 0 ? timeout : channel.getUrl().getPositiveParameter(Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+        URL url = channel.getUrl();
+        this.timeout = timeout > 0 ? timeout : url.getPositiveParameter(Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+        this.spinMicros = url == null ? 0 : url.getParameter(Constants.FUTURE_SPIN_KEY, 0);
+        this.pending = getPending(channel, true);
+        this.executor = executor;
         // put into waiting map.
-        FUTURES.put(id, this);
-        CHANNELS.put(id, channel);
+        pending.put(id, this);
+        // schedule the timeout check, it is cancelled as soon as the response arrives.
+        this.timeoutCheckTask = TIME_OUT_TIMER.newTimeout(new TimeoutCheckTask(this), this.timeout, TimeUnit.MILLISECONDS);
+    }
+
+    private static int getTimerConfig(String key, int defaultValue) {
+        String value = ConfigUtils.getProperty(key);
+        if (value != null && value.length() > 0) {
+            try {
+                int config = Integer.parseInt(value.trim());
+                if (config > 0) {
+                    return config;
+                }
+            } catch (NumberFormatException e) {
+                logger.warn("Illegal value " + value + " of " + key + ", use default " + defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+
+    private static MethodHandle getOnSpinWait() {
+        try {
+            return MethodHandles.lookup().findStatic(Thread.class, "onSpinWait", MethodType.methodType(void.class));
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * The in-flight table of a channel. A client passes its attributes through to its current connection, so
+     * the requests sent by a client are found from the connection their responses are read from.
+     *
+     * @return the table, or {@link #DETACHED} if the channel cannot keep one, null if there is none and create is false
+     */
+    @SuppressWarnings("unchecked")
+    private static ConcurrentLongObjectHashMap<DefaultFuture> getPending(Channel channel, boolean create) {
+        if (channel == null) {
+            return create ? DETACHED : null;
+        }
+        Object pending = channel.getAttribute(PENDING_KEY);
+        if (pending == null && create) {
+            synchronized (PENDING_LOCK) {
+                pending = channel.getAttribute(PENDING_KEY);
+                if (pending == null) {
+                    channel.setAttribute(PENDING_KEY, new ConcurrentLongObjectHashMap<DefaultFuture>());
+                    pending = channel.getAttribute(PENDING_KEY);
+                    if (pending == null) {
+                        return DETACHED;
+                    }
+                }
+            }
+        }
+        return (ConcurrentLongObjectHashMap<DefaultFuture>) pending;
+    }
+
+    private static DefaultFuture getFuture(Channel channel, long id, boolean remove) {
+        ConcurrentLongObjectHashMap<DefaultFuture> pending = getPending(channel, false);
+        DefaultFuture future = null;
+        if (pending != null) {
+            future = remove ? pending.remove(id) : pending.get(id);
+        }
+        if (future == null && !DETACHED.isEmpty()) {
+            future = remove ? DETACHED.remove(id) : DETACHED.get(id);
+        }
+        return future;
     }
 
-    public static DefaultFuture getFuture(long id) {
-        return FUTURES.get(id);
+    /**
+     * @return the in-flight future of the request with this id sent on the channel, null if there is none
+     */
+    public static DefaultFuture getFuture(Channel channel, long id) {
+        return getFuture(channel, id, false);
     }
 
     public static boolean hasFuture(Channel channel) {
-        return CHANNELS.containsValue(channel);
+        ConcurrentLongObjectHashMap<DefaultFuture> pending = getPending(channel, false);
+        return pending != null && !pending.isEmpty();
+    }
+
+    /**
+     * Fail the in-flight futures of a closed channel right away, instead of letting them wait for their timeout.
+     */
+    public static void closeChannel(Channel channel) {
+        ConcurrentLongObjectHashMap<DefaultFuture> pending = getPending(channel, false);
+        if (pending == null) {
+            return;
+        }
+        List<DefaultFuture> futures = pending.values();
+        for (DefaultFuture future : futures) {
+            Response disconnectResponse = new Response(future.getId());
+            disconnectResponse.setStatus(Response.CHANNEL_INACTIVE);
+            disconnectResponse.setErrorMessage("Channel " + channel + " is inactive. Directly return the unFinished request : " + future.getRequest());
+            future.complete(disconnectResponse);
+        }
     }
 
     public static void sent(Channel channel, Request request) {
-        DefaultFuture future = FUTURES.get(request.getId());
+        DefaultFuture future = getFuture(channel, request.getId(), false);
         if (future != null) {
             future.doSent();
         }
     }
 
     public static void received(Channel channel, Response response) {
-        try {
-            DefaultFuture future = FUTURES.remove(response.getId());
-            if (future != null) {
-                future.doReceived(response);
-            } else {
-                logger.warn("The timeout response finally returned at "
-                        + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()))
-                        + ", response " + response
-                        + (channel == null ? "" : ", channel: " + channel.getLocalAddress()
-                        + " -> " + channel.getRemoteAddress()));
-            }
-        } finally {
-            CHANNELS.remove(response.getId());
+        DefaultFuture future = getFuture(channel, response.getId(), true);
+        if (future != null) {
+            future.timeoutCheckTask.cancel();
+            future.doReceived(response);
+        } else {
+            logger.warn("The timeout response finally returned at "
+                    + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date()))
+                    + ", response " + response
+                    + (channel == null ? "" : ", channel: " + channel.getLocalAddress()
+                    + " -> " + channel.getRemoteAddress()));
         }
     }
 
@@ -118,19 +262,10 @@ public class DefaultFuture implements ResponseFuture {
             timeout = Constants.DEFAULT_TIMEOUT;
         }
         if (!isDone()) {
-            long start = System.currentTimeMillis();
-            lock.lock();
-            try {
-                while (!isDone()) {
-                    done.await(timeout, TimeUnit.MILLISECONDS);
-                    if (isDone() || System.currentTimeMillis() - start > timeout) {
-                        break;
-                    }
-                }
-            } catch (InterruptedException e) {
-                throw new RuntimeException(e);
-            } finally {
-                lock.unlock();
+            if (executor != null) {
+                waitAndDrain(TimeUnit.MILLISECONDS.toNanos(timeout));
+            } else {
+                awaitDone(TimeUnit.MILLISECONDS.toNanos(timeout));
             }
             if (!isDone()) {
                 throw new TimeoutException(sent > 0, channel, getTimeoutMessage(false));
@@ -139,12 +274,124 @@ public class DefaultFuture implements ResponseFuture {
         return returnFromResponse();
     }
 
+    /**
+     * Wait until the response arrives or the timeout elapses. If <code>future.spin</code> is configured,
+     * the caller spins for that many microseconds before parking, which saves the park/unpark round trip
+     * for very short calls.
+     */
+    private void awaitDone(long nanos) {
+        final long deadline = System.nanoTime() + nanos;
+        long spinDeadline = 0;
+        if (spinMicros > 0) {
+            spinDeadline = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(Math.min(spinMicros, nanos / 1000));
+        }
+        WaitNode node = null;
+        boolean queued = false;
+        for (; ; ) {
+            if (isDone()) {
+                if (node != null) {
+                    node.thread = null;
+                }
+                return;
+            }
+            if (Thread.interrupted()) {
+                removeWaiter(node);
+                throw new RuntimeException(new InterruptedException());
+            }
+            if (spinDeadline != 0) {
+                if (System.nanoTime() - spinDeadline < 0) {
+                    onSpinWait();
+                    continue;
+                }
+                spinDeadline = 0;
+            }
+            if (node == null) {
+                node = new WaitNode();
+            } else if (!queued) {
+                node.next = waiters;
+                queued = WAITERS_UPDATER.compareAndSet(this, node.next, node);
+            } else {
+                long remain = deadline - System.nanoTime();
+                if (remain <= 0) {
+                    removeWaiter(node);
+                    return;
+                }
+                LockSupport.parkNanos(this, remain);
+            }
+        }
+    }
+
+    /**
+     * Run the tasks dispatched to the executor until one of them delivers the response, or the timeout elapses.
+     */
+    private void waitAndDrain(long nanos) {
+        final long deadline = System.nanoTime() + nanos;
+        try {
+            while (!isDone()) {
+                long remain = deadline - System.nanoTime();
+                if (remain <= 0) {
+                    return;
+                }
+                executor.waitAndDrain(remain);
+            }
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        } finally {
+            executor.finish();
+        }
+    }
+
+    private static void onSpinWait() {
+        if (ON_SPIN_WAIT != null) {
+            try {
+                ON_SPIN_WAIT.invokeExact();
+            } catch (Throwable e) {
+                // never thrown by Thread.onSpinWait()
+            }
+        }
+    }
+
+    /**
+     * Unlink a timed out or interrupted wait node, the same way as {@link java.util.concurrent.FutureTask} does.
+     */
+    private void removeWaiter(WaitNode node) {
+        if (node == null) {
+            return;
+        }
+        node.thread = null;
+        retry:
+        for (; ; ) {
+            for (WaitNode pred = null, q = waiters, next; q != null; q = next) {
+                next = q.next;
+                if (q.thread != null) {
+                    pred = q;
+                } else if (pred != null) {
+                    pred.next = next;
+                    if (pred.thread == null) {
+                        continue retry;
+                    }
+                } else if (!WAITERS_UPDATER.compareAndSet(this, q, next)) {
+                    continue retry;
+                }
+            }
+            break;
+        }
+    }
+
     public void cancel() {
         Response errorResult = new Response(id);
         errorResult.setErrorMessage("request future has been canceled.");
-        response = errorResult;
-        FUTURES.remove(id);
-        CHANNELS.remove(id);
+        complete(errorResult);
+    }
+
+    /**
+     * Complete with a response made up on this side, found from the table the future was put in rather than from
+     * the channel, whose connection may have changed since.
+     */
+    private void complete(Response res) {
+        pending.remove(id);
+        timeoutCheckTask.cancel();
+        doReceived(res);
     }
 
     @Override
@@ -156,20 +403,17 @@ public class DefaultFuture implements ResponseFuture {
     public void setCallback(ResponseCallback callback) {
         if (isDone()) {
             invokeCallback(callback);
-        } else {
-            boolean isdone = false;
-            lock.lock();
-            try {
-                if (!isDone()) {
-                    this.callback = callback;
-                } else {
-                    isdone = true;
-                }
-            } finally {
-                lock.unlock();
-            }
-            if (isdone) {
+            return;
+        }
+        for (; ; ) {
+            ResponseCallback current = this.callback;
+            if (current == CALLBACK_INVOKED) {
+                // the response arrived while we were registering.
                 invokeCallback(callback);
+                return;
+            }
+            if (CALLBACK_UPDATER.compareAndSet(this, current, callback)) {
+                return;
             }
         }
     }
@@ -226,10 +470,6 @@ public class DefaultFuture implements ResponseFuture {
         return id;
     }
 
-    private Channel getChannel() {
-        return channel;
-    }
-
     private boolean isSent() {
         return sent > 0;
     }
@@ -238,12 +478,8 @@ public class DefaultFuture implements ResponseFuture {
         return request;
     }
 
-    private int getTimeout() {
-        return timeout;
-    }
-
-    private long getStartTimestamp() {
-        return start;
+    public ThreadlessExecutor getExecutor() {
+        return executor;
     }
 
     private void doSent() {
@@ -251,24 +487,42 @@ public class DefaultFuture implements ResponseFuture {
     }
 
     private void doReceived(Response res) {
-        lock.lock();
-        try {
-            response = res;
-            if (done != null) {
-                done.signal();
+        if (!RESPONSE_UPDATER.compareAndSet(this, null, res)) {
+            // completed already, by cancel or by the timeout check.
+            return;
+        }
+        for (WaitNode q; (q = waiters) != null; ) {
+            if (WAITERS_UPDATER.compareAndSet(this, q, null)) {
+                for (; ; ) {
+                    Thread t = q.thread;
+                    if (t != null) {
+                        q.thread = null;
+                        LockSupport.unpark(t);
+                    }
+                    WaitNode next = q.next;
+                    if (next == null) {
+                        break;
+                    }
+                    q.next = null;
+                    q = next;
+                }
+                break;
             }
-        } finally {
-            lock.unlock();
         }
-        if (callback != null) {
-            invokeCallback(callback);
+        if (executor != null) {
+            // completed by the timeout check or a closed channel rather than by the caller draining the response
+            executor.wakeUp();
+        }
+        ResponseCallback c = CALLBACK_UPDATER.getAndSet(this, CALLBACK_INVOKED);
+        if (c != null) {
+            invokeCallback(c);
         }
     }
 
     private String getTimeoutMessage(boolean scan) {
         long nowTimestamp = System.currentTimeMillis();
         return (sent > 0 ? "Waiting server-side response timeout" : "Sending request timeout in client-side")
-                + (scan ? " by scan timer" : "") + ". start time: "
+                + (scan ? " by timeout timer" : "") + ". start time: "
                 + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(start))) + ", end time: "
                 + (new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date())) + ","
                 + (sent > 0 ? " client elapsed: " + (sent - start)
@@ -278,31 +532,33 @@ public class DefaultFuture implements ResponseFuture {
                 + " -> " + channel.getRemoteAddress();
     }
 
-    private static class RemotingInvocationTimeoutScan implements Runnable {
+    private static final class WaitNode {
+
+        volatile Thread thread = Thread.currentThread();
+
+        volatile WaitNode next;
+    }
+
+    private static class TimeoutCheckTask implements TimerTask {
+
+        private final DefaultFuture future;
+
+        TimeoutCheckTask(DefaultFuture future) {
+            this.future = future;
+        }
 
         @Override
-        public void run() {
-            while (true) {
-                try {
-                    for (DefaultFuture future : FUTURES.values()) {
-                        if (future == null || future.isDone()) {
-                            continue;
-                        }
-                        if (System.currentTimeMillis() - future.getStartTimestamp() > future.getTimeout()) {
-                            // create exception response.
-                            Response timeoutResponse = new Response(future.getId());
-                            // set timeout status.
-                            timeoutResponse.setStatus(future.isSent() ? Response.SERVER_TIMEOUT : Response.CLIENT_TIMEOUT);
-                            timeoutResponse.setErrorMessage(future.getTimeoutMessage(true));
-                            // handle response.
-                            DefaultFuture.received(future.getChannel(), timeoutResponse);
-                        }
-                    }
-                    Thread.sleep(30);
-                } catch (Throwable e) {
-                    logger.error("Exception when scan the timeout invocation of remoting.", e);
-                }
+        public void run(Timeout timeout) {
+            if (future.isDone()) {
+                return;
             }
+            // create exception response.
+            Response timeoutResponse = new Response(future.getId());
+            // set timeout status.
+            timeoutResponse.setStatus(future.isSent() ? Response.SERVER_TIMEOUT : Response.CLIENT_TIMEOUT);
+            timeoutResponse.setErrorMessage(future.getTimeoutMessage(true));
+            // handle response.
+            future.complete(timeoutResponse);
         }
     }
 
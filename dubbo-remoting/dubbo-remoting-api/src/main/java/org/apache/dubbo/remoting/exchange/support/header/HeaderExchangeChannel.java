@@ -21,6 +21,7 @@ import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.Version;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.RemotingException;
@@ -103,6 +104,11 @@ final class HeaderExchangeChannel implements ExchangeChannel {
 
     @Override
     public ResponseFuture request(Object request, int timeout) throws RemotingException {
+        return request(request, timeout, null);
+    }
+
+    @Override
+    public ResponseFuture request(Object request, int timeout, ThreadlessExecutor executor) throws RemotingException {
         if (closed) {
             throw new RemotingException(this.getLocalAddress(), null, "Failed to send request " + request + ", cause: The channel " + this + " is closed!");
         }
@@ -111,7 +117,7 @@ final class HeaderExchangeChannel implements ExchangeChannel {
         req.setVersion(Version.getProtocolVersion());
         req.setTwoWay(true);
         req.setData(request);
-        DefaultFuture future = new DefaultFuture(channel, req, timeout);
+        DefaultFuture future = new DefaultFuture(channel, req, timeout, executor);
         try {
             channel.send(req);
         } catch (RemotingException e) {
@@ -128,6 +134,8 @@ final class HeaderExchangeChannel implements ExchangeChannel {
 
     @Override
     public void close() {
+        // before closing, a closed client no longer reaches the in-flight requests of its connection
+        DefaultFuture.closeChannel(channel);
         try {
             channel.close();
         } catch (Throwable e) {
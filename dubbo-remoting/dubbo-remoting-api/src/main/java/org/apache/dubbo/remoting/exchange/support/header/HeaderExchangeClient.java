@@ -20,6 +20,7 @@ import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
 import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.ChannelHandler;
@@ -90,6 +91,11 @@ public class HeaderExchangeClient implements ExchangeClient {
         return channel.request(request, timeout);
     }
 
+    @Override
+    public ResponseFuture request(Object request, int timeout, ThreadlessExecutor executor) throws RemotingException {
+        return channel.request(request, timeout, executor);
+    }
+
     @Override
     public ChannelHandler getChannelHandler() {
         return channel.getChannelHandler();
@@ -51,6 +51,20 @@ public class DecodeHandler extends AbstractChannelHandlerDelegate {
         handler.received(channel, message);
     }
 
+    /**
+     * Release a message which is dropped before reaching this handler, e.g. rejected by a full thread pool.
+     */
+    public static void release(Object message) {
+        if (message instanceof Request) {
+            message = ((Request) message).getData();
+        } else if (message instanceof Response) {
+            message = ((Response) message).getResult();
+        }
+        if (message instanceof Decodeable) {
+            ((Decodeable) message).release();
+        }
+    }
+
     private void decode(Object message) {
         if (message != null && message instanceof Decodeable) {
             try {
@@ -23,12 +23,16 @@ import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.store.DataStore;
 import org.apache.dubbo.common.threadpool.ThreadPool;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
 import org.apache.dubbo.common.utils.NamedThreadFactory;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
 import org.apache.dubbo.remoting.transport.ChannelHandlerDelegate;
 
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -117,4 +121,21 @@ public class WrappedChannelHandler implements ChannelHandlerDelegate {
         return cexecutor;
     }
 
+    /**
+     * The executor to handle a received message in: the response to a synchronous request made with a
+     * {@link ThreadlessExecutor} goes to the caller waiting for it, anything else to {@link #getExecutorService()}.
+     */
+    public Executor getPreferredExecutor(Channel channel, Object message) {
+        if (message instanceof Response) {
+            DefaultFuture future = DefaultFuture.getFuture(channel, ((Response) message).getId());
+            if (future != null) {
+                ThreadlessExecutor executor = future.getExecutor();
+                if (executor != null && executor.isWaiting()) {
+                    return executor;
+                }
+            }
+        }
+        return getExecutorService();
+    }
+
 }
@@ -61,8 +61,10 @@ public class PerformanceClientTest extends TestCase {
         int r = PerformanceUtils.getIntProperty("runs", 10000);
         final int runs = r > 0 ? r : Integer.MAX_VALUE;
         final String onerror = PerformanceUtils.getProperty("onerror", "continue");
+        final boolean epoll = PerformanceUtils.getBooleanProperty(Constants.NETTY_EPOLL_KEY, false);
 
-        final String url = "exchange://" + server + "?transporter=" + transporter + "&serialization=" + serialization + "&timeout=" + timeout;
+        final String url = "exchange://" + server + "?transporter=" + transporter + "&serialization=" + serialization + "&timeout=" + timeout
+                + "&netty.epoll=" + epoll;
         // Create clients and build connections
         final ExchangeClient[] exchangeClients = new ExchangeClient[connections];
         for (int i = 0; i < connections; i++) {
@@ -194,7 +196,7 @@ public class PerformanceClientTest extends TestCase {
         for (String item : serverScene) {
             PerformanceUtils.printBody("Server " + item);
         }
-        PerformanceUtils.printBody("Client Transporter: " + transporter);
+        PerformanceUtils.printBody("Client Transporter: " + transporter + (epoll ? " (epoll)" : ""));
         PerformanceUtils.printBody("Serialization: " + serialization);
         PerformanceUtils.printBody("Response Timeout: " + timeout + " ms");
         PerformanceUtils.printBody("Data Length: " + length + " bytes");
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
+import org.apache.dubbo.remoting.exchange.support.header.MockChannel;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.SynchronousQueue;
+
+/**
+ * PerformanceFutureTest, measures the cost of creating and completing a future
+ * while a given number of other requests are in flight.
+ * <p>
+ * Run with -Dinflight=1000,10000,100000 -Druns=1000000 for the timeout bookkeeping,
+ * and with -Dsync=true -Druns=1000000 for the synchronous get latency.
+ */
+public class PerformanceFutureTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceFutureTest.class);
+
+    @Test
+    public void testInflight() throws Exception {
+        String inflight = PerformanceUtils.getProperty("inflight", null);
+        if (inflight == null) {
+            logger.warn("Please set -Dinflight=1000,10000,100000");
+            return;
+        }
+        final int runs = PerformanceUtils.getIntProperty("runs", 1000000);
+        final Channel channel = new MockChannel();
+        for (String count : inflight.split(",")) {
+            int pending = Integer.parseInt(count.trim());
+            Request[] requests = new Request[pending];
+            for (int i = 0; i < pending; i++) {
+                requests[i] = new Request();
+                new DefaultFuture(channel, requests[i], 60000);
+            }
+            long start = System.nanoTime();
+            for (int i = 0; i < runs; i++) {
+                Request request = new Request();
+                new DefaultFuture(channel, request, 60000);
+                DefaultFuture.received(channel, new Response(request.getId()));
+            }
+            long elapsed = System.nanoTime() - start;
+            PerformanceUtils.printSeparator();
+            PerformanceUtils.printBody("In flight: " + pending);
+            PerformanceUtils.printBody("Runs: " + runs);
+            PerformanceUtils.printBody("Avg: " + (elapsed / runs) + " ns/op");
+            PerformanceUtils.printSeparator();
+            for (Request request : requests) {
+                DefaultFuture.received(channel, new Response(request.getId()));
+            }
+        }
+    }
+
+    @Test
+    public void testSyncGet() throws Exception {
+        if (!PerformanceUtils.getBooleanProperty("sync", false)) {
+            logger.warn("Please set -Dsync=true");
+            return;
+        }
+        final int runs = PerformanceUtils.getIntProperty("runs", 1000000);
+        final Channel channel = new MockChannel();
+        final SynchronousQueue<Request> queue = new SynchronousQueue<Request>();
+        Thread responder = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int i = 0; i < runs; i++) {
+                        Request request = queue.take();
+                        DefaultFuture.received(channel, new Response(request.getId()));
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        responder.setDaemon(true);
+        responder.start();
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] latencies = new long[runs];
+        long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        for (int i = 0; i < runs; i++) {
+            long start = System.nanoTime();
+            Request request = new Request();
+            DefaultFuture future = new DefaultFuture(channel, request, 60000);
+            queue.put(request);
+            future.get();
+            latencies[i] = System.nanoTime() - start;
+        }
+        allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+        Arrays.sort(latencies);
+        PerformanceUtils.printSeparator();
+        PerformanceUtils.printBody("Runs: " + runs);
+        PerformanceUtils.printBody("P50: " + latencies[runs / 2] + " ns");
+        PerformanceUtils.printBody("P99: " + latencies[(int) (runs * 0.99)] + " ns");
+        PerformanceUtils.printBody("Caller allocation: " + (allocated / runs) + " bytes/op");
+        PerformanceUtils.printSeparator();
+    }
+
+}
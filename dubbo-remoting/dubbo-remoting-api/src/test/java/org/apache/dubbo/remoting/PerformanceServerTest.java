@@ -68,13 +68,19 @@ public class PerformanceServerTest extends TestCase {
         final int iothreads = PerformanceUtils.getIntProperty(Constants.IO_THREADS_KEY, Constants.DEFAULT_IO_THREADS);
         final int buffer = PerformanceUtils.getIntProperty(Constants.BUFFER_KEY, Constants.DEFAULT_BUFFER_SIZE);
         final String channelHandler = PerformanceUtils.getProperty(Constants.DISPATCHER_KEY, ExecutionDispatcher.NAME);
+        // netty4 only, e.g. -Dnetty.epoll=true -Dreuseport=true -Dacceptors=4 -Dtcp.quickack=true
+        final boolean epoll = PerformanceUtils.getBooleanProperty(Constants.NETTY_EPOLL_KEY, false);
+        final boolean reusePort = PerformanceUtils.getBooleanProperty(Constants.SO_REUSEPORT_KEY, false);
+        final int acceptors = PerformanceUtils.getIntProperty(Constants.ACCEPTORS_KEY, 1);
+        final boolean quickAck = PerformanceUtils.getBooleanProperty(Constants.TCP_QUICKACK_KEY, false);
 
 
         // Start server
         ExchangeServer server = Exchangers.bind("exchange://0.0.0.0:" + port + "?transporter="
                 + transporter + "&serialization="
                 + serialization + "&threadpool=" + threadpool
-                + "&threads=" + threads + "&iothreads=" + iothreads + "&buffer=" + buffer + "&channel.handler=" + channelHandler, new ExchangeHandlerAdapter() {
+                + "&threads=" + threads + "&iothreads=" + iothreads + "&buffer=" + buffer + "&channel.handler=" + channelHandler
+                + "&netty.epoll=" + epoll + "&reuseport=" + reusePort + "&acceptors=" + acceptors + "&tcp.quickack=" + quickAck, new ExchangeHandlerAdapter() {
             public String telnet(Channel channel, String message) throws RemotingException {
                 return "echo: " + message + "\r\ntelnet> ";
             }
@@ -87,6 +93,7 @@ public class PerformanceServerTest extends TestCase {
                     List<String> scene = new ArrayList<String>();
                     scene.add("Transporter: " + transporter);
                     scene.add("Service Threads: " + threads);
+                    scene.add("Epoll: " + epoll + (reusePort ? ", acceptors: " + acceptors : ""));
                     return CompletableFuture.completedFuture(scene);
                 }
                 return CompletableFuture.completedFuture(request);
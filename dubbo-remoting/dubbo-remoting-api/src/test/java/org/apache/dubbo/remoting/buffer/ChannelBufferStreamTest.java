@@ -101,4 +101,20 @@ public class ChannelBufferStreamTest {
 
         assertEquals(buf.readerIndex(), in.readBytes());
     }
+
+    @Test
+    public void testRetainedSliceOfHeapBuffer() throws Exception {
+        ChannelBuffer buf = ChannelBuffers.wrappedBuffer(new byte[]{1, 2, 3, 4});
+        ChannelBufferInputStream in = new ChannelBufferInputStream(buf);
+        // heap buffers are not reference counted, callers fall back to copying
+        assertEquals(null, in.readRetainedSlice());
+        assertEquals(4, in.available());
+
+        try {
+            new ChannelBufferInputStream(buf, 4, true);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
 }
@@ -33,6 +33,7 @@ import org.apache.dubbo.remoting.exchange.codec.ExchangeCodec;
 import org.apache.dubbo.remoting.telnet.codec.TelnetCodec;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -171,6 +172,18 @@ public class ExchangeCodecTest extends TelnetCodecTest {
         testDecode_assertEquals(header, TelnetCodec.DecodeResult.NEED_MORE_INPUT);
     }
 
+    @Test
+    public void test_Decode_Body_Need_Readmore_Keeps_Buffer() throws IOException {
+        // the deprecated codec adapted by the subclass reads the header first
+        Assume.assumeTrue(codec instanceof ExchangeCodec);
+        byte[] request = new byte[]{MAGIC_HIGH, MAGIC_LOW, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 1, 'a', 'a'};
+        ChannelBuffer buffer = ChannelBuffers.wrappedBuffer(request);
+        Object obj = codec.decode(getServerSideChannel(url), buffer);
+        Assert.assertEquals(TelnetCodec.DecodeResult.NEED_MORE_INPUT, obj);
+        // nothing read from an incomplete message
+        Assert.assertEquals(0, buffer.readerIndex());
+    }
+
     @Test
     public void test_Decode_MigicCodec_Contain_ExchangeHeader() throws IOException {
         byte[] header = new byte[]{0, 0, MAGIC_HIGH, MAGIC_LOW, 0, 0, 0, 0, 0, 0, 0, 0, 0};
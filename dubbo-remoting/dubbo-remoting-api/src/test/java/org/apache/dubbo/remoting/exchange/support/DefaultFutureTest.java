@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.support;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.RemotingException;
+import org.apache.dubbo.remoting.TimeoutException;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.ResponseCallback;
+import org.apache.dubbo.remoting.exchange.support.header.MockChannel;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class DefaultFutureTest {
+
+    @Test
+    public void testTimeout() throws Exception {
+        Channel channel = new MockChannel();
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(channel, request, 100);
+        Assert.assertSame(future, DefaultFuture.getFuture(channel, request.getId()));
+        try {
+            future.get(5000);
+            Assert.fail();
+        } catch (TimeoutException e) {
+            Assert.assertTrue(e.getMessage().contains("by timeout timer"));
+        }
+        Assert.assertTrue(future.isDone());
+        Assert.assertNull(DefaultFuture.getFuture(channel, request.getId()));
+    }
+
+    @Test
+    public void testReceived() throws Exception {
+        Channel channel = new MockChannel();
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(channel, request, 100);
+        Response response = new Response(request.getId());
+        response.setResult("hello");
+        DefaultFuture.received(channel, response);
+        Assert.assertEquals("hello", future.get());
+        // the timeout task was cancelled, the result must not be overridden
+        Thread.sleep(300);
+        Assert.assertEquals("hello", future.get());
+    }
+
+    @Test
+    public void testCallback() throws Exception {
+        Channel channel = new MockChannel();
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(channel, request, 1000);
+        final AtomicInteger count = new AtomicInteger();
+        ResponseCallback callback = new ResponseCallback() {
+            @Override
+            public void done(Object response) {
+                count.incrementAndGet();
+            }
+
+            @Override
+            public void caught(Throwable exception) {
+                Assert.fail();
+            }
+        };
+        future.setCallback(callback);
+        Assert.assertEquals(0, count.get());
+        DefaultFuture.received(channel, new Response(request.getId()));
+        Assert.assertEquals(1, count.get());
+        // a late callback is invoked right away
+        future.setCallback(callback);
+        Assert.assertEquals(2, count.get());
+    }
+
+    @Test
+    public void testCancel() throws Exception {
+        Channel channel = new MockChannel();
+        Request request = new Request();
+        final DefaultFuture future = new DefaultFuture(channel, request, 5000);
+        final CountDownLatch latch = new CountDownLatch(1);
+        Thread waiter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    future.get();
+                } catch (RemotingException e) {
+                    // ignore
+                } finally {
+                    latch.countDown();
+                }
+            }
+        });
+        waiter.start();
+        Thread.sleep(50);
+        future.cancel();
+        // the waiter is woken up right away instead of waiting for its timeout
+        Assert.assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Assert.assertNull(DefaultFuture.getFuture(channel, request.getId()));
+    }
+
+    @Test
+    public void testSpinBeforePark() throws Exception {
+        Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.getUrl()).thenReturn(URL.valueOf("dubbo://127.0.0.1:20880/demo?future.spin=50"));
+        final Request request = new Request();
+        DefaultFuture future = new DefaultFuture(channel, request, 1000);
+        final Response response = new Response(request.getId());
+        response.setResult("spin");
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                DefaultFuture.received(null, response);
+            }
+        }).start();
+        Assert.assertEquals("spin", future.get());
+        // future.spin is read once, when the future is created
+        Mockito.verify(channel, Mockito.times(1)).getUrl();
+    }
+
+    @Test
+    public void testCloseChannel() throws Exception {
+        Channel channel = new MockChannel();
+        Channel otherChannel = new MockChannel();
+        DefaultFuture first = new DefaultFuture(channel, new Request(), 5000);
+        DefaultFuture second = new DefaultFuture(channel, new Request(), 5000);
+        DefaultFuture other = new DefaultFuture(otherChannel, new Request(), 5000);
+        Assert.assertTrue(DefaultFuture.hasFuture(channel));
+
+        DefaultFuture.received(channel, new Response(first.getRequest().getId()));
+        Assert.assertTrue(first.isDone());
+        // a response is only looked up on the channel the request was sent on
+        DefaultFuture.received(channel, new Response(other.getRequest().getId()));
+        Assert.assertFalse(other.isDone());
+
+        DefaultFuture.closeChannel(channel);
+        Assert.assertFalse(DefaultFuture.hasFuture(channel));
+        Assert.assertTrue(second.isDone());
+        try {
+            second.get();
+            Assert.fail();
+        } catch (RemotingException e) {
+            Assert.assertTrue(e.getMessage().contains("inactive"));
+        }
+        // futures of other channels are left alone
+        Assert.assertFalse(other.isDone());
+        Assert.assertTrue(DefaultFuture.hasFuture(otherChannel));
+        other.cancel();
+        Assert.assertFalse(DefaultFuture.hasFuture(otherChannel));
+    }
+
+    @Test
+    public void testDetached() throws Exception {
+        // a channel unable to keep attributes, like a client not connected yet
+        Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.getUrl()).thenReturn(URL.valueOf("dubbo://127.0.0.1:20880/demo"));
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(channel, request, 5000);
+        Assert.assertSame(future, DefaultFuture.getFuture(new MockChannel(), request.getId()));
+
+        Response response = new Response(request.getId());
+        response.setResult("detached");
+        DefaultFuture.received(new MockChannel(), response);
+        Assert.assertEquals("detached", future.get());
+        Assert.assertNull(DefaultFuture.getFuture(channel, request.getId()));
+    }
+
+    @Test
+    public void testThreadless() throws Exception {
+        final Channel channel = new MockChannel();
+        final Request request = new Request();
+        final ThreadlessExecutor executor = new ThreadlessExecutor();
+        DefaultFuture future = new DefaultFuture(channel, request, 5000, executor);
+        Assert.assertSame(executor, future.getExecutor());
+        final AtomicReference<Thread> handler = new AtomicReference<Thread>();
+        // the io thread dispatches the response to the executor of the future
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                DefaultFuture.getFuture(channel, request.getId()).getExecutor().execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        handler.set(Thread.currentThread());
+                        Response response = new Response(request.getId());
+                        response.setResult("threadless");
+                        DefaultFuture.received(channel, response);
+                    }
+                });
+            }
+        }).start();
+        Assert.assertEquals("threadless", future.get());
+        Assert.assertSame(Thread.currentThread(), handler.get());
+        Assert.assertFalse(executor.isWaiting());
+    }
+
+    @Test
+    public void testThreadlessTimeout() throws Exception {
+        Channel channel = new MockChannel();
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(channel, request, 100, new ThreadlessExecutor());
+        long start = System.currentTimeMillis();
+        try {
+            future.get(5000);
+            Assert.fail();
+        } catch (TimeoutException e) {
+            Assert.assertTrue(e.getMessage().contains("by timeout timer"));
+        }
+        // woken up by the timeout check rather than waiting out its own timeout
+        Assert.assertTrue(System.currentTimeMillis() - start < 2000);
+    }
+}
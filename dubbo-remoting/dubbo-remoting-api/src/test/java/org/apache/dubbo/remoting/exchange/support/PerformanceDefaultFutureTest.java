@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.support;
+
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.support.header.MockChannel;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * PerformanceDefaultFutureTest, many caller threads sharing one connection create a future per request, as
+ * HeaderExchangeChannel.request does, and complete it. The futures are found from the table of the channel, the
+ * other run books each request in a process-wide map as well, as it was done before the channel owned its table.
+ * <p>
+ * Run with -Dcallers=32 -Drequests=200000
+ */
+public class PerformanceDefaultFutureTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceDefaultFutureTest.class);
+
+    @Test
+    public void testRequests() throws Exception {
+        String requests = System.getProperty("requests");
+        if (requests == null) {
+            logger.warn("Please set -Drequests=200000");
+            return;
+        }
+        int count = Integer.parseInt(requests);
+        int callers = Integer.getInteger("callers", 32);
+        for (int round = 0; round < 2; round++) {
+            long both = test(callers, count, true);
+            long table = test(callers, count, false);
+            System.out.println("=====callers: " + callers + ", requests/caller: " + count
+                    + ", global map and channel table: " + both + " ns/request, channel table only: " + table + " ns/request");
+        }
+    }
+
+    private long test(int callers, final int count, final boolean withGlobal) throws Exception {
+        final Channel channel = new MockChannel();
+        final Map<Long, DefaultFuture> global = new ConcurrentHashMap<Long, DefaultFuture>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < count; j++) {
+                            Request request = new Request();
+                            DefaultFuture future = new DefaultFuture(channel, request, 60000);
+                            if (withGlobal) {
+                                global.put(request.getId(), future);
+                                global.get(request.getId());
+                                global.remove(request.getId());
+                            }
+                            DefaultFuture.sent(channel, request);
+                            DefaultFuture.received(channel, new Response(request.getId()));
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (System.nanoTime() - begin) / ((long) callers * count);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+
+import io.netty.channel.ChannelDuplexHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelPipeline;
+import io.netty.channel.ChannelPromise;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the flushes of a channel, so that a burst of messages goes out in one write call
+ * instead of one per message. A flush is passed on once <code>maxMessages</code> are pending, or
+ * <code>maxDelay</code> microseconds after the first pending one, or, when there is no delay, after
+ * the tasks already queued on the event loop ran.
+ * <p>
+ * Enabled per URL with {@link Constants#FLUSH_MAX_MESSAGES_KEY} and {@link Constants#FLUSH_MAX_DELAY_KEY}.
+ */
+public class FlushCoalescingHandler extends ChannelDuplexHandler {
+
+    private final int maxMessages;
+
+    private final long maxDelay;
+
+    private final Runnable flushTask = new Runnable() {
+        @Override
+        public void run() {
+            scheduled = false;
+            if (pendingFlushes > 0) {
+                flushNow(ctx);
+            }
+        }
+    };
+
+    private ChannelHandlerContext ctx;
+
+    // only accessed on the event loop
+    private int pendingFlushes;
+
+    private boolean scheduled;
+
+    public FlushCoalescingHandler(int maxMessages, long maxDelay) {
+        if (maxMessages <= 0) {
+            throw new IllegalArgumentException("maxMessages must be positive: " + maxMessages);
+        }
+        if (maxDelay < 0) {
+            throw new IllegalArgumentException("maxDelay must not be negative: " + maxDelay);
+        }
+        this.maxMessages = maxMessages;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Add the handler in front of the pipeline if the url asks for coalesced flushes.
+     */
+    static void addIfEnabled(ChannelPipeline pipeline, URL url) {
+        int maxMessages = url.getParameter(Constants.FLUSH_MAX_MESSAGES_KEY, 0);
+        if (maxMessages > 1) {
+            pipeline.addFirst("flush", new FlushCoalescingHandler(maxMessages,
+                    url.getParameter(Constants.FLUSH_MAX_DELAY_KEY, 0L)));
+        }
+    }
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception {
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception {
+        flushIfNeeded(ctx);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        if (++pendingFlushes >= maxMessages) {
+            flushNow(ctx);
+        } else if (!scheduled) {
+            scheduled = true;
+            if (maxDelay > 0) {
+                ctx.executor().schedule(flushTask, maxDelay, TimeUnit.MICROSECONDS);
+            } else {
+                ctx.executor().execute(flushTask);
+            }
+        }
+    }
+
+    @Override
+    public void channelWritabilityChanged(ChannelHandlerContext ctx) throws Exception {
+        if (!ctx.channel().isWritable()) {
+            // give the pending messages to the socket before the outbound buffer grows any further
+            flushIfNeeded(ctx);
+        }
+        ctx.fireChannelWritabilityChanged();
+    }
+
+    @Override
+    public void disconnect(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.disconnect(promise);
+    }
+
+    @Override
+    public void close(ChannelHandlerContext ctx, ChannelPromise promise) throws Exception {
+        flushIfNeeded(ctx);
+        ctx.close(promise);
+    }
+
+    private void flushIfNeeded(ChannelHandlerContext ctx) {
+        if (pendingFlushes > 0) {
+            flushNow(ctx);
+        }
+    }
+
+    private void flushNow(ChannelHandlerContext ctx) {
+        // a task still scheduled will find nothing pending, the max delay is kept for later flushes
+        pendingFlushes = 0;
+        ctx.flush();
+    }
+
+}
@@ -20,6 +20,7 @@ import org.apache.dubbo.common.utils.Assert;
 import org.apache.dubbo.remoting.buffer.ChannelBuffer;
 import org.apache.dubbo.remoting.buffer.ChannelBufferFactory;
 import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.buffer.ReferenceCountedChannelBuffer;
 import io.netty.buffer.ByteBuf;
 
 import java.io.IOException;
@@ -27,7 +28,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
 
-public class NettyBackedChannelBuffer implements ChannelBuffer {
+public class NettyBackedChannelBuffer implements ReferenceCountedChannelBuffer {
 
     private ByteBuf buffer;
 
@@ -36,7 +37,16 @@ public class NettyBackedChannelBuffer implements ChannelBuffer {
         this.buffer = buffer;
     }
 
-    
+    @Override
+    public ReferenceCountedChannelBuffer readRetainedSlice(int length) {
+        return new NettyBackedChannelBuffer(buffer.readRetainedSlice(length));
+    }
+
+    @Override
+    public boolean release() {
+        return buffer.release();
+    }
+
     @Override
     public int capacity() {
         return buffer.capacity();
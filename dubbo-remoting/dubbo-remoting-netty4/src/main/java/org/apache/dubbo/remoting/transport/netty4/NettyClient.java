@@ -32,9 +32,9 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
 
 import java.util.concurrent.TimeUnit;
 
@@ -45,7 +45,7 @@ public class NettyClient extends AbstractClient {
 
     private static final Logger logger = LoggerFactory.getLogger(NettyClient.class);
 
-    private static final NioEventLoopGroup nioEventLoopGroup = new NioEventLoopGroup(Constants.DEFAULT_IO_THREADS, new DefaultThreadFactory("NettyClientWorker", true));
+    private static final EventLoopGroup nioEventLoopGroup = NettyEventLoopFactory.eventLoopGroup(false, Constants.DEFAULT_IO_THREADS, "NettyClientWorker");
 
     private Bootstrap bootstrap;
 
@@ -58,13 +58,24 @@ public class NettyClient extends AbstractClient {
     @Override
     protected void doOpen() throws Throwable {
         final NettyClientHandler nettyClientHandler = new NettyClientHandler(getUrl(), this);
+        boolean epoll = NettyEventLoopFactory.shouldEpoll(getUrl());
         bootstrap = new Bootstrap();
-        bootstrap.group(nioEventLoopGroup)
+        bootstrap.group(epoll ? EpollEventLoopGroupHolder.INSTANCE : nioEventLoopGroup)
                 .option(ChannelOption.SO_KEEPALIVE, true)
                 .option(ChannelOption.TCP_NODELAY, true)
                 .option(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
                 //.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, getTimeout())
-                .channel(NioSocketChannel.class);
+                .channel(NettyEventLoopFactory.socketChannelClass(epoll));
+
+        if (epoll) {
+            bootstrap.option(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED);
+            if (getUrl().getParameter(Constants.TCP_QUICKACK_KEY, false)) {
+                bootstrap.option(EpollChannelOption.TCP_QUICKACK, true);
+            }
+            if (getUrl().getParameter(Constants.TCP_FASTOPEN_KEY, 0) > 0) {
+                bootstrap.option(EpollChannelOption.TCP_FASTOPEN_CONNECT, true);
+            }
+        }
 
         if (getTimeout() < 3000) {
             bootstrap.option(ChannelOption.CONNECT_TIMEOUT_MILLIS, 3000);
@@ -81,6 +92,7 @@ public class NettyClient extends AbstractClient {
                         .addLast("decoder", adapter.getDecoder())
                         .addLast("encoder", adapter.getEncoder())
                         .addLast("handler", nettyClientHandler);
+                FlushCoalescingHandler.addIfEnabled(ch.pipeline(), getUrl());
             }
         });
     }
@@ -161,4 +173,10 @@ public class NettyClient extends AbstractClient {
         return NettyChannel.getOrAddChannel(c, getUrl(), this);
     }
 
+    /**
+     * The epoll workers shared by all clients, only started once a client asks for epoll.
+     */
+    private static class EpollEventLoopGroupHolder {
+        private static final EventLoopGroup INSTANCE = NettyEventLoopFactory.eventLoopGroup(true, Constants.DEFAULT_IO_THREADS, "NettyClientEpollWorker");
+    }
 }
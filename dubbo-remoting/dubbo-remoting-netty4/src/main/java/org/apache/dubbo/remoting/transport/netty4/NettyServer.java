@@ -35,14 +35,15 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
-import io.netty.channel.socket.nio.NioServerSocketChannel;
-import io.netty.channel.socket.nio.NioSocketChannel;
-import io.netty.util.concurrent.DefaultThreadFactory;
+import io.netty.channel.epoll.EpollChannelOption;
+import io.netty.channel.epoll.EpollMode;
+import io.netty.channel.socket.SocketChannel;
 
 import java.net.InetSocketAddress;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -58,6 +59,9 @@ public class NettyServer extends AbstractServer implements Server {
 
     private io.netty.channel.Channel channel;
 
+    // the other listeners bound to the same port with SO_REUSEPORT
+    private List<io.netty.channel.Channel> reusePortChannels;
+
     private EventLoopGroup bossGroup;
     private EventLoopGroup workerGroup;
 
@@ -69,32 +73,57 @@ public class NettyServer extends AbstractServer implements Server {
     protected void doOpen() throws Throwable {
         bootstrap = new ServerBootstrap();
 
-        bossGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("NettyServerBoss", true));
-        workerGroup = new NioEventLoopGroup(getUrl().getPositiveParameter(Constants.IO_THREADS_KEY, Constants.DEFAULT_IO_THREADS),
-                new DefaultThreadFactory("NettyServerWorker", true));
+        boolean epoll = NettyEventLoopFactory.shouldEpoll(getUrl());
+        boolean reusePort = epoll && getUrl().getParameter(Constants.SO_REUSEPORT_KEY, false);
+        int acceptors = reusePort ? getUrl().getPositiveParameter(Constants.ACCEPTORS_KEY, 1) : 1;
+        bossGroup = NettyEventLoopFactory.eventLoopGroup(epoll, acceptors, "NettyServerBoss");
+        workerGroup = NettyEventLoopFactory.eventLoopGroup(epoll,
+                getUrl().getPositiveParameter(Constants.IO_THREADS_KEY, Constants.DEFAULT_IO_THREADS),
+                "NettyServerWorker");
 
         final NettyServerHandler nettyServerHandler = new NettyServerHandler(getUrl(), this);
         channels = nettyServerHandler.getChannels();
 
         bootstrap.group(bossGroup, workerGroup)
-                .channel(NioServerSocketChannel.class)
+                .channel(NettyEventLoopFactory.serverSocketChannelClass(epoll))
                 .childOption(ChannelOption.TCP_NODELAY, Boolean.TRUE)
                 .childOption(ChannelOption.SO_REUSEADDR, Boolean.TRUE)
                 .childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
-                .childHandler(new ChannelInitializer<NioSocketChannel>() {
+                .childHandler(new ChannelInitializer<SocketChannel>() {
                     @Override
-                    protected void initChannel(NioSocketChannel ch) throws Exception {
+                    protected void initChannel(SocketChannel ch) throws Exception {
                         NettyCodecAdapter adapter = new NettyCodecAdapter(getCodec(), getUrl(), NettyServer.this);
                         ch.pipeline()//.addLast("logging",new LoggingHandler(LogLevel.INFO))//for debug
                                 .addLast("decoder", adapter.getDecoder())
                                 .addLast("encoder", adapter.getEncoder())
                                 .addLast("handler", nettyServerHandler);
+                        FlushCoalescingHandler.addIfEnabled(ch.pipeline(), getUrl());
                     }
                 });
+        if (epoll) {
+            bootstrap.childOption(EpollChannelOption.EPOLL_MODE, EpollMode.EDGE_TRIGGERED);
+            if (reusePort) {
+                bootstrap.option(EpollChannelOption.SO_REUSEPORT, Boolean.TRUE);
+            }
+            if (getUrl().getParameter(Constants.TCP_QUICKACK_KEY, false)) {
+                bootstrap.childOption(EpollChannelOption.TCP_QUICKACK, Boolean.TRUE);
+            }
+            int fastOpen = getUrl().getParameter(Constants.TCP_FASTOPEN_KEY, 0);
+            if (fastOpen > 0) {
+                bootstrap.option(EpollChannelOption.TCP_FASTOPEN, fastOpen);
+            }
+        }
         // bind
         ChannelFuture channelFuture = bootstrap.bind(getBindAddress());
         channelFuture.syncUninterruptibly();
         channel = channelFuture.channel();
+        // each listener is registered to its own boss thread, the kernel balances the connections between them
+        reusePortChannels = new ArrayList<io.netty.channel.Channel>(acceptors - 1);
+        for (int i = 1; i < acceptors; i++) {
+            ChannelFuture reusePortFuture = bootstrap.bind(getBindAddress());
+            reusePortFuture.syncUninterruptibly();
+            reusePortChannels.add(reusePortFuture.channel());
+        }
 
     }
 
@@ -105,6 +134,11 @@ public class NettyServer extends AbstractServer implements Server {
                 // unbind.
                 channel.close();
             }
+            if (reusePortChannels != null) {
+                for (io.netty.channel.Channel reusePortChannel : reusePortChannels) {
+                    reusePortChannel.close();
+                }
+            }
         } catch (Throwable e) {
             logger.warn(e.getMessage(), e);
         }
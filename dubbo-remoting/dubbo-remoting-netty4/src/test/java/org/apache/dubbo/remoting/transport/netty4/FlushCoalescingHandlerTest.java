@@ -0,0 +1,105 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.common.URL;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FlushCoalescingHandlerTest {
+
+    @Test
+    public void testFlushAfterMaxMessages() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCounter(flushes), new FlushCoalescingHandler(3, 0));
+        // the embedded channel runs the pending tasks on every write, so write everything first
+        channel.write("1");
+        channel.write("2");
+        channel.write("3");
+        channel.pipeline().flush();
+        channel.pipeline().flush();
+        Assert.assertEquals(0, flushes.get());
+        Assert.assertNull(channel.readOutbound());
+        channel.pipeline().flush();
+        Assert.assertEquals(1, flushes.get());
+        Assert.assertEquals("1", channel.readOutbound());
+        Assert.assertEquals("2", channel.readOutbound());
+        Assert.assertEquals("3", channel.readOutbound());
+        // the task scheduled by the first flush finds nothing left
+        channel.runPendingTasks();
+        Assert.assertEquals(1, flushes.get());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushOnceTasksRan() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCounter(flushes), new FlushCoalescingHandler(16, 0));
+        channel.write("1");
+        channel.write("2");
+        channel.pipeline().flush();
+        channel.pipeline().flush();
+        Assert.assertEquals(0, flushes.get());
+        channel.runPendingTasks();
+        Assert.assertEquals(1, flushes.get());
+        Assert.assertEquals("1", channel.readOutbound());
+        Assert.assertEquals("2", channel.readOutbound());
+        channel.finish();
+    }
+
+    @Test
+    public void testFlushOnClose() throws Exception {
+        AtomicInteger flushes = new AtomicInteger();
+        EmbeddedChannel channel = new EmbeddedChannel(new FlushCounter(flushes), new FlushCoalescingHandler(16, 1000000));
+        channel.writeAndFlush("1");
+        Assert.assertEquals(0, flushes.get());
+        channel.close();
+        Assert.assertEquals(1, flushes.get());
+        Assert.assertEquals("1", channel.readOutbound());
+    }
+
+    @Test
+    public void testAddIfEnabled() throws Exception {
+        EmbeddedChannel channel = new EmbeddedChannel();
+        FlushCoalescingHandler.addIfEnabled(channel.pipeline(), URL.valueOf("dubbo://127.0.0.1:20880/demo"));
+        Assert.assertNull(channel.pipeline().get("flush"));
+        FlushCoalescingHandler.addIfEnabled(channel.pipeline(), URL.valueOf("dubbo://127.0.0.1:20880/demo?flush.max.messages=32&flush.max.delay=50"));
+        Assert.assertTrue(channel.pipeline().get("flush") instanceof FlushCoalescingHandler);
+        channel.finish();
+    }
+
+    private static class FlushCounter extends ChannelOutboundHandlerAdapter {
+
+        private final AtomicInteger flushes;
+
+        FlushCounter(AtomicInteger flushes) {
+            this.flushes = flushes;
+        }
+
+        @Override
+        public void flush(ChannelHandlerContext ctx) throws Exception {
+            flushes.incrementAndGet();
+            super.flush(ctx);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.remoting.buffer.ChannelBufferInputStream;
+import org.apache.dubbo.remoting.buffer.ReferenceCountedChannelBuffer;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NettyBackedChannelBufferTest {
+
+    @Test
+    public void testRetainedSlice() throws Exception {
+        ByteBuf byteBuf = PooledByteBufAllocator.DEFAULT.directBuffer(8);
+        byteBuf.writeBytes(new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+        NettyBackedChannelBuffer buffer = new NettyBackedChannelBuffer(byteBuf);
+        buffer.readByte();
+
+        ChannelBufferInputStream in = new ChannelBufferInputStream(buffer, 4);
+        ReferenceCountedChannelBuffer slice = in.readRetainedSlice();
+        Assert.assertEquals(0, in.available());
+        Assert.assertEquals(5, buffer.readerIndex());
+        Assert.assertEquals(2, byteBuf.refCnt());
+
+        // the io thread is done with its buffer, the slice stays readable
+        Assert.assertFalse(buffer.release());
+        ChannelBufferInputStream detached = new ChannelBufferInputStream(slice, slice.readableBytes(), true);
+        byte[] bytes = new byte[4];
+        Assert.assertEquals(4, detached.read(bytes));
+        Assert.assertArrayEquals(new byte[]{2, 3, 4, 5}, bytes);
+
+        detached.close();
+        detached.close();
+        Assert.assertEquals(0, byteBuf.refCnt());
+    }
+}
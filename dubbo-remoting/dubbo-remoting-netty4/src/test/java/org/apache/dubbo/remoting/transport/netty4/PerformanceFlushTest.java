@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.transport.netty4;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.utils.NetUtils;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.ExchangeServer;
+import org.apache.dubbo.remoting.exchange.Exchangers;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PerformanceFlushTest, echoes small messages over 1, 8 and 64 connections, with and without
+ * coalesced flushes, and reports the QPS and the write syscalls per message of this process
+ * (taken from /proc/self/io, so on linux only).
+ * <p>
+ * Run with -Dflush=true -Dconnections=1,8,64 -Dthreads=8 -Druns=20000, where threads are the callers per connection.
+ */
+public class PerformanceFlushTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceFlushTest.class);
+
+    @Test
+    public void testEcho() throws Exception {
+        if (!Boolean.getBoolean("flush")) {
+            logger.warn("Please set -Dflush=true");
+            return;
+        }
+        int threads = Integer.getInteger("threads", 8);
+        int runs = Integer.getInteger("runs", 20000);
+        for (String count : System.getProperty("connections", "1,8,64").split(",")) {
+            int connections = Integer.parseInt(count.trim());
+            echo(connections, threads, runs, "");
+            echo(connections, threads, runs, "&flush.max.messages=64");
+            echo(connections, threads, runs, "&flush.max.messages=64&flush.max.delay=50");
+        }
+    }
+
+    private void echo(int connections, int threads, final int runs, String flush) throws Exception {
+        int port = NetUtils.getAvailablePort();
+        URL url = URL.valueOf("exchange://127.0.0.1:" + port + "?server=netty4&client=netty4&timeout=60000" + flush);
+        ExchangeServer server = Exchangers.bind(url, new WorldHandler());
+        ExchangeClient[] clients = new ExchangeClient[connections];
+        for (int i = 0; i < connections; i++) {
+            clients[i] = Exchangers.connect(url);
+        }
+        try {
+            final CountDownLatch latch = new CountDownLatch(connections * threads);
+            final AtomicLong failures = new AtomicLong();
+            long writes = writeSyscalls();
+            long start = System.nanoTime();
+            for (final ExchangeClient client : clients) {
+                for (int i = 0; i < threads; i++) {
+                    new Thread(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                World world = new World("world");
+                                for (int j = 0; j < runs; j++) {
+                                    client.request(world).get();
+                                }
+                            } catch (Exception e) {
+                                if (failures.incrementAndGet() == 1) {
+                                    logger.warn("Echo failed: " + e.getMessage(), e);
+                                }
+                            } finally {
+                                latch.countDown();
+                            }
+                        }
+                    }).start();
+                }
+            }
+            latch.await();
+            long elapsed = System.nanoTime() - start;
+            writes = writeSyscalls() - writes;
+            long messages = 2L * connections * threads * runs;
+            System.out.println("=====================================================================");
+            System.out.println("Connections: " + connections + ", threads per connection: " + threads + ", flush:" + flush);
+            System.out.println("QPS: " + (messages / 2) * 1000000000L / elapsed + (failures.get() > 0 ? ", failures: " + failures.get() : ""));
+            if (writes >= 0) {
+                System.out.println("Write syscalls per message: " + String.format("%.3f", (double) writes / messages));
+            }
+            System.out.println("=====================================================================");
+        } finally {
+            for (ExchangeClient client : clients) {
+                client.close();
+            }
+            server.close();
+        }
+    }
+
+    private static long writeSyscalls() throws Exception {
+        File file = new File("/proc/self/io");
+        if (!file.exists()) {
+            return -1;
+        }
+        BufferedReader reader = new BufferedReader(new FileReader(file));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("syscw:")) {
+                    return Long.parseLong(line.substring("syscw:".length()).trim());
+                }
+            }
+            return -1;
+        } finally {
+            reader.close();
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ package org.apache.dubbo.remoting.zookeeper;
 import org.apache.dubbo.common.URL;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface ZookeeperClient {
 
@@ -30,6 +31,17 @@ public interface ZookeeperClient {
 
     List<String> addChildListener(String path, ChildListener listener);
 
+    /**
+     * Create a persistent path and its parents without waiting for the server.
+     */
+    CompletableFuture<Void> createAsync(String path);
+
+    /**
+     * Same as {@link #addChildListener(String, ChildListener)} without waiting for the server,
+     * the future is completed with the current children, or null if the path does not exist.
+     */
+    CompletableFuture<List<String>> addChildListenerAsync(String path, ChildListener listener);
+
     void removeChildListener(String path, ChildListener listener);
 
     void addStateListener(StateListener listener);
@@ -24,17 +24,22 @@ import org.apache.dubbo.remoting.zookeeper.support.AbstractZookeeperClient;
 
 import org.apache.curator.framework.CuratorFramework;
 import org.apache.curator.framework.CuratorFrameworkFactory;
+import org.apache.curator.framework.api.BackgroundCallback;
+import org.apache.curator.framework.api.CuratorEvent;
 import org.apache.curator.framework.api.CuratorWatcher;
 import org.apache.curator.framework.state.ConnectionState;
 import org.apache.curator.framework.state.ConnectionStateListener;
 import org.apache.curator.retry.RetryNTimes;
 import org.apache.zookeeper.CreateMode;
+import org.apache.zookeeper.KeeperException;
+import org.apache.zookeeper.KeeperException.Code;
 import org.apache.zookeeper.KeeperException.NoNodeException;
 import org.apache.zookeeper.KeeperException.NodeExistsException;
 import org.apache.zookeeper.WatchedEvent;
 
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public class CuratorZookeeperClient extends AbstractZookeeperClient<CuratorWatcher> {
 
@@ -90,6 +95,37 @@ public class CuratorZookeeperClient extends AbstractZookeeperClient<CuratorWatch
         }
     }
 
+    @Override
+    public CompletableFuture<Void> createAsync(final String path) {
+        final CompletableFuture<Void> future = new CompletableFuture<Void>();
+        try {
+            // check first as the path exists mostly, and reads are served by any server without a write quorum
+            client.checkExists().inBackground(new BackgroundCallback() {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
+                    if (event.getResultCode() == Code.OK.intValue() && event.getStat() != null) {
+                        future.complete(null);
+                        return;
+                    }
+                    client.create().creatingParentsIfNeeded().inBackground(new BackgroundCallback() {
+                        @Override
+                        public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
+                            int rc = event.getResultCode();
+                            if (rc == Code.OK.intValue() || rc == Code.NODEEXISTS.intValue()) {
+                                future.complete(null);
+                            } else {
+                                future.completeExceptionally(KeeperException.create(Code.get(rc), path));
+                            }
+                        }
+                    }).forPath(path);
+                }
+            }).forPath(path);
+        } catch (Exception e) {
+            future.completeExceptionally(new IllegalStateException(e.getMessage(), e));
+        }
+        return future;
+    }
+
     @Override
     public void delete(String path) {
         try {
@@ -147,6 +183,29 @@ public class CuratorZookeeperClient extends AbstractZookeeperClient<CuratorWatch
         }
     }
 
+    @Override
+    protected CompletableFuture<List<String>> addTargetChildListenerAsync(final String path, CuratorWatcher listener) {
+        final CompletableFuture<List<String>> future = new CompletableFuture<List<String>>();
+        try {
+            client.getChildren().usingWatcher(listener).inBackground(new BackgroundCallback() {
+                @Override
+                public void processResult(CuratorFramework client, CuratorEvent event) throws Exception {
+                    int rc = event.getResultCode();
+                    if (rc == Code.OK.intValue()) {
+                        future.complete(event.getChildren());
+                    } else if (rc == Code.NONODE.intValue()) {
+                        future.complete(null);
+                    } else {
+                        future.completeExceptionally(KeeperException.create(Code.get(rc), path));
+                    }
+                }
+            }).forPath(path);
+        } catch (Exception e) {
+            future.completeExceptionally(new IllegalStateException(e.getMessage(), e));
+        }
+        return future;
+    }
+
     @Override
     public void removeTargetChildListener(String path, CuratorWatcher listener) {
         ((CuratorWatcherImpl) listener).unwatch();
@@ -25,6 +25,7 @@ import org.apache.dubbo.remoting.zookeeper.ZookeeperClient;
 
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArraySet;
@@ -82,8 +83,29 @@ public abstract class AbstractZookeeperClient<TargetChildListener> implements Zo
         return stateListeners;
     }
 
+    @Override
+    public CompletableFuture<Void> createAsync(String path) {
+        CompletableFuture<Void> future = new CompletableFuture<Void>();
+        try {
+            create(path, false);
+            future.complete(null);
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+        return future;
+    }
+
     @Override
     public List<String> addChildListener(String path, final ChildListener listener) {
+        return addTargetChildListener(path, getTargetChildListener(path, listener));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> addChildListenerAsync(String path, ChildListener listener) {
+        return addTargetChildListenerAsync(path, getTargetChildListener(path, listener));
+    }
+
+    private TargetChildListener getTargetChildListener(String path, ChildListener listener) {
         ConcurrentMap<ChildListener, TargetChildListener> listeners = childListeners.get(path);
         if (listeners == null) {
             childListeners.putIfAbsent(path, new ConcurrentHashMap<ChildListener, TargetChildListener>());
@@ -94,7 +116,7 @@ public abstract class AbstractZookeeperClient<TargetChildListener> implements Zo
             listeners.putIfAbsent(listener, createTargetChildListener(path, listener));
             targetListener = listeners.get(listener);
         }
-        return addTargetChildListener(path, targetListener);
+        return targetListener;
     }
 
     @Override
@@ -139,6 +161,20 @@ public abstract class AbstractZookeeperClient<TargetChildListener> implements Zo
 
     protected abstract List<String> addTargetChildListener(String path, TargetChildListener listener);
 
+    /**
+     * Falls back to the blocking {@link #addTargetChildListener(String, Object)}, clients supporting
+     * asynchronous requests should override it.
+     */
+    protected CompletableFuture<List<String>> addTargetChildListenerAsync(String path, TargetChildListener listener) {
+        CompletableFuture<List<String>> future = new CompletableFuture<List<String>>();
+        try {
+            future.complete(addTargetChildListener(path, listener));
+        } catch (Throwable t) {
+            future.completeExceptionally(t);
+        }
+        return future;
+    }
+
     protected abstract void removeTargetChildListener(String path, TargetChildListener listener);
 
 }
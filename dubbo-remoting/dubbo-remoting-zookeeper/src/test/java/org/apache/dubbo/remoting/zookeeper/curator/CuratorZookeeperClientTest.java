@@ -28,8 +28,10 @@ import org.junit.Test;
 import java.io.IOException;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.core.Is.is;
+import static org.hamcrest.core.IsNull.nullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 
@@ -79,6 +81,34 @@ public class CuratorZookeeperClientTest {
         countDownLatch.await();
     }
 
+    @Test
+    public void testCreateAsync() throws Exception {
+        String path = "/dubbo/org.apache.dubbo.demo.DemoService/providers";
+        curatorClient.createAsync(path).get(5, TimeUnit.SECONDS);
+        assertThat(curatorClient.checkExists(path), is(true));
+        // existing path
+        curatorClient.createAsync(path).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testChildrenListenerAsync() throws Exception {
+        String path = "/dubbo/org.apache.dubbo.demo.DemoService/providers";
+        assertThat(curatorClient.addChildListenerAsync(path, mock(ChildListener.class)).get(5, TimeUnit.SECONDS), nullValue());
+
+        curatorClient.create(path + "/provider1", false);
+        final CountDownLatch countDownLatch = new CountDownLatch(1);
+        List<String> children = curatorClient.addChildListenerAsync(path, new ChildListener() {
+            @Override
+            public void childChanged(String path, List<String> children) {
+                if (children.size() == 2) {
+                    countDownLatch.countDown();
+                }
+            }
+        }).get(5, TimeUnit.SECONDS);
+        assertThat(children.size(), is(1));
+        curatorClient.create(path + "/provider2", false);
+        countDownLatch.await();
+    }
 
     @Test(expected = IllegalStateException.class)
     public void testWithInvalidServer() {
@@ -0,0 +1,217 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc;
+
+import org.apache.dubbo.common.timer.HashedWheelTimer;
+import org.apache.dubbo.common.timer.Timeout;
+import org.apache.dubbo.common.timer.Timer;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Non-blocking permit queue for the consumer side `actives` limit.
+ * <p>
+ * A permit is handed out as a {@link CompletableFuture}: it is already completed when a permit is free, otherwise the
+ * caller is parked in a FIFO queue and the future completes once a permit is released to it, or completes
+ * exceptionally with a {@link TimeoutException} when the wait times out. No thread is blocked while waiting, so
+ * async invocations can simply continue on the future.
+ */
+public class ActiveLimiter {
+
+    private static final Timer WAIT_TIMEOUT_TIMER = new HashedWheelTimer(
+            new NamedThreadFactory("dubbo-active-limit-timeout", true), 10, TimeUnit.MILLISECONDS);
+
+    private static final CompletableFuture<Void> ACQUIRED = CompletableFuture.completedFuture(null);
+
+    private final int max;
+
+    private final AtomicInteger permits;
+
+    private final Queue<Waiter> waiters = new ConcurrentLinkedQueue<Waiter>();
+
+    /**
+     * Guards {@link #drain()} so that only one thread hands out permits at a time, and a release that happens while
+     * a granted waiter is being run loops instead of recursing.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final LongAdder waiting = new LongAdder();
+    private final LongAdder waited = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    public ActiveLimiter(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("max <= 0");
+        }
+        this.max = max;
+        this.permits = new AtomicInteger(max);
+    }
+
+    /**
+     * Acquire a permit.
+     *
+     * @param timeout max milliseconds to wait in the queue, no timeout if <= 0
+     * @return future completed when the permit is granted, the caller must {@link #release()} it afterwards
+     */
+    public CompletableFuture<Void> acquire(long timeout) {
+        // only take the fast path when nobody is queued, so that waiters are served in order
+        if (waiters.isEmpty() && tryAcquire()) {
+            return ACQUIRED;
+        }
+        Waiter waiter = new Waiter();
+        waiting.increment();
+        waiters.offer(waiter);
+        if (timeout > 0) {
+            waiter.timeout = WAIT_TIMEOUT_TIMER.newTimeout(t -> waiter.expire(), timeout, TimeUnit.MILLISECONDS);
+        }
+        // a permit may have been released before the waiter was queued
+        drain();
+        return waiter;
+    }
+
+    public void release() {
+        permits.incrementAndGet();
+        if (!waiters.isEmpty()) {
+            drain();
+        }
+    }
+
+    private boolean tryAcquire() {
+        for (; ; ) {
+            int available = permits.get();
+            if (available <= 0) {
+                return false;
+            }
+            if (permits.compareAndSet(available, available - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Waiter waiter;
+            while ((waiter = waiters.peek()) != null) {
+                if (waiter.isDone()) {
+                    // timed out or cancelled
+                    waiters.poll();
+                    continue;
+                }
+                if (!tryAcquire()) {
+                    break;
+                }
+                waiters.poll();
+                if (!waiter.grant()) {
+                    permits.incrementAndGet();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    public int getAvailablePermits() {
+        return Math.max(permits.get(), 0);
+    }
+
+    /**
+     * @return number of callers currently parked in the queue
+     */
+    public long getWaiting() {
+        return waiting.sum();
+    }
+
+    /**
+     * @return number of callers that got a permit after being parked
+     */
+    public long getWaited() {
+        return waited.sum();
+    }
+
+    public long getTimedOut() {
+        return timedOut.sum();
+    }
+
+    public long getTotalWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum());
+    }
+
+    public long getAverageWaitTime() {
+        long count = getWaited();
+        return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalWaitNanos.sum() / count);
+    }
+
+    public long getMaxWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(maxWaitNanos.get());
+    }
+
+    private class Waiter extends CompletableFuture<Void> {
+
+        private final long start = System.nanoTime();
+
+        private volatile Timeout timeout;
+
+        boolean grant() {
+            if (!complete(null)) {
+                return false;
+            }
+            Timeout t = timeout;
+            if (t != null) {
+                t.cancel();
+            }
+            long elapsed = System.nanoTime() - start;
+            waiting.decrement();
+            waited.increment();
+            totalWaitNanos.add(elapsed);
+            maxWaitNanos.accumulate(elapsed);
+            return true;
+        }
+
+        void expire() {
+            if (completeExceptionally(new TimeoutException())) {
+                waiting.decrement();
+                timedOut.increment();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                waiting.decrement();
+            }
+            return cancelled;
+        }
+    }
+}
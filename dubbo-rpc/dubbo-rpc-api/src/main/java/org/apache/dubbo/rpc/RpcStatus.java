@@ -22,11 +22,16 @@ import org.apache.dubbo.common.URL;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Semaphore;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * URL statistics. (API, Cached, ThreadSafe)
+ * <p>
+ * The statistics are striped, so that the threads counting calls on the same status do not contend on one value. The
+ * active count is the difference of the calls started and the calls ended, both striped, so counting a call writes
+ * one more stripe than before and reading the active count sums the stripes of both.
+ * A method status counts the calls of its service status as well, so a caller can resolve it once per call.
  *
  * @see org.apache.dubbo.rpc.filter.ActiveLimitFilter
  * @see org.apache.dubbo.rpc.filter.ExecuteLimitFilter
@@ -38,14 +43,16 @@ public class RpcStatus {
 
     private static final ConcurrentMap<String, ConcurrentMap<String, RpcStatus>> METHOD_STATISTICS = new ConcurrentHashMap<String, ConcurrentMap<String, RpcStatus>>();
     private final ConcurrentMap<String, Object> values = new ConcurrentHashMap<String, Object>();
-    private final AtomicInteger active = new AtomicInteger();
-    private final AtomicLong total = new AtomicLong();
-    private final AtomicInteger failed = new AtomicInteger();
-    private final AtomicLong totalElapsed = new AtomicLong();
-    private final AtomicLong failedElapsed = new AtomicLong();
-    private final AtomicLong maxElapsed = new AtomicLong();
-    private final AtomicLong failedMaxElapsed = new AtomicLong();
-    private final AtomicLong succeededMaxElapsed = new AtomicLong();
+    private final RpcStatus service;
+    private final LongAdder started = new LongAdder();
+    // the calls ended, the active count is started - total
+    private final LongAdder total = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder totalElapsed = new LongAdder();
+    private final LongAdder failedElapsed = new LongAdder();
+    private final LongAccumulator maxElapsed = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator failedMaxElapsed = new LongAccumulator(Math::max, 0);
+    private final LongAccumulator succeededMaxElapsed = new LongAccumulator(Math::max, 0);
 
     /**
      * Semaphore used to control concurrency limit set by `executes`
@@ -53,7 +60,13 @@ public class RpcStatus {
     private volatile Semaphore executesLimit;
     private volatile int executesPermits;
 
-    private RpcStatus() {
+    /**
+     * Permit queue used to control concurrency limit set by `actives`
+     */
+    private volatile ActiveLimiter activesLimit;
+
+    private RpcStatus(RpcStatus service) {
+        this.service = service;
     }
 
     /**
@@ -64,7 +77,7 @@ public class RpcStatus {
         String uri = url.toIdentityString();
         RpcStatus status = SERVICE_STATISTICS.get(uri);
         if (status == null) {
-            SERVICE_STATISTICS.putIfAbsent(uri, new RpcStatus());
+            SERVICE_STATISTICS.putIfAbsent(uri, new RpcStatus(null));
             status = SERVICE_STATISTICS.get(uri);
         }
         return status;
@@ -92,7 +105,7 @@ public class RpcStatus {
         }
         RpcStatus status = map.get(methodName);
         if (status == null) {
-            map.putIfAbsent(methodName, new RpcStatus());
+            map.putIfAbsent(methodName, new RpcStatus(getStatus(url)));
             status = map.get(methodName);
         }
         return status;
@@ -113,12 +126,17 @@ public class RpcStatus {
      * @param url
      */
     public static void beginCount(URL url, String methodName) {
-        beginCount(getStatus(url));
         beginCount(getStatus(url, methodName));
     }
 
-    private static void beginCount(RpcStatus status) {
-        status.active.incrementAndGet();
+    /**
+     * @param status method status, see {@link #getStatus(URL, String)}
+     */
+    public static void beginCount(RpcStatus status) {
+        if (status.service != null) {
+            status.service.started.increment();
+        }
+        status.started.increment();
     }
 
     /**
@@ -127,27 +145,32 @@ public class RpcStatus {
      * @param succeeded
      */
     public static void endCount(URL url, String methodName, long elapsed, boolean succeeded) {
-        endCount(getStatus(url), elapsed, succeeded);
         endCount(getStatus(url, methodName), elapsed, succeeded);
     }
 
-    private static void endCount(RpcStatus status, long elapsed, boolean succeeded) {
-        status.active.decrementAndGet();
-        status.total.incrementAndGet();
-        status.totalElapsed.addAndGet(elapsed);
-        if (status.maxElapsed.get() < elapsed) {
-            status.maxElapsed.set(elapsed);
+    /**
+     * @param status    method status, see {@link #getStatus(URL, String)}
+     * @param elapsed
+     * @param succeeded
+     */
+    public static void endCount(RpcStatus status, long elapsed, boolean succeeded) {
+        if (status.service != null) {
+            status.service.count(elapsed, succeeded);
         }
+        status.count(elapsed, succeeded);
+    }
+
+    private void count(long elapsed, boolean succeeded) {
+        total.increment();
+        totalElapsed.add(elapsed);
+        // no write unless a new max
+        maxElapsed.accumulate(elapsed);
         if (succeeded) {
-            if (status.succeededMaxElapsed.get() < elapsed) {
-                status.succeededMaxElapsed.set(elapsed);
-            }
+            succeededMaxElapsed.accumulate(elapsed);
         } else {
-            status.failed.incrementAndGet();
-            status.failedElapsed.addAndGet(elapsed);
-            if (status.failedMaxElapsed.get() < elapsed) {
-                status.failedMaxElapsed.set(elapsed);
-            }
+            failed.increment();
+            failedElapsed.add(elapsed);
+            failedMaxElapsed.accumulate(elapsed);
         }
     }
 
@@ -173,11 +196,15 @@ public class RpcStatus {
 
     /**
      * get active.
+     * <p>
+     * Both counts only grow, and the ended calls are read first, so the result is never negative and never below the
+     * active count at the start of the read. It is exact unless calls start or end during the read.
      *
      * @return active
      */
     public int getActive() {
-        return active.get();
+        long ended = total.sum();
+        return (int) (started.sum() - ended);
     }
 
     /**
@@ -195,7 +222,7 @@ public class RpcStatus {
      * @return total elapsed
      */
     public long getTotalElapsed() {
-        return totalElapsed.get();
+        return totalElapsed.sum();
     }
 
     /**
@@ -226,7 +253,7 @@ public class RpcStatus {
      * @return failed
      */
     public int getFailed() {
-        return failed.get();
+        return failed.intValue();
     }
 
     /**
@@ -235,7 +262,7 @@ public class RpcStatus {
      * @return failed elapsed
      */
     public long getFailedElapsed() {
-        return failedElapsed.get();
+        return failedElapsed.sum();
     }
 
     /**
@@ -334,4 +361,29 @@ public class RpcStatus {
 
         return executesLimit;
     }
+
+    /**
+     * Get the permit queue for concurrent invocations. Its permits is decided by {@link Constants#ACTIVES_KEY}
+     *
+     * @param maxActives value of {@link Constants#ACTIVES_KEY}
+     * @return active invocation limiter
+     */
+    public ActiveLimiter getActiveLimiter(int maxActives) {
+        if (maxActives <= 0) {
+            return null;
+        }
+
+        ActiveLimiter limiter = activesLimit;
+        if (limiter == null || limiter.getMax() != maxActives) {
+            synchronized (this) {
+                limiter = activesLimit;
+                if (limiter == null || limiter.getMax() != maxActives) {
+                    limiter = new ActiveLimiter(maxActives);
+                    activesLimit = limiter;
+                }
+            }
+        }
+
+        return limiter;
+    }
 }
\ No newline at end of file
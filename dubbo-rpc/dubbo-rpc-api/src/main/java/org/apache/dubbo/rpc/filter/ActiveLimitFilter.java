@@ -17,70 +17,152 @@
 package org.apache.dubbo.rpc.filter;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.MethodParameters;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.rpc.ActiveLimiter;
+import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Filter;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
 import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcContext;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.RpcStatus;
+import org.apache.dubbo.rpc.SimpleAsyncRpcResult;
+import org.apache.dubbo.rpc.support.RpcUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * LimitInvokerFilter
+ * <p>
+ * Callers over the `actives` limit wait in a FIFO permit queue, see {@link ActiveLimiter}. Sync callers block on their
+ * permit, async callers are parked without holding a thread and the invocation continues once the permit is granted,
+ * on a thread of its own rather than the one releasing the permit, which is often an IO thread handling a response.
+ * The permit of an async invocation is held until its response arrives.
  */
 @Activate(group = Constants.CONSUMER, value = Constants.ACTIVES_KEY)
 public class ActiveLimitFilter implements Filter {
 
+    // continues the async invocations parked for a permit
+    private static final ExecutorService PERMITTED_EXECUTOR = Executors.newCachedThreadPool(
+            new NamedThreadFactory("DubboActiveLimitPermitted", true));
+
     @Override
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
         URL url = invoker.getUrl();
         String methodName = invocation.getMethodName();
-        int max = invoker.getUrl().getMethodParameter(methodName, Constants.ACTIVES_KEY, 0);
-        RpcStatus count = RpcStatus.getStatus(invoker.getUrl(), invocation.getMethodName());
-        if (max > 0) {
-            long timeout = invoker.getUrl().getMethodParameter(invocation.getMethodName(), Constants.TIMEOUT_KEY, 0);
-            long start = System.currentTimeMillis();
-            long remain = timeout;
-            int active = count.getActive();
-            if (active >= max) {
-                synchronized (count) {
-                    while ((active = count.getActive()) >= max) {
-                        try {
-                            count.wait(remain);
-                        } catch (InterruptedException e) {
-                        }
-                        long elapsed = System.currentTimeMillis() - start;
-                        remain = timeout - elapsed;
-                        if (remain <= 0) {
-                            throw new RpcException("Waiting concurrent invoke timeout in client-side for service:  "
-                                    + invoker.getInterface().getName() + ", method: "
-                                    + invocation.getMethodName() + ", elapsed: " + elapsed
-                                    + ", timeout: " + timeout + ". concurrent invokes: " + active
-                                    + ". max concurrent invoke limit: " + max);
+        MethodParameters parameters = url.getMethodParameters(methodName);
+        int max = parameters.getActives();
+        RpcStatus count = RpcStatus.getStatus(url, methodName);
+        ActiveLimiter limiter = count.getActiveLimiter(max);
+        if (limiter == null) {
+            return invokeCounted(invoker, invocation, count, null);
+        }
+        long timeout = parameters.getTimeout(Constants.DEFAULT_TIMEOUT);
+        long start = System.currentTimeMillis();
+        CompletableFuture<Void> permit = limiter.acquire(timeout);
+        if (!permit.isDone() && RpcUtils.isAsync(url, invocation)) {
+            return invokeWhenPermitted(invoker, invocation, count, limiter, permit, start, timeout);
+        }
+        try {
+            permit.get();
+        } catch (InterruptedException e) {
+            if (!permit.cancel(false) && !permit.isCompletedExceptionally()) {
+                limiter.release();
+            }
+            Thread.currentThread().interrupt();
+            throw new RpcException("Interrupted while waiting concurrent invoke in client-side for service:  "
+                    + invoker.getInterface().getName() + ", method: " + invocation.getMethodName(), e);
+        } catch (ExecutionException e) {
+            throw waitTimeout(invoker, invocation, count, limiter, start, timeout);
+        }
+        return invokeCounted(invoker, invocation, count, limiter);
+    }
+
+    private Result invokeWhenPermitted(Invoker<?> invoker, Invocation invocation, RpcStatus count,
+                                       ActiveLimiter limiter, CompletableFuture<Void> permit, long start, long timeout) {
+        // the invocation goes on in another thread, carry the caller's attachments there
+        Map<String, String> attachments = new HashMap<String, String>(RpcContext.getContext().getAttachments());
+        CompletableFuture<Object> valueFuture = new CompletableFuture<Object>();
+        permit.whenCompleteAsync((v, t) -> {
+            if (t != null) {
+                valueFuture.completeExceptionally(waitTimeout(invoker, invocation, count, limiter, start, timeout));
+                return;
+            }
+            RpcContext previous = RpcContext.getContext();
+            RpcContext.removeContext();
+            RpcContext.getContext().setAttachments(attachments);
+            try {
+                Result result = invokeCounted(invoker, invocation, count, limiter);
+                if (result instanceof AsyncRpcResult) {
+                    ((AsyncRpcResult) result).getValueFuture().whenComplete((value, e) -> {
+                        if (e != null) {
+                            valueFuture.completeExceptionally((Throwable) e);
+                        } else {
+                            valueFuture.complete(value);
                         }
-                    }
+                    });
+                } else if (result.hasException()) {
+                    valueFuture.completeExceptionally(result.getException());
+                } else {
+                    valueFuture.complete(result.getValue());
                 }
+            } catch (Throwable e) {
+                valueFuture.completeExceptionally(e);
+            } finally {
+                RpcContext.restoreContext(previous);
             }
+        }, PERMITTED_EXECUTOR);
+        RpcContext.getContext().setFuture(valueFuture);
+        if (RpcUtils.isGeneratedFuture(invocation) || RpcUtils.isFutureReturnType(invocation)) {
+            return new AsyncRpcResult(valueFuture);
         }
+        return new SimpleAsyncRpcResult(valueFuture, true);
+    }
+
+    private Result invokeCounted(Invoker<?> invoker, Invocation invocation, RpcStatus count, ActiveLimiter limiter) {
+        long begin = System.currentTimeMillis();
+        RpcStatus.beginCount(count);
+        Result result;
         try {
-            long begin = System.currentTimeMillis();
-            RpcStatus.beginCount(url, methodName);
-            try {
-                Result result = invoker.invoke(invocation);
-                RpcStatus.endCount(url, methodName, System.currentTimeMillis() - begin, true);
-                return result;
-            } catch (RuntimeException t) {
-                RpcStatus.endCount(url, methodName, System.currentTimeMillis() - begin, false);
-                throw t;
+            result = invoker.invoke(invocation);
+        } catch (RuntimeException t) {
+            RpcStatus.endCount(count, System.currentTimeMillis() - begin, false);
+            if (limiter != null) {
+                limiter.release();
             }
-        } finally {
-            if (max > 0) {
-                synchronized (count) {
-                    count.notify();
-                }
+            throw t;
+        }
+        if (limiter != null && result instanceof AsyncRpcResult) {
+            ((AsyncRpcResult) result).getValueFuture().whenComplete((v, t) -> {
+                RpcStatus.endCount(count, System.currentTimeMillis() - begin, t == null);
+                limiter.release();
+            });
+        } else {
+            RpcStatus.endCount(count, System.currentTimeMillis() - begin, true);
+            if (limiter != null) {
+                limiter.release();
             }
         }
+        return result;
+    }
+
+    private RpcException waitTimeout(Invoker<?> invoker, Invocation invocation, RpcStatus count,
+                                     ActiveLimiter limiter, long start, long timeout) {
+        long elapsed = System.currentTimeMillis() - start;
+        return new RpcException("Waiting concurrent invoke timeout in client-side for service:  "
+                + invoker.getInterface().getName() + ", method: "
+                + invocation.getMethodName() + ", elapsed: " + elapsed
+                + ", timeout: " + timeout + ". concurrent invokes: " + count.getActive()
+                + ". max concurrent invoke limit: " + limiter.getMax());
     }
 
 }
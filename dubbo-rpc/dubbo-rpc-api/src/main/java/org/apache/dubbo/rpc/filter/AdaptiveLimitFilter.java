@@ -0,0 +1,101 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.MethodParameters;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.Activate;
+import org.apache.dubbo.rpc.AsyncRpcResult;
+import org.apache.dubbo.rpc.Filter;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.filter.limit.AdaptiveLimiter;
+import org.apache.dubbo.rpc.filter.limit.GradientLimit;
+import org.apache.dubbo.rpc.filter.limit.VegasLimit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * AdaptiveLimitFilter, limits the concurrent calls of each provider method to a limit adjusted continuously from
+ * their latency against the minimum latency observed, see {@link AdaptiveLimiter}. Unlike <code>executes</code> the
+ * limit follows the capacity of the provider, so it does not need tuning by hand.
+ * <p>
+ * Rejected calls fail with {@link RpcException#LIMIT_EXCEEDED_EXCEPTION}, which the failover cluster retries on
+ * another provider.
+ */
+@Activate(group = Constants.PROVIDER, value = Constants.ADAPTIVE_LIMIT_KEY)
+public class AdaptiveLimitFilter implements Filter {
+
+    private final ConcurrentMap<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<String, AdaptiveLimiter>();
+
+    @Override
+    public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        URL url = invoker.getUrl();
+        String methodName = invocation.getMethodName();
+        AdaptiveLimiter limiter = getLimiter(url, methodName);
+        if (!limiter.tryAcquire()) {
+            throw new RpcException(RpcException.LIMIT_EXCEEDED_EXCEPTION, "Failed to invoke method " + methodName
+                    + " in provider " + url + ", cause: The service concurrent invokes exceed the adaptive limit "
+                    + limiter.getLimit() + ".");
+        }
+        long begin = System.nanoTime();
+        Result result;
+        try {
+            result = invoker.invoke(invocation);
+        } catch (RuntimeException t) {
+            limiter.release(System.nanoTime() - begin, true);
+            throw t;
+        }
+        if (result instanceof AsyncRpcResult) {
+            ((AsyncRpcResult) result).getValueFuture().whenComplete((v, t) -> limiter.release(System.nanoTime() - begin, t != null));
+        } else {
+            limiter.release(System.nanoTime() - begin, false);
+        }
+        return result;
+    }
+
+    AdaptiveLimiter getLimiter(URL url, String methodName) {
+        MethodParameters parameters = url.getMethodParameters(methodName);
+        String name = VegasLimit.NAME.equals(parameters.getParameter(Constants.ADAPTIVE_LIMIT_KEY))
+                ? VegasLimit.NAME : GradientLimit.NAME;
+        String key = url.getServiceKey() + "#" + methodName;
+        AdaptiveLimiter limiter = limiters.get(key);
+        if (limiter == null || !limiter.getName().equals(name)) {
+            AdaptiveLimiter created = AdaptiveLimiter.create(name,
+                    parameters.getParameter(Constants.ADAPTIVE_LIMIT_INITIAL_KEY, Constants.DEFAULT_ADAPTIVE_LIMIT_INITIAL),
+                    parameters.getParameter(Constants.ADAPTIVE_LIMIT_MIN_KEY, Constants.DEFAULT_ADAPTIVE_LIMIT_MIN),
+                    parameters.getParameter(Constants.ADAPTIVE_LIMIT_MAX_KEY, Constants.DEFAULT_ADAPTIVE_LIMIT_MAX));
+            if (limiter == null) {
+                limiter = limiters.putIfAbsent(key, created);
+                if (limiter == null) {
+                    limiter = created;
+                }
+            } else if (limiters.replace(key, limiter, created)) {
+                // the algorithm was changed
+                limiter = created;
+            } else {
+                limiter = limiters.get(key);
+            }
+        }
+        return limiter;
+    }
+
+}
@@ -18,6 +18,7 @@
 package org.apache.dubbo.rpc.filter;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.extension.Activate;
 import org.apache.dubbo.rpc.Filter;
 import org.apache.dubbo.rpc.Invocation;
@@ -26,6 +27,9 @@ import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
 import org.apache.dubbo.rpc.filter.tps.DefaultTPSLimiter;
 import org.apache.dubbo.rpc.filter.tps.TPSLimiter;
+import org.apache.dubbo.rpc.filter.tps.TokenBucketTPSLimiter;
+
+import java.util.Map;
 
 /**
  * Limit TPS for either service or service's particular method
@@ -35,10 +39,15 @@ public class TpsLimitFilter implements Filter {
 
     private final TPSLimiter tpsLimiter = new DefaultTPSLimiter();
 
+    private final TokenBucketTPSLimiter tokenBucketTpsLimiter = new TokenBucketTPSLimiter();
+
     @Override
     public Result invoke(Invoker<?> invoker, Invocation invocation) throws RpcException {
+        URL url = invoker.getUrl();
+        TPSLimiter limiter = TokenBucketTPSLimiter.NAME.equals(url.getParameter(Constants.TPS_LIMITER_KEY))
+                ? tokenBucketTpsLimiter : tpsLimiter;
 
-        if (!tpsLimiter.isAllowable(invoker.getUrl(), invocation)) {
+        if (!limiter.isAllowable(url, invocation)) {
             throw new RpcException(
                     "Failed to invoke service " +
                             invoker.getInterface().getName() +
@@ -50,4 +59,11 @@ public class TpsLimitFilter implements Filter {
         return invoker.invoke(invocation);
     }
 
+    /**
+     * @return the calls rejected by the token bucket limiter so far, by service key and limit key
+     */
+    public Map<String, Long> getTokenBucketRejections() {
+        return tokenBucketTpsLimiter.getRejections();
+    }
+
 }
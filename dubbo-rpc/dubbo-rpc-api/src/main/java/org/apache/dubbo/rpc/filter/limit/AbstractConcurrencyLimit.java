@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+/**
+ * Keeps the limit in [min, max] and tracks the minimum rtt, i.e. the latency without queueing, which the algorithms
+ * compare the observed latency with.
+ */
+abstract class AbstractConcurrencyLimit implements ConcurrencyLimit {
+
+    /**
+     * The min rtt is measured again every this many windows, so that it follows a provider getting slower
+     */
+    private static final int PROBE_WINDOWS = 1000;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private volatile int limit;
+
+    /**
+     * The limit before rounding, so that small steps add up
+     */
+    private double estimate;
+
+    private long minRtt;
+
+    private int windows;
+
+    private boolean probing;
+
+    AbstractConcurrencyLimit(int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit <= 0 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Illegal concurrency limit range [" + minLimit + ", " + maxLimit + "]");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        setLimit(initialLimit);
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void update(long rtt, int inflight, boolean dropped) {
+        if (rtt <= 0) {
+            return;
+        }
+        if (++windows >= PROBE_WINDOWS) {
+            // shrink the queue and forget the min rtt, it is measured again once the queue has drained
+            windows = 0;
+            minRtt = 0;
+            probing = true;
+            setLimit(queueSize(limit));
+            return;
+        }
+        if (probing) {
+            if (inflight > limit) {
+                return;
+            }
+            probing = false;
+        }
+        if (minRtt == 0 || rtt < minRtt) {
+            minRtt = rtt;
+        }
+        setLimit(nextLimit(estimate, minRtt, rtt, inflight, dropped));
+    }
+
+    /**
+     * @return the calls allowed to queue up on top of the ones being served
+     */
+    static double queueSize(double limit) {
+        return Math.max(1, Math.sqrt(limit));
+    }
+
+    protected abstract double nextLimit(double limit, long minRtt, long rtt, int inflight, boolean dropped);
+
+    private void setLimit(double newLimit) {
+        estimate = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        limit = (int) estimate;
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits calls up to the limit of a {@link ConcurrencyLimit}, and feeds it the latency of the completed calls in
+ * windows of {@link #WINDOW_SIZE} samples.
+ */
+public class AdaptiveLimiter {
+
+    static final int WINDOW_SIZE = 10;
+
+    private final ConcurrencyLimit limit;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final AtomicLong samples = new AtomicLong();
+
+    private final LongAdder windowRtt = new LongAdder();
+
+    private final LongAdder windowSamples = new LongAdder();
+
+    private final LongAccumulator windowInflight = new LongAccumulator(Math::max, 0);
+
+    private volatile boolean windowDropped;
+
+    public AdaptiveLimiter(ConcurrencyLimit limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * @param name {@link VegasLimit#NAME}, any other value is a {@link GradientLimit}
+     */
+    public static AdaptiveLimiter create(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (VegasLimit.NAME.equals(name)) {
+            return new AdaptiveLimiter(new VegasLimit(initialLimit, minLimit, maxLimit));
+        }
+        return new AdaptiveLimiter(new GradientLimit(initialLimit, minLimit, maxLimit));
+    }
+
+    /**
+     * @return whether the call is admitted, it must be {@link #release(long, boolean) released} when done if so
+     */
+    public boolean tryAcquire() {
+        int max = limit.getLimit();
+        for (; ; ) {
+            int current = inflight.get();
+            if (current >= max) {
+                rejected.increment();
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rtt     nanoseconds the call took
+     * @param dropped whether the call failed
+     */
+    public void release(long rtt, boolean dropped) {
+        int current = inflight.getAndDecrement();
+        windowRtt.add(rtt);
+        windowSamples.increment();
+        windowInflight.accumulate(current);
+        if (dropped) {
+            windowDropped = true;
+        }
+        // exactly one caller closes each window, samples racing with it are counted in the next one
+        if (samples.incrementAndGet() % WINDOW_SIZE == 0) {
+            long count = windowSamples.sumThenReset();
+            long total = windowRtt.sumThenReset();
+            int maxInflight = (int) windowInflight.getThenReset();
+            boolean anyDropped = windowDropped;
+            windowDropped = false;
+            if (count > 0) {
+                limit.update(total / count, maxInflight, anyDropped);
+            }
+        }
+    }
+
+    public String getName() {
+        return limit.getName();
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getInflight() {
+        return inflight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+}
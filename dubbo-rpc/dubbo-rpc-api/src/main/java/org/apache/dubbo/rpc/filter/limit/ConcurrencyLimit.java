@@ -0,0 +1,37 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+/**
+ * Algorithm estimating how many calls a provider can have in flight, from the latency it observes.
+ */
+public interface ConcurrencyLimit {
+
+    String getName();
+
+    int getLimit();
+
+    /**
+     * Adjust the limit by the calls completed in a sample window.
+     *
+     * @param rtt      average round trip time of the window in nanoseconds
+     * @param inflight max calls in flight during the window
+     * @param dropped  whether any call of the window failed
+     */
+    void update(long rtt, int inflight, boolean dropped);
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+/**
+ * Gradient limit: scales the limit by min rtt / rtt, tolerating the rtt to grow by {@link #TOLERANCE} before
+ * backing off, and leaves room for a small queue of {@link #queueSize(double)} calls on top.
+ */
+public class GradientLimit extends AbstractConcurrencyLimit {
+
+    public static final String NAME = "gradient";
+
+    private static final double TOLERANCE = 1.5;
+
+    private static final double SMOOTHING = 0.2;
+
+    public GradientLimit(int initialLimit, int minLimit, int maxLimit) {
+        super(initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected double nextLimit(double limit, long minRtt, long rtt, int inflight, boolean dropped) {
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, TOLERANCE * minRtt / rtt));
+        double newLimit = limit * gradient + queueSize(limit);
+        if (inflight * 2 < limit) {
+            // the limit is not what holds the calls back, do not grow it
+            newLimit = Math.min(newLimit, limit);
+        }
+        return limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+    }
+
+}
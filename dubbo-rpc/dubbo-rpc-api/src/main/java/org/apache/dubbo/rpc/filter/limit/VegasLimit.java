@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+/**
+ * Vegas limit, after TCP Vegas: estimates the calls queued as limit * (1 - min rtt / rtt), grows the limit while the
+ * queue is short and shrinks it once the queue is longer than beta = 6 * log10(limit).
+ */
+public class VegasLimit extends AbstractConcurrencyLimit {
+
+    public static final String NAME = "vegas";
+
+    public VegasLimit(int initialLimit, int minLimit, int maxLimit) {
+        super(initialLimit, minLimit, maxLimit);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    protected double nextLimit(double limit, long minRtt, long rtt, int inflight, boolean dropped) {
+        double log = Math.max(1, Math.log10(limit));
+        if (dropped) {
+            return limit - log;
+        }
+        if (inflight * 2 < limit) {
+            return limit;
+        }
+        double queue = Math.ceil(limit * (1 - (double) minRtt / rtt));
+        if (queue <= log) {
+            return limit + 6 * log;
+        } else if (queue < 3 * log) {
+            return limit + log;
+        } else if (queue > 6 * log) {
+            return limit - log;
+        }
+        return limit;
+    }
+
+}
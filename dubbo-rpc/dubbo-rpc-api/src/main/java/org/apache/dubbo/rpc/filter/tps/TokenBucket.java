@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * TokenBucket, refilled continuously at <code>rate</code> tokens per <code>interval</code> up to <code>burst</code>
+ * tokens (ThreadSafe).
+ * <p>
+ * Instead of counting the tokens it keeps the time the bucket is full again (generic cell rate algorithm): taking a
+ * token moves that time one token later, and is refused if that ends up more than a full bucket ahead of now. So a
+ * call costs one compare and set without any lock, and a refused call writes nothing but its counter.
+ */
+class TokenBucket {
+
+    private final int rate;
+
+    private final long interval;
+
+    private final int burst;
+
+    // nanos to refill one token
+    private final long tokenNanos;
+
+    // nanos to refill the whole bucket
+    private final long bucketNanos;
+
+    private final AtomicLong fullTime;
+
+    private final LongAdder rejected = new LongAdder();
+
+    TokenBucket(int rate, long interval, int burst) {
+        this.rate = rate;
+        this.interval = interval;
+        this.burst = burst;
+        this.tokenNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(interval) / rate, 1);
+        this.bucketNanos = tokenNanos * burst;
+        this.fullTime = new AtomicLong(System.nanoTime());
+    }
+
+    boolean isAllowable() {
+        long now = System.nanoTime();
+        for (; ; ) {
+            long full = fullTime.get();
+            long next = (full - now > 0 ? full : now) + tokenNanos;
+            if (next - now > bucketNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (fullTime.compareAndSet(full, next)) {
+                return true;
+            }
+        }
+    }
+
+    boolean isLimiting(int rate, long interval, int burst) {
+        return this.rate == rate && this.interval == interval && this.burst == burst;
+    }
+
+    /**
+     * @return whether the bucket is full, so it limits nothing a new one would not
+     */
+    boolean isIdle() {
+        return fullTime.get() - System.nanoTime() <= 0;
+    }
+
+    long getRejected() {
+        return rejected.sum();
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder(48).append("TokenBucket ")
+                .append("[rate = ").append(rate).append(", ")
+                .append("interval = ").append(interval).append(", ")
+                .append("burst = ").append(burst).append("]")
+                .toString();
+    }
+
+}
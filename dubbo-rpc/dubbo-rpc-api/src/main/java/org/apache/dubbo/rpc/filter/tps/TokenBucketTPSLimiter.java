@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.MethodParameters;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TokenBucketTPSLimiter, limits <code>tps</code> calls per <code>tps.interval</code> with a {@link TokenBucket}
+ * refilled continuously, so unlike {@link DefaultTPSLimiter} no more than <code>tps.burst</code> calls pass at once
+ * when a window starts.
+ * <p>
+ * <code>tps.scope</code> chooses what is limited: the service, each method with the limit configured for the
+ * method, or each consumer application as attached to the invocation. The limits are read once per url and method,
+ * and again only when a service is limited with another url.
+ * <p>
+ * The limit keys come from the invocation, so a service keeps at most {@link #MAX_BUCKETS} buckets: once there are
+ * that many, the buckets full again (as good as new) are evicted, and if none is, the calls with a new key share the
+ * bucket of the calls without one. An evicted bucket takes its rejections with it.
+ */
+public class TokenBucketTPSLimiter implements TPSLimiter {
+
+    public static final String NAME = "tokenbucket";
+
+    private static final String METHOD_SCOPE = "method";
+
+    private static final String APPLICATION_SCOPE = "application";
+
+    private static final String NO_KEY = "";
+
+    static final int MAX_BUCKETS = 1024;
+
+    // the default burst, the tokens refilled in this time: small enough that a window boundary lets no burst through
+    private static final long BURST_MILLIS = 10;
+
+    // a service full of busy buckets is not swept again before this
+    private static final long SWEEP_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    // service key -> buckets
+    private final ConcurrentMap<String, ServiceBuckets> buckets = new ConcurrentHashMap<String, ServiceBuckets>();
+
+    // the buckets of the service limited last, found without a lookup while the calls are for one url
+    private volatile ServiceBuckets last;
+
+    @Override
+    public boolean isAllowable(URL url, Invocation invocation) {
+        ServiceBuckets serviceBuckets = last;
+        Limits limits = serviceBuckets == null ? null : serviceBuckets.limits;
+        if (limits == null || limits.url != url) {
+            String serviceKey = url.getServiceKey();
+            serviceBuckets = buckets.get(serviceKey);
+            if (serviceBuckets == null) {
+                buckets.putIfAbsent(serviceKey, new ServiceBuckets());
+                serviceBuckets = buckets.get(serviceKey);
+            }
+            limits = serviceBuckets.getLimits(url);
+            last = serviceBuckets;
+        }
+        String key;
+        Limit limit;
+        if (limits.byMethod) {
+            key = invocation.getMethodName();
+            limit = limits.getMethodLimit(key);
+        } else {
+            key = limits.byApplication ? invocation.getAttachment(Constants.APPLICATION_KEY, NO_KEY) : NO_KEY;
+            limit = limits.serviceLimit;
+        }
+        int rate = limit.rate;
+        long interval = limit.interval;
+        int burst = limit.burst;
+        if (rate <= 0) {
+            serviceBuckets.buckets.remove(key);
+            return true;
+        }
+        TokenBucket bucket = serviceBuckets.buckets.get(key);
+        if (bucket == null) {
+            if (!serviceBuckets.hasRoom()) {
+                key = NO_KEY;
+                bucket = serviceBuckets.buckets.get(key);
+            }
+            if (bucket == null) {
+                serviceBuckets.buckets.putIfAbsent(key, new TokenBucket(rate, interval, burst));
+                bucket = serviceBuckets.buckets.get(key);
+            }
+        }
+        if (bucket == null || !bucket.isLimiting(rate, interval, burst)) {
+            // the limit has been changed
+            bucket = new TokenBucket(rate, interval, burst);
+            serviceBuckets.buckets.put(key, bucket);
+        }
+        return bucket.isAllowable();
+    }
+
+    /**
+     * @return the calls rejected so far, by service key, followed by <code>#method</code> or
+     * <code>#application</code> if limited by method or application
+     */
+    public Map<String, Long> getRejections() {
+        Map<String, Long> rejections = new HashMap<String, Long>();
+        for (Map.Entry<String, ServiceBuckets> service : buckets.entrySet()) {
+            for (Map.Entry<String, TokenBucket> entry : service.getValue().buckets.entrySet()) {
+                String name = entry.getKey().length() == 0 ? service.getKey() : service.getKey() + "#" + entry.getKey();
+                rejections.put(name, entry.getValue().getRejected());
+            }
+        }
+        return rejections;
+    }
+
+    private static class Limit {
+
+        private final int rate;
+
+        private final long interval;
+
+        private final int burst;
+
+        Limit(int rate, long interval, int burst) {
+            if (interval <= 0) {
+                interval = Constants.DEFAULT_TPS_LIMIT_INTERVAL;
+            }
+            if (burst <= 0) {
+                burst = (int) Math.min(rate, Math.max(rate * BURST_MILLIS / interval, 1));
+            }
+            this.rate = rate;
+            this.interval = interval;
+            this.burst = burst;
+        }
+
+    }
+
+    /**
+     * The limits read from one url.
+     */
+    private static class Limits {
+
+        private final URL url;
+
+        private final boolean byMethod;
+
+        private final boolean byApplication;
+
+        private final Limit serviceLimit;
+
+        // method -> limit, if limited by method
+        private final ConcurrentMap<String, Limit> methodLimits = new ConcurrentHashMap<String, Limit>();
+
+        Limits(URL url) {
+            this.url = url;
+            String scope = url.getParameter(Constants.TPS_LIMIT_SCOPE_KEY, Constants.DEFAULT_TPS_LIMIT_SCOPE);
+            this.byMethod = METHOD_SCOPE.equals(scope);
+            this.byApplication = APPLICATION_SCOPE.equals(scope);
+            this.serviceLimit = new Limit(url.getParameter(Constants.TPS_LIMIT_RATE_KEY, -1),
+                    url.getParameter(Constants.TPS_LIMIT_INTERVAL_KEY, Constants.DEFAULT_TPS_LIMIT_INTERVAL),
+                    url.getParameter(Constants.TPS_LIMIT_BURST_KEY, 0));
+        }
+
+        Limit getMethodLimit(String method) {
+            Limit limit = methodLimits.get(String.valueOf(method));
+            if (limit == null) {
+                MethodParameters parameters = url.getMethodParameters(method);
+                limit = new Limit(parameters.getParameter(Constants.TPS_LIMIT_RATE_KEY, -1),
+                        parameters.getParameter(Constants.TPS_LIMIT_INTERVAL_KEY, Constants.DEFAULT_TPS_LIMIT_INTERVAL),
+                        parameters.getParameter(Constants.TPS_LIMIT_BURST_KEY, 0));
+                methodLimits.putIfAbsent(String.valueOf(method), limit);
+            }
+            return limit;
+        }
+
+    }
+
+    private static class ServiceBuckets {
+
+        // limit key -> bucket
+        private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<String, TokenBucket>();
+
+        private volatile Limits limits;
+
+        private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+        Limits getLimits(URL url) {
+            Limits limits = this.limits;
+            if (limits == null || (limits.url != url && !limits.url.equals(url))) {
+                // first call, or the service is limited with another url now
+                limits = new Limits(url);
+                this.limits = limits;
+            }
+            return limits;
+        }
+
+        /**
+         * @return whether a bucket can be added, after evicting the idle ones if there are too many
+         */
+        boolean hasRoom() {
+            if (buckets.size() < MAX_BUCKETS) {
+                return true;
+            }
+            long now = System.nanoTime();
+            long sweep = nextSweep.get();
+            if (now - sweep >= 0 && nextSweep.compareAndSet(sweep, now + SWEEP_NANOS)) {
+                for (Map.Entry<String, TokenBucket> entry : buckets.entrySet()) {
+                    if (entry.getValue().isIdle()) {
+                        buckets.remove(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
+            return buckets.size() < MAX_BUCKETS;
+        }
+
+    }
+
+}
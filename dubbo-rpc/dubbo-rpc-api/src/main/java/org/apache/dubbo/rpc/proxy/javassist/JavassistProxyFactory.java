@@ -24,6 +24,10 @@ import org.apache.dubbo.rpc.proxy.AbstractProxyFactory;
 import org.apache.dubbo.rpc.proxy.AbstractProxyInvoker;
 import org.apache.dubbo.rpc.proxy.InvokerInvocationHandler;
 
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * JavaassistRpcProxyFactory
  */
@@ -39,14 +43,41 @@ public class JavassistProxyFactory extends AbstractProxyFactory {
     public <T> Invoker<T> getInvoker(T proxy, Class<T> type, URL url) {
         // TODO Wrapper cannot handle this scenario correctly: the classname contains '$'
         final Wrapper wrapper = Wrapper.getWrapper(proxy.getClass().getName().indexOf('$') < 0 ? proxy.getClass() : type);
+        final Map<String, Integer> methodIndexes = getMethodIndexes(wrapper, type);
         return new AbstractProxyInvoker<T>(proxy, type, url) {
             @Override
             protected Object doInvoke(T proxy, String methodName,
                                       Class<?>[] parameterTypes,
                                       Object[] arguments) throws Throwable {
+                Integer index = methodIndexes.get(methodName);
+                if (index != null) {
+                    return wrapper.invokeMethod(proxy, index, arguments);
+                }
                 return wrapper.invokeMethod(proxy, methodName, parameterTypes, arguments);
             }
         };
     }
 
+    /**
+     * Resolves the wrapper index of the methods of the exported interface once, by method name. Overloaded methods
+     * are left out, they are still resolved per call with their parameter types.
+     */
+    private static Map<String, Integer> getMethodIndexes(Wrapper wrapper, Class<?> type) {
+        Map<String, Integer> indexes = new HashMap<String, Integer>();
+        Map<String, Boolean> overloaded = new HashMap<String, Boolean>();
+        for (Method method : type.getMethods()) {
+            overloaded.put(method.getName(), overloaded.containsKey(method.getName()));
+        }
+        for (Method method : type.getMethods()) {
+            if (overloaded.get(method.getName())) {
+                continue;
+            }
+            int index = wrapper.getMethodIndex(method.getName(), method.getParameterTypes());
+            if (index >= 0) {
+                indexes.put(method.getName(), index);
+            }
+        }
+        return indexes;
+    }
+
 }
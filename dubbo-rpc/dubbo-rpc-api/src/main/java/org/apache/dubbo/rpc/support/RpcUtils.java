@@ -120,7 +120,7 @@ public class RpcUtils {
     }
 
     private static boolean isAttachInvocationId(URL url, Invocation invocation) {
-        String value = url.getMethodParameter(invocation.getMethodName(), Constants.AUTO_ATTACH_INVOCATIONID_KEY);
+        String value = url.getMethodParameters(invocation.getMethodName()).getParameter(Constants.AUTO_ATTACH_INVOCATIONID_KEY);
         if (value == null) {
             // add invocationid in async operation by default
             return isAsync(url, invocation);
@@ -174,7 +174,7 @@ public class RpcUtils {
         if (Boolean.TRUE.toString().equals(inv.getAttachment(Constants.ASYNC_KEY))) {
             isAsync = true;
         } else {
-            isAsync = url.getMethodParameter(getMethodName(inv), Constants.ASYNC_KEY, false);
+            isAsync = url.getMethodParameters(getMethodName(inv)).isAsync();
         }
         return isAsync;
     }
@@ -201,7 +201,7 @@ public class RpcUtils {
         if (Boolean.FALSE.toString().equals(inv.getAttachment(Constants.RETURN_KEY))) {
             isOneway = true;
         } else {
-            isOneway = !url.getMethodParameter(getMethodName(inv), Constants.RETURN_KEY, true);
+            isOneway = url.getMethodParameters(getMethodName(inv)).isOneway();
         }
         return isOneway;
     }
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc;
+
+import org.apache.dubbo.common.URL;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+public class RpcStatusTest {
+
+    @Test
+    public void testCount() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/RpcStatusTest.testCount");
+        RpcStatus.beginCount(url, "echo");
+        RpcStatus.beginCount(url, "hello");
+        Assert.assertEquals(1, RpcStatus.getStatus(url, "echo").getActive());
+        Assert.assertEquals(2, RpcStatus.getStatus(url).getActive());
+
+        RpcStatus.endCount(url, "echo", 10, true);
+        RpcStatus.endCount(url, "hello", 30, false);
+        RpcStatus echo = RpcStatus.getStatus(url, "echo");
+        Assert.assertEquals(0, echo.getActive());
+        Assert.assertEquals(1, echo.getTotal());
+        Assert.assertEquals(0, echo.getFailed());
+        Assert.assertEquals(10, echo.getMaxElapsed());
+        Assert.assertEquals(10, echo.getSucceededMaxElapsed());
+        RpcStatus service = RpcStatus.getStatus(url);
+        Assert.assertEquals(0, service.getActive());
+        Assert.assertEquals(2, service.getTotal());
+        Assert.assertEquals(1, service.getFailed());
+        Assert.assertEquals(40, service.getTotalElapsed());
+        Assert.assertEquals(30, service.getMaxElapsed());
+        Assert.assertEquals(30, service.getFailedMaxElapsed());
+        Assert.assertEquals(10, service.getSucceededMaxElapsed());
+    }
+
+    @Test
+    public void testConcurrentCount() throws Exception {
+        final URL url = URL.valueOf("dubbo://127.0.0.1:20880/RpcStatusTest.testConcurrentCount");
+        final RpcStatus status = RpcStatus.getStatus(url, "echo");
+        int threads = 8;
+        final int runs = 10000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            final int elapsed = t;
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < runs; i++) {
+                        RpcStatus.beginCount(status);
+                        RpcStatus.endCount(status, elapsed, true);
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        Assert.assertEquals(0, status.getActive());
+        Assert.assertEquals(threads * runs, status.getTotal());
+        Assert.assertEquals(threads * runs, RpcStatus.getStatus(url).getTotal());
+        Assert.assertEquals(threads - 1, status.getMaxElapsed());
+    }
+
+}
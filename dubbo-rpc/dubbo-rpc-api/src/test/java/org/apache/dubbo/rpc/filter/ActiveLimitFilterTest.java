@@ -17,19 +17,33 @@
 package org.apache.dubbo.rpc.filter;
 
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.utils.NamedThreadFactory;
+import org.apache.dubbo.rpc.ActiveLimiter;
+import org.apache.dubbo.rpc.AsyncRpcResult;
 import org.apache.dubbo.rpc.Filter;
 import org.apache.dubbo.rpc.Invocation;
 import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
 import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcStatus;
 import org.apache.dubbo.rpc.support.BlockMyInvoker;
 import org.apache.dubbo.rpc.support.MockInvocation;
 import org.apache.dubbo.rpc.support.MyInvoker;
 
 import org.junit.Test;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * ActiveLimitFilterTest.java
@@ -90,4 +104,87 @@ public class ActiveLimitFilterTest {
         }
         assertNotSame(0, count);
     }
+
+    @Test
+    public void testPermittedInvocationLeavesReleasingThread() throws Exception {
+        URL url = URL.valueOf("test://test:11/asyncPermitted?async=true&actives=1&timeout=60000");
+        final CompletableFuture<Object> first = new CompletableFuture<Object>();
+        final AtomicReference<Thread> invokingThread = new AtomicReference<Thread>();
+        final CountDownLatch invoked = new CountDownLatch(2);
+        Invoker<ActiveLimitFilterTest> invoker = new MyInvoker<ActiveLimitFilterTest>(url) {
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                invokingThread.set(Thread.currentThread());
+                invoked.countDown();
+                return new AsyncRpcResult(invoked.getCount() == 1 ? first : CompletableFuture.completedFuture("alibaba"));
+            }
+        };
+        activeLimitFilter.invoke(invoker, new MockInvocation());
+        Result parked = activeLimitFilter.invoke(invoker, new MockInvocation());
+        assertEquals(1, invoked.getCount());
+
+        // the response of the first call releases its permit, as an IO thread would
+        Thread releasing = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                first.complete("alibaba");
+            }
+        }, "ActiveLimitReleaser");
+        releasing.start();
+        assertTrue(invoked.await(10, TimeUnit.SECONDS));
+        assertEquals("alibaba", ((AsyncRpcResult) parked).getValueFuture().get(10, TimeUnit.SECONDS));
+        assertFalse(invokingThread.get() == releasing);
+        assertTrue(invokingThread.get().getName(), invokingThread.get().getName().startsWith("DubboActiveLimitPermitted"));
+    }
+
+    @Test
+    public void testInvokeAsyncGreaterActives() throws Exception {
+        final int calls = 10000;
+        final int actives = 50;
+        URL url = URL.valueOf("test://test:11/asyncActives?async=true&actives=" + actives + "&timeout=60000");
+        final AtomicInteger concurrent = new AtomicInteger();
+        final AtomicInteger maxConcurrent = new AtomicInteger();
+        final ScheduledExecutorService responder = Executors.newScheduledThreadPool(2, new NamedThreadFactory("ActiveLimitResponder", true));
+        Invoker<ActiveLimitFilterTest> invoker = new MyInvoker<ActiveLimitFilterTest>(url) {
+            @Override
+            public Result invoke(Invocation invocation) throws RpcException {
+                int current = concurrent.incrementAndGet();
+                maxConcurrent.accumulateAndGet(current, Math::max);
+                final CompletableFuture<Object> future = new CompletableFuture<Object>();
+                responder.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        concurrent.decrementAndGet();
+                        future.complete("alibaba");
+                    }
+                }, 1, TimeUnit.MILLISECONDS);
+                return new AsyncRpcResult(future);
+            }
+        };
+        try {
+            int threads = Thread.activeCount();
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[calls];
+            for (int i = 0; i < calls; i++) {
+                Result result = activeLimitFilter.invoke(invoker, new MockInvocation());
+                futures[i] = ((AsyncRpcResult) result).getValueFuture();
+            }
+            // no thread is parked per waiting invocation
+            assertTrue(Thread.activeCount() - threads < actives);
+
+            CompletableFuture.allOf(futures).get(60, TimeUnit.SECONDS);
+            for (CompletableFuture<?> future : futures) {
+                assertEquals("alibaba", future.get());
+            }
+            assertTrue(maxConcurrent.get() <= actives);
+
+            RpcStatus status = RpcStatus.getStatus(url, new MockInvocation().getMethodName());
+            ActiveLimiter limiter = status.getActiveLimiter(actives);
+            assertEquals(0, status.getActive());
+            assertEquals(actives, limiter.getAvailablePermits());
+            assertEquals(0, limiter.getWaiting());
+            assertTrue(limiter.getWaited() > 0);
+        } finally {
+            responder.shutdownNow();
+        }
+    }
 }
\ No newline at end of file
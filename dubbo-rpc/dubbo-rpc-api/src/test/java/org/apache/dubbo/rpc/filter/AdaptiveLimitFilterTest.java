@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.filter.limit.AdaptiveLimiter;
+import org.apache.dubbo.rpc.filter.limit.GradientLimit;
+import org.apache.dubbo.rpc.filter.limit.VegasLimit;
+import org.apache.dubbo.rpc.support.MockInvocation;
+import org.apache.dubbo.rpc.support.MyInvoker;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AdaptiveLimitFilterTest {
+
+    private final AdaptiveLimitFilter adaptiveLimitFilter = new AdaptiveLimitFilter();
+
+    @Test
+    public void testInvoke() {
+        URL url = URL.valueOf("test://test:11/test?adaptive.limit=true");
+        Invoker<AdaptiveLimitFilterTest> invoker = new MyInvoker<AdaptiveLimitFilterTest>(url);
+        Invocation invocation = new MockInvocation();
+        assertEquals("alibaba", adaptiveLimitFilter.invoke(invoker, invocation).getValue());
+
+        AdaptiveLimiter limiter = adaptiveLimitFilter.getLimiter(url, invocation.getMethodName());
+        assertEquals(GradientLimit.NAME, limiter.getName());
+        assertEquals(Constants.DEFAULT_ADAPTIVE_LIMIT_INITIAL, limiter.getLimit());
+        assertEquals(0, limiter.getInflight());
+    }
+
+    @Test
+    public void testRejectOverLimit() {
+        URL url = URL.valueOf("test://test:11/test?adaptive.limit=true&adaptive.limit.initial=1");
+        Invoker<AdaptiveLimitFilterTest> invoker = new MyInvoker<AdaptiveLimitFilterTest>(url);
+        Invocation invocation = new MockInvocation();
+        AdaptiveLimiter limiter = adaptiveLimitFilter.getLimiter(url, invocation.getMethodName());
+        assertTrue(limiter.tryAcquire());
+        try {
+            adaptiveLimitFilter.invoke(invoker, invocation);
+            fail();
+        } catch (RpcException expected) {
+            assertTrue(expected.isLimitExceed());
+        }
+        assertEquals(1, limiter.getRejected());
+        assertEquals(1, limiter.getInflight());
+    }
+
+    @Test
+    public void testChangeAlgorithm() {
+        URL url = URL.valueOf("test://test:11/test?adaptive.limit=gradient");
+        AdaptiveLimiter gradient = adaptiveLimitFilter.getLimiter(url, "echo");
+        assertSame(gradient, adaptiveLimitFilter.getLimiter(url, "echo"));
+
+        AdaptiveLimiter vegas = adaptiveLimitFilter.getLimiter(url.addParameter(Constants.ADAPTIVE_LIMIT_KEY, VegasLimit.NAME), "echo");
+        assertNotSame(gradient, vegas);
+        assertEquals(VegasLimit.NAME, vegas.getName());
+    }
+}
@@ -26,7 +26,9 @@ import org.apache.dubbo.rpc.support.MyInvoker;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class TpsLimitFilterTest {
 
@@ -61,4 +63,23 @@ public class TpsLimitFilterTest {
         }
     }
 
+    @Test
+    public void testTokenBucket() throws Exception {
+        URL url = URL.valueOf("test://test");
+        url = url.addParameter(Constants.INTERFACE_KEY,
+                "org.apache.dubbo.rpc.file.TpsService");
+        url = url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 5);
+        url = url.addParameter(Constants.TPS_LIMITER_KEY, "tokenbucket");
+        Invoker<TpsLimitFilterTest> invoker = new MyInvoker<TpsLimitFilterTest>(url);
+        Invocation invocation = new MockInvocation();
+        // 5 calls per minute are let through one by one
+        filter.invoke(invoker, invocation);
+        try {
+            filter.invoke(invoker, invocation);
+            fail();
+        } catch (RpcException expected) {
+        }
+        assertEquals(1L, (long) filter.getTokenBucketRejections().get("org.apache.dubbo.rpc.file.TpsService"));
+    }
+
 }
@@ -0,0 +1,211 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.limit;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class AdaptiveLimiterTest {
+
+    @Test
+    public void testRejectOverLimit() {
+        AdaptiveLimiter limiter = AdaptiveLimiter.create(GradientLimit.NAME, 2, 1, 10);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(1, limiter.getRejected());
+        limiter.release(TimeUnit.MILLISECONDS.toNanos(1), false);
+        assertEquals(1, limiter.getInflight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void testGradientLimit() {
+        GradientLimit limit = new GradientLimit(20, 1, 100);
+        // at the min rtt with the limit used up the limit grows
+        for (int i = 0; i < 3; i++) {
+            limit.update(10, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() > 20);
+        // rtt well over tolerance makes it shrink
+        int grown = limit.getLimit();
+        for (int i = 0; i < 3; i++) {
+            limit.update(40, limit.getLimit(), false);
+        }
+        assertTrue(limit.getLimit() < grown);
+        // nor does it grow while the limit is not reached
+        int shrunk = limit.getLimit();
+        limit.update(10, 1, false);
+        assertEquals(shrunk, limit.getLimit());
+    }
+
+    @Test
+    public void testVegasLimit() {
+        VegasLimit limit = new VegasLimit(20, 1, 100);
+        limit.update(10, 20, false);
+        assertTrue(limit.getLimit() > 20);
+        int grown = limit.getLimit();
+        limit.update(20, grown, false);
+        assertTrue(limit.getLimit() < grown);
+        int shrunk = limit.getLimit();
+        limit.update(10, shrunk, true);
+        assertTrue(limit.getLimit() < shrunk);
+    }
+
+    /**
+     * Simulates a provider with 8 cores serving calls of 10ms, i.e. 800 calls per second, offered twice that by
+     * consumers giving up after 50ms. With a static limit set for a bigger box every call waits for too long and
+     * goodput collapses, while the adaptive limits keep the queue short and serve at about capacity.
+     */
+    @Test
+    public void testGoodputUnderOverload() {
+        double capacity = Simulation.CORES / Simulation.WORK * 1000;
+
+        double staticGoodput = new Simulation(new StaticLimit(200)).run(2 * capacity);
+        double gradientGoodput = new Simulation(adaptive(GradientLimit.NAME)).run(2 * capacity);
+        double vegasGoodput = new Simulation(adaptive(VegasLimit.NAME)).run(2 * capacity);
+        System.out.println("capacity " + (int) capacity + "/s, offered " + (int) (2 * capacity) + "/s, goodput: static "
+                + (int) staticGoodput + "/s, gradient " + (int) gradientGoodput + "/s, vegas " + (int) vegasGoodput + "/s");
+
+        assertTrue(staticGoodput < 0.1 * capacity);
+        assertTrue(gradientGoodput > 0.8 * capacity);
+        assertTrue(vegasGoodput > 0.8 * capacity);
+    }
+
+    @Test
+    public void testNoRejectionUnderCapacity() {
+        double offered = Simulation.CORES / Simulation.WORK * 1000 / 2;
+        assertTrue(new Simulation(adaptive(GradientLimit.NAME)).run(offered) > 0.95 * offered);
+        assertTrue(new Simulation(adaptive(VegasLimit.NAME)).run(offered) > 0.95 * offered);
+    }
+
+    private static Admission adaptive(String name) {
+        final AdaptiveLimiter limiter = AdaptiveLimiter.create(name, 20, 1, 1000);
+        return new Admission() {
+            @Override
+            public boolean tryAcquire() {
+                return limiter.tryAcquire();
+            }
+
+            @Override
+            public void release(long rtt) {
+                limiter.release(rtt, false);
+            }
+        };
+    }
+
+    interface Admission {
+
+        boolean tryAcquire();
+
+        void release(long rtt);
+
+    }
+
+    static class StaticLimit implements Admission {
+
+        private final int max;
+
+        private int inflight;
+
+        StaticLimit(int max) {
+            this.max = max;
+        }
+
+        @Override
+        public boolean tryAcquire() {
+            if (inflight >= max) {
+                return false;
+            }
+            inflight++;
+            return true;
+        }
+
+        @Override
+        public void release(long rtt) {
+            inflight--;
+        }
+    }
+
+    /**
+     * Discrete time simulation of a processor sharing provider, so the results do not depend on the machine running
+     * the test. Times are in milliseconds.
+     */
+    static class Simulation {
+
+        static final double CORES = 8;
+
+        static final double WORK = 10;
+
+        static final double DEADLINE = 50;
+
+        static final double TICK = 0.1;
+
+        static final double WARMUP = 5000;
+
+        static final double DURATION = 25000;
+
+        private final Admission admission;
+
+        Simulation(Admission admission) {
+            this.admission = admission;
+        }
+
+        /**
+         * @param offered calls per second
+         * @return calls per second completed within the deadline after warm up
+         */
+        double run(double offered) {
+            double interval = 1000 / offered;
+            List<double[]> calls = new ArrayList<double[]>();
+            double nextArrival = 0;
+            long good = 0;
+            for (long tick = 0; tick * TICK < DURATION; tick++) {
+                double now = tick * TICK;
+                while (nextArrival <= now) {
+                    if (admission.tryAcquire()) {
+                        calls.add(new double[]{nextArrival, WORK});
+                    }
+                    nextArrival += interval;
+                }
+                double progress = TICK * Math.min(1, CORES / Math.max(1, calls.size()));
+                for (int i = calls.size() - 1; i >= 0; i--) {
+                    double[] call = calls.get(i);
+                    call[1] -= progress;
+                    if (call[1] <= 0) {
+                        double rtt = now + TICK - call[0];
+                        admission.release(TimeUnit.MICROSECONDS.toNanos((long) (rtt * 1000)));
+                        if (rtt <= DEADLINE && now >= WARMUP) {
+                            good++;
+                        }
+                        calls.set(i, calls.get(calls.size() - 1));
+                        calls.remove(calls.size() - 1);
+                    }
+                }
+            }
+            return good * 1000 / (DURATION - WARMUP);
+        }
+    }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * PerformanceTPSLimiterTest, measures the cost of a limited call from concurrent callers, and the calls let through
+ * against the configured tps, for the default and the token bucket limiter. The token bucket starts full, so it lets
+ * one more second of tps through in the first second by default.
+ * <p>
+ * Run with -Dtps=200000 -Dclients=8 -Dseconds=3
+ */
+public class PerformanceTPSLimiterTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceTPSLimiterTest.class);
+
+    @Test
+    public void testLimiter() throws Exception {
+        String tps = System.getProperty("tps");
+        if (tps == null) {
+            logger.warn("Please set -Dtps=200000");
+            return;
+        }
+        int rate = Integer.parseInt(tps);
+        int clients = Integer.getInteger("clients", 8);
+        int seconds = Integer.getInteger("seconds", 3);
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService?interface=DemoService")
+                .addParameter(Constants.TPS_LIMIT_RATE_KEY, rate)
+                .addParameter(Constants.TPS_LIMIT_INTERVAL_KEY, 1000);
+        for (int round = 0; round < 2; round++) {
+            test(new DefaultTPSLimiter(), url, rate, clients, seconds);
+            test(new TokenBucketTPSLimiter(), url, rate, clients, seconds);
+        }
+    }
+
+    private void test(final TPSLimiter limiter, final URL url, int rate, int clients, int seconds) throws Exception {
+        final RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello"});
+        final long deadline = System.nanoTime() + seconds * 1000000000L;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong allowed = new AtomicLong();
+        final CountDownLatch latch = new CountDownLatch(clients);
+        for (int i = 0; i < clients; i++) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long c = 0;
+                    long a = 0;
+                    while ((c & 0xff) != 0 || System.nanoTime() < deadline) {
+                        c++;
+                        if (limiter.isAllowable(url, invocation)) {
+                            a++;
+                        }
+                    }
+                    calls.addAndGet(c);
+                    allowed.addAndGet(a);
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        System.out.println("=====================================================================");
+        System.out.println(limiter.getClass().getSimpleName() + ", clients: " + clients + ", " + seconds * 1000000000L * clients / calls.get()
+                + " ns/op, allowed: " + allowed.get() + " in " + seconds + "s at tps " + rate);
+        System.out.println("=====================================================================");
+    }
+}
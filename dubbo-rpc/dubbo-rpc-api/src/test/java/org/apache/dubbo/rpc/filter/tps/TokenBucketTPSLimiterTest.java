@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.tps;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketTPSLimiterTest {
+
+    private final TokenBucketTPSLimiter limiter = new TokenBucketTPSLimiter();
+
+    private final URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService?interface=DemoService");
+
+    @Test
+    public void testBurstAndRefill() throws Exception {
+        URL url = this.url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 10)
+                .addParameter(Constants.TPS_LIMIT_INTERVAL_KEY, 1000)
+                .addParameter(Constants.TPS_LIMIT_BURST_KEY, 3);
+        RpcInvocation invocation = invocation("echo", null);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.isAllowable(url, invocation));
+        }
+        assertFalse(limiter.isAllowable(url, invocation));
+        assertEquals(1L, (long) limiter.getRejections().get("DemoService"));
+
+        // one token every 100ms
+        Thread.sleep(150);
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+    }
+
+    @Test
+    public void testDefaultBurst() {
+        // 10ms of the rate, at least one: 100 per minute lets 1 call through at once, 1000 per second 10
+        RpcInvocation invocation = invocation("echo", null);
+        URL url = this.url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 100);
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+
+        url = this.url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 1000)
+                .addParameter(Constants.TPS_LIMIT_INTERVAL_KEY, 1000);
+        int allowed = 0;
+        for (int i = 0; i < 100; i++) {
+            if (limiter.isAllowable(url, invocation)) {
+                allowed++;
+            }
+        }
+        // plus the tokens refilled meanwhile, one per millisecond
+        assertTrue("allowed " + allowed, allowed >= 10 && allowed < 20);
+    }
+
+    @Test
+    public void testMethodScope() {
+        URL url = this.url.addParameter(Constants.TPS_LIMIT_SCOPE_KEY, "method")
+                .addParameter(Constants.TPS_LIMIT_RATE_KEY, 1)
+                .addParameter("echo." + Constants.TPS_LIMIT_RATE_KEY, 2)
+                .addParameter("echo." + Constants.TPS_LIMIT_BURST_KEY, 2);
+        assertTrue(limiter.isAllowable(url, invocation("echo", null)));
+        assertTrue(limiter.isAllowable(url, invocation("echo", null)));
+        assertFalse(limiter.isAllowable(url, invocation("echo", null)));
+        assertTrue(limiter.isAllowable(url, invocation("sayHello", null)));
+        assertFalse(limiter.isAllowable(url, invocation("sayHello", null)));
+
+        Map<String, Long> rejections = limiter.getRejections();
+        assertEquals(1L, (long) rejections.get("DemoService#echo"));
+        assertEquals(1L, (long) rejections.get("DemoService#sayHello"));
+    }
+
+    @Test
+    public void testApplicationScope() {
+        URL url = this.url.addParameter(Constants.TPS_LIMIT_SCOPE_KEY, "application")
+                .addParameter(Constants.TPS_LIMIT_RATE_KEY, 1);
+        assertTrue(limiter.isAllowable(url, invocation("echo", "app1")));
+        assertFalse(limiter.isAllowable(url, invocation("sayHello", "app1")));
+        assertTrue(limiter.isAllowable(url, invocation("echo", "app2")));
+        assertTrue(limiter.isAllowable(url, invocation("echo", null)));
+        assertFalse(limiter.isAllowable(url, invocation("echo", null)));
+        assertEquals(1L, (long) limiter.getRejections().get("DemoService#app1"));
+        assertEquals(1L, (long) limiter.getRejections().get("DemoService"));
+    }
+
+    @Test
+    public void testApplicationBucketsBounded() throws Exception {
+        // one call per minute keeps every bucket busy, so new applications share the bucket without one
+        URL url = this.url.addParameter(Constants.TPS_LIMIT_SCOPE_KEY, "application")
+                .addParameter(Constants.TPS_LIMIT_RATE_KEY, 1);
+        for (int i = 0; i < TokenBucketTPSLimiter.MAX_BUCKETS; i++) {
+            assertTrue(limiter.isAllowable(url, invocation("echo", "app" + i)));
+        }
+        assertTrue(limiter.isAllowable(url, invocation("echo", "other1")));
+        assertFalse(limiter.isAllowable(url, invocation("echo", "other2")));
+        assertFalse(limiter.isAllowable(url, invocation("echo", null)));
+        assertEquals(TokenBucketTPSLimiter.MAX_BUCKETS + 1, limiter.getRejections().size());
+        assertEquals(2L, (long) limiter.getRejections().get("DemoService"));
+
+        // a thousand calls a second refill in a millisecond, then the idle buckets make room
+        url = this.url.addParameter(Constants.TPS_LIMIT_SCOPE_KEY, "application")
+                .addParameter(Constants.TPS_LIMIT_RATE_KEY, 1000)
+                .addParameter(Constants.TPS_LIMIT_INTERVAL_KEY, 1000);
+        URL service = url.setPath("OtherService").removeParameter(Constants.INTERFACE_KEY);
+        for (int i = 0; i < TokenBucketTPSLimiter.MAX_BUCKETS; i++) {
+            assertTrue(limiter.isAllowable(service, invocation("echo", "app" + i)));
+        }
+        Thread.sleep(10);
+        assertTrue(limiter.isAllowable(service, invocation("echo", "other")));
+        Map<String, Long> rejections = limiter.getRejections();
+        assertEquals(0L, (long) rejections.get("OtherService#other"));
+        assertFalse(rejections.containsKey("OtherService#app0"));
+    }
+
+    @Test
+    public void testInvalidInterval() {
+        // falls back to the default interval of a minute
+        URL url = this.url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 1)
+                .addParameter(Constants.TPS_LIMIT_INTERVAL_KEY, 0);
+        assertTrue(limiter.isAllowable(url, invocation("echo", null)));
+        assertFalse(limiter.isAllowable(url, invocation("echo", null)));
+    }
+
+    @Test
+    public void testLimitChanged() {
+        RpcInvocation invocation = invocation("echo", null);
+        URL url = this.url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 1);
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+
+        assertTrue(limiter.isAllowable(this.url, invocation));
+        assertTrue(limiter.getRejections().isEmpty());
+
+        url = this.url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 2)
+                .addParameter(Constants.TPS_LIMIT_BURST_KEY, 2);
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertTrue(limiter.isAllowable(url, invocation));
+        assertFalse(limiter.isAllowable(url, invocation));
+    }
+
+    @Test
+    public void testLimitsReadOncePerUrl() {
+        URL url = Mockito.spy(this.url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 1000)
+                .addParameter(Constants.TPS_LIMIT_INTERVAL_KEY, 1000));
+        for (int i = 0; i < 10; i++) {
+            limiter.isAllowable(url, invocation("echo", null));
+        }
+        Mockito.verify(url, Mockito.times(1)).getParameter(Constants.TPS_LIMIT_RATE_KEY, -1);
+
+        // an equal url keeps the limits, another one reads its own
+        limiter.isAllowable(URL.valueOf(url.toFullString()), invocation("echo", null));
+        Mockito.verify(url, Mockito.times(1)).getParameter(Constants.TPS_LIMIT_RATE_KEY, -1);
+        URL changed = url.addParameter(Constants.TPS_LIMIT_RATE_KEY, 1);
+        assertTrue(limiter.isAllowable(changed, invocation("echo", null)));
+        assertFalse(limiter.isAllowable(changed, invocation("echo", null)));
+    }
+
+    private static RpcInvocation invocation(String method, String application) {
+        RpcInvocation invocation = new RpcInvocation(method, new Class<?>[]{String.class}, new Object[]{"hello"});
+        if (application != null) {
+            invocation.setAttachment(Constants.APPLICATION_KEY, application);
+        }
+        return invocation;
+    }
+
+}
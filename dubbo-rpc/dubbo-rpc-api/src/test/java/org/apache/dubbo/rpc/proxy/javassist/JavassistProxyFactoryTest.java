@@ -16,7 +16,16 @@
  */
 package org.apache.dubbo.rpc.proxy.javassist;
 
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.bytecode.NoSuchMethodException;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
 import org.apache.dubbo.rpc.proxy.AbstractProxyTest;
+import org.apache.dubbo.rpc.proxy.DemoService;
+import org.apache.dubbo.rpc.proxy.DemoServiceImpl;
+import org.junit.Assert;
+import org.junit.Test;
 
 public class JavassistProxyFactoryTest extends AbstractProxyTest {
 
@@ -24,4 +33,25 @@ public class JavassistProxyFactoryTest extends AbstractProxyTest {
         factory = new JavassistProxyFactory();
     }
 
+    @Test
+    public void testInvokeByCachedIndex() throws Exception {
+        URL url = URL.valueOf("test://test:11/test?group=dubbo&version=1.1");
+        Invoker<DemoService> invoker = factory.getInvoker(new DemoServiceImpl(), DemoService.class, url);
+
+        Assert.assertEquals(4, invoker.invoke(new RpcInvocation("stringLength", new Class[]{String.class},
+                new Object[]{"abcd"})).getValue());
+        // overloaded, resolved with the parameter types
+        Assert.assertEquals(2, invoker.invoke(new RpcInvocation("getSize", new Class[]{Object[].class},
+                new Object[]{new Object[]{1, 2}})).getValue());
+
+        try {
+            invoker.invoke(new RpcInvocation("stringLength", new Class[]{String.class, String.class},
+                    new Object[]{"a", "b"}));
+            Assert.fail();
+        } catch (RpcException expected) {
+            Assert.assertTrue(expected.getCause() instanceof NoSuchMethodException);
+            Assert.assertTrue(expected.getMessage(), expected.getMessage().contains("\"stringLength\""));
+        }
+    }
+
 }
@@ -76,6 +76,20 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
                 request.setData(e);
             } finally {
                 hasDecoded = true;
+                release();
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        InputStream is = inputStream;
+        if (is != null) {
+            inputStream = null;
+            try {
+                is.close();
+            } catch (IOException e) {
+                log.warn("Close input stream failed: " + e.getMessage(), e);
             }
         }
     }
@@ -91,22 +105,34 @@ public class DecodeableRpcInvocation extends RpcInvocation implements Codec, Dec
                 .deserialize(channel.getUrl(), input);
 
         String dubboVersion = in.readUTF();
+        InvocationDictionary.Descriptor descriptor = null;
+        if (InvocationDictionary.COMPACT_REQUEST.equals(dubboVersion)) {
+            descriptor = InvocationDictionary.readDescriptor(channel, in);
+            dubboVersion = descriptor.getDubboVersion();
+        }
         request.setVersion(dubboVersion);
         setAttachment(Constants.DUBBO_VERSION_KEY, dubboVersion);
 
-        setAttachment(Constants.PATH_KEY, in.readUTF());
-        setAttachment(Constants.VERSION_KEY, in.readUTF());
+        if (descriptor == null) {
+            setAttachment(Constants.PATH_KEY, in.readUTF());
+            setAttachment(Constants.VERSION_KEY, in.readUTF());
 
-        setMethodName(in.readUTF());
+            setMethodName(in.readUTF());
+        } else {
+            setAttachment(Constants.PATH_KEY, descriptor.getPath());
+            setAttachment(Constants.VERSION_KEY, descriptor.getVersion());
+
+            setMethodName(descriptor.getMethodName());
+        }
         try {
             Object[] args;
             Class<?>[] pts;
-            String desc = in.readUTF();
+            String desc = descriptor == null ? in.readUTF() : descriptor.getDesc();
             if (desc.length() == 0) {
                 pts = DubboCodec.EMPTY_CLASS_ARRAY;
                 args = DubboCodec.EMPTY_OBJECT_ARRAY;
             } else {
-                pts = ReflectUtils.desc2classArray(desc);
+                pts = descriptor == null ? ReflectUtils.desc2classArray(desc) : descriptor.getParameterTypes();
                 args = new Object[pts.length];
                 for (int i = 0; i < args.length; i++) {
                     try {
@@ -16,6 +16,7 @@
  */
 package org.apache.dubbo.rpc.protocol.dubbo;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
 import org.apache.dubbo.common.serialize.Cleanable;
@@ -130,6 +131,7 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
             default:
                 throw new IOException("Unknown result flag, expect '0' '1' '2', get " + flag);
         }
+        InvocationDictionary.received(channel, invocation, getAttachment(Constants.DUBBO_VERSION_KEY));
         if (in instanceof Cleanable) {
             ((Cleanable) in).cleanup();
         }
@@ -149,6 +151,20 @@ public class DecodeableRpcResult extends RpcResult implements Codec, Decodeable
                 response.setErrorMessage(StringUtils.toString(e));
             } finally {
                 hasDecoded = true;
+                release();
+            }
+        }
+    }
+
+    @Override
+    public void release() {
+        InputStream is = inputStream;
+        if (is != null) {
+            inputStream = null;
+            try {
+                is.close();
+            } catch (IOException e) {
+                log.warn("Close input stream failed: " + e.getMessage(), e);
             }
         }
     }
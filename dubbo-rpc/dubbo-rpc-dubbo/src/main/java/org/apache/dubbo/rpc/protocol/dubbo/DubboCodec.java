@@ -30,6 +30,8 @@ import org.apache.dubbo.common.utils.ReflectUtils;
 import org.apache.dubbo.common.utils.StringUtils;
 import org.apache.dubbo.remoting.Channel;
 import org.apache.dubbo.remoting.Codec2;
+import org.apache.dubbo.remoting.buffer.ChannelBufferInputStream;
+import org.apache.dubbo.remoting.buffer.ReferenceCountedChannelBuffer;
 import org.apache.dubbo.remoting.exchange.Request;
 import org.apache.dubbo.remoting.exchange.Response;
 import org.apache.dubbo.remoting.exchange.codec.ExchangeCodec;
@@ -41,6 +43,7 @@ import org.apache.dubbo.rpc.support.RpcUtils;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 
 import static org.apache.dubbo.rpc.protocol.dubbo.CallbackServiceCodec.encodeInvocationArgument;
 
@@ -89,12 +92,12 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
                                 Constants.DECODE_IN_IO_THREAD_KEY,
                                 Constants.DEFAULT_DECODE_IN_IO_THREAD)) {
                             result = new DecodeableRpcResult(channel, res, is,
-                                    (Invocation) getRequestData(id), proto);
+                                    (Invocation) getRequestData(channel, id), proto);
                             result.decode();
                         } else {
                             result = new DecodeableRpcResult(channel, res,
-                                    new UnsafeByteArrayInputStream(readMessageData(is)),
-                                    (Invocation) getRequestData(id), proto);
+                                    detachMessageData(channel, is),
+                                    (Invocation) getRequestData(channel, id), proto);
                         }
                         data = result;
                     }
@@ -133,7 +136,7 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
                         inv.decode();
                     } else {
                         inv = new DecodeableRpcInvocation(channel, req,
-                                new UnsafeByteArrayInputStream(readMessageData(is)), proto);
+                                detachMessageData(channel, is), proto);
                     }
                     data = inv;
                 }
@@ -155,6 +158,23 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
         return serialization.deserialize(url, is);
     }
 
+    /**
+     * Detach the message body from the IO thread's buffer, so it can be decoded on a business thread.
+     * Large bodies are handed over as a retained slice of the transport buffer, which is released
+     * once the message is decoded, smaller ones are copied.
+     */
+    private InputStream detachMessageData(Channel channel, InputStream is) throws IOException {
+        int threshold = channel.getUrl().getParameter(Constants.DECODE_ZERO_COPY_THRESHOLD_KEY,
+                Constants.DEFAULT_DECODE_ZERO_COPY_THRESHOLD);
+        if (threshold > 0 && is instanceof ChannelBufferInputStream && is.available() >= threshold) {
+            ReferenceCountedChannelBuffer slice = ((ChannelBufferInputStream) is).readRetainedSlice();
+            if (slice != null) {
+                return new ChannelBufferInputStream(slice, slice.readableBytes(), true);
+            }
+        }
+        return new UnsafeByteArrayInputStream(readMessageData(is));
+    }
+
     private byte[] readMessageData(InputStream is) throws IOException {
         if (is.available() > 0) {
             byte[] result = new byte[is.available()];
@@ -178,18 +198,27 @@ public class DubboCodec extends ExchangeCodec implements Codec2 {
     protected void encodeRequestData(Channel channel, ObjectOutput out, Object data, String version) throws IOException {
         RpcInvocation inv = (RpcInvocation) data;
 
-        out.writeUTF(version);
-        out.writeUTF(inv.getAttachment(Constants.PATH_KEY));
-        out.writeUTF(inv.getAttachment(Constants.VERSION_KEY));
+        boolean compact = InvocationDictionary.writeDescriptor(channel, out, inv, version);
+        if (!compact) {
+            out.writeUTF(version);
+            out.writeUTF(inv.getAttachment(Constants.PATH_KEY));
+            out.writeUTF(inv.getAttachment(Constants.VERSION_KEY));
 
-        out.writeUTF(inv.getMethodName());
-        out.writeUTF(ReflectUtils.getDesc(inv.getParameterTypes()));
+            out.writeUTF(inv.getMethodName());
+            out.writeUTF(ReflectUtils.getDesc(inv.getParameterTypes()));
+        }
         Object[] args = inv.getArguments();
         if (args != null)
             for (int i = 0; i < args.length; i++) {
                 out.writeObject(encodeInvocationArgument(channel, inv, i));
             }
-        out.writeObject(RpcUtils.getNecessaryAttachments(inv));
+        Map<String, String> attachments = RpcUtils.getNecessaryAttachments(inv);
+        if (compact) {
+            // the descriptor has them already
+            attachments.remove(Constants.PATH_KEY);
+            attachments.remove(Constants.VERSION_KEY);
+        }
+        out.writeObject(attachments);
     }
 
     @Override
@@ -17,7 +17,9 @@
 package org.apache.dubbo.rpc.protocol.dubbo;
 
 import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.MethodParameters;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
 import org.apache.dubbo.common.utils.AtomicPositiveInteger;
 import org.apache.dubbo.common.utils.ConfigUtils;
 import org.apache.dubbo.remoting.RemotingException;
@@ -83,9 +85,10 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
             boolean isAsync = RpcUtils.isAsync(getUrl(), invocation);
             boolean isAsyncFuture = RpcUtils.isGeneratedFuture(inv) || RpcUtils.isFutureReturnType(inv);
             boolean isOneway = RpcUtils.isOneway(getUrl(), invocation);
-            int timeout = getUrl().getMethodParameter(methodName, Constants.TIMEOUT_KEY, Constants.DEFAULT_TIMEOUT);
+            MethodParameters parameters = getUrl().getMethodParameters(methodName);
+            int timeout = parameters.getTimeout(Constants.DEFAULT_TIMEOUT);
             if (isOneway) {
-                boolean isSent = getUrl().getMethodParameter(methodName, Constants.SENT_KEY, false);
+                boolean isSent = parameters.isSent();
                 currentClient.send(inv, isSent);
                 RpcContext.getContext().setFuture(null);
                 return new RpcResult();
@@ -105,6 +108,10 @@ public class DubboInvoker<T> extends AbstractInvoker<T> {
                 return result;
             } else {
                 RpcContext.getContext().setFuture(null);
+                if (parameters.getParameter(Constants.THREADLESS_KEY, false)) {
+                    // the response is decoded and handled here, rather than in the client thread pool
+                    return (Result) currentClient.request(inv, timeout, new ThreadlessExecutor()).get();
+                }
                 return (Result) currentClient.request(inv, timeout).get();
             }
         } catch (TimeoutException e) {
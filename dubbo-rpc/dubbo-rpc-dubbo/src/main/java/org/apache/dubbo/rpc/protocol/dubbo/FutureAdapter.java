@@ -42,11 +42,12 @@ public class FutureAdapter<V> extends CompletableFuture<V> {
             public void done(Object response) {
                 Result result = (Result) response;
                 FutureAdapter.this.resultFuture.complete(result);
-                V value = null;
+                V value;
                 try {
                     value = (V) result.recreate();
                 } catch (Throwable t) {
                     FutureAdapter.this.completeExceptionally(t);
+                    return;
                 }
                 FutureAdapter.this.complete(value);
             }
@@ -0,0 +1,338 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.Version;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.utils.ReflectUtils;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.RpcInvocation;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The invocation descriptors, i.e. dubbo version, service path, service version, method name and parameter types,
+ * sent on a connection, so that a request can refer to a descriptor sent before by id instead of carrying it again.
+ * <p>
+ * A compact request starts with {@link #COMPACT_REQUEST} instead of the dubbo version, followed by the id. A negative
+ * id defines the descriptor that follows, a positive one refers to it. The consumer assigns the ids and only sends
+ * compact requests after a response on the connection has shown that the provider supports them, see
+ * {@link Version#isSupportInvocationInterning(String)}. It keeps sending the definition until the response to one of
+ * those requests is received: the provider registers the id while decoding the request, so any request sent later
+ * finds it, even if it is decoded on another thread.
+ */
+final class InvocationDictionary {
+
+    /**
+     * Stands in for the dubbo version in a compact request, it can never be a version.
+     */
+    static final String COMPACT_REQUEST = "#";
+
+    /**
+     * The most descriptors interned per connection and direction, later ones are always sent in full.
+     */
+    static final int MAX_SIZE = 4096;
+
+    /**
+     * The most definitions awaiting their response. Requests that time out never get one, so the
+     * pending definitions are dropped when full, they are just sent again.
+     */
+    private static final int MAX_PENDING = 1024;
+
+    private static final String ATTRIBUTE_KEY = InvocationDictionary.class.getName();
+
+    // the requests sent
+    private volatile boolean negotiated;
+    private final AtomicInteger lastId = new AtomicInteger();
+    private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+    private final ConcurrentMap<Invocation, Entry> pending = new ConcurrentHashMap<Invocation, Entry>();
+
+    // the requests received
+    private final ConcurrentMap<Integer, Descriptor> descriptors = new ConcurrentHashMap<Integer, Descriptor>();
+
+    private InvocationDictionary() {
+    }
+
+    /**
+     * Writes the descriptor of the invocation in the compact form.
+     *
+     * @return false if the request has to be written in full
+     */
+    static boolean writeDescriptor(Channel channel, ObjectOutput out, RpcInvocation inv, String version) throws IOException {
+        InvocationDictionary dictionary = (InvocationDictionary) channel.getAttribute(ATTRIBUTE_KEY);
+        if (dictionary == null || !dictionary.negotiated) {
+            return false;
+        }
+        return dictionary.write(out, inv, version);
+    }
+
+    /**
+     * Reads the descriptor of a compact request, the marker has been read already.
+     */
+    static Descriptor readDescriptor(Channel channel, ObjectInput in) throws IOException {
+        int id = in.readInt();
+        InvocationDictionary dictionary = getOrCreate(channel);
+        if (id < 0) {
+            id = -id;
+            if (id > MAX_SIZE) {
+                throw new IOException("Invalid invocation descriptor id " + id + ", the max is " + MAX_SIZE);
+            }
+            Descriptor descriptor = new Descriptor(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF());
+            Descriptor existing = dictionary.descriptors.putIfAbsent(id, descriptor);
+            if (existing == null) {
+                return descriptor;
+            }
+            if (existing.equals(descriptor)) {
+                // keep the resolved parameter types
+                return existing;
+            }
+            dictionary.descriptors.put(id, descriptor);
+            return descriptor;
+        }
+        Descriptor descriptor = dictionary.descriptors.get(id);
+        if (descriptor == null) {
+            throw new IOException("Unknown invocation descriptor id " + id + " on channel " + channel);
+        }
+        return descriptor;
+    }
+
+    /**
+     * Called with each decoded response: starts interning once the provider supports it, and acknowledges the
+     * definition sent with the invocation.
+     *
+     * @param version the dubbo version of the provider, from the response attachments
+     */
+    static void received(Channel channel, Invocation invocation, String version) {
+        InvocationDictionary dictionary = (InvocationDictionary) channel.getAttribute(ATTRIBUTE_KEY);
+        if (dictionary == null || !dictionary.negotiated) {
+            if (Version.isSupportInvocationInterning(version)
+                    && channel.getUrl().getParameter(Constants.INVOCATION_INTERNING_KEY, Constants.DEFAULT_INVOCATION_INTERNING)) {
+                getOrCreate(channel).negotiated = true;
+            }
+            return;
+        }
+        if (invocation != null && !dictionary.pending.isEmpty()) {
+            Entry entry = dictionary.pending.remove(invocation);
+            if (entry != null) {
+                entry.acknowledged = true;
+            }
+        }
+    }
+
+    private static InvocationDictionary getOrCreate(Channel channel) {
+        InvocationDictionary dictionary = (InvocationDictionary) channel.getAttribute(ATTRIBUTE_KEY);
+        if (dictionary == null) {
+            synchronized (channel) {
+                dictionary = (InvocationDictionary) channel.getAttribute(ATTRIBUTE_KEY);
+                if (dictionary == null) {
+                    dictionary = new InvocationDictionary();
+                    channel.setAttribute(ATTRIBUTE_KEY, dictionary);
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    private boolean write(ObjectOutput out, RpcInvocation inv, String version) throws IOException {
+        String path = inv.getAttachment(Constants.PATH_KEY);
+        String serviceVersion = inv.getAttachment(Constants.VERSION_KEY);
+        Key key = new Key(version, path, serviceVersion, inv.getMethodName(), inv.getParameterTypes());
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            if (lastId.get() >= MAX_SIZE) {
+                return false;
+            }
+            int id = lastId.incrementAndGet();
+            if (id > MAX_SIZE) {
+                return false;
+            }
+            Entry created = new Entry(id, ReflectUtils.getDesc(inv.getParameterTypes()));
+            entry = entries.putIfAbsent(key, created);
+            if (entry == null) {
+                entry = created;
+            }
+        }
+
+        out.writeUTF(COMPACT_REQUEST);
+        if (entry.acknowledged) {
+            out.writeInt(entry.id);
+            return true;
+        }
+        out.writeInt(-entry.id);
+        out.writeUTF(version);
+        out.writeUTF(path);
+        out.writeUTF(serviceVersion);
+        out.writeUTF(inv.getMethodName());
+        out.writeUTF(entry.desc);
+        if (pending.size() >= MAX_PENDING) {
+            pending.clear();
+        }
+        pending.put(inv, entry);
+        return true;
+    }
+
+    static final class Descriptor {
+
+        private final String dubboVersion;
+
+        private final String path;
+
+        private final String version;
+
+        private final String methodName;
+
+        private final String desc;
+
+        private volatile Class<?>[] parameterTypes;
+
+        Descriptor(String dubboVersion, String path, String version, String methodName, String desc) {
+            this.dubboVersion = dubboVersion;
+            this.path = path;
+            this.version = version;
+            this.methodName = methodName;
+            this.desc = desc;
+        }
+
+        String getDubboVersion() {
+            return dubboVersion;
+        }
+
+        String getPath() {
+            return path;
+        }
+
+        String getVersion() {
+            return version;
+        }
+
+        String getMethodName() {
+            return methodName;
+        }
+
+        String getDesc() {
+            return desc;
+        }
+
+        /**
+         * The parameter types are resolved once per connection rather than once per request.
+         */
+        Class<?>[] getParameterTypes() throws ClassNotFoundException {
+            Class<?>[] types = parameterTypes;
+            if (types == null) {
+                types = ReflectUtils.desc2classArray(desc);
+                parameterTypes = types;
+            }
+            return types;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Descriptor)) {
+                return false;
+            }
+            Descriptor that = (Descriptor) o;
+            return Objects.equals(dubboVersion, that.dubboVersion)
+                    && Objects.equals(path, that.path)
+                    && Objects.equals(version, that.version)
+                    && Objects.equals(methodName, that.methodName)
+                    && Objects.equals(desc, that.desc);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(dubboVersion, path, version, methodName, desc);
+        }
+    }
+
+    private static final class Entry {
+
+        private final int id;
+
+        private final String desc;
+
+        private volatile boolean acknowledged;
+
+        Entry(int id, String desc) {
+            this.id = id;
+            this.desc = desc;
+        }
+    }
+
+    /**
+     * Looks up the entry by parameter types rather than by their descriptor, which would have to be built first.
+     */
+    private static final class Key {
+
+        private final String dubboVersion;
+
+        private final String path;
+
+        private final String version;
+
+        private final String methodName;
+
+        private final Class<?>[] parameterTypes;
+
+        private final int hash;
+
+        Key(String dubboVersion, String path, String version, String methodName, Class<?>[] parameterTypes) {
+            this.dubboVersion = dubboVersion;
+            this.path = path;
+            this.version = version;
+            this.methodName = methodName;
+            this.parameterTypes = parameterTypes;
+            int h = Objects.hashCode(path);
+            h = 31 * h + Objects.hashCode(version);
+            h = 31 * h + Objects.hashCode(methodName);
+            h = 31 * h + Arrays.hashCode(parameterTypes);
+            this.hash = h;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key that = (Key) o;
+            return hash == that.hash
+                    && Objects.equals(methodName, that.methodName)
+                    && Objects.equals(path, that.path)
+                    && Objects.equals(version, that.version)
+                    && Objects.equals(dubboVersion, that.dubboVersion)
+                    && Arrays.equals(parameterTypes, that.parameterTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -21,6 +21,7 @@ import org.apache.dubbo.common.Parameters;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.logger.Logger;
 import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
 import org.apache.dubbo.common.utils.NetUtils;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.RemotingException;
@@ -105,6 +106,13 @@ final class LazyConnectExchangeClient implements ExchangeClient {
         return client.request(request, timeout);
     }
 
+    @Override
+    public ResponseFuture request(Object request, int timeout, ThreadlessExecutor executor) throws RemotingException {
+        warning(request);
+        initClient();
+        return client.request(request, timeout, executor);
+    }
+
     /**
      * If {@link #REQUEST_WITH_WARNING_KEY} is configured, then warn once every 5000 invocations.
      *
@@ -19,6 +19,7 @@ package org.apache.dubbo.rpc.protocol.dubbo;
 import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.Parameters;
 import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.threadpool.ThreadlessExecutor;
 import org.apache.dubbo.remoting.ChannelHandler;
 import org.apache.dubbo.remoting.RemotingException;
 import org.apache.dubbo.remoting.exchange.ExchangeClient;
@@ -83,6 +84,11 @@ final class ReferenceCountExchangeClient implements ExchangeClient {
         return client.request(request, timeout);
     }
 
+    @Override
+    public ResponseFuture request(Object request, int timeout, ThreadlessExecutor executor) throws RemotingException {
+        return client.request(request, timeout, executor);
+    }
+
     @Override
     public boolean isConnected() {
         return client.isConnected();
@@ -56,6 +56,61 @@ public class DubboProtocolTest {
         assertEquals(service.getSize(new String[]{"", "", ""}), 3);
     }
 
+    @Test
+    public void testDubboProtocolThreadless() throws Exception {
+        DemoService service = new DemoServiceImpl();
+        protocol.export(proxy.getInvoker(service, DemoService.class, URL.valueOf("dubbo://127.0.0.1:9010/" + DemoService.class.getName())));
+        // the response is decoded and handled by the calling thread
+        service = proxy.getProxy(protocol.refer(DemoService.class, URL.valueOf("dubbo://127.0.0.1:9010/" + DemoService.class.getName()
+                + "?" + Constants.THREADLESS_KEY + "=true&" + Constants.DECODE_IN_IO_THREAD_KEY + "=false")));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(service.getSize(new String[]{"", "", ""}), 3);
+            assertEquals(service.echo("threadless"), "threadless");
+        }
+        try {
+            service.nonSerializedParameter(new NonSerialized());
+            Assert.fail();
+        } catch (RpcException e) {
+            Assert.assertTrue(e.getMessage().contains("org.apache.dubbo.rpc.protocol.dubbo.support.NonSerialized must implement java.io.Serializable"));
+        }
+    }
+
+    @Test
+    public void testDubboProtocolHessian2Recycle() throws Exception {
+        DemoService service = new DemoServiceImpl();
+        String parameters = "?" + Constants.HESSIAN2_RECYCLE_KEY + "=true&" + Constants.DECODE_IN_IO_THREAD_KEY + "=false";
+        protocol.export(proxy.getInvoker(service, DemoService.class, URL.valueOf("dubbo://127.0.0.1:9010/" + DemoService.class.getName() + parameters)));
+        service = proxy.getProxy(protocol.refer(DemoService.class, URL.valueOf("dubbo://127.0.0.1:9010/" + DemoService.class.getName() + parameters)));
+        for (int i = 0; i < 10; i++) {
+            assertEquals(service.getSize(new String[]{"", "", ""}), 3);
+            assertEquals(service.enumlength(new Type[]{Type.High, Type.Lower}), Type.High);
+            try {
+                service.nonSerializedParameter(new NonSerialized());
+                Assert.fail();
+            } catch (RpcException e) {
+                Assert.assertTrue(e.getMessage().contains("org.apache.dubbo.rpc.protocol.dubbo.support.NonSerialized must implement java.io.Serializable"));
+            }
+            assertEquals(service.echo("recycle"), "recycle");
+        }
+    }
+
+    @Test
+    public void testDubboProtocolInvocationInterning() throws Exception {
+        DemoService service = new DemoServiceImpl();
+        protocol.export(proxy.getInvoker(service, DemoService.class, URL.valueOf("dubbo://127.0.0.1:9010/" + DemoService.class.getName()
+                + "?" + Constants.DECODE_IN_IO_THREAD_KEY + "=false")));
+        service = proxy.getProxy(protocol.refer(DemoService.class, URL.valueOf("dubbo://127.0.0.1:9010/" + DemoService.class.getName()
+                + "?" + Constants.DECODE_IN_IO_THREAD_KEY + "=false")));
+        // the first calls negotiate and define, the later ones are interned
+        for (int i = 0; i < 10; i++) {
+            assertEquals(service.getSize(new String[]{"", "", ""}), 3);
+            assertEquals(service.getSize(new Object[]{"", ""}), 2);
+            assertEquals(service.echo("interning"), "interning");
+            assertEquals(service.enumlength(new Type[]{Type.High, Type.Lower}), Type.High);
+            assertEquals(service.stringLength("interning"), 9);
+        }
+    }
+
     @Test
     public void testDubboProtocol() throws Exception {
         DemoService service = new DemoServiceImpl();
@@ -0,0 +1,230 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.Version;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.ProxyFactory;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+import org.apache.dubbo.rpc.support.ProtocolUtils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.net.InetSocketAddress;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+public class InvocationDictionaryTest {
+
+    private static final URL SERVICE_URL = URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName());
+
+    private final DubboCodec codec = new DubboCodec();
+
+    private Channel consumer;
+
+    private Channel provider;
+
+    private final Map<Request, Integer> sizes = new IdentityHashMap<Request, Integer>();
+
+    private int plainSize;
+
+    private DubboExporter<DemoService> exporter;
+
+    @Before
+    public void setUp() throws Exception {
+        // decoding the arguments looks up the service for callbacks
+        ProxyFactory proxy = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+        Map<String, Exporter<?>> exporterMap = DubboProtocol.getDubboProtocol().getExporterMap();
+        String key = ProtocolUtils.serviceKey(20880, DemoService.class.getName(), "1.0.0", null);
+        exporter = new DubboExporter<DemoService>(proxy.getInvoker(new DemoServiceImpl(), DemoService.class, SERVICE_URL), key, exporterMap);
+        exporterMap.put(key, exporter);
+        consumer = channel(SERVICE_URL);
+        provider = channel(SERVICE_URL);
+        plainSize = size(send(invocation("sayHello")));
+    }
+
+    @After
+    public void tearDown() {
+        exporter.unexport();
+    }
+
+    @Test
+    public void testNegotiated() throws Exception {
+        Request first = send(invocation("sayHello"));
+        reply(first);
+
+        // the definition carries the descriptor in full, like a plain request
+        RpcInvocation defining = invocation("sayHello");
+        Request definition = send(defining);
+        assertDecoded(defining, definition);
+        reply(definition);
+
+        RpcInvocation interned = invocation("sayHello");
+        Request compact = send(interned);
+        Assert.assertTrue(size(compact) + " < " + plainSize, size(compact) < plainSize / 2);
+        Assert.assertTrue(size(compact) < size(definition) / 2);
+        assertDecoded(interned, compact);
+        Assert.assertEquals(Version.getProtocolVersion(), decoded(compact).getAttachment(Constants.DUBBO_VERSION_KEY));
+        Assert.assertEquals(Version.getProtocolVersion(), compact.getVersion());
+
+        // another method gets its own id
+        RpcInvocation other = invocation("echo");
+        Request otherDefinition = send(other);
+        assertDecoded(other, otherDefinition);
+        reply(otherDefinition);
+        assertDecoded(invocation("echo"), send(invocation("echo")));
+        assertDecoded(invocation("sayHello"), send(invocation("sayHello")));
+    }
+
+    @Test
+    public void testOldProvider() throws Exception {
+        InvocationDictionary.received(consumer, null, "2.0.2");
+        Assert.assertEquals(plainSize, size(send(invocation("sayHello"))));
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        consumer = channel(SERVICE_URL.addParameter(Constants.INVOCATION_INTERNING_KEY, false));
+        reply(send(invocation("sayHello")));
+        reply(send(invocation("sayHello")));
+        Assert.assertEquals(plainSize, size(send(invocation("sayHello"))));
+    }
+
+    @Test
+    public void testAcknowledgedByDefinitionOnly() throws Exception {
+        InvocationDictionary.received(consumer, null, Version.getProtocolVersion());
+        RpcInvocation first = invocation("sayHello");
+        Request definition = send(first);
+        // a response to a request which did not carry the definition proves nothing
+        InvocationDictionary.received(consumer, invocation("sayHello"), Version.getProtocolVersion());
+        Assert.assertEquals(size(definition), size(send(invocation("sayHello"))));
+
+        InvocationDictionary.received(consumer, first, Version.getProtocolVersion());
+        Assert.assertTrue(size(send(invocation("sayHello"))) < plainSize / 2);
+    }
+
+    @Test
+    public void testUnknownId() throws Exception {
+        InvocationDictionary.received(consumer, null, Version.getProtocolVersion());
+        RpcInvocation first = invocation("sayHello");
+        send(first);
+        InvocationDictionary.received(consumer, first, Version.getProtocolVersion());
+
+        // a new provider channel has never seen the definition
+        provider = channel(SERVICE_URL);
+        Request compact = send(invocation("sayHello"));
+        Assert.assertTrue(compact.isBroken());
+    }
+
+    @Test
+    public void testParameterTypesResolvedOnce() throws Exception {
+        InvocationDictionary.received(consumer, null, Version.getProtocolVersion());
+        RpcInvocation first = invocation("sayHello");
+        Request definition = send(first);
+        InvocationDictionary.received(consumer, first, Version.getProtocolVersion());
+        Request compact = send(invocation("sayHello"));
+        Assert.assertSame(decoded(definition).getParameterTypes(), decoded(compact).getParameterTypes());
+    }
+
+    private static RpcInvocation invocation(String method) {
+        RpcInvocation invocation = new RpcInvocation(method, new Class<?>[]{String.class}, new Object[]{"world"});
+        invocation.setAttachment(Constants.PATH_KEY, DemoService.class.getName());
+        invocation.setAttachment(Constants.VERSION_KEY, "1.0.0");
+        return invocation;
+    }
+
+    private static void assertDecoded(RpcInvocation expected, Request request) {
+        Assert.assertFalse(request.isBroken());
+        RpcInvocation actual = decoded(request);
+        Assert.assertEquals(expected.getMethodName(), actual.getMethodName());
+        Assert.assertArrayEquals(expected.getParameterTypes(), actual.getParameterTypes());
+        Assert.assertArrayEquals(expected.getArguments(), actual.getArguments());
+        Assert.assertEquals(DemoService.class.getName(), actual.getAttachment(Constants.PATH_KEY));
+        Assert.assertEquals("1.0.0", actual.getAttachment(Constants.VERSION_KEY));
+    }
+
+    private static RpcInvocation decoded(Request request) {
+        return (RpcInvocation) request.getData();
+    }
+
+    private int size(Request request) {
+        return sizes.get(request);
+    }
+
+    /**
+     * Encodes the invocation on the consumer channel and decodes it on the provider channel.
+     */
+    private Request send(RpcInvocation invocation) throws Exception {
+        Request request = new Request();
+        request.setVersion(Version.getProtocolVersion());
+        request.setTwoWay(true);
+        request.setData(invocation);
+        new DefaultFuture(consumer, request, 60000);
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(consumer, buffer, request);
+        int size = buffer.readableBytes();
+        Request decoded = (Request) codec.decode(provider, buffer);
+        sizes.put(decoded, size);
+        return decoded;
+    }
+
+    /**
+     * Encodes a response to the request on the provider channel and decodes it on the consumer channel.
+     */
+    private void reply(Request request) throws Exception {
+        Response response = new Response(request.getId(), request.getVersion());
+        response.setResult(new RpcResult("hello"));
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(provider, buffer, response);
+        Response decoded = (Response) codec.decode(consumer, buffer);
+        Assert.assertEquals("hello", ((Result) decoded.getResult()).getValue());
+        DefaultFuture.received(consumer, decoded);
+    }
+
+    private static Channel channel(URL url) {
+        final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+        Channel channel = Mockito.mock(Channel.class);
+        Mockito.when(channel.getUrl()).thenReturn(url);
+        Mockito.when(channel.getLocalAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 20880));
+        Mockito.when(channel.getRemoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 40880));
+        Mockito.when(channel.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        Mockito.doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(channel).setAttribute(anyString(), any());
+        return channel;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.transport.netty4.NettyBackedChannelBuffer;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.ProxyFactory;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+import org.apache.dubbo.rpc.support.ProtocolUtils;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * PerformanceDecodeTest, measures the bytes allocated to decode a request off the IO thread,
+ * with and without handing the body over as a retained slice of the netty buffer.
+ * <p>
+ * Run with -Dpayloads=1024,65536,1048576 -Ddecodes=10000
+ */
+public class PerformanceDecodeTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceDecodeTest.class);
+
+    @Test
+    public void testDecodeAllocation() throws Exception {
+        String payloads = System.getProperty("payloads");
+        if (payloads == null) {
+            logger.warn("Please set -Dpayloads=1024,65536,1048576");
+            return;
+        }
+        int runs = Integer.getInteger("decodes", 10000);
+        // decoding the arguments looks up the service for callbacks
+        ProxyFactory proxy = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+        Map<String, Exporter<?>> exporterMap = DubboProtocol.getDubboProtocol().getExporterMap();
+        String key = ProtocolUtils.serviceKey(20880, DemoService.class.getName(), null, null);
+        DubboExporter<DemoService> exporter = new DubboExporter<DemoService>(
+                proxy.getInvoker(new DemoServiceImpl(), DemoService.class, url(0, 0)), key, exporterMap);
+        exporterMap.put(key, exporter);
+        try {
+            for (String payload : payloads.split(",")) {
+                int size = Integer.parseInt(payload.trim());
+                long copied = allocationPerDecode(size, 0, runs);
+                long sliced = allocationPerDecode(size, 1, runs);
+                long defaults = allocationPerDecode(size, Constants.DEFAULT_DECODE_ZERO_COPY_THRESHOLD, runs);
+                System.out.println("=====================================================================");
+                System.out.println("Payload: " + size + " bytes, decodes: " + runs);
+                System.out.println("Copy: " + copied + " bytes/op");
+                System.out.println("Retained slice: " + sliced + " bytes/op");
+                System.out.println("Default threshold: " + defaults + " bytes/op");
+                System.out.println("=====================================================================");
+            }
+        } finally {
+            exporter.unexport();
+        }
+    }
+
+    private static URL url(int size, int threshold) {
+        return URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName())
+                .addParameter(Constants.SERIALIZATION_KEY, "hessian2")
+                .addParameter(Constants.DECODE_IN_IO_THREAD_KEY, false)
+                .addParameter(Constants.DECODE_ZERO_COPY_THRESHOLD_KEY, threshold)
+                .addParameter(Constants.PAYLOAD_KEY, size * 2 + 1024);
+    }
+
+    private long allocationPerDecode(int size, int threshold, int runs) throws Exception {
+        URL url = url(size, threshold);
+        // stub only, so that the mock does not record every decode
+        Channel channel = Mockito.mock(Channel.class, Mockito.withSettings().stubOnly());
+        Mockito.when(channel.getUrl()).thenReturn(url);
+        Mockito.when(channel.getLocalAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 20880));
+        Mockito.when(channel.getRemoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 40880));
+        DubboCodec codec = new DubboCodec();
+
+        Request request = new Request();
+        char[] text = new char[size];
+        Arrays.fill(text, 'a');
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{new String(text)});
+        invocation.setAttachment(Constants.PATH_KEY, DemoService.class.getName());
+        request.setData(invocation);
+        ByteBuf encoded = PooledByteBufAllocator.DEFAULT.directBuffer();
+        codec.encode(channel, new NettyBackedChannelBuffer(encoded), request);
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocated = 0;
+        // the first half warms up
+        for (int i = 0; i < runs * 2; i++) {
+            if (i == runs) {
+                allocated = threadMXBean.getThreadAllocatedBytes(threadId);
+            }
+            NettyBackedChannelBuffer buffer = new NettyBackedChannelBuffer(encoded.retainedDuplicate());
+            Request decoded = (Request) codec.decode(channel, buffer);
+            buffer.release();
+            ((DecodeableRpcInvocation) decoded.getData()).decode();
+            if (decoded.isBroken()) {
+                throw new IllegalStateException("Failed to decode " + decoded.getData());
+            }
+        }
+        allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocated;
+        encoded.release();
+        return allocated / runs;
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.exchange.ExchangeClient;
+import org.apache.dubbo.remoting.exchange.ResponseCallback;
+import org.apache.dubbo.remoting.exchange.ResponseFuture;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Protocol;
+import org.apache.dubbo.rpc.RpcException;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcResult;
+import org.apache.dubbo.rpc.protocol.ProtocolFilterWrapper;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+/**
+ * PerformanceFilterChainTest, measures a synchronous call through the consumer filter chain and the
+ * DubboInvoker, on a client answering at once, so only the per call overhead of the consumer side is left.
+ * <p>
+ * Run with -Dcalls=5000000
+ */
+public class PerformanceFilterChainTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceFilterChainTest.class);
+
+    @Test
+    public void testConsumerFilterChain() throws Exception {
+        String calls = System.getProperty("calls");
+        if (calls == null) {
+            logger.warn("Please set -Dcalls=5000000");
+            return;
+        }
+        int callCount = Integer.parseInt(calls);
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName()
+                + "?interface=" + DemoService.class.getName() + "&methods=echo,sayHello,getThreadName"
+                + "&timeout=3000&echo.timeout=1000&echo.retries=0&actives=1000&weight=100&application=consumer");
+        Invoker<DemoService> invoker = new ProtocolFilterWrapper(new ImmediateProtocol()).refer(DemoService.class, url);
+        RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello"});
+
+        // warm up
+        call(invoker, invocation, callCount / 5);
+
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocated = threadMXBean.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        call(invoker, invocation, callCount);
+        long elapsed = System.nanoTime() - start;
+        allocated = threadMXBean.getThreadAllocatedBytes(thread) - allocated;
+        System.out.println("=====================================================================");
+        System.out.println("Consumer filter chain, calls: " + callCount + ", " + elapsed / callCount + " ns/op, "
+                + allocated / callCount + " bytes/op");
+        System.out.println("=====================================================================");
+    }
+
+    private static void call(Invoker<DemoService> invoker, RpcInvocation invocation, int calls) {
+        for (int i = 0; i < calls; i++) {
+            if (invoker.invoke(invocation).getValue() == null) {
+                fail();
+            }
+        }
+    }
+
+    private static class ImmediateProtocol implements Protocol {
+
+        @Override
+        public int getDefaultPort() {
+            return 20880;
+        }
+
+        @Override
+        public <T> Exporter<T> export(Invoker<T> invoker) throws RpcException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public <T> Invoker<T> refer(Class<T> type, URL url) throws RpcException {
+            ExchangeClient client = (ExchangeClient) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{ExchangeClient.class}, new InvocationHandler() {
+                        @Override
+                        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                            if ("request".equals(method.getName())) {
+                                return new ImmediateFuture(new RpcResult("hello"));
+                            }
+                            return method.getReturnType() == boolean.class ? Boolean.TRUE : null;
+                        }
+                    });
+            return new DubboInvoker<T>(type, url, new ExchangeClient[]{client});
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+
+    private static class ImmediateFuture implements ResponseFuture {
+
+        private final Object result;
+
+        ImmediateFuture(Object result) {
+            this.result = result;
+        }
+
+        @Override
+        public Object get() {
+            return result;
+        }
+
+        @Override
+        public Object get(int timeoutInMillis) {
+            return result;
+        }
+
+        @Override
+        public void setCallback(ResponseCallback callback) {
+            callback.done(result);
+        }
+
+        @Override
+        public boolean isDone() {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.Version;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.ProxyFactory;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+import org.apache.dubbo.rpc.support.ProtocolUtils;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+/**
+ * PerformanceInvocationInterningTest, encodes a small request the way the consumer does, with the full invocation
+ * descriptor and with an interned one, and reports the bytes per request and the cpu time the provider spends to
+ * decode it.
+ * <p>
+ * Run with -Drequests=200000
+ */
+public class PerformanceInvocationInterningTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceInvocationInterningTest.class);
+
+    private static final URL SERVICE_URL = URL.valueOf("dubbo://127.0.0.1:20880/" + DemoService.class.getName() + "?version=1.0.0");
+
+    private final DubboCodec codec = new DubboCodec();
+
+    @Test
+    public void testInterning() throws Exception {
+        String requests = System.getProperty("requests");
+        if (requests == null) {
+            logger.warn("Please set -Drequests=200000");
+            return;
+        }
+        int count = Integer.parseInt(requests);
+        // decoding the arguments looks up the service for callbacks
+        ProxyFactory proxy = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+        Map<String, Exporter<?>> exporterMap = DubboProtocol.getDubboProtocol().getExporterMap();
+        String key = ProtocolUtils.serviceKey(20880, DemoService.class.getName(), "1.0.0", null);
+        DubboExporter<DemoService> exporter = new DubboExporter<DemoService>(
+                proxy.getInvoker(new DemoServiceImpl(), DemoService.class, SERVICE_URL), key, exporterMap);
+        exporterMap.put(key, exporter);
+        try {
+            for (int round = 0; round < 2; round++) {
+                for (boolean interning : new boolean[]{false, true}) {
+                    test(interning, count);
+                }
+            }
+        } finally {
+            exporter.unexport();
+        }
+    }
+
+    private void test(boolean interning, int count) throws Exception {
+        Channel consumer = channel();
+        Channel provider = channel();
+        if (interning) {
+            InvocationDictionary.received(consumer, null, Version.getProtocolVersion());
+            RpcInvocation definition = invocation();
+            codec.decode(provider, encode(consumer, definition));
+            InvocationDictionary.received(consumer, definition, Version.getProtocolVersion());
+        }
+        ChannelBuffer encoded = encode(consumer, invocation());
+        byte[] bytes = new byte[encoded.readableBytes()];
+        encoded.readBytes(bytes);
+
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        long cpu = 0;
+        // the first half warms up
+        for (int i = 0; i < count * 2; i++) {
+            if (i == count) {
+                cpu = threadMXBean.getCurrentThreadCpuTime();
+            }
+            Request request = (Request) codec.decode(provider, ChannelBuffers.wrappedBuffer(bytes));
+            if (request.isBroken()) {
+                throw new IllegalStateException("Failed to decode " + request);
+            }
+        }
+        cpu = threadMXBean.getCurrentThreadCpuTime() - cpu;
+        System.out.println("=====" + (interning ? "interned" : "full") + " descriptor, bytes/request: " + bytes.length
+                + ", decode cpu/request: " + cpu / count + "ns");
+    }
+
+    private ChannelBuffer encode(Channel channel, RpcInvocation invocation) throws Exception {
+        Request request = new Request();
+        request.setVersion(Version.getProtocolVersion());
+        request.setData(invocation);
+        ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+        codec.encode(channel, buffer, request);
+        return buffer;
+    }
+
+    private static RpcInvocation invocation() {
+        RpcInvocation invocation = new RpcInvocation("sayHello", new Class<?>[]{String.class}, new Object[]{"world"});
+        invocation.setAttachment(Constants.PATH_KEY, DemoService.class.getName());
+        invocation.setAttachment(Constants.INTERFACE_KEY, DemoService.class.getName());
+        invocation.setAttachment(Constants.VERSION_KEY, "1.0.0");
+        return invocation;
+    }
+
+    private static Channel channel() {
+        final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+        // stub only, so that the mock does not record millions of invocations
+        Channel channel = Mockito.mock(Channel.class, Mockito.withSettings().stubOnly());
+        Mockito.when(channel.getUrl()).thenReturn(SERVICE_URL);
+        Mockito.when(channel.getLocalAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 20880));
+        Mockito.when(channel.getRemoteAddress()).thenReturn(new InetSocketAddress("127.0.0.1", 40880));
+        Mockito.when(channel.getAttribute(anyString())).thenAnswer(invocation -> attributes.get(invocation.<String>getArgument(0)));
+        Mockito.doAnswer(invocation -> attributes.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(channel).setAttribute(anyString(), any());
+        return channel;
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.protocol.dubbo;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.rpc.Exporter;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Protocol;
+import org.apache.dubbo.rpc.ProxyFactory;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoService;
+import org.apache.dubbo.rpc.protocol.dubbo.support.DemoServiceImpl;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PerformanceThreadlessTest, issues synchronous calls at a fixed rate, with the response handled by the client thread
+ * pool and by the caller itself (threadless), and reports the p50/p99 latency and the threads started besides the
+ * callers, i.e. by the client thread pool.
+ * <p>
+ * Run with -Drate=10000 -Dclients=32 -Dseconds=5
+ */
+public class PerformanceThreadlessTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceThreadlessTest.class);
+
+    @Test
+    public void testThreadless() throws Exception {
+        String rate = System.getProperty("rate");
+        if (rate == null) {
+            logger.warn("Please set -Drate=10000");
+            return;
+        }
+        int callsPerSecond = Integer.parseInt(rate);
+        int clients = Integer.getInteger("clients", 32);
+        int seconds = Integer.getInteger("seconds", 5);
+        Protocol protocol = ExtensionLoader.getExtensionLoader(Protocol.class).getAdaptiveExtension();
+        ProxyFactory proxy = ExtensionLoader.getExtensionLoader(ProxyFactory.class).getAdaptiveExtension();
+        URL url = URL.valueOf("dubbo://127.0.0.1:20891/" + DemoService.class.getName() + "?timeout=5000");
+        Exporter<DemoService> exporter = protocol.export(proxy.getInvoker(new DemoServiceImpl(), DemoService.class, url));
+        try {
+            for (int round = 0; round < 2; round++) {
+                for (boolean threadless : new boolean[]{false, true}) {
+                    Invoker<DemoService> invoker = protocol.refer(DemoService.class, url.addParameter(Constants.THREADLESS_KEY, threadless));
+                    try {
+                        test(proxy.getProxy(invoker), threadless, callsPerSecond, clients, seconds);
+                    } finally {
+                        invoker.destroy();
+                    }
+                }
+            }
+        } finally {
+            exporter.unexport();
+        }
+    }
+
+    private void test(final DemoService service, boolean threadless, int rate, final int clients, int seconds) throws Exception {
+        final int callsPerClient = rate / clients * seconds;
+        final long interval = TimeUnit.SECONDS.toNanos(1) * clients / rate;
+        final long[][] latencies = new long[clients][callsPerClient];
+        final CountDownLatch latch = new CountDownLatch(clients);
+        ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+        long started = threadMXBean.getTotalStartedThreadCount();
+        for (int i = 0; i < clients; i++) {
+            final long[] latency = latencies[i];
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    long next = System.nanoTime();
+                    for (int j = 0; j < callsPerClient; j++) {
+                        long wait = next - System.nanoTime();
+                        if (wait > 0) {
+                            try {
+                                TimeUnit.NANOSECONDS.sleep(wait);
+                            } catch (InterruptedException e) {
+                                return;
+                            }
+                        }
+                        // measured from the scheduled start, so a call delayed by the previous one counts its wait
+                        service.echo("hello");
+                        latency[j] = System.nanoTime() - next;
+                        next += interval;
+                    }
+                    latch.countDown();
+                }
+            }).start();
+        }
+        latch.await();
+        long[] all = new long[clients * callsPerClient];
+        for (int i = 0; i < clients; i++) {
+            System.arraycopy(latencies[i], 0, all, i * callsPerClient, callsPerClient);
+        }
+        Arrays.sort(all);
+        System.out.println("=====================================================================");
+        System.out.println((threadless ? "threadless" : "client pool") + ", " + rate + " calls/s, clients: " + clients
+                + ", p50: " + all[all.length / 2] / 1000 + "us, p99: " + all[all.length * 99 / 100] / 1000
+                + "us, threads started: " + (threadMXBean.getTotalStartedThreadCount() - started - clients)
+                + ", peak threads: " + threadMXBean.getPeakThreadCount());
+        System.out.println("=====================================================================");
+    }
+}
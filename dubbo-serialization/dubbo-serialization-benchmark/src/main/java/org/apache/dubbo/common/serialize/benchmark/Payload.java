@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.benchmark;
+
+import org.apache.dubbo.common.serialize.benchmark.model.Address;
+import org.apache.dubbo.common.serialize.benchmark.model.Phone;
+import org.apache.dubbo.common.serialize.benchmark.model.User;
+import org.apache.dubbo.common.serialize.benchmark.model.UserStatus;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The corpus of the benchmarks. Every payload is built from a fixed seed, so the encoded sizes are comparable
+ * between runs.
+ */
+public enum Payload {
+
+    /**
+     * a nested DTO, as the argument or the result of a typical call
+     */
+    USER(User.class, User.class) {
+        @Override
+        public Object create() {
+            return user(1);
+        }
+    },
+
+    /**
+     * a page of 100 DTOs
+     */
+    USER_LIST(ArrayList.class, Types.get("users")) {
+        @Override
+        public Object create() {
+            List<User> users = new ArrayList<User>();
+            for (int i = 0; i < 100; i++) {
+                users.add(user(i));
+            }
+            return users;
+        }
+    },
+
+    /**
+     * the attachments sent with every request
+     */
+    ATTACHMENTS(HashMap.class, Types.get("attachments")) {
+        @Override
+        public Object create() {
+            Map<String, String> attachments = new HashMap<String, String>();
+            attachments.put("path", "org.apache.dubbo.demo.DemoService");
+            attachments.put("interface", "org.apache.dubbo.demo.DemoService");
+            attachments.put("version", "1.0.0");
+            attachments.put("group", "benchmark");
+            attachments.put("timeout", "3000");
+            attachments.put("application", "demo-consumer");
+            attachments.put("traceId", "0a1b2c3d4e5f60718293a4b5c6d7e8f9");
+            attachments.put("spanId", "1.2.3");
+            return attachments;
+        }
+    },
+
+    /**
+     * a 64k characters string, mostly ascii with some CJK characters
+     */
+    LARGE_STRING(String.class, String.class) {
+        @Override
+        public Object create() {
+            Random random = new Random(SEED);
+            StringBuilder builder = new StringBuilder(64 * 1024);
+            while (builder.length() < 64 * 1024) {
+                if (random.nextInt(10) == 0) {
+                    builder.append((char) ('一' + random.nextInt(0x5000)));
+                } else {
+                    builder.append((char) (' ' + random.nextInt(95)));
+                }
+            }
+            return builder.toString();
+        }
+    },
+
+    /**
+     * 64k random bytes
+     */
+    BYTES(byte[].class, byte[].class) {
+        @Override
+        public Object create() {
+            byte[] bytes = new byte[64 * 1024];
+            new Random(SEED).nextBytes(bytes);
+            return bytes;
+        }
+    };
+
+    private static final long SEED = 20880;
+
+    private final Class<?> type;
+
+    private final Type genericType;
+
+    Payload(Class<?> type, Type genericType) {
+        this.type = type;
+        this.genericType = genericType;
+    }
+
+    public abstract Object create();
+
+    /**
+     * @return the type passed to {@link org.apache.dubbo.common.serialize.ObjectInput#readObject(Class, Type)}, as
+     * the declared type of an argument or a result
+     */
+    public Class<?> getType() {
+        return type;
+    }
+
+    public Type getGenericType() {
+        return genericType;
+    }
+
+    private static User user(int i) {
+        User user = new User();
+        user.setId(10000L + i);
+        user.setName("user-" + i);
+        user.setEmail("user-" + i + "@dubbo.apache.org");
+        user.setAge(20 + i % 50);
+        user.setMale(i % 2 == 0);
+        user.setBalance(1000.5 * i);
+        user.setCreated(new Date(1530000000000L + i * 1000L));
+        user.setStatus(UserStatus.values()[i % UserStatus.values().length]);
+        user.setAddress(new Address("CN", "Hangzhou", "Wensan Road " + i, "310000"));
+        List<Phone> phones = new ArrayList<Phone>();
+        phones.add(new Phone("86", "0571", "8765" + (4321 + i)));
+        phones.add(new Phone("86", "0571", "8765" + (5321 + i)));
+        user.setPhones(phones);
+        Map<String, String> properties = new HashMap<String, String>();
+        properties.put("level", String.valueOf(i % 5));
+        properties.put("source", "benchmark");
+        user.setProperties(properties);
+        return user;
+    }
+
+    /**
+     * holds the generic types of the payloads
+     */
+    private static class Types {
+
+        private List<User> users;
+
+        private Map<String, String> attachments;
+
+        private static Type get(String field) {
+            try {
+                return Types.class.getDeclaredField(field).getGenericType();
+            } catch (NoSuchFieldException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
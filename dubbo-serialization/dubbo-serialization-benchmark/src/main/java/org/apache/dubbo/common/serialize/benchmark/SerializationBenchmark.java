@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.benchmark;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.serialize.Cleanable;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBufferInputStream;
+import org.apache.dubbo.remoting.buffer.ChannelBufferOutputStream;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes and reads every {@link Payload} with every serialization, through the {@link ObjectOutput} and
+ * {@link ObjectInput} of a channel buffer as the dubbo codec does.
+ * <p>
+ * Build with <code>mvn package</code> in this module and run with <code>java -jar target/benchmarks.jar</code>. The
+ * usual JMH options apply, e.g. <code>-p serialization=hessian2,kryo -p payload=USER</code>. The encoded sizes are
+ * printed first, and the allocation per operation is reported as gc.alloc.rate.norm.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    private static final URL URL = org.apache.dubbo.common.URL.valueOf("dubbo://127.0.0.1:20880/DemoService");
+
+    @Param({"hessian2", "fastjson", "fst", "kryo", "java", "compactedjava", "protostuff"})
+    private String serialization;
+
+    @Param
+    private Payload payload;
+
+    private Serialization s;
+
+    private Object data;
+
+    private ChannelBuffer buffer;
+
+    private ChannelBuffer encoded;
+
+    @Setup
+    public void setup() throws IOException {
+        s = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(serialization);
+        data = payload.create();
+        buffer = ChannelBuffers.dynamicBuffer(1024);
+        encoded = ChannelBuffers.dynamicBuffer(1024);
+        write(s, data, encoded);
+    }
+
+    @Benchmark
+    public int serialize() throws IOException {
+        buffer.clear();
+        return write(s, data, buffer);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        encoded.readerIndex(0);
+        return read(s, payload, encoded);
+    }
+
+    /**
+     * As ExchangeCodec#encodeRequest, without the header.
+     *
+     * @return the encoded size
+     */
+    static int write(Serialization serialization, Object data, ChannelBuffer buffer) throws IOException {
+        ChannelBufferOutputStream bos = new ChannelBufferOutputStream(buffer);
+        ObjectOutput out = serialization.serialize(URL, bos);
+        out.writeObject(data);
+        out.flushBuffer();
+        if (out instanceof Cleanable) {
+            ((Cleanable) out).cleanup();
+        }
+        bos.flush();
+        bos.close();
+        return bos.writtenBytes();
+    }
+
+    /**
+     * As DecodeableRpcResult#decode reads a value of the declared return type.
+     */
+    static Object read(Serialization serialization, Payload payload, ChannelBuffer buffer)
+            throws IOException, ClassNotFoundException {
+        ObjectInput in = serialization.deserialize(URL, new ChannelBufferInputStream(buffer, buffer.readableBytes()));
+        Object data = in.readObject(payload.getType(), payload.getGenericType());
+        if (in instanceof Cleanable) {
+            ((Cleanable) in).cleanup();
+        }
+        return data;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] serializations = SerializationBenchmark.class.getDeclaredField("serialization").getAnnotation(Param.class).value();
+        System.out.printf("%-16s", "encoded bytes");
+        for (Payload payload : Payload.values()) {
+            System.out.printf("%14s", payload);
+        }
+        System.out.println();
+        for (String name : serializations) {
+            Serialization serialization = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(name);
+            System.out.printf("%-16s", name);
+            for (Payload payload : Payload.values()) {
+                System.out.printf("%14d", write(serialization, payload.create(), ChannelBuffers.dynamicBuffer(1024)));
+            }
+            System.out.println();
+        }
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(SerializationBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
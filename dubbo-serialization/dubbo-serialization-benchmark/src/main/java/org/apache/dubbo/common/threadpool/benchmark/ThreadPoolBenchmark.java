@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.threadpool.benchmark;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.threadpool.ThreadPool;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tasks per second a thread pool runs when the benchmark threads dispatch to it at once, as the io threads do
+ * through AllChannelHandler, for short handlers and for handlers blocking <code>blockMillis</code>. Each thread
+ * dispatches a batch of tasks and waits for them to be done. The queues are unbounded, so that the pools are
+ * measured queueing rather than rejecting.
+ * <p>
+ * Run with <code>java -cp target/benchmarks.jar org.apache.dubbo.common.threadpool.benchmark.ThreadPoolBenchmark</code>,
+ * <code>-t</code> sets the number of dispatching threads. The virtual pool falls back to fixed before java 21.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ThreadPoolBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"fixed", "workstealing", "virtual"})
+    private String pool;
+
+    @Param({"0", "1"})
+    private long blockMillis;
+
+    @Param({"200"})
+    private int workers;
+
+    private ExecutorService executor;
+
+    @Setup
+    public void setup() {
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService?" + Constants.THREADS_KEY + "=" + workers
+                + "&" + Constants.QUEUES_KEY + "=-1");
+        executor = (ExecutorService) ExtensionLoader.getExtensionLoader(ThreadPool.class).getExtension(pool).getExecutor(url);
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void dispatch() throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(BATCH);
+        Runnable task = new Runnable() {
+            @Override
+            public void run() {
+                if (blockMillis > 0) {
+                    try {
+                        Thread.sleep(blockMillis);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                done.countDown();
+            }
+        };
+        for (int i = 0; i < BATCH; i++) {
+            executor.execute(task);
+        }
+        done.await();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ThreadPoolBenchmark.class.getName())
+                .build()).run();
+    }
+}
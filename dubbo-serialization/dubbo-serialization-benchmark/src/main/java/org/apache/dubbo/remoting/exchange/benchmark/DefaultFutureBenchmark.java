@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.remoting.exchange.benchmark;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.remoting.Channel;
+import org.apache.dubbo.remoting.ChannelHandler;
+import org.apache.dubbo.remoting.exchange.Request;
+import org.apache.dubbo.remoting.exchange.Response;
+import org.apache.dubbo.remoting.exchange.support.DefaultFuture;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The life of a request on one connection shared by all the benchmark threads, as HeaderExchangeChannel.request and
+ * the response handler go through it: a new {@link DefaultFuture}, sent, then received. The future is found from the
+ * in-flight table of the channel. With <code>globalMap</code> each request is also booked in a process-wide map, as
+ * it was done before the channel owned its table.
+ * <p>
+ * Run with <code>java -cp target/benchmarks.jar org.apache.dubbo.remoting.exchange.benchmark.DefaultFutureBenchmark</code>,
+ * <code>-t</code> sets the number of callers sharing the connection.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class DefaultFutureBenchmark {
+
+    @Param({"false", "true"})
+    private boolean globalMap;
+
+    private final Channel channel = new BenchmarkChannel();
+
+    private final Map<Long, DefaultFuture> global = new ConcurrentHashMap<Long, DefaultFuture>();
+
+    @Benchmark
+    public DefaultFuture request() {
+        Request request = new Request();
+        DefaultFuture future = new DefaultFuture(channel, request, 60000);
+        if (globalMap) {
+            global.put(request.getId(), future);
+            global.get(request.getId());
+            global.remove(request.getId());
+        }
+        DefaultFuture.sent(channel, request);
+        DefaultFuture.received(channel, new Response(request.getId()));
+        return future;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(DefaultFutureBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * A connected channel that only keeps its attributes, the in-flight table is one of them.
+     */
+    private static class BenchmarkChannel implements Channel {
+
+        private static final URL URL = org.apache.dubbo.common.URL.valueOf("dubbo://127.0.0.1:20880/DemoService");
+
+        private final Map<String, Object> attributes = new ConcurrentHashMap<String, Object>();
+
+        @Override
+        public InetSocketAddress getRemoteAddress() {
+            return null;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return true;
+        }
+
+        @Override
+        public boolean hasAttribute(String key) {
+            return attributes.containsKey(key);
+        }
+
+        @Override
+        public Object getAttribute(String key) {
+            return attributes.get(key);
+        }
+
+        @Override
+        public void setAttribute(String key, Object value) {
+            attributes.put(key, value);
+        }
+
+        @Override
+        public void removeAttribute(String key) {
+            attributes.remove(key);
+        }
+
+        @Override
+        public URL getUrl() {
+            return URL;
+        }
+
+        @Override
+        public ChannelHandler getChannelHandler() {
+            return null;
+        }
+
+        @Override
+        public InetSocketAddress getLocalAddress() {
+            return null;
+        }
+
+        @Override
+        public void send(Object message) {
+        }
+
+        @Override
+        public void send(Object message, boolean sent) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public void close(int timeout) {
+        }
+
+        @Override
+        public void startClose() {
+        }
+
+        @Override
+        public boolean isClosed() {
+            return false;
+        }
+    }
+}
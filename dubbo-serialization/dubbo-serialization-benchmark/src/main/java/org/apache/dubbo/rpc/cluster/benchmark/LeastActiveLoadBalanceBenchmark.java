@@ -0,0 +1,140 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.cluster.benchmark;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.Invocation;
+import org.apache.dubbo.rpc.Invoker;
+import org.apache.dubbo.rpc.Result;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.RpcStatus;
+import org.apache.dubbo.rpc.cluster.LoadBalance;
+import org.apache.dubbo.rpc.cluster.loadbalance.LeastActiveLoadBalance;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The selection of the least active load balance, which reads the active count and the weight of every invoker,
+ * and the counting of the calls on one {@link RpcStatus}, as ActiveLimitFilter does around each call.
+ * <p>
+ * Run with <code>java -cp target/benchmarks.jar org.apache.dubbo.rpc.cluster.benchmark.LeastActiveLoadBalanceBenchmark</code>,
+ * <code>-t</code> sets the number of threads selecting and counting at once.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LeastActiveLoadBalanceBenchmark {
+
+    @Param({"10", "200"})
+    private int invokers;
+
+    private final LoadBalance loadBalance = new LeastActiveLoadBalance();
+
+    private final Invocation invocation = new RpcInvocation("echo", new Class<?>[0], new Object[0]);
+
+    private final URL countUrl = URL.valueOf("dubbo://10.0.0.1:20880/DemoService?application=demo&timeout=3000");
+
+    private List<Invoker<LeastActiveLoadBalanceBenchmark>> list;
+
+    private URL url;
+
+    @Setup
+    public void setup() {
+        list = new ArrayList<Invoker<LeastActiveLoadBalanceBenchmark>>();
+        for (int i = 0; i < invokers; i++) {
+            list.add(new BenchmarkInvoker(URL.valueOf("dubbo://10.0." + (i / 250) + "." + (i % 250)
+                    + ":20880/DemoService?application=demo&timeout=3000&loadbalance=leastactive")));
+        }
+        url = list.get(0).getUrl();
+    }
+
+    @Benchmark
+    public Invoker<LeastActiveLoadBalanceBenchmark> select() {
+        return loadBalance.select(list, url, invocation);
+    }
+
+    @Benchmark
+    public void count() {
+        RpcStatus.beginCount(countUrl, "echo");
+        RpcStatus.endCount(countUrl, "echo", 1, true);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(LeastActiveLoadBalanceBenchmark.class.getName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    /**
+     * An available invoker that is only selected, never invoked.
+     */
+    private static class BenchmarkInvoker implements Invoker<LeastActiveLoadBalanceBenchmark> {
+
+        private final URL url;
+
+        BenchmarkInvoker(URL url) {
+            this.url = url;
+        }
+
+        @Override
+        public Class<LeastActiveLoadBalanceBenchmark> getInterface() {
+            return LeastActiveLoadBalanceBenchmark.class;
+        }
+
+        @Override
+        public Result invoke(Invocation invocation) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public URL getUrl() {
+            return url;
+        }
+
+        @Override
+        public boolean isAvailable() {
+            return true;
+        }
+
+        @Override
+        public void destroy() {
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.rpc.filter.benchmark;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.rpc.RpcInvocation;
+import org.apache.dubbo.rpc.filter.tps.DefaultTPSLimiter;
+import org.apache.dubbo.rpc.filter.tps.TPSLimiter;
+import org.apache.dubbo.rpc.filter.tps.TokenBucketTPSLimiter;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a call through the default fixed window limiter and through the token bucket limiter, with the calls
+ * they let through. <code>allowed</code> is reported as a rate next to the calls, it should stay at
+ * <code>tps</code> however many calls are made.
+ * <p>
+ * Run with <code>java -cp target/benchmarks.jar org.apache.dubbo.rpc.filter.benchmark.TPSLimiterBenchmark</code>,
+ * <code>-t</code> sets the number of concurrent callers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TPSLimiterBenchmark {
+
+    @Param({"default", "tokenbucket"})
+    private String limiter;
+
+    @Param({"200000"})
+    private int tps;
+
+    private TPSLimiter tpsLimiter;
+
+    private URL url;
+
+    private final RpcInvocation invocation = new RpcInvocation("echo", new Class<?>[]{String.class}, new Object[]{"hello"});
+
+    @Setup
+    public void setup() {
+        tpsLimiter = "tokenbucket".equals(limiter) ? new TokenBucketTPSLimiter() : new DefaultTPSLimiter();
+        url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService?interface=DemoService")
+                .addParameter(Constants.TPS_LIMIT_RATE_KEY, tps)
+                .addParameter(Constants.TPS_LIMIT_INTERVAL_KEY, 1000);
+    }
+
+    @Benchmark
+    public boolean isAllowable(Calls calls) {
+        boolean allowable = tpsLimiter.isAllowable(url, invocation);
+        if (allowable) {
+            calls.allowed++;
+        }
+        return allowable;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(TPSLimiterBenchmark.class.getName())
+                .build()).run();
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Calls {
+
+        public long allowed;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            allowed = 0;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.benchmark;
+
+import org.apache.dubbo.common.extension.ExtensionLoader;
+import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.remoting.buffer.ChannelBuffer;
+import org.apache.dubbo.remoting.buffer.ChannelBuffers;
+
+import org.junit.Test;
+import org.openjdk.jmh.annotations.Param;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class PayloadTest {
+
+    /**
+     * Every serialization benchmarked has to read back what it wrote, or the benchmark measures a failure.
+     */
+    @Test
+    public void testRoundTrip() throws Exception {
+        String[] serializations = SerializationBenchmark.class.getDeclaredField("serialization").getAnnotation(Param.class).value();
+        for (String name : serializations) {
+            Serialization serialization = ExtensionLoader.getExtensionLoader(Serialization.class).getExtension(name);
+            for (Payload payload : Payload.values()) {
+                Object data = payload.create();
+                ChannelBuffer buffer = ChannelBuffers.dynamicBuffer(1024);
+                int size = SerializationBenchmark.write(serialization, data, buffer);
+                assertEquals(buffer.readableBytes(), size);
+
+                Object result = SerializationBenchmark.read(serialization, payload, buffer);
+                if (data instanceof byte[]) {
+                    assertArrayEquals(name, (byte[]) data, (byte[]) result);
+                } else {
+                    assertEquals(name + " " + payload, data, result);
+                }
+            }
+        }
+    }
+}
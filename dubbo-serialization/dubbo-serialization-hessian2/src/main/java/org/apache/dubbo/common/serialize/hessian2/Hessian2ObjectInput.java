@@ -17,6 +17,7 @@
 package org.apache.dubbo.common.serialize.hessian2;
 
 import com.alibaba.com.caucho.hessian.io.Hessian2Input;
+import org.apache.dubbo.common.serialize.Cleanable;
 import org.apache.dubbo.common.serialize.ObjectInput;
 
 import java.io.IOException;
@@ -26,12 +27,20 @@ import java.lang.reflect.Type;
 /**
  * Hessian2 Object input.
  */
-public class Hessian2ObjectInput implements ObjectInput {
-    private final Hessian2Input mH2i;
+public class Hessian2ObjectInput implements ObjectInput, Cleanable {
+    private final boolean recycle;
+    private Hessian2Input mH2i;
 
     public Hessian2ObjectInput(InputStream is) {
-        mH2i = new Hessian2Input(is);
-        mH2i.setSerializerFactory(Hessian2SerializerFactory.SERIALIZER_FACTORY);
+        this(is, false);
+    }
+
+    /**
+     * @param recycle borrow the Hessian2Input of the current thread and give it back on {@link #cleanup()}
+     */
+    public Hessian2ObjectInput(InputStream is, boolean recycle) {
+        this.recycle = recycle;
+        mH2i = recycle ? Hessian2Recycler.borrowInput(is) : Hessian2Recycler.newInput(is);
     }
 
     @Override
@@ -96,4 +105,12 @@ public class Hessian2ObjectInput implements ObjectInput {
         return readObject(cls);
     }
 
+    @Override
+    public void cleanup() {
+        if (recycle && mH2i != null) {
+            Hessian2Recycler.recycle(mH2i);
+            mH2i = null;
+        }
+    }
+
 }
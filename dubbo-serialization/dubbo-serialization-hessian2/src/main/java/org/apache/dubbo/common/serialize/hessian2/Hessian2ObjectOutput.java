@@ -17,6 +17,7 @@
 package org.apache.dubbo.common.serialize.hessian2;
 
 import com.alibaba.com.caucho.hessian.io.Hessian2Output;
+import org.apache.dubbo.common.serialize.Cleanable;
 import org.apache.dubbo.common.serialize.ObjectOutput;
 
 import java.io.IOException;
@@ -25,12 +26,20 @@ import java.io.OutputStream;
 /**
  * Hessian2 Object output.
  */
-public class Hessian2ObjectOutput implements ObjectOutput {
-    private final Hessian2Output mH2o;
+public class Hessian2ObjectOutput implements ObjectOutput, Cleanable {
+    private final boolean recycle;
+    private Hessian2Output mH2o;
 
     public Hessian2ObjectOutput(OutputStream os) {
-        mH2o = new Hessian2Output(os);
-        mH2o.setSerializerFactory(Hessian2SerializerFactory.SERIALIZER_FACTORY);
+        this(os, false);
+    }
+
+    /**
+     * @param recycle borrow the Hessian2Output of the current thread and give it back on {@link #cleanup()}
+     */
+    public Hessian2ObjectOutput(OutputStream os, boolean recycle) {
+        this.recycle = recycle;
+        mH2o = recycle ? Hessian2Recycler.borrowOutput(os) : Hessian2Recycler.newOutput(os);
     }
 
     @Override
@@ -92,4 +101,12 @@ public class Hessian2ObjectOutput implements ObjectOutput {
     public void flushBuffer() throws IOException {
         mH2o.flushBuffer();
     }
+
+    @Override
+    public void cleanup() {
+        if (recycle && mH2o != null) {
+            Hessian2Recycler.recycle(mH2o);
+            mH2o = null;
+        }
+    }
 }
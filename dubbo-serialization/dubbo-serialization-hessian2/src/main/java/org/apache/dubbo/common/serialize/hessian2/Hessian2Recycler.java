@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.hessian2;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+
+import com.alibaba.com.caucho.hessian.io.Hessian2Input;
+import com.alibaba.com.caucho.hessian.io.Hessian2Output;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+
+/**
+ * Keeps one idle {@link Hessian2Output} and one idle {@link Hessian2Input} per thread, so that a message can be
+ * encoded or decoded without allocating the 4k output buffer, the reference table and the input buffer again.
+ * <p>
+ * An instance is taken out of the thread's slot while it is in use and only put back by
+ * {@link #recycle(Hessian2Output)}/{@link #recycle(Hessian2Input)}, so it is never shared by two messages: a nested
+ * borrow or a message that is never cleaned up simply gets a new instance, and releasing on another thread (decoding
+ * in a business thread with <code>decode.in.io=false</code>) just hands the instance over to that thread.
+ * <p>
+ * hessian-lite has no public way to rebind or reset its streams, the state is reset through reflection. If the
+ * fields cannot be found recycling is disabled and every borrow returns a new instance.
+ */
+final class Hessian2Recycler {
+
+    private static final Logger logger = LoggerFactory.getLogger(Hessian2Recycler.class);
+
+    private static final ThreadLocal<Hessian2Output> IDLE_OUTPUT = new ThreadLocal<Hessian2Output>();
+
+    private static final ThreadLocal<Hessian2Input> IDLE_INPUT = new ThreadLocal<Hessian2Input>();
+
+    private static final Field OUTPUT_STREAM;
+    private static final Field OUTPUT_OFFSET;
+    private static final Field OUTPUT_STREAMING;
+    private static final Field OUTPUT_CLASS_REFS;
+    private static final Field OUTPUT_TYPE_REFS;
+
+    private static final Field INPUT_STREAM;
+    private static final Field INPUT_OFFSET;
+    private static final Field INPUT_LENGTH;
+    private static final Field INPUT_STREAMING;
+    private static final Field INPUT_METHOD;
+    private static final Field INPUT_ARG_LENGTH;
+    private static final Field INPUT_CHUNK_READER;
+    private static final Field INPUT_CHUNK_INPUT_STREAM;
+    private static final Field INPUT_REPLY_FAULT;
+    private static final Field INPUT_LAST_CHUNK;
+    private static final Field INPUT_CHUNK_LENGTH;
+    private static final Field INPUT_REFS;
+    private static final Field INPUT_CLASS_DEFS;
+    private static final Field INPUT_TYPES;
+    private static final Field INPUT_STRING_BUFFER;
+
+    private static final boolean SUPPORTED;
+
+    static {
+        Field[] fields = new Field[20];
+        boolean supported;
+        try {
+            fields[0] = field(Hessian2Output.class, "_os");
+            fields[1] = field(Hessian2Output.class, "_offset");
+            fields[2] = field(Hessian2Output.class, "_isStreaming");
+            fields[3] = field(Hessian2Output.class, "_classRefs");
+            fields[4] = field(Hessian2Output.class, "_typeRefs");
+            fields[5] = field(Hessian2Input.class, "_is");
+            fields[6] = field(Hessian2Input.class, "_offset");
+            fields[7] = field(Hessian2Input.class, "_length");
+            fields[8] = field(Hessian2Input.class, "_isStreaming");
+            fields[9] = field(Hessian2Input.class, "_method");
+            fields[10] = field(Hessian2Input.class, "_argLength");
+            fields[11] = field(Hessian2Input.class, "_chunkReader");
+            fields[12] = field(Hessian2Input.class, "_chunkInputStream");
+            fields[13] = field(Hessian2Input.class, "_replyFault");
+            fields[14] = field(Hessian2Input.class, "_isLastChunk");
+            fields[15] = field(Hessian2Input.class, "_chunkLength");
+            fields[16] = field(Hessian2Input.class, "_refs");
+            fields[17] = field(Hessian2Input.class, "_classDefs");
+            fields[18] = field(Hessian2Input.class, "_types");
+            fields[19] = field(Hessian2Input.class, "_sbuf");
+            supported = true;
+        } catch (Throwable t) {
+            logger.warn("Failed to access the internal state of hessian-lite, " + Constants.HESSIAN2_RECYCLE_KEY
+                    + " is ignored and a new Hessian2Output/Hessian2Input is created for every message. cause: " + t.getMessage(), t);
+            supported = false;
+        }
+        OUTPUT_STREAM = fields[0];
+        OUTPUT_OFFSET = fields[1];
+        OUTPUT_STREAMING = fields[2];
+        OUTPUT_CLASS_REFS = fields[3];
+        OUTPUT_TYPE_REFS = fields[4];
+        INPUT_STREAM = fields[5];
+        INPUT_OFFSET = fields[6];
+        INPUT_LENGTH = fields[7];
+        INPUT_STREAMING = fields[8];
+        INPUT_METHOD = fields[9];
+        INPUT_ARG_LENGTH = fields[10];
+        INPUT_CHUNK_READER = fields[11];
+        INPUT_CHUNK_INPUT_STREAM = fields[12];
+        INPUT_REPLY_FAULT = fields[13];
+        INPUT_LAST_CHUNK = fields[14];
+        INPUT_CHUNK_LENGTH = fields[15];
+        INPUT_REFS = fields[16];
+        INPUT_CLASS_DEFS = fields[17];
+        INPUT_TYPES = fields[18];
+        INPUT_STRING_BUFFER = fields[19];
+        SUPPORTED = supported;
+    }
+
+    private Hessian2Recycler() {
+    }
+
+    static boolean isSupported() {
+        return SUPPORTED;
+    }
+
+    static Hessian2Output newOutput(OutputStream os) {
+        Hessian2Output h2o = new Hessian2Output(os);
+        h2o.setSerializerFactory(Hessian2SerializerFactory.SERIALIZER_FACTORY);
+        return h2o;
+    }
+
+    static Hessian2Input newInput(InputStream is) {
+        Hessian2Input h2i = new Hessian2Input(is);
+        h2i.setSerializerFactory(Hessian2SerializerFactory.SERIALIZER_FACTORY);
+        return h2i;
+    }
+
+    static Hessian2Output borrowOutput(OutputStream os) {
+        Hessian2Output h2o = IDLE_OUTPUT.get();
+        if (h2o == null) {
+            return newOutput(os);
+        }
+        IDLE_OUTPUT.set(null);
+        try {
+            OUTPUT_STREAM.set(h2o, os);
+        } catch (IllegalAccessException e) {
+            return newOutput(os);
+        }
+        return h2o;
+    }
+
+    static Hessian2Input borrowInput(InputStream is) {
+        Hessian2Input h2i = IDLE_INPUT.get();
+        if (h2i == null) {
+            return newInput(is);
+        }
+        IDLE_INPUT.set(null);
+        try {
+            INPUT_STREAM.set(h2i, is);
+        } catch (IllegalAccessException e) {
+            return newInput(is);
+        }
+        return h2i;
+    }
+
+    /**
+     * Resets the output and makes it the idle output of the current thread. Bytes that were written but not flushed
+     * are dropped. The class and type tables are created lazily by hessian, they are dropped rather than cleared so
+     * that a large message does not leave large tables behind.
+     */
+    static void recycle(Hessian2Output h2o) {
+        if (!SUPPORTED) {
+            return;
+        }
+        try {
+            h2o.resetReferences();
+            OUTPUT_CLASS_REFS.set(h2o, null);
+            OUTPUT_TYPE_REFS.set(h2o, null);
+            OUTPUT_OFFSET.setInt(h2o, 0);
+            OUTPUT_STREAMING.setBoolean(h2o, false);
+            OUTPUT_STREAM.set(h2o, null);
+        } catch (Exception e) {
+            // leave it to the gc, a half reset output must not be reused
+            return;
+        }
+        IDLE_OUTPUT.set(h2o);
+    }
+
+    /**
+     * Resets the input and makes it the idle input of the current thread. Bytes that were buffered but not read are
+     * dropped, the lazily created reference, class and type tables are dropped as for the output.
+     */
+    static void recycle(Hessian2Input h2i) {
+        if (!SUPPORTED) {
+            return;
+        }
+        try {
+            // like the tables, the string buffer is given a fresh one: strings are read char by char through the
+            // synchronized StringBuffer, which is measurably slower on a long lived instance than on a new one
+            INPUT_STRING_BUFFER.set(h2i, new StringBuffer());
+            INPUT_REFS.set(h2i, null);
+            INPUT_CLASS_DEFS.set(h2i, null);
+            INPUT_TYPES.set(h2i, null);
+            INPUT_OFFSET.setInt(h2i, 0);
+            INPUT_LENGTH.setInt(h2i, 0);
+            INPUT_STREAMING.setBoolean(h2i, false);
+            INPUT_METHOD.set(h2i, null);
+            INPUT_ARG_LENGTH.setInt(h2i, 0);
+            INPUT_CHUNK_READER.set(h2i, null);
+            INPUT_CHUNK_INPUT_STREAM.set(h2i, null);
+            INPUT_REPLY_FAULT.set(h2i, null);
+            INPUT_LAST_CHUNK.setBoolean(h2i, false);
+            INPUT_CHUNK_LENGTH.setInt(h2i, 0);
+            INPUT_STREAM.set(h2i, null);
+        } catch (Exception e) {
+            return;
+        }
+        IDLE_INPUT.set(h2i);
+    }
+
+    private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+        Field field = type.getDeclaredField(name);
+        field.setAccessible(true);
+        return field;
+    }
+}
@@ -16,6 +16,7 @@
  */
 package org.apache.dubbo.common.serialize.hessian2;
 
+import org.apache.dubbo.common.Constants;
 import org.apache.dubbo.common.URL;
 import org.apache.dubbo.common.serialize.ObjectInput;
 import org.apache.dubbo.common.serialize.ObjectOutput;
@@ -41,12 +42,16 @@ public class Hessian2Serialization implements Serialization {
 
     @Override
     public ObjectOutput serialize(URL url, OutputStream out) throws IOException {
-        return new Hessian2ObjectOutput(out);
+        return new Hessian2ObjectOutput(out, isRecycle(url));
     }
 
     @Override
     public ObjectInput deserialize(URL url, InputStream is) throws IOException {
-        return new Hessian2ObjectInput(is);
+        return new Hessian2ObjectInput(is, isRecycle(url));
+    }
+
+    private static boolean isRecycle(URL url) {
+        return url != null && url.getParameter(Constants.HESSIAN2_RECYCLE_KEY, Constants.DEFAULT_HESSIAN2_RECYCLE);
     }
 
 }
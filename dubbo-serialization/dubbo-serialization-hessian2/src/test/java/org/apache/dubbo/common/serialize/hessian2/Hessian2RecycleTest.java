@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.hessian2;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.model.person.FullAddress;
+import org.apache.dubbo.common.model.person.Phone;
+import org.apache.dubbo.common.serialize.Cleanable;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+
+import com.alibaba.com.caucho.hessian.io.Hessian2Input;
+import com.alibaba.com.caucho.hessian.io.Hessian2Output;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+public class Hessian2RecycleTest {
+
+    private final Serialization serialization = new Hessian2Serialization();
+
+    private final URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService?" + Constants.HESSIAN2_RECYCLE_KEY + "=true");
+
+    private final List<Phone> phones = new ArrayList<Phone>(Arrays.asList(new Phone("86", "0571", "87654321", "001"),
+            new Phone("86", "0571", "87654322", "002")));
+
+    private final FullAddress address = new FullAddress("CN", "zj", "3480", "wensanlu", "315000");
+
+    @Before
+    public void setUp() {
+        Assert.assertTrue(Hessian2Recycler.isSupported());
+    }
+
+    @Test
+    public void testOutputIsReused() throws Exception {
+        ObjectOutput first = serialization.serialize(url, new ByteArrayOutputStream());
+        Hessian2Output h2o = output(first);
+        ((Cleanable) first).cleanup();
+
+        ObjectOutput second = serialization.serialize(url, new ByteArrayOutputStream());
+        Assert.assertSame(h2o, output(second));
+        ((Cleanable) second).cleanup();
+    }
+
+    @Test
+    public void testInputIsReused() throws Exception {
+        byte[] bytes = encode(phones);
+        ObjectInput first = serialization.deserialize(url, new ByteArrayInputStream(bytes));
+        Hessian2Input h2i = input(first);
+        first.readObject();
+        ((Cleanable) first).cleanup();
+
+        ObjectInput second = serialization.deserialize(url, new ByteArrayInputStream(bytes));
+        Assert.assertSame(h2i, input(second));
+        Assert.assertEquals(phones, second.readObject());
+        ((Cleanable) second).cleanup();
+    }
+
+    @Test
+    public void testNotReusedByDefault() throws Exception {
+        URL plain = URL.valueOf("dubbo://127.0.0.1:20880/DemoService");
+        ObjectOutput first = serialization.serialize(plain, new ByteArrayOutputStream());
+        Hessian2Output h2o = output(first);
+        ((Cleanable) first).cleanup();
+
+        ObjectOutput second = serialization.serialize(plain, new ByteArrayOutputStream());
+        Assert.assertNotSame(h2o, output(second));
+    }
+
+    @Test
+    public void testEveryMessageIsSelfContained() throws Exception {
+        // the second message must define Phone again, a plain Hessian2Input can not know the first one
+        byte[] first = encode(phones);
+        byte[] second = encode(phones);
+        Assert.assertArrayEquals(first, second);
+
+        ObjectInput in = new Hessian2ObjectInput(new ByteArrayInputStream(second));
+        Assert.assertEquals(phones, in.readObject());
+
+        // and the recycled input must not resolve class definitions of the previous message
+        Assert.assertEquals(phones, decode(first));
+        Assert.assertEquals(address, decode(encode(address)));
+        Assert.assertEquals(phones, decode(second));
+    }
+
+    @Test
+    public void testNestedBorrow() throws Exception {
+        ObjectOutput outer = serialization.serialize(url, new ByteArrayOutputStream());
+        ObjectOutput inner = serialization.serialize(url, new ByteArrayOutputStream());
+        Assert.assertNotSame(output(outer), output(inner));
+        ((Cleanable) inner).cleanup();
+        ((Cleanable) outer).cleanup();
+    }
+
+    @Test
+    public void testCleanupTwice() throws Exception {
+        ObjectOutput out = serialization.serialize(url, new ByteArrayOutputStream());
+        Hessian2Output h2o = output(out);
+        ((Cleanable) out).cleanup();
+        ((Cleanable) out).cleanup();
+
+        ObjectOutput first = serialization.serialize(url, new ByteArrayOutputStream());
+        ObjectOutput second = serialization.serialize(url, new ByteArrayOutputStream());
+        Assert.assertSame(h2o, output(first));
+        Assert.assertNotSame(h2o, output(second));
+    }
+
+    @Test
+    public void testUnflushedBytesAreDropped() throws Exception {
+        ObjectOutput out = serialization.serialize(url, new ByteArrayOutputStream());
+        out.writeObject(address);
+        ((Cleanable) out).cleanup();
+
+        Assert.assertEquals(phones, decode(encode(phones)));
+    }
+
+    @Test
+    public void testPartiallyReadInput() throws Exception {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutput out = serialization.serialize(url, bos);
+        out.writeObject(phones);
+        out.writeObject(address);
+        out.flushBuffer();
+        ((Cleanable) out).cleanup();
+
+        ObjectInput in = serialization.deserialize(url, new ByteArrayInputStream(bos.toByteArray()));
+        Assert.assertEquals(phones, in.readObject());
+        ((Cleanable) in).cleanup();
+
+        Assert.assertEquals(address, decode(encode(address)));
+    }
+
+    @Test
+    public void testDecodeInOtherThread() throws Exception {
+        // decode.in.io=false: the message is decoded and cleaned up in a business thread
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                final byte[] bytes = encode(i % 2 == 0 ? phones : address);
+                final Object expected = i % 2 == 0 ? phones : address;
+                Assert.assertEquals(expected, executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return decode(bytes);
+                    }
+                }).get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private byte[] encode(Object obj) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ObjectOutput out = serialization.serialize(url, bos);
+        out.writeObject(obj);
+        out.flushBuffer();
+        ((Cleanable) out).cleanup();
+        return bos.toByteArray();
+    }
+
+    private Object decode(byte[] bytes) throws Exception {
+        ObjectInput in = serialization.deserialize(url, new ByteArrayInputStream(bytes));
+        try {
+            return in.readObject();
+        } finally {
+            ((Cleanable) in).cleanup();
+        }
+    }
+
+    private static Hessian2Output output(ObjectOutput out) throws Exception {
+        Field field = Hessian2ObjectOutput.class.getDeclaredField("mH2o");
+        field.setAccessible(true);
+        return (Hessian2Output) field.get(out);
+    }
+
+    private static Hessian2Input input(ObjectInput in) throws Exception {
+        Field field = Hessian2ObjectInput.class.getDeclaredField("mH2i");
+        field.setAccessible(true);
+        return (Hessian2Input) field.get(in);
+    }
+}
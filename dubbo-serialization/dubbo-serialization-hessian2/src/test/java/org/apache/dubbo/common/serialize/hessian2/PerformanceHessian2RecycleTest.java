@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.hessian2;
+
+import org.apache.dubbo.common.Constants;
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.model.person.BigPerson;
+import org.apache.dubbo.common.model.person.FullAddress;
+import org.apache.dubbo.common.model.person.PersonInfo;
+import org.apache.dubbo.common.model.person.PersonStatus;
+import org.apache.dubbo.common.model.person.Phone;
+import org.apache.dubbo.common.serialize.Cleanable;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PerformanceHessian2RecycleTest, encodes and decodes a small and a larger DTO the way the codec does, with and
+ * without hessian2.recycle, and reports the time and the bytes allocated by the thread per round trip.
+ * <p>
+ * Run with -Dops=1000000
+ */
+public class PerformanceHessian2RecycleTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceHessian2RecycleTest.class);
+
+    private final Serialization serialization = new Hessian2Serialization();
+
+    @Test
+    public void testRecycle() throws Exception {
+        String ops = System.getProperty("ops");
+        if (ops == null) {
+            logger.warn("Please set -Dops=1000000");
+            return;
+        }
+        int count = Integer.parseInt(ops);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        URL url = URL.valueOf("dubbo://127.0.0.1:20880/DemoService");
+        Object phone = new Phone("86", "0571", "87654321", "001");
+        Object person = bigPerson();
+        for (int round = 0; round < 2; round++) {
+            for (Object dto : new Object[]{phone, person}) {
+                for (boolean recycle : new boolean[]{false, true}) {
+                    URL u = url.addParameter(Constants.HESSIAN2_RECYCLE_KEY, recycle);
+                    ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+                    long allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+                    long start = System.nanoTime();
+                    for (int i = 0; i < count; i++) {
+                        bos.reset();
+                        roundTrip(u, dto, bos);
+                    }
+                    long elapsed = System.nanoTime() - start;
+                    allocated = threadMXBean.getThreadAllocatedBytes(Thread.currentThread().getId()) - allocated;
+                    System.out.println("=====" + dto.getClass().getSimpleName() + " (" + bos.size() + " bytes)"
+                            + " recycle: " + recycle + " time/op: " + elapsed / count + "ns, allocated/op: "
+                            + allocated / count + " bytes");
+                }
+            }
+        }
+    }
+
+    private void roundTrip(URL url, Object dto, ByteArrayOutputStream bos) throws Exception {
+        ObjectOutput out = serialization.serialize(url, bos);
+        out.writeObject(dto);
+        out.flushBuffer();
+        ((Cleanable) out).cleanup();
+        ObjectInput in = serialization.deserialize(url, new ByteArrayInputStream(bos.toByteArray()));
+        in.readObject();
+        ((Cleanable) in).cleanup();
+    }
+
+    private static BigPerson bigPerson() {
+        List<Phone> phones = new ArrayList<Phone>();
+        phones.add(new Phone("86", "0571", "87654321", "001"));
+        phones.add(new Phone("86", "0571", "87654322", "002"));
+        PersonInfo info = new PersonInfo();
+        info.setPhones(phones);
+        info.setFax(new Phone("86", "0571", "87654321", null));
+        info.setFullAddress(new FullAddress("CN", "zj", "3480", "wensanlu", "315000"));
+        info.setMobileNo("13584652131");
+        info.setMale(true);
+        info.setDepartment("b2b");
+        info.setHomepageUrl("www.capcom.com");
+        info.setJobTitle("qa");
+        info.setName("superman");
+        BigPerson person = new BigPerson();
+        person.setPersonId("superman111");
+        person.setLoginName("superman");
+        person.setStatus(PersonStatus.ENABLED);
+        person.setEmail("sm@1.com");
+        person.setPenName("pname");
+        person.setInfoProfile(info);
+        return person;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff;
+
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.protostuff.utils.ProtostuffUtils;
+import org.apache.dubbo.common.serialize.protostuff.utils.Wrapper;
+
+import io.protostuff.GraphIOUtil;
+import io.protostuff.Schema;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+public class ProtostuffObjectInput implements ObjectInput {
+
+    private byte[] buffer = new byte[512];
+    private final DataInputStream input;
+
+    public ProtostuffObjectInput(InputStream inputStream) {
+        this.input = new DataInputStream(inputStream);
+    }
+
+    @Override
+    public boolean readBool() throws IOException {
+        return input.readBoolean();
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        return input.readByte();
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return input.readShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return input.readInt();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return input.readLong();
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return input.readFloat();
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return input.readDouble();
+    }
+
+    @Override
+    public byte[] readBytes() throws IOException {
+        int len = input.readInt();
+        if (len < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        input.readFully(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        byte[] bytes = readBytes();
+        return bytes == null ? null : new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object readObject() throws IOException, ClassNotFoundException {
+        int tag = input.readInt();
+        if (tag == ProtostuffUtils.NULL_TAG) {
+            return null;
+        }
+        if (tag == ProtostuffUtils.WRAPPER_TAG) {
+            Wrapper wrapper = read(Wrapper.SCHEMA);
+            return wrapper.getData();
+        }
+        Class<Object> clazz;
+        if (tag == ProtostuffUtils.CLASS_NAME_TAG) {
+            clazz = (Class<Object>) ProtostuffUtils.forName(readUTF());
+        } else {
+            clazz = (Class<Object>) ProtostuffUtils.getRegisteredClass(tag);
+            if (clazz == null) {
+                throw new IOException("Unknown class id " + tag
+                        + ", both sides have to register the same classes in the same order");
+            }
+        }
+        return read(ProtostuffUtils.getSchema(clazz));
+    }
+
+    private <T> T read(Schema<T> schema) throws IOException {
+        // GraphIOUtil.mergeDelimitedFrom can not read a message larger than the buffer given
+        int size = readVarint32();
+        if (size < 0) {
+            throw new IOException("Negative message size " + size);
+        }
+        if (size > buffer.length) {
+            buffer = new byte[Math.max(size, buffer.length * 2)];
+        }
+        input.readFully(buffer, 0, size);
+        T message = schema.newMessage();
+        try {
+            GraphIOUtil.mergeFrom(buffer, 0, size, message, schema);
+        } catch (RuntimeException e) {
+            throw new IOException("Failed to read " + schema.messageFullName(), e);
+        }
+        return message;
+    }
+
+    private int readVarint32() throws IOException {
+        int result = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            byte b = input.readByte();
+            result |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return result;
+            }
+        }
+        throw new IOException("Malformed message size");
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T readObject(Class<T> clazz) throws IOException, ClassNotFoundException {
+        return (T) readObject();
+    }
+
+    @Override
+    public <T> T readObject(Class<T> clazz, Type type) throws IOException, ClassNotFoundException {
+        return readObject(clazz);
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff;
+
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.protostuff.utils.ProtostuffUtils;
+import org.apache.dubbo.common.serialize.protostuff.utils.Wrapper;
+
+import io.protostuff.GraphIOUtil;
+import io.protostuff.LinkedBuffer;
+import io.protostuff.Schema;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ProtostuffObjectOutput implements ObjectOutput {
+
+    private final LinkedBuffer buffer = LinkedBuffer.allocate();
+    private final DataOutputStream output;
+
+    public ProtostuffObjectOutput(OutputStream outputStream) {
+        this.output = new DataOutputStream(outputStream);
+    }
+
+    @Override
+    public void writeBool(boolean v) throws IOException {
+        output.writeBoolean(v);
+    }
+
+    @Override
+    public void writeByte(byte v) throws IOException {
+        output.writeByte(v);
+    }
+
+    @Override
+    public void writeShort(short v) throws IOException {
+        output.writeShort(v);
+    }
+
+    @Override
+    public void writeInt(int v) throws IOException {
+        output.writeInt(v);
+    }
+
+    @Override
+    public void writeLong(long v) throws IOException {
+        output.writeLong(v);
+    }
+
+    @Override
+    public void writeFloat(float v) throws IOException {
+        output.writeFloat(v);
+    }
+
+    @Override
+    public void writeDouble(double v) throws IOException {
+        output.writeDouble(v);
+    }
+
+    @Override
+    public void writeBytes(byte[] v) throws IOException {
+        if (v == null) {
+            output.writeInt(-1);
+        } else {
+            writeBytes(v, 0, v.length);
+        }
+    }
+
+    @Override
+    public void writeBytes(byte[] v, int off, int len) throws IOException {
+        if (v == null) {
+            output.writeInt(-1);
+        } else {
+            output.writeInt(len);
+            output.write(v, off, len);
+        }
+    }
+
+    @Override
+    public void writeUTF(String v) throws IOException {
+        // DataOutput.writeUTF is limited to 64k
+        writeBytes(v == null ? null : v.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void writeObject(Object obj) throws IOException {
+        if (obj == null) {
+            output.writeInt(ProtostuffUtils.NULL_TAG);
+            return;
+        }
+        if (obj instanceof Throwable) {
+            // the stack trace is only filled in the field read by the schema once asked for
+            for (Throwable t = (Throwable) obj; t != null && t.getCause() != t; t = t.getCause()) {
+                t.getStackTrace();
+            }
+        }
+        Class<Object> clazz = (Class<Object>) obj.getClass();
+        if (ProtostuffUtils.needWrapper(clazz)) {
+            output.writeInt(ProtostuffUtils.WRAPPER_TAG);
+            write(new Wrapper(obj), Wrapper.SCHEMA);
+            return;
+        }
+        int id = ProtostuffUtils.getId(clazz);
+        if (id > 0) {
+            output.writeInt(id);
+        } else {
+            output.writeInt(ProtostuffUtils.CLASS_NAME_TAG);
+            writeUTF(clazz.getName());
+        }
+        write(obj, ProtostuffUtils.getSchema(clazz));
+    }
+
+    private <T> void write(T obj, Schema<T> schema) throws IOException {
+        try {
+            // the graph format keeps shared and cyclic references, as the other serializations do
+            GraphIOUtil.writeDelimitedTo(output, obj, schema, buffer);
+        } finally {
+            buffer.clear();
+        }
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+        output.flush();
+    }
+}
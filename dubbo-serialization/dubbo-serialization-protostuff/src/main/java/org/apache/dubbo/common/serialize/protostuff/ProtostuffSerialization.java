@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Serialization based on the runtime schemas of protostuff, the schema of each class is created once and cached.
+ * <p>
+ * The format is for Java peers only. Every object is preceded by a tag holding either its registration id or its
+ * Java class name, and is written with protostuff's graph encoding, whose reference markers let cyclic and shared
+ * objects round trip but are not part of protobuf. Other protobuf implementations can not read it.
+ * <p>
+ * Classes registered in {@link org.apache.dubbo.common.serialize.support.SerializableClassRegistry}, usually by a
+ * {@link org.apache.dubbo.common.serialize.support.SerializationOptimizer}, are written as an id instead of their
+ * name. Both sides have to register the same classes in the same order, as with kryo.
+ */
+public class ProtostuffSerialization implements Serialization {
+
+    @Override
+    public byte getContentTypeId() {
+        return 12;
+    }
+
+    @Override
+    public String getContentType() {
+        return "x-application/protostuff";
+    }
+
+    @Override
+    public ObjectOutput serialize(URL url, OutputStream out) throws IOException {
+        return new ProtostuffObjectOutput(out);
+    }
+
+    @Override
+    public ObjectInput deserialize(URL url, InputStream is) throws IOException {
+        return new ProtostuffObjectInput(is);
+    }
+}
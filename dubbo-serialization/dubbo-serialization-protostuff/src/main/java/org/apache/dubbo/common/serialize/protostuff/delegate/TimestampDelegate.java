@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff.delegate;
+
+import io.protostuff.Input;
+import io.protostuff.Output;
+import io.protostuff.Pipe;
+import io.protostuff.WireFormat;
+import io.protostuff.runtime.Delegate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+
+/**
+ * Writes {@link Timestamp} as 12 bytes, its time in milliseconds followed by its nanoseconds, so that neither the
+ * transient time of {@link java.util.Date} nor the precision below a millisecond is lost.
+ */
+public class TimestampDelegate implements Delegate<Timestamp> {
+
+    @Override
+    public WireFormat.FieldType getFieldType() {
+        return WireFormat.FieldType.BYTES;
+    }
+
+    @Override
+    public Timestamp readFrom(Input input) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(input.readByteArray());
+        Timestamp timestamp = new Timestamp(buffer.getLong());
+        timestamp.setNanos(buffer.getInt());
+        return timestamp;
+    }
+
+    @Override
+    public void writeTo(Output output, int number, Timestamp value, boolean repeated) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(12);
+        buffer.putLong(value.getTime());
+        buffer.putInt(value.getNanos());
+        output.writeByteArray(number, buffer.array(), repeated);
+    }
+
+    @Override
+    public void transfer(Pipe pipe, Input input, Output output, int number, boolean repeated) throws IOException {
+        input.transferByteRangeTo(output, false, number, repeated);
+    }
+
+    @Override
+    public Class<?> typeClass() {
+        return Timestamp.class;
+    }
+}
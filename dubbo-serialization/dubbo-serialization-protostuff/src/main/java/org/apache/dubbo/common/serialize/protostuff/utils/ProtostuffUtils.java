@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff.utils;
+
+import org.apache.dubbo.common.serialize.protostuff.delegate.SqlDateDelegate;
+import org.apache.dubbo.common.serialize.protostuff.delegate.TimeDelegate;
+import org.apache.dubbo.common.serialize.protostuff.delegate.TimestampDelegate;
+import org.apache.dubbo.common.serialize.support.SerializableClassRegistry;
+import org.apache.dubbo.common.utils.ReflectUtils;
+
+import io.protostuff.Schema;
+import io.protostuff.runtime.DefaultIdStrategy;
+import io.protostuff.runtime.RuntimeEnv;
+import io.protostuff.runtime.RuntimeSchema;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+public class ProtostuffUtils {
+
+    /**
+     * The tags written before every object. A positive tag is the id of a class registered in
+     * {@link SerializableClassRegistry}, counted from 1 in registration order, a class name tag is followed by the
+     * Java class name.
+     */
+    public static final int NULL_TAG = -1;
+
+    public static final int CLASS_NAME_TAG = -2;
+
+    public static final int WRAPPER_TAG = 0;
+
+    private static volatile Registrations registrations = new Registrations(new Class<?>[0]);
+
+    static {
+        // before any schema is created, they are bound to the delegates available at that time
+        if (RuntimeEnv.ID_STRATEGY instanceof DefaultIdStrategy) {
+            DefaultIdStrategy strategy = (DefaultIdStrategy) RuntimeEnv.ID_STRATEGY;
+            strategy.registerDelegate(new TimeDelegate());
+            strategy.registerDelegate(new SqlDateDelegate());
+            strategy.registerDelegate(new TimestampDelegate());
+        }
+    }
+
+    private ProtostuffUtils() {
+    }
+
+    /**
+     * Only plain classes are written as a message of their own. Values protostuff has no message schema for, like
+     * strings, boxed primitives, enums, arrays, collections and maps, are written as the field of a {@link Wrapper}.
+     */
+    public static boolean needWrapper(Class<?> clazz) {
+        return clazz.isArray()
+                || clazz.isEnum()
+                || Collection.class.isAssignableFrom(clazz)
+                || Map.class.isAssignableFrom(clazz)
+                || clazz.getName().startsWith("java.");
+    }
+
+    public static <T> Schema<T> getSchema(Class<T> clazz) {
+        // runtime schemas are created once per class and cached by protostuff
+        return RuntimeSchema.getSchema(clazz);
+    }
+
+    /**
+     * @return the id of the class, or 0 if it is not registered
+     */
+    public static int getId(Class<?> clazz) {
+        Integer id = getRegistrations().ids.get(clazz);
+        return id == null ? 0 : id;
+    }
+
+    /**
+     * @return the class registered with the id, or null if there is none
+     */
+    public static Class<?> getRegisteredClass(int id) {
+        Class<?>[] classes = getRegistrations().classes;
+        return id < 1 || id > classes.length ? null : classes[id - 1];
+    }
+
+    public static Class<?> forName(String name) throws ClassNotFoundException {
+        return ReflectUtils.name2class(name);
+    }
+
+    /**
+     * Classes are only registered at startup, and only ever added, so a changed size means new registrations.
+     */
+    private static Registrations getRegistrations() {
+        Registrations current = registrations;
+        Set<Class> registered = SerializableClassRegistry.getRegisteredClasses();
+        if (current.classes.length != registered.size()) {
+            synchronized (ProtostuffUtils.class) {
+                current = registrations;
+                if (current.classes.length != registered.size()) {
+                    current = new Registrations(registered.toArray(new Class<?>[0]));
+                    registrations = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static class Registrations {
+
+        private final Class<?>[] classes;
+
+        private final Map<Class<?>, Integer> ids;
+
+        private Registrations(Class<?>[] classes) {
+            this.classes = classes;
+            this.ids = new HashMap<Class<?>, Integer>(classes.length * 2);
+            for (int i = 0; i < classes.length; i++) {
+                ids.put(classes[i], i + 1);
+                if (!needWrapper(classes[i])) {
+                    // create the schemas of the registered classes up front
+                    getSchema(classes[i]);
+                }
+            }
+        }
+    }
+}
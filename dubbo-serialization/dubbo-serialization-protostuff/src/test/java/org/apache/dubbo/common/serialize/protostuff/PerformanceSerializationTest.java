@@ -0,0 +1,173 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff;
+
+import org.apache.dubbo.common.URL;
+import org.apache.dubbo.common.logger.Logger;
+import org.apache.dubbo.common.logger.LoggerFactory;
+import org.apache.dubbo.common.model.media.Image;
+import org.apache.dubbo.common.model.media.Media;
+import org.apache.dubbo.common.model.media.MediaContent;
+import org.apache.dubbo.common.model.person.BigPerson;
+import org.apache.dubbo.common.model.person.FullAddress;
+import org.apache.dubbo.common.model.person.PersonInfo;
+import org.apache.dubbo.common.model.person.PersonStatus;
+import org.apache.dubbo.common.model.person.Phone;
+import org.apache.dubbo.common.serialize.Cleanable;
+import org.apache.dubbo.common.serialize.ObjectInput;
+import org.apache.dubbo.common.serialize.ObjectOutput;
+import org.apache.dubbo.common.serialize.Serialization;
+import org.apache.dubbo.common.serialize.fastjson.FastJsonSerialization;
+import org.apache.dubbo.common.serialize.fst.FstSerialization;
+import org.apache.dubbo.common.serialize.hessian2.Hessian2Serialization;
+import org.apache.dubbo.common.serialize.java.CompactedJavaSerialization;
+import org.apache.dubbo.common.serialize.java.JavaSerialization;
+import org.apache.dubbo.common.serialize.kryo.KryoSerialization;
+
+import junit.framework.TestCase;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * PerformanceSerializationTest, writes and reads a small, a nested and a collection heavy DTO with every
+ * serialization in the tree, and reports the encoded size, the time to serialize and to deserialize, and the bytes
+ * allocated by the thread per round trip.
+ * <p>
+ * Run with -Dops=200000
+ */
+public class PerformanceSerializationTest extends TestCase {
+
+    private static final Logger logger = LoggerFactory.getLogger(PerformanceSerializationTest.class);
+
+    private static final URL URL = org.apache.dubbo.common.URL.valueOf("dubbo://127.0.0.1:20880/DemoService");
+
+    private final List<Serialization> serializations = Arrays.asList(new Hessian2Serialization(),
+            new FastJsonSerialization(), new FstSerialization(), new KryoSerialization(), new JavaSerialization(),
+            new CompactedJavaSerialization(), new ProtostuffSerialization());
+
+    @Test
+    public void testSerializations() throws Exception {
+        String ops = System.getProperty("ops");
+        if (ops == null) {
+            logger.warn("Please set -Dops=200000");
+            return;
+        }
+        int count = Integer.parseInt(ops);
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        Object[] dtos = new Object[]{new Phone("86", "0571", "87654321", "001"), bigPerson(), mediaContent()};
+        for (int round = 0; round < 2; round++) {
+            for (Object dto : dtos) {
+                for (Serialization serialization : serializations) {
+                    ByteArrayOutputStream bos = new ByteArrayOutputStream(1024);
+                    long allocated = threadMXBean.getThreadAllocatedBytes(thread);
+                    long start = System.nanoTime();
+                    for (int i = 0; i < count; i++) {
+                        bos.reset();
+                        write(serialization, dto, bos);
+                    }
+                    long written = System.nanoTime();
+                    byte[] bytes = bos.toByteArray();
+                    for (int i = 0; i < count; i++) {
+                        read(serialization, dto.getClass(), bytes);
+                    }
+                    long read = System.nanoTime();
+                    allocated = threadMXBean.getThreadAllocatedBytes(thread) - allocated;
+                    System.out.println("=====" + dto.getClass().getSimpleName() + " " + serialization.getContentType()
+                            + " bytes: " + bytes.length + ", serialize/op: " + (written - start) / count
+                            + "ns, deserialize/op: " + (read - written) / count + "ns, allocated/op: "
+                            + allocated / count + " bytes");
+                }
+            }
+        }
+    }
+
+    private static void write(Serialization serialization, Object dto, ByteArrayOutputStream bos) throws Exception {
+        ObjectOutput out = serialization.serialize(URL, bos);
+        out.writeObject(dto);
+        out.flushBuffer();
+        if (out instanceof Cleanable) {
+            ((Cleanable) out).cleanup();
+        }
+    }
+
+    private static void read(Serialization serialization, Class<?> type, byte[] bytes) throws Exception {
+        ObjectInput in = serialization.deserialize(URL, new ByteArrayInputStream(bytes));
+        in.readObject(type);
+        if (in instanceof Cleanable) {
+            ((Cleanable) in).cleanup();
+        }
+    }
+
+    private static BigPerson bigPerson() {
+        List<Phone> phones = new ArrayList<Phone>();
+        phones.add(new Phone("86", "0571", "87654321", "001"));
+        phones.add(new Phone("86", "0571", "87654322", "002"));
+        PersonInfo info = new PersonInfo();
+        info.setPhones(phones);
+        info.setFax(new Phone("86", "0571", "87654321", null));
+        info.setFullAddress(new FullAddress("CN", "zj", "3480", "wensanlu", "315000"));
+        info.setMobileNo("13584652131");
+        info.setMale(true);
+        info.setDepartment("b2b");
+        info.setHomepageUrl("www.capcom.com");
+        info.setJobTitle("qa");
+        info.setName("superman");
+        BigPerson person = new BigPerson();
+        person.setPersonId("superman111");
+        person.setLoginName("superman");
+        person.setStatus(PersonStatus.ENABLED);
+        person.setEmail("sm@1.com");
+        person.setPenName("pname");
+        person.setInfoProfile(info);
+        return person;
+    }
+
+    private static MediaContent mediaContent() {
+        Media media = new Media();
+        media.setUri("uri://中华人民共和国");
+        media.setTitle("title");
+        media.setWidth(1239);
+        media.setHeight(1938);
+        media.setFormat("format-xxxx");
+        media.setDuration(93419235);
+        media.setSize(3477897);
+        media.setBitrate(94523);
+        media.setPersons(Arrays.asList("jerry", "tom", "lucy"));
+        media.setCopyright("1999-2011");
+        media.setPlayer(Media.Player.FLASH);
+        List<Image> images = new ArrayList<Image>();
+        for (int i = 0; i < 10; ++i) {
+            Image image = new Image();
+            image.setUri("url" + i);
+            if (i % 2 == 0) {
+                image.setTitle("title" + i);
+            }
+            image.setWidth(34 + i);
+            image.setHeight(2323 + i);
+            image.setSize((i % 2 == 0) ? Image.Size.SMALL : Image.Size.LARGE);
+            images.add(image);
+        }
+        return new MediaContent(media, images);
+    }
+}
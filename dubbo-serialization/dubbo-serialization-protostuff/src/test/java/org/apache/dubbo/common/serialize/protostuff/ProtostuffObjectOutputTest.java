@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.dubbo.common.serialize.protostuff;
+
+import org.apache.dubbo.common.model.BizException;
+import org.apache.dubbo.common.model.Person;
+import org.apache.dubbo.common.serialize.protostuff.utils.ProtostuffUtils;
+import org.apache.dubbo.common.serialize.support.SerializableClassRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.Timestamp;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ProtostuffObjectOutputTest {
+    private ProtostuffObjectOutput protostuffObjectOutput;
+    private ProtostuffObjectInput protostuffObjectInput;
+    private ByteArrayOutputStream byteArrayOutputStream;
+
+    @Before
+    public void setUp() {
+        this.byteArrayOutputStream = new ByteArrayOutputStream();
+        this.protostuffObjectOutput = new ProtostuffObjectOutput(byteArrayOutputStream);
+    }
+
+    @Test
+    public void testRegisteredClassWrittenAsId() throws Exception {
+        this.protostuffObjectOutput.writeObject(new Person());
+        this.protostuffObjectOutput.flushBuffer();
+        int named = byteArrayOutputStream.size();
+
+        SerializableClassRegistry.registerClass(Person.class);
+        int id = ProtostuffUtils.getId(Person.class);
+        assertTrue(id > 0);
+
+        this.setUp();
+        this.protostuffObjectOutput.writeObject(new Person());
+        this.flushToInput();
+        assertThat(byteArrayOutputStream.size(), is(named - 4 - Person.class.getName().length()));
+        assertThat(this.protostuffObjectInput.readObject(Person.class), is(new Person()));
+    }
+
+    @Test
+    public void testUnknownClassId() throws Exception {
+        new DataOutputStream(byteArrayOutputStream).writeInt(Integer.MAX_VALUE);
+        this.flushToInput();
+        try {
+            this.protostuffObjectInput.readObject();
+            fail();
+        } catch (IOException expected) {
+            assertTrue(expected.getMessage().contains(String.valueOf(Integer.MAX_VALUE)));
+        }
+    }
+
+    @Test
+    public void testException() throws Exception {
+        BizException exception = new BizException("biz failure");
+        this.protostuffObjectOutput.writeObject(exception);
+        this.flushToInput();
+
+        BizException result = this.protostuffObjectInput.readObject(BizException.class);
+        assertThat(result.getMessage(), is("biz failure"));
+        assertThat(result.getStackTrace().length, is(exception.getStackTrace().length));
+    }
+
+    @Test
+    public void testTimestampNanos() throws Exception {
+        Timestamp timestamp = new Timestamp(System.currentTimeMillis());
+        timestamp.setNanos(123456789);
+        this.protostuffObjectOutput.writeObject(timestamp);
+        this.flushToInput();
+
+        Timestamp result = this.protostuffObjectInput.readObject(Timestamp.class);
+        assertThat(result, is(timestamp));
+        assertThat(result.getNanos(), is(123456789));
+    }
+
+    @Test
+    public void testLongUTF() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 70000; i++) {
+            builder.append('中');
+        }
+        this.protostuffObjectOutput.writeUTF(builder.toString());
+        this.protostuffObjectOutput.writeUTF(null);
+        this.flushToInput();
+
+        assertThat(this.protostuffObjectInput.readUTF(), is(builder.toString()));
+        assertThat(this.protostuffObjectInput.readUTF(), is((String) null));
+    }
+
+    private void flushToInput() throws IOException {
+        this.protostuffObjectOutput.flushBuffer();
+        this.protostuffObjectInput = new ProtostuffObjectInput(new ByteArrayInputStream(byteArrayOutputStream.toByteArray()));
+    }
+}